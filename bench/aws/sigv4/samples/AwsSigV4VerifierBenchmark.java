@@ -0,0 +1,85 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.credentials.CredentialsResolver;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4VerifierResult;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of {@link AwsSigV4Verifier#verify} for requests signed by
+ * {@link NativeAwsSigV4Signer}, over small payloads and 0 to 50 extra headers. The signing time is fixed, and requests
+ * are verified at that time, so the measured path is the steady state verification of a valid request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AwsSigV4VerifierBenchmark {
+
+    @Param({"0", "1024"})
+    private int payloadSize;
+
+    @Param({"0", "10", "50"})
+    private int headerCount;
+
+    private AwsSigV4Verifier verifier;
+
+    private AwsSigV4SignerInput receivedInput;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        var credentials = new BasicSessionCredentials("ASIAEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY",
+                "session-token");
+        var clock = Clock.fixed(Clock.systemUTC().instant(), Clock.systemUTC().getZone());
+        verifier = new AwsSigV4Verifier(CredentialsResolver.of(credentials), clock,
+                AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW);
+
+        var payload = "x".repeat(payloadSize);
+        var headers = new HashMap<String, String>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("x-benchmark-header-" + i, "value-" + i);
+        }
+        var input = input(payload).requestHeaderMap(headers).build();
+        var signedHeaders = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(credentials), clock)
+                .sign(input).getRequestHeaderMap();
+        receivedInput = input(payload).requestHeaderMap(signedHeaders).build();
+
+        if (!verifier.verify(receivedInput).isValid()) {
+            throw new IllegalStateException("The benchmarked request doesn't verify.");
+        }
+    }
+
+    @Benchmark
+    public AwsSigV4VerifierResult verify() throws Exception {
+        return verifier.verify(receivedInput);
+    }
+
+    private static AwsSigV4SignerInput.AwsSigV4SignerInputBuilder input(final String payload) {
+        return AwsSigV4SignerInput.builder()
+                .requestPayload(payload)
+                .requestEndpoint("https://example.execute-api.us-east-1.amazonaws.com")
+                .requestResourcePath("/prod/partners/benchmark")
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName("us-east-1");
+    }
+}
@@ -0,0 +1,81 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.SignedHeaders;
+import aws.sigv4.samples.signing.HeaderTemplate;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of {@link NativeAwsSigV4Signer#signHeaders} for requests with 20 to 40 headers,
+ * one of which is a correlation id, passed either in a header map or with a {@link HeaderTemplate} of the other
+ * headers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeaderTemplateBenchmark {
+
+    @Param({"false", "true"})
+    private boolean headerTemplate;
+
+    @Param({"20", "40"})
+    private int headerCount;
+
+    private NativeAwsSigV4Signer signer;
+
+    private AwsSigV4SignerInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials("ASIAEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY",
+                        "session-token")));
+
+        var fixedHeaders = new HashMap<String, String>();
+        for (int i = 1; i < headerCount; i++) {
+            fixedHeaders.put("X-Benchmark-Header-" + i, "value  " + i);
+        }
+        var variableHeaders = Map.of("X-Correlation-Id", "2f0c9b8e-5c1d-4d7a-9a43-0e8f3c1a7b6d");
+        var builder = AwsSigV4SignerInput.builder()
+                .requestPayload("{\"partnerId\": 42}")
+                .requestEndpoint("https://example.execute-api.us-east-1.amazonaws.com")
+                .requestResourcePath("/prod/partners/benchmark")
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName("us-east-1");
+        if (headerTemplate) {
+            builder.headerTemplate(HeaderTemplate.compile(fixedHeaders, variableHeaders.keySet()))
+                    .requestHeaderMap(variableHeaders);
+        } else {
+            var headers = new HashMap<>(fixedHeaders);
+            headers.putAll(variableHeaders);
+            builder.requestHeaderMap(headers);
+        }
+        input = builder.build();
+    }
+
+    @Benchmark
+    public SignedHeaders signHeaders() throws Exception {
+        return signer.signHeaders(input);
+    }
+}
@@ -0,0 +1,93 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.IamRoleBasedAwsSigV4SignerConfig;
+import aws.sigv4.samples.models.RequestBody;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of {@link AwsSigV4Signer#sign} for the SDK based signers, over payload sizes
+ * from empty to 100 MB and 0 to 50 extra headers. Session credentials come from {@link StubAwsSecurityTokenService}
+ * and are cached after the first call, so the measured path is the steady state signing path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignerBenchmark {
+
+    public enum SignerType {
+        CREDENTIAL_PROVIDER,
+        IAM_ROLE
+    }
+
+    @Param({"CREDENTIAL_PROVIDER", "IAM_ROLE"})
+    private SignerType signerType;
+
+    @Param({"0", "1024", "1048576", "104857600"})
+    private int payloadSize;
+
+    @Param({"0", "10", "50"})
+    private int headerCount;
+
+    private AwsSigV4Signer signer;
+
+    private AwsSigV4SignerInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        signer = signerType == SignerType.CREDENTIAL_PROVIDER
+                ? new CredentialProviderBasedAwsSigV4Signer(new AWSStaticCredentialsProvider(
+                        new BasicSessionCredentials("ASIAEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY",
+                                "session-token")))
+                : new IamRoleBasedAwsSigV4Signer(new StubAwsSecurityTokenService(),
+                        IamRoleBasedAwsSigV4SignerConfig.builder()
+                                .iamRoleAnr("arn:aws:iam::123456789012:role/benchmark")
+                                .assumeRoleSessionName("benchmark")
+                                .build());
+
+        var payload = new byte[payloadSize];
+        new Random(42L).nextBytes(payload);
+        var headers = new HashMap<String, String>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("x-benchmark-header-" + i, "value-" + i);
+        }
+        input = AwsSigV4SignerInput.builder()
+                .requestBody(RequestBody.fromBytes(payload))
+                .requestEndpoint("https://example.execute-api.us-east-1.amazonaws.com")
+                .requestResourcePath("/prod/partners/benchmark")
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName("us-east-1")
+                .requestHeaderMap(headers)
+                .build();
+
+        // Loads the session credentials, so the first measured call doesn't assume the role.
+        signer.sign(input);
+    }
+
+    @Benchmark
+    public AwsSigV4SignerOutput sign() throws Exception {
+        return signer.sign(input);
+    }
+}
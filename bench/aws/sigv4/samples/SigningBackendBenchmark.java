@@ -0,0 +1,80 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.signing.SigningBackends;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of {@link CredentialProviderBasedAwsSigV4Signer#sign} with each
+ * {@link SigningBackends} side by side, over string payloads from empty to 1 MB and 0 to 50 extra headers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningBackendBenchmark {
+
+    @Param({"SDK_V1", "SDK_V2"})
+    private SigningBackends backend;
+
+    @Param({"0", "1024", "1048576"})
+    private int payloadSize;
+
+    @Param({"0", "10", "50"})
+    private int headerCount;
+
+    private AwsSigV4Signer signer;
+
+    private AwsSigV4SignerInput input;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        signer = new CredentialProviderBasedAwsSigV4Signer(new AWSStaticCredentialsProvider(
+                new BasicSessionCredentials("ASIAEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY",
+                        "session-token")), backend);
+
+        var payload = new char[payloadSize];
+        var random = new Random(42L);
+        for (int i = 0; i < payloadSize; i++) {
+            payload[i] = (char) ('a' + random.nextInt(26));
+        }
+        var headers = new HashMap<String, String>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("x-benchmark-header-" + i, "value-" + i);
+        }
+        input = AwsSigV4SignerInput.builder()
+                .requestPayload(new String(payload))
+                .requestEndpoint("https://example.execute-api.us-east-1.amazonaws.com")
+                .requestResourcePath("/prod/partners/benchmark")
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName("us-east-1")
+                .requestHeaderMap(headers)
+                .build();
+    }
+
+    @Benchmark
+    public AwsSigV4SignerOutput sign() throws Exception {
+        return signer.sign(input);
+    }
+}
@@ -0,0 +1,34 @@
+package aws.sigv4.samples;
+
+import com.amazonaws.services.securitytoken.AbstractAWSSecurityTokenService;
+import com.amazonaws.services.securitytoken.model.AssumeRoleRequest;
+import com.amazonaws.services.securitytoken.model.AssumeRoleResult;
+import com.amazonaws.services.securitytoken.model.Credentials;
+import java.time.Duration;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process STS answering AssumeRole with fresh session credentials, so benchmarks measure signing rather than
+ * network calls.
+ */
+public class StubAwsSecurityTokenService extends AbstractAWSSecurityTokenService {
+
+    private static final Duration SESSION_DURATION = Duration.ofHours(1);
+
+    private final AtomicLong assumeRoleCalls = new AtomicLong();
+
+    @Override
+    public AssumeRoleResult assumeRole(final AssumeRoleRequest request) {
+        var call = assumeRoleCalls.incrementAndGet();
+        return new AssumeRoleResult().withCredentials(new Credentials()
+                .withAccessKeyId("ASIASTUB" + call)
+                .withSecretAccessKey("wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY")
+                .withSessionToken("stub-session-token-" + request.getRoleSessionName() + "-" + call)
+                .withExpiration(new Date(System.currentTimeMillis() + SESSION_DURATION.toMillis())));
+    }
+
+    public long getAssumeRoleCalls() {
+        return assumeRoleCalls.get();
+    }
+}
@@ -0,0 +1,101 @@
+package aws.sigv4.samples.factory;
+
+import aws.sigv4.samples.AwsSigV4Signer;
+import aws.sigv4.samples.StubAwsSecurityTokenService;
+import aws.sigv4.samples.credentials.CredentialsRefreshScheduler;
+import aws.sigv4.samples.models.RoleChainHop;
+import com.amazonaws.auth.AWSSessionCredentialsProvider;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput and latency percentiles of {@link RoleChainBasedAwsSigV4SignerFactory#getAwsSigV4Signer} lookups, for
+ * the first level role and for partner roles spread over caches of different sizes, with every role assumed through
+ * {@link StubAwsSecurityTokenService}. All roles are looked up once before measuring, so the measured path is the
+ * cache hit path requests take in steady state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RoleChainBasedAwsSigV4SignerFactoryBenchmark {
+
+    private static final String REGION = "us-east-1";
+
+    @Param({"1", "100", "1000"})
+    private int partnerCount;
+
+    private RoleChainBasedAwsSigV4SignerFactory factory;
+
+    private String[] partnerRoleArns;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var stsClient = new StubAwsSecurityTokenService();
+        // Refreshes are pushed out of the measurement, as they'd only add background AssumeRole calls.
+        var refreshScheduler = new CredentialsRefreshScheduler(Executors.newSingleThreadScheduledExecutor(),
+                Duration.ofDays(1), Duration.ofHours(1), Duration.ZERO);
+        factory = new RoleChainBasedAwsSigV4SignerFactory("arn:aws:iam::123456789012:role/first-level",
+                Caffeine.newBuilder().build(), "default-session", "partner-session", refreshScheduler) {
+            @Override
+            STSAssumeRoleSessionCredentialsProvider newCredentialsProvider(final RoleChainHop hop,
+                    final STSAssumeRoleSessionCredentialsProvider.Builder builder) {
+                // Only the first hop is built without an STS client, later hops use the one of newStsClient.
+                return super.newCredentialsProvider(hop, builder.withStsClient(stsClient));
+            }
+
+            @Override
+            AWSSecurityTokenService newStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                                                 final String region) {
+                return stsClient;
+            }
+        };
+
+        partnerRoleArns = new String[partnerCount];
+        for (int i = 0; i < partnerCount; i++) {
+            partnerRoleArns[i] = "arn:aws:iam::123456789012:role/partner-" + i;
+            factory.getAwsSigV4Signer(partnerRoleArns[i], REGION);
+        }
+        factory.getAwsSigV4Signer((String) null, REGION);
+    }
+
+    @State(Scope.Thread)
+    public static class PartnerCursor {
+        private int next;
+
+        int next(final int partnerCount) {
+            next = next + 1 == partnerCount ? 0 : next + 1;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public AwsSigV4Signer getFirstLevelSigner() {
+        return factory.getAwsSigV4Signer((String) null, REGION);
+    }
+
+    @Benchmark
+    public AwsSigV4Signer getPartnerSigner(final PartnerCursor cursor) {
+        return factory.getAwsSigV4Signer(partnerRoleArns[cursor.next(partnerCount)], REGION);
+    }
+}
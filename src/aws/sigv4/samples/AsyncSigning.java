@@ -0,0 +1,53 @@
+package aws.sigv4.samples;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Helpers for {@link AwsSigV4Signer#signAsync}, completing futures with the checked exceptions of the signing steps
+ * as their cause.
+ */
+final class AsyncSigning {
+
+    private AsyncSigning() {
+    }
+
+    /**
+     * A step which may throw the signer's checked exceptions.
+     */
+    @FunctionalInterface
+    interface Step<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Runs {@code step} on the calling thread, returning a completed future.
+     */
+    static <T> CompletableFuture<T> completeInline(final Step<T> step) {
+        try {
+            return CompletableFuture.completedFuture(step.run());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs {@code step} on {@code executor}.
+     */
+    static <T> CompletableFuture<T> supplyAsync(final Step<T> step, final Executor executor) {
+        var future = new CompletableFuture<T>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(step.run());
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
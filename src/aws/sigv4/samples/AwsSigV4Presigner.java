@@ -0,0 +1,156 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.PresignContext;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class for presigning requests with AWS SigV4 algorithm, using the credentials of a credentials provider. The
+ * signature is carried in the query parameters of the returned URL instead of request headers, so the URL can be
+ * handed out to systems without AWS credentials, until it expires.
+ * <p>
+ * {@link #presignAll} presigns batches of URLs with a single signing time, computing the signing key, credential scope
+ * and shared query parameters once per region and service instead of for every URL.
+ */
+@AllArgsConstructor
+@Log4j2
+public class AwsSigV4Presigner {
+
+    @NonNull
+    private final AWSCredentialsProvider credentialsProvider;
+
+    @NonNull
+    private final Clock clock;
+
+    public AwsSigV4Presigner(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, Clock.systemUTC());
+    }
+
+    /**
+     * Presigns a request, returning its URL and the headers which must be sent with it. The URL expires after
+     * {@code expiresIn}, at most 7 days.
+     * <p>
+     * Payloads are passed the same way as for {@link AwsSigV4Signer#sign}, typically as {@code unsignedPayload}. The
+     * payload hash isn't sent in an x-amz-content-sha256 header, as presigned requests don't need one.
+     */
+    public AwsSigV4SignerOutput presign(@NonNull final AwsSigV4SignerInput input, @NonNull final Duration expiresIn)
+            throws PartnerGatewayInvalidInputException, PartnerGatewayConfigurationException {
+
+        log.debug("Starting AWS SigV4 presigning process.");
+        var expiresInSeconds = validateExpiresIn(expiresIn);
+        var credentials = getCredentials();
+        var context = PresignContext.create(credentials, input.getRegionName(), input.getServiceName(),
+                clock.millis(), expiresInSeconds);
+        return presign(input, context);
+    }
+
+    /**
+     * Presigns a batch of requests on the calling thread. Same as
+     * {@link #presignAll(Collection, Duration, ForkJoinPool)} without pool.
+     */
+    public List<AwsSigV4SignerResult> presignAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                                 @NonNull final Duration expiresIn) {
+        return presignAll(inputs, expiresIn, null);
+    }
+
+    /**
+     * Presigns a batch of requests, returning one result per input in input order, all signed at the same time and
+     * expiring after {@code expiresIn}. A failed input doesn't fail the batch, its error is reported in its result
+     * instead.
+     *
+     * @param pool pool to presign on in parallel, or null to presign on the calling thread.
+     */
+    public List<AwsSigV4SignerResult> presignAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                                 @NonNull final Duration expiresIn, final ForkJoinPool pool) {
+        log.debug("Starting AWS SigV4 batch presigning process for {} inputs.", inputs.size());
+        long expiresInSeconds;
+        AWSCredentials credentials;
+        try {
+            expiresInSeconds = validateExpiresIn(expiresIn);
+            credentials = getCredentials();
+        } catch (PartnerGatewayInvalidInputException | PartnerGatewayConfigurationException | RuntimeException e) {
+            return BatchSigning.failAll(inputs, e);
+        }
+
+        var signingTimeMillis = clock.millis();
+        return BatchSigning.signAll(inputs, pool, (regionName, serviceName) -> {
+            var context = PresignContext.create(credentials, regionName, serviceName, signingTimeMillis,
+                    expiresInSeconds);
+            return input -> presign(input, context);
+        });
+    }
+
+    private AwsSigV4SignerOutput presign(final AwsSigV4SignerInput input, final PresignContext context)
+            throws PartnerGatewayInvalidInputException {
+        input.validatePayload();
+        var requestUri = parseEndpoint(input);
+
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        Optional.ofNullable(input.resolveHeaderMap()).ifPresent(headers::putAll);
+
+        var engine = SigV4SigningEngine.get();
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        var presignedUrl = payloadHash != null
+                ? engine.presignWithPayloadHash(context, input.getRequestMethod(), requestUri,
+                        input.getRequestResourcePath(), headers, payloadHash)
+                : engine.presign(context, input.getRequestMethod(), requestUri, input.getRequestResourcePath(),
+                        headers, input.getRequestPayload());
+        return AwsSigV4SignerOutput.builder().requestHeaderMap(headers).presignedUrl(presignedUrl).build();
+    }
+
+    private AWSCredentials getCredentials() throws PartnerGatewayConfigurationException {
+        var credentials = credentialsProvider.getCredentials();
+        if (credentials instanceof AnonymousAWSCredentials) {
+            throw new PartnerGatewayConfigurationException("Presigning requires non anonymous credentials.");
+        }
+        return credentials;
+    }
+
+    private static long validateExpiresIn(final Duration expiresIn) throws PartnerGatewayInvalidInputException {
+        var expiresInSeconds = expiresIn.getSeconds();
+        if (expiresIn.getNano() != 0 || expiresInSeconds <= 0
+                || expiresInSeconds > PresignContext.MAX_EXPIRES_IN_SECONDS) {
+            throw new PartnerGatewayInvalidInputException(String.format(
+                    "Invalid expiry passed: %s, presigned URLs must expire after a whole number of seconds, "
+                            + "within 7 days.", expiresIn));
+        }
+        return expiresInSeconds;
+    }
+
+    private static URI parseEndpoint(final AwsSigV4SignerInput input) throws PartnerGatewayInvalidInputException {
+        URI requestUri;
+        try {
+            requestUri = new URI(input.getRequestEndpoint());
+        } catch (URISyntaxException e) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Invalid request endpoint passed in Input: %s", input.getRequestEndpoint()),
+                    e);
+        }
+
+        if (requestUri.getHost() == null) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Request endpoint passed in Input has no host: %s", input.getRequestEndpoint()));
+        }
+        return requestUri;
+    }
+}
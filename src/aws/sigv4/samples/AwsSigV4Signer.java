@@ -1,10 +1,17 @@
 package aws.sigv4.samples;
 
+import aws.sigv4.samples.credentials.CredentialsExecutors;
 import aws.sigv4.samples.models.AwsSigV4SignerInput;
 import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.models.SignedHeaders;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayDependencyException;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import lombok.NonNull;
 
 /**
@@ -18,4 +25,45 @@ public interface AwsSigV4Signer {
     AwsSigV4SignerOutput sign(@NonNull AwsSigV4SignerInput input)
             throws PartnerGatewayConfigurationException, PartnerGatewayDependencyException,
             PartnerGatewayInvalidInputException;
+
+    /**
+     * Signs like {@link #sign}, returning only the headers added by signing, to be sent along with the input's
+     * headers.
+     */
+    default SignedHeaders signHeaders(@NonNull AwsSigV4SignerInput input)
+            throws PartnerGatewayConfigurationException, PartnerGatewayDependencyException,
+            PartnerGatewayInvalidInputException {
+        return SignedHeaders.from(sign(input).getRequestHeaderMap());
+    }
+
+    /**
+     * Signs a batch of inputs on the calling thread. Same as {@link #signAll(Collection, ForkJoinPool)} without pool.
+     */
+    default List<AwsSigV4SignerResult> signAll(@NonNull Collection<AwsSigV4SignerInput> inputs) {
+        return signAll(inputs, null);
+    }
+
+    /**
+     * Signs a batch of inputs, returning one result per input in input order. A failed input doesn't fail the batch,
+     * its error is reported in its result instead.
+     * <p>
+     * Inputs are grouped by region and service, and implementations resolve credentials once per batch and signer
+     * state once per group.
+     *
+     * @param pool pool to sign on in parallel, or null to sign on the calling thread.
+     */
+    default List<AwsSigV4SignerResult> signAll(@NonNull Collection<AwsSigV4SignerInput> inputs, ForkJoinPool pool) {
+        return BatchSigning.signAll(inputs, pool, (regionName, serviceName) -> this::sign);
+    }
+
+    /**
+     * Signs asynchronously. The future fails with the exception {@link #sign} would have thrown as its cause.
+     * <p>
+     * Implementations complete the future on the calling thread when credentials are available without blocking,
+     * and only move to their credentials executor when credentials have to be fetched. This default signs on
+     * {@link CredentialsExecutors#getDefault()}.
+     */
+    default CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull AwsSigV4SignerInput input) {
+        return AsyncSigning.supplyAsync(() -> sign(input), CredentialsExecutors.getDefault());
+    }
 }
@@ -0,0 +1,262 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.credentials.CredentialsResolver;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4VerifierResult;
+import aws.sigv4.samples.models.AwsSigV4VerifierResult.Outcome;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningTargetRegistry;
+import aws.sigv4.samples.verification.ReplayDetector;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSSessionCredentials;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class for verifying AWS SigV4 signatures carried in the {@code Authorization} header of incoming requests, e.g.
+ * requests signed by the signers of this package and sent to a local stand-in of the service.
+ * <p>
+ * The canonical request is rebuilt with the per-thread {@link SigV4SigningEngine}, from the request headers listed in
+ * the {@code Authorization} header, and signing keys come from the shared
+ * {@link aws.sigv4.samples.signing.SigningKeyCache}, so verifying costs about as much as signing. Requests are rejected
+ * without resolving credentials nor hashing the payload when their credential scope doesn't match the expected region
+ * and service, or when their {@code X-Amz-Date} is further than {@code maxClockSkew} from the current time.
+ * <p>
+ * Presigned URLs, which carry their signature in query parameters, aren't verified.
+ */
+@Log4j2
+public class AwsSigV4Verifier {
+
+    /**
+     * Skew SigV4 allows between the signing time of a request and the time it is received.
+     */
+    public static final Duration DEFAULT_MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private static final String HOST = "host";
+
+    private final CredentialsResolver credentialsResolver;
+
+    private final Clock clock;
+
+    private final long maxClockSkewSeconds;
+
+    /**
+     * Rejects replays of valid requests, when set.
+     */
+    private final ReplayDetector replayDetector;
+
+    /**
+     * Targets of this verifier only, as the endpoints of incoming requests carry their query parameters.
+     */
+    private final SigningTargetRegistry targetRegistry =
+            new SigningTargetRegistry(SigningTargetRegistry.DEFAULT_MAXIMUM_SIZE);
+
+    public AwsSigV4Verifier(@NonNull final CredentialsResolver credentialsResolver) {
+        this(credentialsResolver, Clock.systemUTC(), DEFAULT_MAX_CLOCK_SKEW);
+    }
+
+    public AwsSigV4Verifier(@NonNull final CredentialsResolver credentialsResolver, @NonNull final Clock clock,
+                            @NonNull final Duration maxClockSkew) {
+        this(credentialsResolver, clock, maxClockSkew, null);
+    }
+
+    /**
+     * Creates a verifier which also rejects replays of valid requests with {@code replayDetector}, created with the
+     * same {@code maxClockSkew}.
+     */
+    public AwsSigV4Verifier(@NonNull final CredentialsResolver credentialsResolver, @NonNull final Clock clock,
+                            @NonNull final Duration maxClockSkew, final ReplayDetector replayDetector) {
+        if (maxClockSkew.isNegative()) {
+            throw new IllegalArgumentException("maxClockSkew must not be negative.");
+        }
+        this.credentialsResolver = credentialsResolver;
+        this.clock = clock;
+        this.maxClockSkewSeconds = maxClockSkew.getSeconds();
+        this.replayDetector = replayDetector;
+    }
+
+    /**
+     * Verifies the signature of an incoming request, passed the same way as to {@link AwsSigV4Signer#sign}: its
+     * endpoint with any query parameters, resource path, method, headers and payload. The region and service are the
+     * ones the credential scope must be for.
+     * <p>
+     * A payload passed as {@code unsignedPayload} only verifies requests signed with {@code UNSIGNED-PAYLOAD}. Requests
+     * whose {@code x-amz-content-sha256} header is {@code UNSIGNED-PAYLOAD} are verified without hashing the payload.
+     */
+    public AwsSigV4VerifierResult verify(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        input.validatePayload();
+        var target = targetRegistry.getTarget(input.getRequestEndpoint(), input.getRequestResourcePath(),
+                input.getRegionName(), input.getServiceName());
+
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        Optional.ofNullable(input.getRequestHeaderMap()).ifPresent(headers::putAll);
+        var authorizationHeader = headers.get(SigV4SigningEngine.AUTHORIZATION);
+        if (authorizationHeader == null) {
+            return reject(Outcome.MISSING_AUTHORIZATION, null);
+        }
+        var authorization = Authorization.parse(authorizationHeader);
+        if (authorization == null) {
+            return reject(Outcome.MALFORMED_AUTHORIZATION, null);
+        }
+        var accessKeyId = authorization.getAccessKeyId();
+
+        var amzDate = headers.get(SigV4SigningEngine.X_AMZ_DATE);
+        var signingTime = parseEpochSecond(amzDate);
+        if (signingTime == null) {
+            return reject(Outcome.MALFORMED_AUTHORIZATION, accessKeyId);
+        }
+        if (!amzDate.startsWith(authorization.getDateStamp())
+                || !authorization.getRegionName().equals(input.getRegionName())
+                || !authorization.getServiceName().equals(input.getServiceName())) {
+            return reject(Outcome.CREDENTIAL_SCOPE_MISMATCH, accessKeyId);
+        }
+        if (Math.abs(Math.floorDiv(clock.millis(), 1000L) - signingTime) > maxClockSkewSeconds) {
+            return reject(Outcome.REQUEST_TIME_SKEWED, accessKeyId);
+        }
+
+        var credentials = credentialsResolver.resolveCredentials(accessKeyId);
+        if (credentials == null) {
+            return reject(Outcome.UNKNOWN_ACCESS_KEY, accessKeyId);
+        }
+        if (credentials instanceof AWSSessionCredentials) {
+            var securityToken = headers.get(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN);
+            if (securityToken == null || !SigV4SigningEngine.constantTimeEquals(
+                    ((AWSSessionCredentials) credentials).getSessionToken().trim(), securityToken.trim())) {
+                return reject(Outcome.SECURITY_TOKEN_MISMATCH, accessKeyId);
+            }
+        }
+
+        var signedHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        for (var name : authorization.getSignedHeaders().split(";")) {
+            var value = headers.get(name);
+            if (value == null && HOST.equals(name)) {
+                // Some HTTP servers only expose the host through the request URL.
+                value = target.getHost();
+            }
+            if (value == null) {
+                return reject(Outcome.MALFORMED_AUTHORIZATION, accessKeyId);
+            }
+            signedHeaders.put(name, value);
+        }
+        if (!signedHeaders.containsKey(HOST)) {
+            return reject(Outcome.MALFORMED_AUTHORIZATION, accessKeyId);
+        }
+
+        var engine = SigV4SigningEngine.get();
+        boolean valid;
+        if (SigV4SigningEngine.UNSIGNED_PAYLOAD.equals(headers.get(SigV4SigningEngine.X_AMZ_CONTENT_SHA256))) {
+            valid = engine.verifyWithPayloadHash(input.getRequestMethod(), target, signedHeaders,
+                    SigV4SigningEngine.UNSIGNED_PAYLOAD, amzDate, credentials, authorization.getSignature());
+        } else {
+            var payloadHash = PayloadHasher.resolveSha256Hex(input);
+            valid = payloadHash != null
+                    ? engine.verifyWithPayloadHash(input.getRequestMethod(), target, signedHeaders, payloadHash,
+                            amzDate, credentials, authorization.getSignature())
+                    : engine.verify(input.getRequestMethod(), target, signedHeaders, input.getRequestPayload(),
+                            amzDate, credentials, authorization.getSignature());
+        }
+        if (!valid) {
+            return reject(Outcome.SIGNATURE_MISMATCH, accessKeyId);
+        }
+        // Only valid signatures are recorded, so forged requests can't fill the replay detector.
+        if (replayDetector != null && !replayDetector.markSeen(signingTime, authorization.getSignature())) {
+            return reject(Outcome.REPLAYED, accessKeyId);
+        }
+        return AwsSigV4VerifierResult.builder().outcome(Outcome.VALID).accessKeyId(accessKeyId).build();
+    }
+
+    private static AwsSigV4VerifierResult reject(final Outcome outcome, final String accessKeyId) {
+        log.debug("Rejecting request signed with access key id {}: {}.", accessKeyId, outcome);
+        return AwsSigV4VerifierResult.builder().outcome(outcome).accessKeyId(accessKeyId).build();
+    }
+
+    /**
+     * Parses an {@code X-Amz-Date} in {@code yyyyMMdd'T'HHmmss'Z'} format, returning null when it isn't one.
+     */
+    static Long parseEpochSecond(final String amzDate) {
+        if (amzDate == null || amzDate.length() != 16 || amzDate.charAt(8) != 'T' || amzDate.charAt(15) != 'Z') {
+            return null;
+        }
+        try {
+            return LocalDateTime.of(digits(amzDate, 0, 4), digits(amzDate, 4, 6), digits(amzDate, 6, 8),
+                            digits(amzDate, 9, 11), digits(amzDate, 11, 13), digits(amzDate, 13, 15))
+                    .toEpochSecond(ZoneOffset.UTC);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(final String value, final int from, final int to) {
+        var result = 0;
+        for (int i = from; i < to; i++) {
+            var c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeException("Not a digit: " + c);
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    /**
+     * Components of an {@code AWS4-HMAC-SHA256 Credential=..., SignedHeaders=..., Signature=...} header.
+     */
+    @Value
+    private static class Authorization {
+        private static final String CREDENTIAL = "Credential=";
+        private static final String SIGNED_HEADERS = "SignedHeaders=";
+        private static final String SIGNATURE = "Signature=";
+
+        String accessKeyId;
+        String dateStamp;
+        String regionName;
+        String serviceName;
+        String signedHeaders;
+        String signature;
+
+        /**
+         * Returns the header's components, or null when it isn't a well formed SigV4 Authorization header.
+         */
+        static Authorization parse(final String header) {
+            var algorithm = SigV4SigningEngine.ALGORITHM;
+            if (!header.startsWith(algorithm) || header.length() == algorithm.length()
+                    || header.charAt(algorithm.length()) != ' ') {
+                return null;
+            }
+
+            String credential = null;
+            String signedHeaders = null;
+            String signature = null;
+            for (var component : header.substring(algorithm.length() + 1).split(",")) {
+                var trimmed = component.trim();
+                if (trimmed.startsWith(CREDENTIAL)) {
+                    credential = trimmed.substring(CREDENTIAL.length());
+                } else if (trimmed.startsWith(SIGNED_HEADERS)) {
+                    signedHeaders = trimmed.substring(SIGNED_HEADERS.length());
+                } else if (trimmed.startsWith(SIGNATURE)) {
+                    signature = trimmed.substring(SIGNATURE.length());
+                }
+            }
+            if (credential == null || signedHeaders == null || signedHeaders.isEmpty() || signature == null) {
+                return null;
+            }
+
+            var scope = credential.split("/", -1);
+            if (scope.length != 5 || scope[0].isEmpty() || scope[1].length() != 8
+                    || !SigV4SigningEngine.TERMINATOR.equals(scope[4])) {
+                return null;
+            }
+            return new Authorization(scope[0], scope[1], scope[2], scope[3], signedHeaders, signature);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.credentials.CredentialsExecutors;
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
+import aws.sigv4.samples.metrics.SignerMetrics;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigV4aKeyCache;
+import aws.sigv4.samples.signing.SigningTarget;
+import aws.sigv4.samples.signing.SigningTargetRegistry;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class for signing with the AWS SigV4a algorithm (AWS4-ECDSA-P256-SHA256), using the credentials of a credentials
+ * provider. SigV4a signatures are valid in a set of regions rather than a single one, as needed by multi-region
+ * access points and global endpoints.
+ * <p>
+ * The input's {@code regionName} is the region set the signature is valid in: a comma separated list of region names,
+ * or "*" for all regions. The ECDSA private key derived from the secret key is cached in the shared
+ * {@link SigV4aKeyCache}, so only the ECDSA signature is computed per request, with the per-thread
+ * {@link SigV4SigningEngine}.
+ */
+@AllArgsConstructor
+@Log4j2
+public class AwsSigV4aSigner implements AwsSigV4Signer {
+
+    /**
+     * Region set of signatures valid in all regions.
+     */
+    public static final String ALL_REGIONS = "*";
+
+    @NonNull
+    private final AWSCredentialsProvider credentialsProvider;
+
+    @NonNull
+    private final Clock clock;
+
+    /**
+     * Executor {@link #signAsync} fetches credentials on, when the provider can't hand them out without blocking.
+     */
+    @NonNull
+    private final Executor credentialsExecutor;
+
+    public AwsSigV4aSigner(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, Clock.systemUTC());
+    }
+
+    public AwsSigV4aSigner(@NonNull final AWSCredentialsProvider credentialsProvider, @NonNull final Clock clock) {
+        this(credentialsProvider, clock, CredentialsExecutors.getDefault());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public AwsSigV4SignerOutput sign(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        return sign(input, fetchCredentials());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AwsSigV4SignerResult> signAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                              final ForkJoinPool pool) {
+        log.debug("Starting AWS SigV4a batch signing process for {} inputs.", inputs.size());
+        AWSCredentials credentials;
+        try {
+            credentials = fetchCredentials();
+        } catch (RuntimeException e) {
+            return BatchSigning.failAll(inputs, e);
+        }
+
+        return BatchSigning.signAll(inputs, pool, (regionSet, serviceName) -> input -> sign(input, credentials));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes inline when the provider is a {@link NonBlockingCredentialsProvider} with cached credentials, or
+     * static credentials.
+     */
+    @Override
+    public CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull final AwsSigV4SignerInput input) {
+        var credentials = NonBlockingCredentialsProvider.getCredentialsIfAvailable(credentialsProvider);
+        if (credentials != null) {
+            return AsyncSigning.completeInline(() -> sign(input, credentials));
+        }
+
+        // Reject invalid inputs before fetching credentials for them.
+        return AsyncSigning.completeInline(() -> {
+            input.validatePayload();
+            return resolveTarget(input);
+        }).thenCompose(target -> {
+            log.debug("Credentials aren't available without blocking, fetching them on the credentials executor.");
+            return AsyncSigning.supplyAsync(this::fetchCredentials, credentialsExecutor);
+        }).thenCompose(fetched -> AsyncSigning.completeInline(() -> sign(input, fetched)));
+    }
+
+    private AwsSigV4SignerOutput sign(final AwsSigV4SignerInput input, final AWSCredentials credentials)
+            throws PartnerGatewayInvalidInputException {
+
+        log.debug("Starting AWS SigV4a signing process.");
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        input.validatePayload();
+        var target = resolveTarget(input);
+
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        Optional.ofNullable(input.resolveHeaderMap()).ifPresent(headers::putAll);
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        if (payloadHash == null && metrics.isEnabled()) {
+            metrics.recordPayloadSize(PayloadHasher.utf8Length(input.getRequestPayload()));
+        }
+        metrics.stopTimer(SignerMetrics.Phase.CREATE_REQUEST, start);
+
+        log.debug("Signing request.");
+        start = metrics.startTimer();
+        var engine = SigV4SigningEngine.get();
+        if (payloadHash != null) {
+            if (input.getRequestBody() == null) {
+                headers.put(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, payloadHash);
+            }
+            engine.signV4aWithPayloadHash(input.getRequestMethod(), target.getEndpoint(), target.getResourcePath(),
+                    headers, payloadHash, credentials, input.getRegionName(), input.getServiceName(),
+                    clock.millis());
+        } else {
+            engine.signV4a(input.getRequestMethod(), target.getEndpoint(), target.getResourcePath(), headers,
+                    input.getRequestPayload(), credentials, input.getRegionName(), input.getServiceName(),
+                    clock.millis());
+        }
+        metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
+
+        return AwsSigV4SignerOutput.builder().requestHeaderMap(headers).build();
+    }
+
+    private AWSCredentials fetchCredentials() {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var credentials = credentialsProvider.getCredentials();
+        metrics.stopTimer(SignerMetrics.Phase.FETCH_CREDENTIALS, start);
+        return credentials;
+    }
+
+    /**
+     * Returns the input's signing target, or else looks it up in the shared registry, so each endpoint is only parsed
+     * once.
+     */
+    private static SigningTarget resolveTarget(final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        if (input.getSigningTarget() != null) {
+            return input.getSigningTarget();
+        }
+        return SigningTargetRegistry.getInstance().getTarget(input.getRequestEndpoint(),
+                input.getRequestResourcePath(), input.getRegionName(), input.getServiceName());
+    }
+}
@@ -0,0 +1,113 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import lombok.Value;
+
+/**
+ * Signs batches of inputs for {@link AwsSigV4Signer#signAll}, grouped by region and service, so signers can set up
+ * per group state (signer instance, signing key) once instead of for every input.
+ * <p>
+ * Inputs of a group are signed one after the other, and results are returned in input order with errors reported
+ * per input.
+ */
+final class BatchSigning {
+
+    private BatchSigning() {
+    }
+
+    /**
+     * Signs one input of a group.
+     */
+    @FunctionalInterface
+    interface InputSigner {
+        AwsSigV4SignerOutput sign(AwsSigV4SignerInput input) throws Exception;
+    }
+
+    /**
+     * Returns the signer for the inputs of a region and service.
+     */
+    @FunctionalInterface
+    interface GroupSignerFactory {
+        InputSigner forGroup(String regionName, String serviceName) throws Exception;
+    }
+
+    /**
+     * Signs {@code inputs}, on {@code pool} when non null or else on the calling thread.
+     */
+    static List<AwsSigV4SignerResult> signAll(final Collection<AwsSigV4SignerInput> inputs, final ForkJoinPool pool,
+                                              final GroupSignerFactory groupSignerFactory) {
+        var inputList = new ArrayList<>(inputs);
+        var results = new AwsSigV4SignerResult[inputList.size()];
+
+        var groups = new LinkedHashMap<GroupKey, List<Integer>>();
+        for (int i = 0; i < inputList.size(); i++) {
+            var input = inputList.get(i);
+            if (input == null) {
+                results[i] = failed(null, new PartnerGatewayInvalidInputException("Input can't be null."));
+                continue;
+            }
+            groups.computeIfAbsent(new GroupKey(input.getRegionName(), input.getServiceName()),
+                    key -> new ArrayList<>()).add(i);
+        }
+
+        var tasks = new ArrayList<Runnable>(inputList.size());
+        for (var group : groups.entrySet()) {
+            InputSigner inputSigner;
+            try {
+                inputSigner = groupSignerFactory.forGroup(group.getKey().getRegionName(),
+                        group.getKey().getServiceName());
+            } catch (Exception e) {
+                group.getValue().forEach(index -> results[index] = failed(inputList.get(index), e));
+                continue;
+            }
+            for (var index : group.getValue()) {
+                var input = inputList.get(index);
+                tasks.add(() -> results[index] = sign(inputSigner, input));
+            }
+        }
+
+        if (pool == null || tasks.size() <= 1) {
+            tasks.forEach(Runnable::run);
+        } else {
+            // Parallel streams split the task list in contiguous ranges, which keeps inputs of a group together.
+            pool.submit(() -> tasks.parallelStream().forEach(Runnable::run)).join();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Returns a failed result with {@code error} for every input.
+     */
+    static List<AwsSigV4SignerResult> failAll(final Collection<AwsSigV4SignerInput> inputs, final Exception error) {
+        var results = new ArrayList<AwsSigV4SignerResult>(inputs.size());
+        inputs.forEach(input -> results.add(failed(input, error)));
+        return results;
+    }
+
+    private static AwsSigV4SignerResult sign(final InputSigner inputSigner, final AwsSigV4SignerInput input) {
+        try {
+            return AwsSigV4SignerResult.builder().input(input).output(inputSigner.sign(input)).build();
+        } catch (Exception e) {
+            return failed(input, e);
+        }
+    }
+
+    private static AwsSigV4SignerResult failed(final AwsSigV4SignerInput input, final Exception error) {
+        return AwsSigV4SignerResult.builder().input(input).error(error).build();
+    }
+
+    @Value
+    private static class GroupKey {
+        String regionName;
+        String serviceName;
+    }
+}
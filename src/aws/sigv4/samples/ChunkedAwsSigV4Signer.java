@@ -0,0 +1,124 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.chunked.AwsChunkedEncoding;
+import aws.sigv4.samples.chunked.ChunkedSigningContext;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningKeyCache;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Clock;
+import java.util.Optional;
+import java.util.TreeMap;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class for signing requests whose body is streamed with the aws-chunked content encoding
+ * (STREAMING-AWS4-HMAC-SHA256-PAYLOAD), using the credentials of a credentials provider.
+ * <p>
+ * {@link #sign} signs the seed request headers. The returned {@link ChunkedSigningContext} then wraps an output or
+ * input stream, signing every chunk as the body flows through it, so the body never has to be held in memory or be
+ * complete before sending starts.
+ */
+@Log4j2
+public class ChunkedAwsSigV4Signer {
+
+    /**
+     * Default chunk size. S3 requires chunks of at least 8 KiB, except for the last one.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+    private final AWSCredentialsProvider credentialsProvider;
+
+    private final Clock clock;
+
+    private final int chunkSize;
+
+    public ChunkedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, Clock.systemUTC(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ChunkedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider, @NonNull final Clock clock,
+                                 final int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        this.credentialsProvider = credentialsProvider;
+        this.clock = clock;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Signs the seed request of a body of {@code decodedContentLength} bytes. No payload may be passed in
+     * {@code input}, as the body is signed while it's streamed.
+     */
+    public ChunkedSigningContext sign(@NonNull final AwsSigV4SignerInput input, final long decodedContentLength)
+            throws PartnerGatewayInvalidInputException, PartnerGatewayConfigurationException {
+
+        log.debug("Starting AWS SigV4 chunked signing process.");
+        validateInput(input, decodedContentLength);
+        URI requestUri;
+        try {
+            requestUri = new URI(input.getRequestEndpoint());
+        } catch (URISyntaxException e) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Invalid request endpoint passed in Input: %s", input.getRequestEndpoint()),
+                    e);
+        }
+        if (requestUri.getHost() == null) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Request endpoint passed in Input has no host: %s", input.getRequestEndpoint()));
+        }
+
+        var credentials = credentialsProvider.getCredentials();
+        if (credentials instanceof AnonymousAWSCredentials) {
+            throw new PartnerGatewayConfigurationException("Chunked signing requires non anonymous credentials.");
+        }
+
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        Optional.ofNullable(input.resolveHeaderMap()).ifPresent(headers::putAll);
+        headers.put(AwsChunkedEncoding.CONTENT_ENCODING_HEADER,
+                Optional.ofNullable(headers.get(AwsChunkedEncoding.CONTENT_ENCODING_HEADER))
+                        .map(encoding -> AwsChunkedEncoding.CONTENT_ENCODING + "," + encoding)
+                        .orElse(AwsChunkedEncoding.CONTENT_ENCODING));
+        headers.put(AwsChunkedEncoding.CONTENT_LENGTH_HEADER,
+                Long.toString(AwsChunkedEncoding.encodedContentLength(decodedContentLength, chunkSize)));
+        headers.put(AwsChunkedEncoding.X_AMZ_DECODED_CONTENT_LENGTH, Long.toString(decodedContentLength));
+        headers.put(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, AwsChunkedEncoding.STREAMING_PAYLOAD);
+
+        log.debug("Signing seed request.");
+        SigV4SigningEngine.get().signWithPayloadHash(input.getRequestMethod(), requestUri,
+                input.getRequestResourcePath(), headers, AwsChunkedEncoding.STREAMING_PAYLOAD, credentials,
+                input.getRegionName(), input.getServiceName(), clock.millis());
+
+        var dateTime = headers.get(SigV4SigningEngine.X_AMZ_DATE);
+        var dateStamp = dateTime.substring(0, 8);
+        var authorization = headers.get(SigV4SigningEngine.AUTHORIZATION);
+        var seedSignature = authorization.substring(authorization.length() - 64);
+        var signingKey = SigningKeyCache.getInstance().getSigningKeySpec(credentials.getAWSAccessKeyId().trim(),
+                credentials.getAWSSecretKey().trim(), dateStamp, input.getRegionName(), input.getServiceName());
+        var scope = String.join("/", dateStamp, input.getRegionName(), input.getServiceName(),
+                SigV4SigningEngine.TERMINATOR);
+
+        return new ChunkedSigningContext(headers, signingKey, dateTime, scope, seedSignature, chunkSize,
+                decodedContentLength);
+    }
+
+    private static void validateInput(final AwsSigV4SignerInput input, final long decodedContentLength)
+            throws PartnerGatewayInvalidInputException {
+        if (input.getRequestPayload() != null || input.getRequestBody() != null
+                || input.getRequestPayloadSha256() != null || input.isUnsignedPayload()) {
+            throw new PartnerGatewayInvalidInputException(
+                    "No payload can be passed in Input for chunked signing, the body is signed while streamed.");
+        }
+        if (decodedContentLength < 0) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Invalid decoded content length: %d", decodedContentLength));
+        }
+    }
+}
@@ -1,18 +1,34 @@
 package aws.sigv4.samples;
 
-import aws.sigv4.samples.factoryHelpers.Aws4SignerFactoryHelper;
+import aws.sigv4.samples.credentials.CredentialsExecutors;
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
+import aws.sigv4.samples.metrics.SignerMetrics;
 import aws.sigv4.samples.models.AwsSigV4SignerInput;
 import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.signing.ExtendedAws4Signer;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningBackend;
+import aws.sigv4.samples.signing.SigningBackends;
+import aws.sigv4.samples.signing.SigningClock;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.SignableRequest;
+import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.Signer;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
@@ -26,6 +42,46 @@ public class CredentialProviderBasedAwsSigV4Signer implements AwsSigV4Signer {
     @NonNull
     private final AWSCredentialsProvider credentialsProvider;
 
+    /**
+     * Executor {@link #signAsync} fetches credentials on, when the provider can't hand them out without blocking.
+     */
+    @NonNull
+    private final Executor credentialsExecutor;
+
+    /**
+     * Clock requests are signed with, corrected by the clock skew learned for their endpoint.
+     */
+    @NonNull
+    private final SigningClock signingClock;
+
+    @NonNull
+    private final SigningBackend signingBackend;
+
+    public CredentialProviderBasedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, CredentialsExecutors.getDefault());
+    }
+
+    public CredentialProviderBasedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                                 @NonNull final Executor credentialsExecutor) {
+        this(credentialsProvider, credentialsExecutor, new SigningClock());
+    }
+
+    public CredentialProviderBasedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                                 @NonNull final SigningClock signingClock) {
+        this(credentialsProvider, CredentialsExecutors.getDefault(), signingClock);
+    }
+
+    public CredentialProviderBasedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                                 @NonNull final SigningBackend signingBackend) {
+        this(credentialsProvider, CredentialsExecutors.getDefault(), new SigningClock(), signingBackend);
+    }
+
+    public CredentialProviderBasedAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                                 @NonNull final Executor credentialsExecutor,
+                                                 @NonNull final SigningClock signingClock) {
+        this(credentialsProvider, credentialsExecutor, signingClock, SigningBackends.SDK_V1);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -37,10 +93,68 @@ public class CredentialProviderBasedAwsSigV4Signer implements AwsSigV4Signer {
         var request = createRequest(input);
 
         log.debug("Creating signer instance.");
-        var aws4Signer = Aws4SignerFactoryHelper.getSigner(input.getRegionName(), input.getServiceName());
+        var requestSigner = signingBackend.getSigner(input.getRegionName(), input.getServiceName());
+
+        return sign(request, requestSigner, fetchCredentials());
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AwsSigV4SignerResult> signAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                              final ForkJoinPool pool) {
+        log.debug("Starting AWS SigV4 batch signing process for {} inputs.", inputs.size());
+        AWSCredentials credentials;
+        try {
+            credentials = fetchCredentials();
+        } catch (RuntimeException e) {
+            return BatchSigning.failAll(inputs, e);
+        }
+
+        return BatchSigning.signAll(inputs, pool, (regionName, serviceName) -> {
+            var requestSigner = signingBackend.getSigner(regionName, serviceName);
+            return input -> sign(createRequest(input), requestSigner, credentials);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes inline when the provider is a {@link NonBlockingCredentialsProvider} with cached credentials, or
+     * static credentials.
+     */
+    @Override
+    public CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull final AwsSigV4SignerInput input) {
+        log.debug("Starting asynchronous AWS SigV4 signing process.");
+        return AsyncSigning.completeInline(() -> createRequest(input)).thenCompose(request -> {
+            var requestSigner = signingBackend.getSigner(input.getRegionName(), input.getServiceName());
+            var credentials = NonBlockingCredentialsProvider.getCredentialsIfAvailable(credentialsProvider);
+            if (credentials != null) {
+                return AsyncSigning.completeInline(() -> sign(request, requestSigner, credentials));
+            }
+
+            log.debug("Credentials aren't available without blocking, fetching them on the credentials executor.");
+            return AsyncSigning.supplyAsync(this::fetchCredentials, credentialsExecutor)
+                    .thenApply(fetched -> sign(request, requestSigner, fetched));
+        });
+    }
+
+    private AWSCredentials fetchCredentials() {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var credentials = credentialsProvider.getCredentials();
+        metrics.stopTimer(SignerMetrics.Phase.FETCH_CREDENTIALS, start);
+        return credentials;
+    }
+
+    private AwsSigV4SignerOutput sign(final SignableRequest<String> request, final Signer requestSigner,
+                                      final AWSCredentials credentials) {
         log.debug("Signing request.");
-        aws4Signer.sign(request, credentialsProvider.getCredentials());
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        requestSigner.sign(request, credentials);
+        metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
 
         log.debug("Building response.");
         return AwsSigV4SignerOutput.builder().requestHeaderMap(request.getHeaders()).build();
@@ -48,6 +162,10 @@ public class CredentialProviderBasedAwsSigV4Signer implements AwsSigV4Signer {
 
     private SignableRequest<String> createRequest(final AwsSigV4SignerInput input)
             throws PartnerGatewayInvalidInputException {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        input.validatePayload();
+
         URI requestUri;
         try {
             requestUri = new URI(input.getRequestEndpoint());
@@ -57,17 +175,45 @@ public class CredentialProviderBasedAwsSigV4Signer implements AwsSigV4Signer {
                     e);
         }
 
-        return createRequest(requestUri, input);
+        var request = createRequest(requestUri, input);
+        metrics.stopTimer(SignerMetrics.Phase.CREATE_REQUEST, start);
+        return request;
     }
 
-    private DefaultRequest<String> createRequest(final URI requestUri, final AwsSigV4SignerInput input) {
+    private DefaultRequest<String> createRequest(final URI requestUri, final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
         var request = new DefaultRequest<String>(input.getServiceName());
 
         request.setEndpoint(requestUri);
+        request.setTimeOffset(signingClock.getSdkTimeOffset(input.getRequestEndpoint()));
         Optional.ofNullable(input.getRequestResourcePath()).ifPresent(request::setResourcePath);
         request.setHttpMethod(input.getRequestMethod());
-        request.setContent(new ByteArrayInputStream(input.getRequestPayload().getBytes(StandardCharsets.UTF_8)));
-        Optional.ofNullable(input.getRequestHeaderMap()).ifPresent(request::setHeaders);
+        Optional.ofNullable(input.resolveHeaderMap()).ifPresent(request::setHeaders);
+
+        if (!signingBackend.isPayloadHashSupported()) {
+            if (input.getRequestPayloadSha256() != null) {
+                throw new PartnerGatewayInvalidInputException(String.format("Signing backend %s can't sign "
+                        + "requestPayloadSha256 passed in Input, pass requestPayload or requestBody instead.",
+                        signingBackend));
+            }
+            if (input.getRequestBody() != null) {
+                // The backend hashes the body itself while signing.
+                request.addHandlerContext(SigningBackend.REQUEST_BODY, input.getRequestBody());
+                return request;
+            }
+        }
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        if (payloadHash == null) {
+            var payload = input.getRequestPayload().getBytes(StandardCharsets.UTF_8);
+            SignerMetrics.get().recordPayloadSize(payload.length);
+            request.setContent(new ByteArrayInputStream(payload));
+        } else {
+            // The payload is never copied into the request; the signer takes its hash from the handler context.
+            request.addHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256, payloadHash);
+            if (input.getRequestBody() == null) {
+                request.addHeader(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, payloadHash);
+            }
+        }
 
         return request;
     }
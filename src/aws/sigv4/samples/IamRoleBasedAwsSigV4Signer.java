@@ -1,29 +1,46 @@
 package aws.sigv4.samples;
 
 import com.amazon.financialservices.insurance.partnergateway.commons.constants.AwsConstants;
-import aws.sigv4.samples.factoryHelpers.Aws4SignerFactoryHelper;
+import aws.sigv4.samples.credentials.CredentialsExecutors;
+import aws.sigv4.samples.credentials.RefreshAheadSessionCredentialsCache;
+import aws.sigv4.samples.metrics.SignerMetrics;
 import aws.sigv4.samples.models.AwsSigV4SignerInput;
 import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
 import aws.sigv4.samples.models.IamRoleBasedAwsSigV4SignerConfig;
+import aws.sigv4.samples.signing.ExtendedAws4Signer;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningBackend;
+import aws.sigv4.samples.signing.SigningBackends;
+import aws.sigv4.samples.signing.SigningClock;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.SignableRequest;
 import com.amazonaws.auth.AWSSessionCredentials;
-import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.auth.Signer;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.model.*;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 
 /**
  * Class for signing with AWS SigV4 algorithm, using an IAM role.
+ * <p>
+ * Session credentials of the assumed role are cached and refreshed ahead of expiry, see
+ * {@link RefreshAheadSessionCredentialsCache}.
  */
 @AllArgsConstructor
 @Log4j2
@@ -35,6 +52,54 @@ public class IamRoleBasedAwsSigV4Signer implements AwsSigV4Signer {
     @NonNull
     private final IamRoleBasedAwsSigV4SignerConfig config;
 
+    /**
+     * Executor {@link #signAsync} assumes the role on, when there are no usable cached session credentials.
+     */
+    @NonNull
+    private final Executor credentialsExecutor;
+
+    /**
+     * Clock requests are signed with, corrected by the clock skew learned for their endpoint.
+     */
+    @NonNull
+    private final SigningClock signingClock;
+
+    @NonNull
+    private final SigningBackend signingBackend;
+
+    private final RefreshAheadSessionCredentialsCache sessionCredentialsCache =
+            new RefreshAheadSessionCredentialsCache(this::assumeRole);
+
+    public IamRoleBasedAwsSigV4Signer(@NonNull final AWSSecurityTokenService awsStsClient,
+                                      @NonNull final IamRoleBasedAwsSigV4SignerConfig config) {
+        this(awsStsClient, config, CredentialsExecutors.getDefault());
+    }
+
+    public IamRoleBasedAwsSigV4Signer(@NonNull final AWSSecurityTokenService awsStsClient,
+                                      @NonNull final IamRoleBasedAwsSigV4SignerConfig config,
+                                      @NonNull final Executor credentialsExecutor) {
+        this(awsStsClient, config, credentialsExecutor, new SigningClock());
+    }
+
+    public IamRoleBasedAwsSigV4Signer(@NonNull final AWSSecurityTokenService awsStsClient,
+                                      @NonNull final IamRoleBasedAwsSigV4SignerConfig config,
+                                      @NonNull final SigningClock signingClock) {
+        this(awsStsClient, config, CredentialsExecutors.getDefault(), signingClock);
+    }
+
+    public IamRoleBasedAwsSigV4Signer(@NonNull final AWSSecurityTokenService awsStsClient,
+                                      @NonNull final IamRoleBasedAwsSigV4SignerConfig config,
+                                      @NonNull final SigningBackend signingBackend) {
+        this(awsStsClient, config, CredentialsExecutors.getDefault(), new SigningClock(), signingBackend);
+    }
+
+    public IamRoleBasedAwsSigV4Signer(@NonNull final AWSSecurityTokenService awsStsClient,
+                                      @NonNull final IamRoleBasedAwsSigV4SignerConfig config,
+                                      @NonNull final Executor credentialsExecutor,
+                                      @NonNull final SigningClock signingClock) {
+        this(awsStsClient, config, credentialsExecutor, signingClock, SigningBackends.SDK_V1);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -46,10 +111,60 @@ public class IamRoleBasedAwsSigV4Signer implements AwsSigV4Signer {
         var request = createRequest(input);
 
         log.debug("Creating signer instance.");
-        var aws4Signer = Aws4SignerFactoryHelper.getSigner(input.getRegionName(), input.getServiceName());
+        var requestSigner = signingBackend.getSigner(input.getRegionName(), input.getServiceName());
+
+        return sign(request, requestSigner, getSessionCredentials());
+    }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AwsSigV4SignerResult> signAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                              final ForkJoinPool pool) {
+        log.debug("Starting AWS SigV4 batch signing process for {} inputs.", inputs.size());
+        AWSSessionCredentials credentials;
+        try {
+            credentials = getSessionCredentials();
+        } catch (PartnerGatewayConfigurationException | RuntimeException e) {
+            return BatchSigning.failAll(inputs, e);
+        }
+
+        return BatchSigning.signAll(inputs, pool, (regionName, serviceName) -> {
+            var requestSigner = signingBackend.getSigner(regionName, serviceName);
+            return input -> sign(createRequest(input), requestSigner, credentials);
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes inline while the session credentials are cached, which is the steady state thanks to the background
+     * refresh.
+     */
+    @Override
+    public CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull final AwsSigV4SignerInput input) {
+        log.debug("Starting asynchronous AWS SigV4 signing process.");
+        return AsyncSigning.completeInline(() -> createRequest(input)).thenCompose(request -> {
+            var requestSigner = signingBackend.getSigner(input.getRegionName(), input.getServiceName());
+            var credentials = sessionCredentialsCache.getCachedCredentials();
+            if (credentials != null) {
+                return AsyncSigning.completeInline(() -> sign(request, requestSigner, credentials));
+            }
+
+            log.debug("No usable cached session credentials, assuming role on the credentials executor.");
+            return AsyncSigning.supplyAsync(this::getSessionCredentials, credentialsExecutor)
+                    .thenApply(fetched -> sign(request, requestSigner, fetched));
+        });
+    }
+
+    private AwsSigV4SignerOutput sign(final SignableRequest<String> request, final Signer requestSigner,
+                                      final AWSSessionCredentials credentials) {
         log.debug("Signing request.");
-        aws4Signer.sign(request, getSessionCredentials());
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        requestSigner.sign(request, credentials);
+        metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
 
         log.debug("Building response.");
         return AwsSigV4SignerOutput.builder().requestHeaderMap(request.getHeaders()).build();
@@ -57,6 +172,10 @@ public class IamRoleBasedAwsSigV4Signer implements AwsSigV4Signer {
 
     private SignableRequest<String> createRequest(final AwsSigV4SignerInput input)
             throws PartnerGatewayInvalidInputException {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        input.validatePayload();
+
         URI requestUri;
         try {
             requestUri = new URI(input.getRequestEndpoint());
@@ -66,40 +185,80 @@ public class IamRoleBasedAwsSigV4Signer implements AwsSigV4Signer {
                     e);
         }
 
-        return createRequest(requestUri, input);
+        var request = createRequest(requestUri, input);
+        metrics.stopTimer(SignerMetrics.Phase.CREATE_REQUEST, start);
+        return request;
     }
 
-    private DefaultRequest<String> createRequest(final URI requestUri, final AwsSigV4SignerInput input) {
+    private DefaultRequest<String> createRequest(final URI requestUri, final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
         var request = new DefaultRequest<String>(input.getServiceName());
 
         request.setEndpoint(requestUri);
+        request.setTimeOffset(signingClock.getSdkTimeOffset(input.getRequestEndpoint()));
         Optional.ofNullable(input.getRequestResourcePath()).ifPresent(request::setResourcePath);
         request.setHttpMethod(input.getRequestMethod());
-        request.setContent(new ByteArrayInputStream(input.getRequestPayload().getBytes(StandardCharsets.UTF_8)));
-        Optional.ofNullable(input.getRequestHeaderMap()).ifPresent(request::setHeaders);
+        Optional.ofNullable(input.resolveHeaderMap()).ifPresent(request::setHeaders);
+
+        if (!signingBackend.isPayloadHashSupported()) {
+            if (input.getRequestPayloadSha256() != null) {
+                throw new PartnerGatewayInvalidInputException(String.format("Signing backend %s can't sign "
+                        + "requestPayloadSha256 passed in Input, pass requestPayload or requestBody instead.",
+                        signingBackend));
+            }
+            if (input.getRequestBody() != null) {
+                // The backend hashes the body itself while signing.
+                request.addHandlerContext(SigningBackend.REQUEST_BODY, input.getRequestBody());
+                return request;
+            }
+        }
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        if (payloadHash == null) {
+            var payload = input.getRequestPayload().getBytes(StandardCharsets.UTF_8);
+            SignerMetrics.get().recordPayloadSize(payload.length);
+            request.setContent(new ByteArrayInputStream(payload));
+        } else {
+            // The payload is never copied into the request; the signer takes its hash from the handler context.
+            request.addHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256, payloadHash);
+            if (input.getRequestBody() == null) {
+                request.addHeader(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, payloadHash);
+            }
+        }
 
         return request;
     }
 
     private AWSSessionCredentials getSessionCredentials() throws PartnerGatewayConfigurationException {
-        Credentials sessionCredentials;
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var credentials = sessionCredentialsCache.getCredentials();
+        metrics.stopTimer(SignerMetrics.Phase.FETCH_CREDENTIALS, start);
+        return credentials;
+    }
+
+    private Credentials assumeRole() throws PartnerGatewayConfigurationException {
+        log.debug("Assuming role: {}.", config.getIamRoleAnr());
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var successful = false;
         try {
-            sessionCredentials = awsStsClient
+            var credentials = awsStsClient
                     .assumeRole(new AssumeRoleRequest()
                             .withRoleArn(config.getIamRoleAnr())
                             .withRoleSessionName(config.getAssumeRoleSessionName())
                             .withDurationSeconds(AwsConstants.STS_ASSUME_ROLE_MIN_DURATION_SECS))
                     .getCredentials();
+            successful = true;
+            return credentials;
         } catch (MalformedPolicyDocumentException | PackedPolicyTooLargeException | RegionDisabledException
                 | ExpiredTokenException e) {
             throw new PartnerGatewayConfigurationException(
                     String.format("Exception was thrown from STS while assuming role: %s.", config.getIamRoleAnr()),
                     e);
+        } finally {
+            if (metrics.isEnabled()) {
+                metrics.recordStsCall(System.nanoTime() - start, successful);
+            }
         }
-
-        return new BasicSessionCredentials(
-                sessionCredentials.getAccessKeyId(),
-                sessionCredentials.getSecretAccessKey(),
-                sessionCredentials.getSessionToken());
     }
 }
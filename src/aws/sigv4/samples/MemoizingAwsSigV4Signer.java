@@ -0,0 +1,288 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.signing.HeaderTemplate;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningClock;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayDependencyException;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Signer returning the output of identical inputs signed within the same second from a bounded cache, without going
+ * through the signer it wraps again, e.g. for polling and health checks.
+ * <p>
+ * Identical requests signed within the same {@code X-Amz-Date} second get identical signatures, so memoized outputs
+ * are the outputs the wrapped signer would have returned. Entries are keyed by a snapshot of the input, with a copy of
+ * its headers, so later changes to the caller's header map don't change the key, and by the identity of the current
+ * credentials: access key id and session token. An entry is only served within the second of its {@code X-Amz-Date},
+ * read from the {@link SigningClock} the wrapped signer signs with.
+ * <p>
+ * Building a key copies the headers, and a hit compares the payload string with the memoized one, so only payloads of
+ * up to {@link #MAXIMUM_PAYLOAD_LENGTH} characters are memoized: larger ones are passed on, as comparing them would
+ * cost about as much as hashing them. Inputs with a {@code requestBody} are always passed on, as their body is read
+ * when signed.
+ * <p>
+ * Each call returns its own copy of the headers, so callers can add headers to it.
+ */
+@Log4j2
+public class MemoizingAwsSigV4Signer implements AwsSigV4Signer {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /**
+     * Length of the longest {@code requestPayload} memoized, in characters.
+     */
+    public static final int MAXIMUM_PAYLOAD_LENGTH = 1024;
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final AwsSigV4Signer delegate;
+
+    /**
+     * Provider of the credentials the wrapped signer signs with, or null when it doesn't sign with a provider (e.g.
+     * {@link IamRoleBasedAwsSigV4Signer}). Keys then have no credentials identity, so outputs memoized just before the
+     * wrapped signer's credentials change are still served until the end of their second, signed with the previous
+     * credentials.
+     */
+    private final AWSCredentialsProvider credentialsProvider;
+
+    private final SigningClock signingClock;
+
+    private final Cache<MemoKey, MemoizedOutput> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    /**
+     * Wraps {@code delegate}, which must sign with {@code signingClock}: with another clock, entries may never be
+     * served once the clocks learn different offsets for an endpoint.
+     */
+    public MemoizingAwsSigV4Signer(@NonNull final AwsSigV4Signer delegate,
+                                   final AWSCredentialsProvider credentialsProvider,
+                                   @NonNull final SigningClock signingClock) {
+        this(delegate, credentialsProvider, signingClock, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public MemoizingAwsSigV4Signer(@NonNull final AwsSigV4Signer delegate,
+                                   final AWSCredentialsProvider credentialsProvider,
+                                   @NonNull final SigningClock signingClock, final int maximumSize) {
+        this.delegate = delegate;
+        this.credentialsProvider = credentialsProvider;
+        this.signingClock = signingClock;
+        // Entries are stale after their second, expiring them frees the cache for the next ones.
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(2))
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AwsSigV4SignerOutput sign(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayConfigurationException, PartnerGatewayDependencyException,
+            PartnerGatewayInvalidInputException {
+        if (!isMemoizable(input)) {
+            return delegate.sign(input);
+        }
+
+        var key = memoKey(input, credentialsProvider == null ? null : credentialsProvider.getCredentials());
+        var output = lookup(key, input);
+        if (output != null) {
+            return output;
+        }
+        output = delegate.sign(input);
+        store(key, output);
+        return output;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Batches are passed on to the wrapped signer, which already shares its signing state across the batch.
+     */
+    @Override
+    public List<AwsSigV4SignerResult> signAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                              final ForkJoinPool pool) {
+        return delegate.signAll(inputs, pool);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes inline with memoized outputs. When the credentials aren't available without blocking (see
+     * {@link NonBlockingCredentialsProvider}), the input is passed on to the wrapped signer, which fetches them on its
+     * credentials executor, and its output isn't memoized.
+     */
+    @Override
+    public CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull final AwsSigV4SignerInput input) {
+        if (!isMemoizable(input)) {
+            return delegate.signAsync(input);
+        }
+
+        MemoKey key;
+        try {
+            AWSCredentials credentials = null;
+            if (credentialsProvider != null) {
+                credentials = NonBlockingCredentialsProvider.getCredentialsIfAvailable(credentialsProvider);
+                if (credentials == null) {
+                    missCount.increment();
+                    return delegate.signAsync(input);
+                }
+            }
+            key = memoKey(input, credentials);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        var output = lookup(key, input);
+        if (output != null) {
+            return CompletableFuture.completedFuture(output);
+        }
+        return delegate.signAsync(input).thenApply(signed -> {
+            store(key, signed);
+            return signed;
+        });
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    private static boolean isMemoizable(final AwsSigV4SignerInput input) {
+        return input.getRequestBody() == null
+                && (input.getRequestPayload() == null || input.getRequestPayload().length() <= MAXIMUM_PAYLOAD_LENGTH);
+    }
+
+    private static MemoKey memoKey(final AwsSigV4SignerInput input, final AWSCredentials credentials) {
+        SortedMap<String, String> headers = null;
+        if (input.getRequestHeaderMap() != null) {
+            headers = new TreeMap<>(Comparator.nullsFirst(Comparator.naturalOrder()));
+            headers.putAll(input.getRequestHeaderMap());
+        }
+        var sessionToken = credentials instanceof AWSSessionCredentials
+                ? ((AWSSessionCredentials) credentials).getSessionToken()
+                : null;
+        return new MemoKey(input.getRequestEndpoint(), input.getRequestResourcePath(), input.getRequestMethod(),
+                input.getServiceName(), input.getRegionName(), headers, input.getHeaderTemplate(),
+                input.getRequestPayload(),
+                input.getRequestPayloadSha256(), input.isUnsignedPayload(),
+                credentials == null ? null : credentials.getAWSAccessKeyId(), sessionToken);
+    }
+
+    private AwsSigV4SignerOutput lookup(final MemoKey key, final AwsSigV4SignerInput input) {
+        var memoized = cache.getIfPresent(key);
+        if (memoized != null
+                && memoized.getEpochSecond() == Math.floorDiv(signingClock.millis(input.getRequestEndpoint()), 1000L)) {
+            hitCount.increment();
+            return AwsSigV4SignerOutput.builder()
+                    .requestHeaderMap(copyOf(memoized.getOutput().getRequestHeaderMap()))
+                    .presignedUrl(memoized.getOutput().getPresignedUrl())
+                    .build();
+        }
+        missCount.increment();
+        return null;
+    }
+
+    private void store(final MemoKey key, final AwsSigV4SignerOutput output) {
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(output.getRequestHeaderMap());
+        var amzDate = headers.get(SigV4SigningEngine.X_AMZ_DATE);
+        if (amzDate == null) {
+            // Anonymous requests aren't signed, so they don't need memoizing.
+            return;
+        }
+        try {
+            var epochSecond = DATE_TIME_FORMATTER.parse(amzDate).getLong(ChronoField.INSTANT_SECONDS);
+            cache.put(key, new MemoizedOutput(AwsSigV4SignerOutput.builder()
+                    .requestHeaderMap(copyOf(output.getRequestHeaderMap()))
+                    .presignedUrl(output.getPresignedUrl())
+                    .build(), epochSecond));
+        } catch (DateTimeParseException e) {
+            log.warn("Not memoizing output with an invalid X-Amz-Date header: {}.", amzDate);
+        }
+    }
+
+    private static Map<String, String> copyOf(final Map<String, String> headers) {
+        if (headers instanceof SortedMap) {
+            return new TreeMap<>((SortedMap<String, String>) headers);
+        }
+        return new LinkedHashMap<>(headers);
+    }
+
+    @Value
+    private static class MemoKey {
+
+        String requestEndpoint;
+
+        String requestResourcePath;
+
+        HttpMethodName requestMethod;
+
+        String serviceName;
+
+        String regionName;
+
+        SortedMap<String, String> requestHeaders;
+
+        /**
+         * Compared by identity, as templates are compiled once and shared.
+         */
+        HeaderTemplate headerTemplate;
+
+        /**
+         * Payload of at most {@link #MAXIMUM_PAYLOAD_LENGTH} characters.
+         */
+        String requestPayload;
+
+        String requestPayloadSha256;
+
+        boolean unsignedPayload;
+
+        String accessKeyId;
+
+        String sessionToken;
+    }
+
+    @Value
+    private static class MemoizedOutput {
+
+        AwsSigV4SignerOutput output;
+
+        long epochSecond;
+    }
+}
@@ -0,0 +1,262 @@
+package aws.sigv4.samples;
+
+import aws.sigv4.samples.credentials.CredentialsExecutors;
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
+import aws.sigv4.samples.metrics.SignerMetrics;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.models.SignedHeaders;
+import aws.sigv4.samples.signing.PayloadHasher;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningClock;
+import aws.sigv4.samples.signing.SigningTarget;
+import aws.sigv4.samples.signing.SigningTargetRegistry;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import lombok.AllArgsConstructor;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Class for signing with AWS SigV4 algorithm, using the credentials of a credentials provider, without going through
+ * the SDK's {@code AWS4Signer}.
+ * <p>
+ * It produces the same headers as {@link CredentialProviderBasedAwsSigV4Signer}, while the canonical request, string
+ * to sign and signature are built with the buffers, digest and MAC instances of the per-thread
+ * {@link SigV4SigningEngine}.
+ * <p>
+ * Requests are signed at the time of its {@link SigningClock}, which callers correct for clock skew by reporting
+ * rejected responses to it.
+ * <p>
+ * Inputs with a {@link aws.sigv4.samples.signing.HeaderTemplate} are signed with its compiled headers, canonicalising
+ * only the values of its variable headers.
+ */
+@AllArgsConstructor
+@Log4j2
+public class NativeAwsSigV4Signer implements AwsSigV4Signer {
+
+    @NonNull
+    private final AWSCredentialsProvider credentialsProvider;
+
+    /**
+     * Clock requests are signed with, corrected by the clock skew learned for their endpoint.
+     */
+    @NonNull
+    private final SigningClock signingClock;
+
+    /**
+     * Executor {@link #signAsync} fetches credentials on, when the provider can't hand them out without blocking.
+     */
+    @NonNull
+    private final Executor credentialsExecutor;
+
+    public NativeAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        this(credentialsProvider, Clock.systemUTC());
+    }
+
+    public NativeAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                @NonNull final Clock clock) {
+        this(credentialsProvider, clock, CredentialsExecutors.getDefault());
+    }
+
+    public NativeAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                @NonNull final Clock clock, @NonNull final Executor credentialsExecutor) {
+        this(credentialsProvider, new SigningClock(clock), credentialsExecutor);
+    }
+
+    public NativeAwsSigV4Signer(@NonNull final AWSCredentialsProvider credentialsProvider,
+                                @NonNull final SigningClock signingClock) {
+        this(credentialsProvider, signingClock, CredentialsExecutors.getDefault());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public AwsSigV4SignerOutput sign(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        return sign(input, fetchCredentials());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Reads the added headers straight from the signed headers, without building an output.
+     */
+    @Override
+    public SignedHeaders signHeaders(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        var credentials = fetchCredentials();
+        var headers = input.getHeaderTemplate() != null
+                ? signWithTemplate(input, credentials)
+                : signInto(input, credentials);
+        return SignedHeaders.builder()
+                .authorization(headers.get(SigV4SigningEngine.AUTHORIZATION))
+                .amzDate(headers.get(SigV4SigningEngine.X_AMZ_DATE))
+                .securityToken(headers.get(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN))
+                .contentSha256(headers.get(SigV4SigningEngine.X_AMZ_CONTENT_SHA256))
+                .build();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<AwsSigV4SignerResult> signAll(@NonNull final Collection<AwsSigV4SignerInput> inputs,
+                                              final ForkJoinPool pool) {
+        log.debug("Starting native AWS SigV4 batch signing process for {} inputs.", inputs.size());
+        AWSCredentials credentials;
+        try {
+            credentials = fetchCredentials();
+        } catch (RuntimeException e) {
+            return BatchSigning.failAll(inputs, e);
+        }
+
+        // Inputs of a group are signed one after the other, so the engine keeps reusing the group's signing key.
+        return BatchSigning.signAll(inputs, pool, (regionName, serviceName) -> input -> sign(input, credentials));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Completes inline when the provider is a {@link NonBlockingCredentialsProvider} with cached credentials, or
+     * static credentials.
+     */
+    @Override
+    public CompletableFuture<AwsSigV4SignerOutput> signAsync(@NonNull final AwsSigV4SignerInput input) {
+        var credentials = NonBlockingCredentialsProvider.getCredentialsIfAvailable(credentialsProvider);
+        if (credentials != null) {
+            return AsyncSigning.completeInline(() -> sign(input, credentials));
+        }
+
+        // Reject invalid inputs before fetching credentials for them.
+        return AsyncSigning.completeInline(() -> {
+            input.validatePayload();
+            return resolveTarget(input);
+        }).thenCompose(target -> {
+            log.debug("Credentials aren't available without blocking, fetching them on the credentials executor.");
+            return AsyncSigning.supplyAsync(this::fetchCredentials, credentialsExecutor);
+        }).thenCompose(fetched -> AsyncSigning.completeInline(() -> sign(input, fetched)));
+    }
+
+    private AwsSigV4SignerOutput sign(final AwsSigV4SignerInput input, final AWSCredentials credentials)
+            throws PartnerGatewayInvalidInputException {
+        if (input.getHeaderTemplate() != null) {
+            var addedHeaders = signWithTemplate(input, credentials);
+            var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+            headers.putAll(input.getHeaderTemplate().getFixedHeaders());
+            Optional.ofNullable(input.getRequestHeaderMap()).ifPresent(headers::putAll);
+            headers.putAll(addedHeaders);
+            return AwsSigV4SignerOutput.builder().requestHeaderMap(headers).build();
+        }
+        return AwsSigV4SignerOutput.builder().requestHeaderMap(signInto(input, credentials)).build();
+    }
+
+    private TreeMap<String, String> signInto(final AwsSigV4SignerInput input, final AWSCredentials credentials)
+            throws PartnerGatewayInvalidInputException {
+
+        log.debug("Starting native AWS SigV4 signing process.");
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        input.validatePayload();
+        var target = resolveTarget(input);
+
+        // Same case insensitive ordering as the SDK's DefaultRequest, so duplicate header names collapse alike.
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        Optional.ofNullable(input.getRequestHeaderMap()).ifPresent(headers::putAll);
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        if (payloadHash == null && metrics.isEnabled()) {
+            metrics.recordPayloadSize(PayloadHasher.utf8Length(input.getRequestPayload()));
+        }
+        metrics.stopTimer(SignerMetrics.Phase.CREATE_REQUEST, start);
+
+        log.debug("Signing request.");
+        start = metrics.startTimer();
+        var engine = SigV4SigningEngine.get();
+        var signingTimeMillis = signingClock.millis(input.getRequestEndpoint());
+        if (payloadHash != null) {
+            if (input.getRequestBody() == null) {
+                headers.put(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, payloadHash);
+            }
+            engine.signWithPayloadHash(input.getRequestMethod(), target, headers, payloadHash, credentials,
+                    signingTimeMillis);
+        } else {
+            engine.sign(input.getRequestMethod(), target, headers, input.getRequestPayload(), credentials,
+                    signingTimeMillis);
+        }
+        metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
+        return headers;
+    }
+
+    /**
+     * Signs with the compiled headers of the input's header template, returning only the headers added by signing.
+     */
+    private Map<String, String> signWithTemplate(final AwsSigV4SignerInput input, final AWSCredentials credentials)
+            throws PartnerGatewayInvalidInputException {
+
+        log.debug("Starting native AWS SigV4 signing process with a header template.");
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        input.validatePayload();
+        var target = resolveTarget(input);
+        var template = input.getHeaderTemplate();
+        var values = template.resolveValues(input.getRequestHeaderMap());
+
+        var addedHeaders = new HashMap<String, String>(8);
+        var payloadHash = PayloadHasher.resolveSha256Hex(input);
+        if (payloadHash == null && metrics.isEnabled()) {
+            metrics.recordPayloadSize(PayloadHasher.utf8Length(input.getRequestPayload()));
+        }
+        metrics.stopTimer(SignerMetrics.Phase.CREATE_REQUEST, start);
+
+        log.debug("Signing request.");
+        start = metrics.startTimer();
+        var engine = SigV4SigningEngine.get();
+        var signingTimeMillis = signingClock.millis(input.getRequestEndpoint());
+        if (payloadHash != null) {
+            var payloadHashHeader = input.getRequestBody() == null;
+            if (payloadHashHeader) {
+                addedHeaders.put(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, payloadHash);
+            }
+            engine.signWithPayloadHash(input.getRequestMethod(), target, template, values, payloadHash,
+                    payloadHashHeader, credentials, signingTimeMillis, addedHeaders);
+        } else {
+            engine.sign(input.getRequestMethod(), target, template, values, input.getRequestPayload(), credentials,
+                    signingTimeMillis, addedHeaders);
+        }
+        metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
+        return addedHeaders;
+    }
+
+    private AWSCredentials fetchCredentials() {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var credentials = credentialsProvider.getCredentials();
+        metrics.stopTimer(SignerMetrics.Phase.FETCH_CREDENTIALS, start);
+        return credentials;
+    }
+
+    /**
+     * Returns the input's signing target, or else looks up the target of its endpoint, resource path, region and
+     * service in the shared registry, so each endpoint is only parsed and encoded once.
+     */
+    private static SigningTarget resolveTarget(final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        if (input.getSigningTarget() != null) {
+            return input.getSigningTarget();
+        }
+        return SigningTargetRegistry.getInstance().getTarget(input.getRequestEndpoint(),
+                input.getRequestResourcePath(), input.getRegionName(), input.getServiceName());
+    }
+}
@@ -0,0 +1,57 @@
+package aws.sigv4.samples.chunked;
+
+/**
+ * Constants and sizes of the aws-chunked content encoding, used to stream payloads signed chunk by chunk with
+ * STREAMING-AWS4-HMAC-SHA256-PAYLOAD.
+ * <p>
+ * Each chunk is sent as {@code hex(size);chunk-signature=signature\r\ndata\r\n}, and the body ends with a zero length
+ * chunk.
+ */
+public final class AwsChunkedEncoding {
+
+    public static final String STREAMING_PAYLOAD = "STREAMING-AWS4-HMAC-SHA256-PAYLOAD";
+
+    public static final String CHUNK_ALGORITHM = "AWS4-HMAC-SHA256-PAYLOAD";
+
+    public static final String CONTENT_ENCODING = "aws-chunked";
+
+    public static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+
+    public static final String CONTENT_LENGTH_HEADER = "Content-Length";
+
+    public static final String X_AMZ_DECODED_CONTENT_LENGTH = "x-amz-decoded-content-length";
+
+    static final String CHUNK_SIGNATURE = ";chunk-signature=";
+
+    static final int SIGNATURE_LENGTH = 64;
+
+    static final byte[] CRLF = {'\r', '\n'};
+
+    private AwsChunkedEncoding() {
+    }
+
+    /**
+     * Returns the length of the aws-chunked encoding of {@code decodedContentLength} bytes, sent in chunks of
+     * {@code chunkSize} bytes.
+     */
+    public static long encodedContentLength(final long decodedContentLength, final int chunkSize) {
+        if (decodedContentLength < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Content length can't be negative, and chunk size must be positive.");
+        }
+        var fullChunks = decodedContentLength / chunkSize;
+        var lastChunkSize = (int) (decodedContentLength % chunkSize);
+        var length = fullChunks * chunkLength(chunkSize) + chunkLength(0);
+        if (lastChunkSize > 0) {
+            length += chunkLength(lastChunkSize);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the length of an encoded chunk carrying {@code dataLength} bytes.
+     */
+    static int chunkLength(final int dataLength) {
+        return Integer.toHexString(dataLength).length() + CHUNK_SIGNATURE.length() + SIGNATURE_LENGTH
+                + CRLF.length + dataLength + CRLF.length;
+    }
+}
@@ -0,0 +1,101 @@
+package aws.sigv4.samples.chunked;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Reads the aws-chunked encoding of a source stream, reading and signing one chunk at a time.
+ */
+final class AwsChunkedInputStream extends InputStream {
+
+    private final InputStream source;
+
+    private final ChunkSigner chunkSigner;
+
+    private final byte[] chunk;
+
+    private final byte[] encodedChunk;
+
+    private final long decodedContentLength;
+
+    private int position;
+
+    private int limit;
+
+    private long read;
+
+    private boolean finished;
+
+    AwsChunkedInputStream(final InputStream source, final ChunkSigner chunkSigner, final int chunkSize,
+                          final long decodedContentLength) {
+        this.source = source;
+        this.chunkSigner = chunkSigner;
+        this.chunk = new byte[chunkSize];
+        this.encodedChunk = new byte[AwsChunkedEncoding.chunkLength(chunkSize)];
+        this.decodedContentLength = decodedContentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        return encodedChunk[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (position == limit && !nextChunk()) {
+            return -1;
+        }
+        var copied = Math.min(len, limit - position);
+        System.arraycopy(encodedChunk, position, b, off, copied);
+        position += copied;
+        return copied;
+    }
+
+    @Override
+    public int available() {
+        return limit - position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private boolean nextChunk() throws IOException {
+        if (finished) {
+            return false;
+        }
+        var length = source.readNBytes(chunk, 0, chunk.length);
+        read += length;
+        if (read > decodedContentLength || (length < chunk.length && read != decodedContentLength)) {
+            throw new IOException(String.format("Source doesn't match the decoded content length of %d bytes.",
+                    decodedContentLength));
+        }
+
+        var signature = chunkSigner.sign(chunk, 0, length);
+        var header = (Integer.toHexString(length) + AwsChunkedEncoding.CHUNK_SIGNATURE + signature)
+                .getBytes(StandardCharsets.US_ASCII);
+        position = 0;
+        limit = 0;
+        append(header, header.length);
+        append(AwsChunkedEncoding.CRLF, AwsChunkedEncoding.CRLF.length);
+        append(chunk, length);
+        append(AwsChunkedEncoding.CRLF, AwsChunkedEncoding.CRLF.length);
+        finished = length == 0;
+        return true;
+    }
+
+    private void append(final byte[] bytes, final int length) {
+        System.arraycopy(bytes, 0, encodedChunk, limit, length);
+        limit += length;
+    }
+}
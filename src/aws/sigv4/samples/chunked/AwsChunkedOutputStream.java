@@ -0,0 +1,111 @@
+package aws.sigv4.samples.chunked;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Writes the aws-chunked encoding of the bytes written to it, buffering at most one chunk.
+ * <p>
+ * Chunks are emitted as soon as they're full, and {@link #close()} emits the last partial chunk and the final zero
+ * length chunk. {@link #flush()} doesn't emit partial chunks, as every chunk but the last must have the chunk size the
+ * encoded content length was computed with.
+ */
+final class AwsChunkedOutputStream extends OutputStream {
+
+    private final OutputStream out;
+
+    private final ChunkSigner chunkSigner;
+
+    private final byte[] buffer;
+
+    private final long decodedContentLength;
+
+    private int count;
+
+    private long written;
+
+    private boolean closed;
+
+    AwsChunkedOutputStream(final OutputStream out, final ChunkSigner chunkSigner, final int chunkSize,
+                           final long decodedContentLength) {
+        this.out = out;
+        this.chunkSigner = chunkSigner;
+        this.buffer = new byte[chunkSize];
+        this.decodedContentLength = decodedContentLength;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureWritable(1);
+        buffer[count++] = (byte) b;
+        written++;
+        if (count == buffer.length) {
+            writeChunk();
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureWritable(len);
+        var position = off;
+        var remaining = len;
+        while (remaining > 0) {
+            var copied = Math.min(remaining, buffer.length - count);
+            System.arraycopy(b, position, buffer, count, copied);
+            count += copied;
+            position += copied;
+            remaining -= copied;
+            if (count == buffer.length) {
+                writeChunk();
+            }
+        }
+        written += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            if (written != decodedContentLength) {
+                throw new IOException(String.format("Wrote %d bytes, but the decoded content length is %d.",
+                        written, decodedContentLength));
+            }
+            if (count > 0) {
+                writeChunk();
+            }
+            writeChunk();
+            out.flush();
+        }
+    }
+
+    private void ensureWritable(final int length) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        if (written + length > decodedContentLength) {
+            throw new IOException(String.format("Can't write more than the decoded content length of %d bytes.",
+                    decodedContentLength));
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        var signature = chunkSigner.sign(buffer, 0, count);
+        out.write((Integer.toHexString(count) + AwsChunkedEncoding.CHUNK_SIGNATURE + signature)
+                .getBytes(StandardCharsets.US_ASCII));
+        out.write(AwsChunkedEncoding.CRLF);
+        out.write(buffer, 0, count);
+        out.write(AwsChunkedEncoding.CRLF);
+        count = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package aws.sigv4.samples.chunked;
+
+import com.amazonaws.util.BinaryUtils;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Computes the chained signatures of the chunks of one aws-chunked body, starting from the seed request's signature.
+ * <p>
+ * Holds its own digest and MAC, as a body may be streamed on a different thread than the one that signed it.
+ */
+final class ChunkSigner {
+
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    private final String stringToSignPrefix;
+
+    private final MessageDigest sha256;
+
+    private final Mac hmac;
+
+    private final StringBuilder stringToSign = new StringBuilder(256);
+
+    private String previousSignature;
+
+    ChunkSigner(final SecretKeySpec signingKey, final String dateTime, final String scope,
+                final String seedSignature) {
+        this.stringToSignPrefix = AwsChunkedEncoding.CHUNK_ALGORITHM + "\n" + dateTime + "\n" + scope + "\n";
+        this.previousSignature = seedSignature;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+            hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(signingKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise chunk signer.", e);
+        }
+    }
+
+    /**
+     * Returns the signature of the next chunk, chained to the signature of the previous one.
+     */
+    String sign(final byte[] data, final int offset, final int length) {
+        sha256.update(data, offset, length);
+        stringToSign.setLength(0);
+        stringToSign.append(stringToSignPrefix)
+                .append(previousSignature).append('\n')
+                .append(EMPTY_SHA256).append('\n')
+                .append(BinaryUtils.toHex(sha256.digest()));
+        // The string to sign is ASCII only.
+        var signature = hmac.doFinal(stringToSign.toString().getBytes(StandardCharsets.US_ASCII));
+        previousSignature = BinaryUtils.toHex(signature);
+        return previousSignature;
+    }
+}
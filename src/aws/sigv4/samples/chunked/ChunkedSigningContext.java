@@ -0,0 +1,74 @@
+package aws.sigv4.samples.chunked;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Signed headers of an aws-chunked request, and the state needed to encode and sign its body as it's streamed.
+ * <p>
+ * Each stream returned here starts a new chunk signature chain from the seed signature, so a body can be re-sent
+ * after a failed attempt by encoding it again.
+ */
+@AllArgsConstructor
+@Getter
+public final class ChunkedSigningContext {
+
+    /**
+     * Signed request headers, to be sent with the encoded body.
+     */
+    @NonNull
+    private final Map<String, String> requestHeaderMap;
+
+    @NonNull
+    @Getter(AccessLevel.NONE)
+    private final SecretKeySpec signingKey;
+
+    /**
+     * Signing date and time, in the X-Amz-Date format.
+     */
+    @NonNull
+    private final String dateTime;
+
+    /**
+     * Credential scope, as date/region/service/aws4_request.
+     */
+    @NonNull
+    private final String scope;
+
+    /**
+     * Signature of the seed request, which the first chunk's signature is chained to.
+     */
+    @NonNull
+    private final String seedSignature;
+
+    private final int chunkSize;
+
+    private final long decodedContentLength;
+
+    /**
+     * Returns a stream writing the aws-chunked encoding of the body to {@code out}. Exactly
+     * {@link #getDecodedContentLength()} bytes must be written before closing it, which writes the final chunk and
+     * closes {@code out}.
+     */
+    public OutputStream newChunkedOutputStream(@NonNull final OutputStream out) {
+        return new AwsChunkedOutputStream(out, newChunkSigner(), chunkSize, decodedContentLength);
+    }
+
+    /**
+     * Returns a stream reading the aws-chunked encoding of {@code body}, which must have exactly
+     * {@link #getDecodedContentLength()} bytes.
+     */
+    public InputStream newChunkedInputStream(@NonNull final InputStream body) {
+        return new AwsChunkedInputStream(body, newChunkSigner(), chunkSize, decodedContentLength);
+    }
+
+    private ChunkSigner newChunkSigner() {
+        return new ChunkSigner(signingKey, dateTime, scope, seedSignature);
+    }
+}
@@ -0,0 +1,72 @@
+package aws.sigv4.samples.credentials;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Executors for fetching credentials off the caller's thread, as fetching them may block on STS.
+ */
+@Log4j2
+public final class CredentialsExecutors {
+
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private static final Duration IDLE_THREAD_TIMEOUT = Duration.ofSeconds(60);
+
+    private CredentialsExecutors() {
+    }
+
+    /**
+     * Returns the shared executor signers fetch credentials on by default: virtual threads when the runtime supports
+     * them, else a pool of {@link #DEFAULT_POOL_SIZE} daemon threads.
+     */
+    public static Executor getDefault() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    /**
+     * Returns a new virtual thread per task executor, or empty when the runtime doesn't support virtual threads.
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            // Looked up reflectively, so this still compiles and runs on runtimes without virtual threads.
+            var factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return Optional.of((ExecutorService) factory.invoke(null));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return Optional.empty();
+        } catch (InvocationTargetException e) {
+            // Virtual threads are a preview feature on some runtimes, and fail when previews aren't enabled.
+            log.debug("Virtual threads aren't available.", e.getCause());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns a new pool of at most {@code poolSize} daemon threads, which time out when idle.
+     */
+    public static ExecutorService newDaemonThreadPool(final int poolSize) {
+        var threadCount = new AtomicInteger();
+        var executor = new ThreadPoolExecutor(poolSize, poolSize, IDLE_THREAD_TIMEOUT.toMillis(),
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    var thread = new Thread(runnable, "aws-credentials-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final Executor INSTANCE = newVirtualThreadPerTaskExecutor()
+                .orElseGet(() -> newDaemonThreadPool(DEFAULT_POOL_SIZE));
+    }
+}
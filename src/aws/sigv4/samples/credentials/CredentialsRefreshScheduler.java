@@ -0,0 +1,176 @@
+package aws.sigv4.samples.credentials;
+
+import aws.sigv4.samples.metrics.SignerMetrics;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Refreshes registered credentials providers in the background ahead of the expiry of their sessions, so callers
+ * never wait on STS for a refresh.
+ * <p>
+ * Each provider is refreshed at a random time within {@code jitter} before {@code refreshAhead} of its session expiry.
+ * Providers whose sessions were created together, e.g. when a cache of providers is warmed, are then refreshed at
+ * spread out times instead of all at once, and never reach the window in which they would refresh themselves on the
+ * calling thread. Refreshes run on a bounded pool of worker threads.
+ * <p>
+ * Providers are held weakly, so a provider no longer referenced elsewhere (e.g. evicted from its cache) stops being
+ * refreshed without having to be unregistered.
+ */
+@Log4j2
+public class CredentialsRefreshScheduler {
+
+    public static final Duration DEFAULT_SESSION_DURATION =
+            Duration.ofSeconds(STSAssumeRoleSessionCredentialsProvider.DEFAULT_DURATION_SECONDS);
+
+    /**
+     * Ahead of the 5 minutes before expiry in which the SDK's STS providers refresh on the calling thread.
+     */
+    public static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofMinutes(6);
+
+    public static final Duration DEFAULT_JITTER = Duration.ofMinutes(3);
+
+    public static final int DEFAULT_WORKER_COUNT = 4;
+
+    static final Duration REFRESH_RETRY_DELAY = Duration.ofSeconds(10);
+
+    private final ScheduledExecutorService workers;
+
+    private final long sessionDurationMillis;
+
+    private final long refreshAheadMillis;
+
+    private final long jitterMillis;
+
+    private final Map<AWSCredentialsProvider, RefreshTask> registered =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    public CredentialsRefreshScheduler(@NonNull final ScheduledExecutorService workers,
+                                       @NonNull final Duration sessionDuration,
+                                       @NonNull final Duration refreshAhead,
+                                       @NonNull final Duration jitter) {
+        if (jitter.isNegative() || sessionDuration.compareTo(refreshAhead.plus(jitter)) <= 0) {
+            throw new IllegalArgumentException("refreshAhead and jitter must fit within sessionDuration.");
+        }
+        this.workers = workers;
+        this.sessionDurationMillis = sessionDuration.toMillis();
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.jitterMillis = jitter.toMillis();
+    }
+
+    /**
+     * Returns the shared scheduler, refreshing sessions of {@link #DEFAULT_SESSION_DURATION} on
+     * {@link #DEFAULT_WORKER_COUNT} daemon threads.
+     */
+    public static CredentialsRefreshScheduler getDefault() {
+        return DefaultSchedulerHolder.INSTANCE;
+    }
+
+    /**
+     * Returns a new pool of {@code workerCount} daemon threads to run refreshes on.
+     */
+    public static ScheduledExecutorService newWorkerPool(final int workerCount) {
+        var threadCount = new AtomicInteger();
+        return new ScheduledThreadPoolExecutor(workerCount, runnable -> {
+            var thread = new Thread(runnable, "aws-credentials-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts refreshing {@code credentialsProvider}, whose session is assumed to have just been created or to be
+     * created on first use. Registering a provider again has no effect.
+     */
+    public void register(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        var task = new RefreshTask(this, credentialsProvider);
+        if (registered.putIfAbsent(credentialsProvider, task) == null) {
+            schedule(task, nextRefreshDelayMillis());
+        }
+    }
+
+    /**
+     * Stops refreshing {@code credentialsProvider}. A refresh already running still completes.
+     */
+    public void unregister(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        registered.remove(credentialsProvider);
+    }
+
+    public boolean isRegistered(@NonNull final AWSCredentialsProvider credentialsProvider) {
+        return registered.containsKey(credentialsProvider);
+    }
+
+    long nextRefreshDelayMillis() {
+        var jitter = jitterMillis == 0L ? 0L : ThreadLocalRandom.current().nextLong(jitterMillis + 1);
+        return sessionDurationMillis - refreshAheadMillis - jitter;
+    }
+
+    void refresh(final RefreshTask task, final AWSCredentialsProvider credentialsProvider) {
+        if (registered.get(credentialsProvider) != task) {
+            // Unregistered, possibly registered again since with a task of its own.
+            return;
+        }
+
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        long delayMillis;
+        try {
+            credentialsProvider.refresh();
+            if (metrics.isEnabled()) {
+                metrics.recordStsCall(System.nanoTime() - start, true);
+            }
+            delayMillis = nextRefreshDelayMillis();
+        } catch (RuntimeException e) {
+            if (metrics.isEnabled()) {
+                metrics.recordStsCall(System.nanoTime() - start, false);
+            }
+            // The current session stays valid until the provider's own refresh window, so keep retrying until then.
+            log.warn("Background refresh of credentials provider failed, retrying.", e);
+            delayMillis = REFRESH_RETRY_DELAY.toMillis() + ThreadLocalRandom.current().nextLong(
+                    REFRESH_RETRY_DELAY.toMillis() + 1);
+        }
+        schedule(task, delayMillis);
+    }
+
+    private void schedule(final RefreshTask task, final long delayMillis) {
+        workers.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds the provider weakly, so pending refreshes don't keep an unreferenced provider (and its STS calls) alive.
+     */
+    static final class RefreshTask implements Runnable {
+        private final CredentialsRefreshScheduler scheduler;
+        private final WeakReference<AWSCredentialsProvider> credentialsProvider;
+
+        private RefreshTask(final CredentialsRefreshScheduler scheduler,
+                            final AWSCredentialsProvider credentialsProvider) {
+            this.scheduler = scheduler;
+            this.credentialsProvider = new WeakReference<>(credentialsProvider);
+        }
+
+        @Override
+        public void run() {
+            var target = credentialsProvider.get();
+            if (target != null) {
+                scheduler.refresh(this, target);
+            }
+        }
+    }
+
+    private static final class DefaultSchedulerHolder {
+        private static final CredentialsRefreshScheduler INSTANCE = new CredentialsRefreshScheduler(
+                newWorkerPool(DEFAULT_WORKER_COUNT), DEFAULT_SESSION_DURATION, DEFAULT_REFRESH_AHEAD, DEFAULT_JITTER);
+    }
+}
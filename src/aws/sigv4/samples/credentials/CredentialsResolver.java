@@ -0,0 +1,33 @@
+package aws.sigv4.samples.credentials;
+
+import com.amazonaws.auth.AWSCredentials;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.NonNull;
+
+/**
+ * Resolves the credentials a signature was computed with from the access key id of its credential scope, for
+ * {@link aws.sigv4.samples.AwsSigV4Verifier}.
+ * <p>
+ * Implementations are called for every verified request, so they should answer from memory.
+ */
+@FunctionalInterface
+public interface CredentialsResolver {
+
+    /**
+     * Returns the credentials of {@code accessKeyId}, or null when the access key id is unknown. For session
+     * credentials, requests must also carry their session token.
+     */
+    AWSCredentials resolveCredentials(String accessKeyId);
+
+    /**
+     * Returns a resolver of a fixed set of credentials.
+     */
+    static CredentialsResolver of(@NonNull final AWSCredentials... credentials) {
+        Map<String, AWSCredentials> credentialsByAccessKeyId = Stream.of(credentials)
+                .collect(Collectors.toUnmodifiableMap(AWSCredentials::getAWSAccessKeyId, Function.identity()));
+        return credentialsByAccessKeyId::get;
+    }
+}
@@ -0,0 +1,34 @@
+package aws.sigv4.samples.credentials;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import lombok.NonNull;
+
+/**
+ * Credentials provider which can hand out its credentials without blocking, when it has them cached.
+ * <p>
+ * Asynchronous signers sign inline with such credentials, and only move to their credentials executor when
+ * {@link #getCredentialsIfAvailable()} returns null.
+ */
+public interface NonBlockingCredentialsProvider extends AWSCredentialsProvider {
+
+    /**
+     * Returns the credentials if they're available without blocking, or null.
+     */
+    AWSCredentials getCredentialsIfAvailable();
+
+    /**
+     * Returns the credentials of {@code provider} if it can hand them out without blocking, or null. Static
+     * credentials are always available, other providers which don't implement this interface never are.
+     */
+    static AWSCredentials getCredentialsIfAvailable(@NonNull final AWSCredentialsProvider provider) {
+        if (provider instanceof NonBlockingCredentialsProvider) {
+            return ((NonBlockingCredentialsProvider) provider).getCredentialsIfAvailable();
+        }
+        if (provider instanceof AWSStaticCredentialsProvider) {
+            return provider.getCredentials();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,286 @@
+package aws.sigv4.samples.credentials;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.services.securitytoken.model.Credentials;
+import java.lang.ref.WeakReference;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Cache for the session credentials returned by the last STS AssumeRole call.
+ * <p>
+ * Cached credentials are served until {@code minRemainingValidity} before they expire. A refresh is scheduled in the
+ * background {@code refreshAhead} before expiry, so in steady state no caller blocks on STS. If the background refresh
+ * fails, the still valid credentials keep being served and the refresh is retried after a delay, without callers
+ * queueing refreshes of their own in between. Callers only block when there are
+ * no usable credentials, and concurrent callers in that state share a single in-flight load.
+ * <p>
+ * Background refreshes stop when the credentials haven't been used since the previous load, so an idle cache doesn't
+ * keep calling STS. The next caller then loads the credentials again.
+ * <p>
+ * Background refreshes are timed on a scheduler but load on a separate loader executor, so the single scheduler
+ * thread shared by all caches by default never blocks on STS and delays the refreshes of other caches.
+ */
+@Log4j2
+public class RefreshAheadSessionCredentialsCache {
+
+    public static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofMinutes(5);
+
+    public static final Duration DEFAULT_MIN_REMAINING_VALIDITY = Duration.ofMinutes(1);
+
+    static final Duration REFRESH_RETRY_DELAY = Duration.ofSeconds(10);
+
+    private static final ScheduledExecutorService DEFAULT_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                var thread = new Thread(runnable, "sts-session-credentials-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * Loads fresh session credentials, typically by calling STS AssumeRole.
+     */
+    @FunctionalInterface
+    public interface SessionCredentialsLoader {
+        Credentials load() throws PartnerGatewayConfigurationException;
+    }
+
+    private final SessionCredentialsLoader loader;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Executor loaderExecutor;
+
+    private final Clock clock;
+
+    private final long refreshAheadMillis;
+
+    private final long minRemainingValidityMillis;
+
+    private final AtomicReference<CachedCredentials> cached = new AtomicReference<>();
+
+    private final AtomicReference<CompletableFuture<CachedCredentials>> inFlight = new AtomicReference<>();
+
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+
+    /**
+     * Time before which background refreshes aren't attempted, after a failed one. Reset by a successful load.
+     */
+    private volatile long nextRefreshAttemptMillis = Long.MIN_VALUE;
+
+    private volatile boolean usedSinceLoad;
+
+    public RefreshAheadSessionCredentialsCache(@NonNull final SessionCredentialsLoader loader) {
+        this(loader, DEFAULT_SCHEDULER, CredentialsExecutors.getDefault(), Clock.systemUTC(), DEFAULT_REFRESH_AHEAD,
+                DEFAULT_MIN_REMAINING_VALIDITY);
+    }
+
+    /**
+     * @param scheduler      times background refreshes, and must not run blocking tasks.
+     * @param loaderExecutor runs the background refreshes, blocking on {@code loader}.
+     */
+    public RefreshAheadSessionCredentialsCache(@NonNull final SessionCredentialsLoader loader,
+                                               @NonNull final ScheduledExecutorService scheduler,
+                                               @NonNull final Executor loaderExecutor,
+                                               @NonNull final Clock clock,
+                                               @NonNull final Duration refreshAhead,
+                                               @NonNull final Duration minRemainingValidity) {
+        if (refreshAhead.compareTo(minRemainingValidity) < 0) {
+            throw new IllegalArgumentException("refreshAhead must not be shorter than minRemainingValidity.");
+        }
+        this.loader = loader;
+        this.scheduler = scheduler;
+        this.loaderExecutor = loaderExecutor;
+        this.clock = clock;
+        this.refreshAheadMillis = refreshAhead.toMillis();
+        this.minRemainingValidityMillis = minRemainingValidity.toMillis();
+    }
+
+    /**
+     * Returns the cached session credentials, loading them only if there are no usable cached credentials.
+     */
+    public AWSSessionCredentials getCredentials() throws PartnerGatewayConfigurationException {
+        var credentials = getCachedCredentials();
+        if (credentials != null) {
+            return credentials;
+        }
+
+        log.debug("No usable cached session credentials, loading them.");
+        return load().credentials;
+    }
+
+    /**
+     * Returns the cached session credentials without ever blocking, or null when there are no usable cached
+     * credentials and {@link #getCredentials()} would have to load them.
+     */
+    public AWSSessionCredentials getCachedCredentials() {
+        if (!usedSinceLoad) {
+            // Read before write, to keep the hot path free of contention on this field.
+            usedSinceLoad = true;
+        }
+
+        var now = clock.millis();
+        var current = cached.get();
+        if (current != null && current.isUsableAt(now)) {
+            if (current.needsRefreshAt(now) && now >= nextRefreshAttemptMillis) {
+                refreshInBackground();
+            }
+            return current.credentials;
+        }
+        return null;
+    }
+
+    private CachedCredentials load() throws PartnerGatewayConfigurationException {
+        var future = new CompletableFuture<CachedCredentials>();
+        var existing = inFlight.compareAndExchange(null, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            // Another load may have completed between the caller's check and winning the in-flight slot.
+            var current = cached.get();
+            if (current != null && !current.needsRefreshAt(clock.millis())) {
+                future.complete(current);
+                return current;
+            }
+
+            var loaded = loadNow();
+            future.complete(loaded);
+            return loaded;
+        } catch (PartnerGatewayConfigurationException | RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.compareAndSet(future, null);
+        }
+    }
+
+    private CachedCredentials loadNow() throws PartnerGatewayConfigurationException {
+        var sessionCredentials = loader.load();
+        var now = clock.millis();
+        var expiration = sessionCredentials.getExpiration();
+        var loaded = new CachedCredentials(
+                new BasicSessionCredentials(
+                        sessionCredentials.getAccessKeyId(),
+                        sessionCredentials.getSecretAccessKey(),
+                        sessionCredentials.getSessionToken()),
+                expiration == null ? now : expiration.getTime());
+
+        if (loaded.isUsableAt(now)) {
+            usedSinceLoad = false;
+            nextRefreshAttemptMillis = Long.MIN_VALUE;
+            cached.set(loaded);
+            scheduleRefresh(Math.max(0L, loaded.expirationMillis - refreshAheadMillis - now));
+        } else {
+            // Still hand these out to the callers of this load, but don't serve them to anyone else.
+            log.warn("Loaded session credentials expire at {}, which is too soon to cache them.", expiration);
+        }
+        return loaded;
+    }
+
+    private void refreshInBackground() {
+        if (refreshQueued.compareAndSet(false, true)) {
+            loaderExecutor.execute(new RefreshTask(this));
+        }
+    }
+
+    private void scheduleRefresh(final long delayMillis) {
+        var refreshTask = new RefreshTask(this);
+        var executor = loaderExecutor;
+        scheduler.schedule(() -> executor.execute(refreshTask), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    void refresh() {
+        refreshQueued.set(false);
+
+        var current = cached.get();
+        if (current == null || !current.needsRefreshAt(clock.millis())) {
+            // Nothing cached, or a newer load already replaced the credentials this refresh was scheduled for.
+            return;
+        }
+        if (!usedSinceLoad) {
+            log.debug("Session credentials weren't used since last load, skipping background refresh.");
+            return;
+        }
+        if (clock.millis() < nextRefreshAttemptMillis) {
+            // A refresh queued before the last one failed, the scheduled retry refreshes them.
+            return;
+        }
+
+        try {
+            load();
+        } catch (PartnerGatewayConfigurationException | RuntimeException e) {
+            log.warn("Background refresh of session credentials failed, serving cached credentials until expiry.", e);
+            // Callers inside the refresh window don't queue refreshes of their own until the retry is due.
+            nextRefreshAttemptMillis = clock.millis() + REFRESH_RETRY_DELAY.toMillis();
+            if (current.isUsableAt(clock.millis())) {
+                scheduleRefresh(REFRESH_RETRY_DELAY.toMillis());
+            }
+        }
+    }
+
+    private static CachedCredentials join(final CompletableFuture<CachedCredentials> future)
+            throws PartnerGatewayConfigurationException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PartnerGatewayConfigurationException) {
+                throw (PartnerGatewayConfigurationException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private final class CachedCredentials {
+        private final AWSSessionCredentials credentials;
+        private final long expirationMillis;
+
+        private CachedCredentials(final AWSSessionCredentials credentials, final long expirationMillis) {
+            this.credentials = credentials;
+            this.expirationMillis = expirationMillis;
+        }
+
+        private boolean isUsableAt(final long now) {
+            return now < expirationMillis - minRemainingValidityMillis;
+        }
+
+        private boolean needsRefreshAt(final long now) {
+            return now >= expirationMillis - refreshAheadMillis;
+        }
+    }
+
+    /**
+     * Holds the cache weakly, so pending refreshes don't keep an unreferenced cache (and its STS calls) alive.
+     */
+    private static final class RefreshTask implements Runnable {
+        private final WeakReference<RefreshAheadSessionCredentialsCache> cache;
+
+        private RefreshTask(final RefreshAheadSessionCredentialsCache cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        @Override
+        public void run() {
+            var target = cache.get();
+            if (target != null) {
+                target.refresh();
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package aws.sigv4.samples.eventstream;
+
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.SignedHeaders;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningKeyCache;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.util.BinaryUtils;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.NonNull;
+
+/**
+ * Signs the frames of an event stream (STREAMING-AWS4-HMAC-SHA256-EVENTS), each with a signature chained to the
+ * signature of the previous frame, starting from the signature of the seed request.
+ * <p>
+ * The seed request is signed by any {@link aws.sigv4.samples.AwsSigV4Signer}, with
+ * {@link SigV4SigningEngine#STREAMING_EVENTS_PAYLOAD} passed as its {@code requestPayloadSha256}. Each frame is an
+ * event-stream message carrying a {@code :date} and a {@code :chunk-signature} header, whose payload is the encoded
+ * event message. The stream ends with a frame with an empty payload, returned by {@link #signEnd()}.
+ * <p>
+ * The signing key is looked up once, from the shared {@link SigningKeyCache}. Frames are then signed with the signer's
+ * own digest, MAC and buffers, so signing a frame allocates nothing but the returned frame, or nothing at all with
+ * {@link #sign(byte[], int, int, byte[], int)}. Instances aren't thread safe: one is created per stream, and frames are
+ * signed in the order they are sent.
+ */
+public final class EventStreamFrameSigner {
+
+    public static final String FRAME_ALGORITHM = "AWS4-HMAC-SHA256-PAYLOAD";
+
+    public static final String DATE_HEADER = ":date";
+
+    public static final String SIGNATURE_HEADER = ":chunk-signature";
+
+    static final byte TIMESTAMP_TYPE = 8;
+
+    static final byte BYTE_ARRAY_TYPE = 6;
+
+    private static final int PRELUDE_LENGTH = 12;
+
+    private static final int CRC_LENGTH = 4;
+
+    private static final int SIGNATURE_LENGTH = 32;
+
+    private static final int DATE_HEADER_LENGTH = 1 + DATE_HEADER.length() + 1 + 8;
+
+    private static final int HEADERS_LENGTH = DATE_HEADER_LENGTH + 1 + SIGNATURE_HEADER.length() + 1 + 2
+            + SIGNATURE_LENGTH;
+
+    private static final int DATE_TIME_LENGTH = 16;
+
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    private static final String AUTHORIZATION_PREFIX = SigV4SigningEngine.ALGORITHM + " Credential=";
+
+    private static final String SIGNATURE_PREFIX = "Signature=";
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final Clock clock;
+
+    private final MessageDigest sha256;
+
+    private final Mac hmac;
+
+    private final CRC32 crc32 = new CRC32();
+
+    /**
+     * String to sign, whose algorithm and credential scope are written once, and whose date and time, prior
+     * signature, headers hash and payload hash are overwritten in place for each frame.
+     */
+    private final byte[] stringToSign;
+
+    private final int dateTimeOffset;
+
+    private final int priorSignatureOffset;
+
+    private final byte[] digest = new byte[32];
+
+    private final byte[] signature = new byte[SIGNATURE_LENGTH];
+
+    private long cachedEpochSecond = Long.MIN_VALUE;
+
+    private EventStreamFrameSigner(final SecretKeySpec signingKey, final String scope, final byte[] seedSignature,
+                                   final Clock clock) {
+        this.clock = clock;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+            hmac = Mac.getInstance("HmacSHA256");
+            hmac.init(signingKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise event stream frame signer.", e);
+        }
+
+        var prefix = (FRAME_ALGORITHM + "\n").getBytes(StandardCharsets.US_ASCII);
+        var scopeLine = ("\n" + scope + "\n").getBytes(StandardCharsets.US_ASCII);
+        dateTimeOffset = prefix.length;
+        priorSignatureOffset = dateTimeOffset + DATE_TIME_LENGTH + scopeLine.length;
+        stringToSign = new byte[priorSignatureOffset + 3 * SHA256_HEX_LENGTH + 2];
+        System.arraycopy(prefix, 0, stringToSign, 0, prefix.length);
+        System.arraycopy(scopeLine, 0, stringToSign, dateTimeOffset + DATE_TIME_LENGTH, scopeLine.length);
+        stringToSign[priorSignatureOffset + SHA256_HEX_LENGTH] = '\n';
+        stringToSign[priorSignatureOffset + 2 * SHA256_HEX_LENGTH + 1] = '\n';
+        System.arraycopy(seedSignature, 0, signature, 0, SIGNATURE_LENGTH);
+    }
+
+    /**
+     * Returns a signer for the frames of the event stream sent with the seed request signed in {@code seedRequest},
+     * with the credentials it was signed with.
+     */
+    public static EventStreamFrameSigner create(@NonNull final AwsSigV4SignerOutput seedRequest,
+                                                @NonNull final AWSCredentials credentials,
+                                                @NonNull final Clock clock)
+            throws PartnerGatewayInvalidInputException {
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(seedRequest.getRequestHeaderMap());
+        return create(headers.get(SigV4SigningEngine.AUTHORIZATION), credentials, clock);
+    }
+
+    /**
+     * Same as {@link #create(AwsSigV4SignerOutput, AWSCredentials, Clock)}, for the headers returned by
+     * {@link aws.sigv4.samples.AwsSigV4Signer#signHeaders}.
+     */
+    public static EventStreamFrameSigner create(@NonNull final SignedHeaders seedRequest,
+                                                @NonNull final AWSCredentials credentials,
+                                                @NonNull final Clock clock)
+            throws PartnerGatewayInvalidInputException {
+        return create(seedRequest.getAuthorization(), credentials, clock);
+    }
+
+    private static EventStreamFrameSigner create(final String authorization, final AWSCredentials credentials,
+                                                 final Clock clock)
+            throws PartnerGatewayInvalidInputException {
+        var credentialEnd = authorization == null ? -1 : authorization.indexOf(',');
+        var signatureStart = authorization == null ? -1 : authorization.lastIndexOf(SIGNATURE_PREFIX);
+        if (credentialEnd < 0 || signatureStart < 0 || !authorization.startsWith(AUTHORIZATION_PREFIX)
+                || authorization.length() - signatureStart - SIGNATURE_PREFIX.length() != SHA256_HEX_LENGTH) {
+            throw new PartnerGatewayInvalidInputException(String.format(
+                    "Seed request has no valid %s Authorization header.", SigV4SigningEngine.ALGORITHM));
+        }
+
+        var credential = authorization.substring(AUTHORIZATION_PREFIX.length(), credentialEnd).split("/");
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        if (credential.length != 5 || !credential[0].equals(accessKeyId)) {
+            throw new PartnerGatewayInvalidInputException(String.format(
+                    "Seed request wasn't signed with the credentials of access key id %s.", accessKeyId));
+        }
+
+        var signingKey = SigningKeyCache.getInstance().getSigningKeySpec(accessKeyId,
+                credentials.getAWSSecretKey().trim(), credential[1], credential[2], credential[3]);
+        var scope = String.join("/", credential[1], credential[2], credential[3], credential[4]);
+        var seedSignature = BinaryUtils.fromHex(authorization.substring(signatureStart + SIGNATURE_PREFIX.length()));
+        return new EventStreamFrameSigner(signingKey, scope, seedSignature, clock);
+    }
+
+    /**
+     * Returns the length of the frame carrying a payload of {@code payloadLength} bytes.
+     */
+    public static int frameLength(final int payloadLength) {
+        return PRELUDE_LENGTH + HEADERS_LENGTH + payloadLength + CRC_LENGTH;
+    }
+
+    /**
+     * Returns the signed frame carrying {@code payload}.
+     */
+    public byte[] sign(@NonNull final byte[] payload) {
+        return sign(payload, 0, payload.length);
+    }
+
+    /**
+     * Returns the signed frame carrying {@code length} bytes of {@code payload} from {@code offset}.
+     */
+    public byte[] sign(@NonNull final byte[] payload, final int offset, final int length) {
+        var frame = new byte[frameLength(length)];
+        sign(payload, offset, length, frame, 0);
+        return frame;
+    }
+
+    /**
+     * Writes the signed frame carrying {@code length} bytes of {@code payload} from {@code offset} to {@code frame}
+     * from {@code frameOffset}, and returns its length, {@link #frameLength(int)}.
+     */
+    public int sign(@NonNull final byte[] payload, final int offset, final int length, @NonNull final byte[] frame,
+                    final int frameOffset) {
+        if (offset < 0 || length < 0 || offset > payload.length - length) {
+            throw new IndexOutOfBoundsException("Payload range is out of bounds.");
+        }
+        var frameLength = frameLength(length);
+        if (frameOffset < 0 || frameOffset > frame.length - frameLength) {
+            throw new IndexOutOfBoundsException("Frame doesn't fit in the passed buffer.");
+        }
+
+        var signingTimeMillis = clock.millis();
+        updateDateTime(signingTimeMillis);
+
+        var position = writeInt(frame, frameOffset, frameLength);
+        position = writeInt(frame, position, HEADERS_LENGTH);
+        crc32.reset();
+        crc32.update(frame, frameOffset, position - frameOffset);
+        position = writeInt(frame, position, (int) crc32.getValue());
+
+        // Only the :date header is signed, the signature being the :chunk-signature header.
+        var dateHeaderOffset = position;
+        position = writeHeaderName(frame, position, DATE_HEADER);
+        frame[position++] = TIMESTAMP_TYPE;
+        position = writeLong(frame, position, signingTimeMillis);
+        sha256.update(frame, dateHeaderOffset, DATE_HEADER_LENGTH);
+        writeDigestHex(priorSignatureOffset + SHA256_HEX_LENGTH + 1);
+        sha256.update(payload, offset, length);
+        writeDigestHex(priorSignatureOffset + 2 * SHA256_HEX_LENGTH + 2);
+        writeHex(signature, stringToSign, priorSignatureOffset);
+        try {
+            hmac.update(stringToSign);
+            hmac.doFinal(signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute HmacSHA256.", e);
+        }
+
+        position = writeHeaderName(frame, position, SIGNATURE_HEADER);
+        frame[position++] = BYTE_ARRAY_TYPE;
+        frame[position++] = 0;
+        frame[position++] = (byte) SIGNATURE_LENGTH;
+        System.arraycopy(signature, 0, frame, position, SIGNATURE_LENGTH);
+        position += SIGNATURE_LENGTH;
+        System.arraycopy(payload, offset, frame, position, length);
+        position += length;
+
+        crc32.reset();
+        crc32.update(frame, frameOffset, position - frameOffset);
+        writeInt(frame, position, (int) crc32.getValue());
+        return frameLength;
+    }
+
+    /**
+     * Returns the signed frame with an empty payload, which ends the stream.
+     */
+    public byte[] signEnd() {
+        return sign(new byte[0]);
+    }
+
+    /**
+     * Returns the hex encoded signature of the last signed frame, or of the seed request before the first frame.
+     */
+    public String getPriorSignature() {
+        return BinaryUtils.toHex(signature);
+    }
+
+    private void updateDateTime(final long signingTimeMillis) {
+        var epochSecond = Math.floorDiv(signingTimeMillis, 1000L);
+        if (epochSecond != cachedEpochSecond) {
+            var dateTime = DATE_TIME_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+            for (int i = 0; i < DATE_TIME_LENGTH; i++) {
+                stringToSign[dateTimeOffset + i] = (byte) dateTime.charAt(i);
+            }
+            cachedEpochSecond = epochSecond;
+        }
+    }
+
+    private void writeDigestHex(final int stringToSignOffset) {
+        try {
+            sha256.digest(digest, 0, digest.length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute SHA-256.", e);
+        }
+        writeHex(digest, stringToSign, stringToSignOffset);
+    }
+
+    private static void writeHex(final byte[] bytes, final byte[] target, final int offset) {
+        for (int i = 0; i < bytes.length; i++) {
+            target[offset + 2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            target[offset + 2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+    }
+
+    private static int writeHeaderName(final byte[] frame, final int offset, final String name) {
+        frame[offset] = (byte) name.length();
+        for (int i = 0; i < name.length(); i++) {
+            frame[offset + 1 + i] = (byte) name.charAt(i);
+        }
+        return offset + 1 + name.length();
+    }
+
+    private static int writeInt(final byte[] frame, final int offset, final int value) {
+        frame[offset] = (byte) (value >>> 24);
+        frame[offset + 1] = (byte) (value >>> 16);
+        frame[offset + 2] = (byte) (value >>> 8);
+        frame[offset + 3] = (byte) value;
+        return offset + 4;
+    }
+
+    private static int writeLong(final byte[] frame, final int offset, final long value) {
+        writeInt(frame, offset, (int) (value >>> 32));
+        return writeInt(frame, offset + 4, (int) value);
+    }
+}
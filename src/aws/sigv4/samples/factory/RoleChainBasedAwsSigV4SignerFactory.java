@@ -2,23 +2,68 @@ package aws.sigv4.samples.factory;
 
 import aws.sigv4.samples.AwsSigV4Signer;
 import aws.sigv4.samples.CredentialProviderBasedAwsSigV4Signer;
+import aws.sigv4.samples.credentials.CredentialsExecutors;
+import aws.sigv4.samples.credentials.CredentialsRefreshScheduler;
+import aws.sigv4.samples.models.RoleChain;
+import aws.sigv4.samples.models.RoleChainHop;
+import aws.sigv4.samples.models.WarmUpReport;
+import aws.sigv4.samples.models.WarmUpTarget;
 import com.amazonaws.auth.AWSSessionCredentialsProvider;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider.Builder;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.AWSSecurityTokenServiceClientBuilder;
 import com.github.benmanes.caffeine.cache.Cache;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.AllArgsConstructor;
 import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
 
+/**
+ * Factory of signers assuming a chain of roles: by default a first level role, or a partner role chained through it,
+ * or any {@link RoleChain}.
+ * <p>
+ * Every hop of a chain is cached under the path of hops leading to it, so chains through the same intermediate roles
+ * share their credentials providers, and the STS client built from each intermediate provider (one per region). A cache
+ * miss then only assumes the roles which aren't cached yet, usually just the last one. When an intermediate hop is
+ * loaded again after it was evicted, the hops chained through its earlier provider are invalidated along with their
+ * STS client, so chains are assumed again through the new provider.
+ * <p>
+ * Credentials providers are created through the cache's atomic {@link Cache#get} loading, so concurrent misses for the
+ * same hop share a single provider instead of each assuming the role on their own. Every provider created is registered
+ * with a {@link CredentialsRefreshScheduler}, which refreshes its session in the background at a jittered time ahead of
+ * expiry, so providers created together don't all expire and refresh on request threads at the same time.
+ * <p>
+ * {@link #warmUp} assumes a set of roles ahead of traffic, e.g. at startup, so first requests don't pay for it.
+ */
 @AllArgsConstructor
+@Log4j2
 public class RoleChainBasedAwsSigV4SignerFactory implements SigV4SignerFactory {
 
+    private static final String HOP_SEPARATOR = " > ";
+
     @NonNull
     private final String firstLevelChainedIamRoleArn;
 
     /*
-        In credentialProviderCache Key is String which is IamRole Used for STS and Its store corresponding credentials
+        In credentialProviderCache Key is the path of hops leading to a hop, and it stores the corresponding
+        credentials.
+        A hop is "roleArn#sessionName", and hops assumed through the STS client of the previous one are appended as
+        "@region > roleArn#sessionName", e.g. "arn:aws:iam::111122223333:role/hub#hub-session@us-east-1 >
+        arn:aws:iam::444455556666:role/partner#partner-session". Keys used to be the bare role ARN, so code reading a
+        shared cache by role ARN must build these keys instead.
      */
     @NonNull
     private final Cache<String, AWSSessionCredentialsProvider> credentialProviderCache;
@@ -29,41 +74,255 @@ public class RoleChainBasedAwsSigV4SignerFactory implements SigV4SignerFactory {
     @NonNull
     private final String partnerAssumeRoleSessionName;
 
+    @NonNull
+    private final CredentialsRefreshScheduler refreshScheduler;
+
+    /*
+        In stsClients Key is the path of a cached intermediate hop followed by the region of the STS client, and it
+        stores the STS client built from the hop's provider, along with the keys of the hops assumed through it
+     */
+    private final ConcurrentMap<String, HopStsClient> stsClients = new ConcurrentHashMap<>();
+
+    public RoleChainBasedAwsSigV4SignerFactory(
+            @NonNull final String firstLevelChainedIamRoleArn,
+            @NonNull final Cache<String, AWSSessionCredentialsProvider> credentialProviderCache,
+            @NonNull final String defaultAssumeRoleSessionName,
+            @NonNull final String partnerAssumeRoleSessionName) {
+        this(firstLevelChainedIamRoleArn, credentialProviderCache, defaultAssumeRoleSessionName,
+                partnerAssumeRoleSessionName, CredentialsRefreshScheduler.getDefault());
+    }
+
     @Override
     public AwsSigV4Signer getAwsSigV4Signer(String secondLevelChainedIamRoleArn, @NonNull String region) {
+        return getAwsSigV4Signer(toRoleChain(secondLevelChainedIamRoleArn), region);
+    }
+
+    /**
+     * Returns a signer with the credentials of the last hop of {@code roleChain}. Hops after the first one are
+     * assumed through STS clients of {@code region}.
+     */
+    public AwsSigV4Signer getAwsSigV4Signer(@NonNull RoleChain roleChain, @NonNull String region) {
+        return new CredentialProviderBasedAwsSigV4Signer(getCredentialsProvider(roleChain, region));
+    }
+
+    /**
+     * Assumes the roles of {@code targets} in parallel, at most {@code maxConcurrency} at a time, so later
+     * {@link #getAwsSigV4Signer} calls for them are served from cached credentials. Targets sharing the first level
+     * role assume it once.
+     * <p>
+     * Waits at most {@code timeout}: targets not warmed by then are reported as failed with a {@link TimeoutException},
+     * though their credentials keep being fetched in the background. Failures are reported rather than thrown, so the
+     * caller can decide whether the signer is warm enough to serve traffic.
+     */
+    public WarmUpReport warmUp(@NonNull Collection<WarmUpTarget> targets, int maxConcurrency,
+                               @NonNull Duration timeout) throws InterruptedException {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1.");
+        }
 
-        if (secondLevelChainedIamRoleArn == null) {
-            if (credentialProviderCache.getIfPresent(firstLevelChainedIamRoleArn) != null) {
-                return new CredentialProviderBasedAwsSigV4Signer(
-                        credentialProviderCache.getIfPresent(firstLevelChainedIamRoleArn));
+        var distinctTargets = List.copyOf(new LinkedHashSet<>(targets));
+        var report = WarmUpReport.builder();
+        if (distinctTargets.isEmpty()) {
+            return report.build();
+        }
+
+        log.info("Warming credentials of {} targets.", distinctTargets.size());
+        var tasks = new ArrayList<Callable<Void>>(distinctTargets.size());
+        for (var target : distinctTargets) {
+            tasks.add(() -> {
+                getCredentialsProvider(toRoleChain(target.getRoleArn()), target.getRegion()).getCredentials();
+                return null;
+            });
+        }
+
+        var executor = CredentialsExecutors.newDaemonThreadPool(Math.min(maxConcurrency, tasks.size()));
+        try {
+            var deadline = System.nanoTime() + timeout.toNanos();
+            var futures = new ArrayList<Future<Void>>(tasks.size());
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
             }
-            STSAssumeRoleSessionCredentialsProvider firstLevelRoleAssumeRoleSessionCredentialsProvider = new Builder(
-                    firstLevelChainedIamRoleArn,
-                    defaultAssumeRoleSessionName)
-                    .build();
-            credentialProviderCache
-                    .put(firstLevelChainedIamRoleArn, firstLevelRoleAssumeRoleSessionCredentialsProvider);
-            return new CredentialProviderBasedAwsSigV4Signer(firstLevelRoleAssumeRoleSessionCredentialsProvider);
+            for (int i = 0; i < futures.size(); i++) {
+                var target = distinctTargets.get(i);
+                try {
+                    futures.get(i).get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    report.warmedTarget(target);
+                } catch (TimeoutException e) {
+                    // Left running: interrupting it would abort the STS call whose credentials it caches.
+                    report.failedTarget(target, new TimeoutException(
+                            String.format("Credentials weren't warmed within %s.", timeout)));
+                } catch (ExecutionException e) {
+                    log.warn("Failed to warm credentials of {}.", target, e.getCause());
+                    report.failedTarget(target, e.getCause() instanceof Exception
+                            ? (Exception) e.getCause() : e);
+                }
+            }
+        } finally {
+            // Lets the tasks still running at the deadline complete in the background.
+            executor.shutdown();
+        }
+        return report.build();
+    }
+
+    private RoleChain toRoleChain(final String secondLevelChainedIamRoleArn) {
+        var roleChain = RoleChain.builder().hop(RoleChainHop.builder()
+                .roleArn(firstLevelChainedIamRoleArn)
+                .sessionName(defaultAssumeRoleSessionName)
+                .build());
+        if (secondLevelChainedIamRoleArn != null) {
+            roleChain.hop(RoleChainHop.builder()
+                    .roleArn(secondLevelChainedIamRoleArn)
+                    .sessionName(partnerAssumeRoleSessionName)
+                    .build());
         }
-        if (credentialProviderCache.getIfPresent(secondLevelChainedIamRoleArn) != null) {
-            return new CredentialProviderBasedAwsSigV4Signer(
-                    credentialProviderCache.getIfPresent(secondLevelChainedIamRoleArn));
+        return roleChain.build();
+    }
+
+    private AWSSessionCredentialsProvider getCredentialsProvider(final RoleChain roleChain, final String region) {
+        var hops = roleChain.getHops();
+        if (hops.isEmpty()) {
+            throw new IllegalArgumentException("Role chain must have at least one hop.");
         }
-        STSAssumeRoleSessionCredentialsProvider firstLevelRoleAssumeRoleSessionCredentialsProvider = new Builder(
-                firstLevelChainedIamRoleArn,
-                defaultAssumeRoleSessionName)
-                .build();
 
-        AWSSecurityTokenService awsSecurityTokenService = AWSSecurityTokenServiceClientBuilder
-                .standard().withCredentials(firstLevelRoleAssumeRoleSessionCredentialsProvider)
-                .withRegion(region).build();
+        var hopKeys = new String[hops.size()];
+        for (int i = 0; i < hops.size(); i++) {
+            hopKeys[i] = i == 0 ? hopKey(hops.get(i)) : stsClientKey(hopKeys[i - 1], region) + HOP_SEPARATOR
+                    + hopKey(hops.get(i));
+        }
+        var cachedCredentialsProvider = credentialProviderCache.getIfPresent(hopKeys[hops.size() - 1]);
+        if (cachedCredentialsProvider != null) {
+            return cachedCredentialsProvider;
+        }
 
-        STSAssumeRoleSessionCredentialsProvider secondLevelRoleAssumeRoleSessionCredentialsProvider = new Builder(
-                secondLevelChainedIamRoleArn,
-                partnerAssumeRoleSessionName)
-                .withStsClient(awsSecurityTokenService)
+        // Hops are resolved one after the other, never loading a hop from within the loading of another one.
+        AWSSessionCredentialsProvider credentialsProvider = null;
+        for (int i = 0; i < hops.size(); i++) {
+            var hop = hops.get(i);
+            var loaded = new boolean[1];
+            if (i == 0) {
+                credentialsProvider = credentialProviderCache.get(hopKeys[i], key -> {
+                    loaded[0] = true;
+                    return newCredentialsProvider(hop, new Builder(hop.getRoleArn(), hop.getSessionName()));
+                });
+            } else {
+                var previousCredentialsProvider = credentialsProvider;
+                var previousHopKey = hopKeys[i - 1];
+                var replaced = new HopStsClient[1];
+                // The STS client of a hop is only reused while the hop's provider is the one it was built from, and
+                // only replaced by a client of a provider which is still the cached one.
+                var stsClient = stsClients.compute(stsClientKey(previousHopKey, region), (key, current) -> {
+                    if (current != null && current.credentialsProvider == previousCredentialsProvider) {
+                        return current;
+                    }
+                    var cachedProvider = credentialProviderCache.getIfPresent(previousHopKey);
+                    if (cachedProvider != null && cachedProvider != previousCredentialsProvider) {
+                        return current;
+                    }
+                    replaced[0] = current;
+                    return new HopStsClient(previousCredentialsProvider,
+                            newStsClient(previousCredentialsProvider, region));
+                });
+                if (replaced[0] != null) {
+                    release(replaced[0], previousHopKey);
+                }
+                if (stsClient == null || stsClient.credentialsProvider != previousCredentialsProvider) {
+                    // The previous hop was loaded again since it was read, so the hop is retried through its new
+                    // provider, rather than assumed through a session which was already replaced.
+                    var cachedProvider = credentialProviderCache.getIfPresent(previousHopKey);
+                    if (cachedProvider != null) {
+                        credentialsProvider = cachedProvider;
+                    }
+                    i--;
+                    continue;
+                }
+                stsClient.chainedHopKeys.add(hopKeys[i]);
+                credentialsProvider = credentialProviderCache.get(hopKeys[i], key -> {
+                    loaded[0] = true;
+                    return newCredentialsProvider(hop, new Builder(hop.getRoleArn(), hop.getSessionName())
+                            .withStsClient(stsClient.stsClient));
+                });
+            }
+            if (loaded[0]) {
+                releaseChainedHops(hopKeys[i], credentialsProvider);
+            }
+        }
+        return credentialsProvider;
+    }
+
+    /**
+     * Drops the STS clients built from other providers of a hop than {@code loadedProvider}, which was just loaded,
+     * e.g. after the hop was evicted, and invalidates the hops assumed through them. Chains through the hop are then
+     * assumed again with its new provider, so only one session of the hop is in use, and its earlier provider can be
+     * garbage collected.
+     */
+    private void releaseChainedHops(final String hopKey, final AWSSessionCredentialsProvider loadedProvider) {
+        if (credentialProviderCache.getIfPresent(hopKey) != loadedProvider) {
+            // The hop was loaded again since, and its newer provider's release drops the other clients.
+            return;
+        }
+        var stsClientKeyPrefix = stsClientKey(hopKey, "");
+        var released = new ArrayList<HopStsClient>();
+        stsClients.entrySet().removeIf(entry -> entry.getKey().startsWith(stsClientKeyPrefix)
+                && entry.getValue().credentialsProvider != loadedProvider && released.add(entry.getValue()));
+        for (var stsClient : released) {
+            release(stsClient, hopKey);
+        }
+    }
+
+    /**
+     * Invalidates the hops assumed through {@code stsClient}, then shuts it down, which also deregisters its
+     * connection pool from the SDK's idle connection reaper.
+     */
+    private void release(final HopStsClient stsClient, final String hopKey) {
+        log.debug("Releasing the hops chained through an earlier provider of {}.", hopKey);
+        credentialProviderCache.invalidateAll(stsClient.chainedHopKeys);
+        stsClient.stsClient.shutdown();
+    }
+
+    private static String hopKey(final RoleChainHop hop) {
+        return hop.getRoleArn() + "#" + hop.getSessionName();
+    }
+
+    private static String stsClientKey(final String hopKey, final String region) {
+        return hopKey + "@" + region;
+    }
+
+    /**
+     * STS client built from the provider of an intermediate hop, for the region of the hops chained through it.
+     */
+    private static final class HopStsClient {
+
+        private final AWSSessionCredentialsProvider credentialsProvider;
+
+        private final AWSSecurityTokenService stsClient;
+
+        private final Set<String> chainedHopKeys = ConcurrentHashMap.newKeySet();
+
+        private HopStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                             final AWSSecurityTokenService stsClient) {
+            this.credentialsProvider = credentialsProvider;
+            this.stsClient = stsClient;
+        }
+    }
+
+    /**
+     * Builds a credentials provider, and registers it for background refreshes. Called at most once per cache miss of
+     * a hop, however many threads miss at the same time.
+     */
+    STSAssumeRoleSessionCredentialsProvider newCredentialsProvider(final RoleChainHop hop, final Builder builder) {
+        var credentialsProvider = builder.build();
+        refreshScheduler.register(credentialsProvider);
+        return credentialsProvider;
+    }
+
+    /**
+     * Builds the STS client assuming the roles chained after a hop. Called once per intermediate hop and region.
+     */
+    AWSSecurityTokenService newStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                                         final String region) {
+        return AWSSecurityTokenServiceClientBuilder.standard()
+                .withCredentials(credentialsProvider)
+                .withRegion(region)
                 .build();
-        credentialProviderCache.put(secondLevelChainedIamRoleArn, secondLevelRoleAssumeRoleSessionCredentialsProvider);
-        return new CredentialProviderBasedAwsSigV4Signer(secondLevelRoleAssumeRoleSessionCredentialsProvider);
     }
 }
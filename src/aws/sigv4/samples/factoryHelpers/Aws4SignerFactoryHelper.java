@@ -1,5 +1,6 @@
 package aws.sigv4.samples.factoryHelpers;
 
+import aws.sigv4.samples.signing.ExtendedAws4Signer;
 import com.amazonaws.auth.AWS4Signer;
 import lombok.NonNull;
 
@@ -9,7 +10,7 @@ public final class Aws4SignerFactoryHelper {
     }
 
     public static AWS4Signer getSigner(@NonNull final String regionName, @NonNull final String serviceName) {
-        var signer = new AWS4Signer();
+        var signer = new ExtendedAws4Signer();
         signer.setServiceName(serviceName);
         signer.setRegionName(regionName);
         return signer;
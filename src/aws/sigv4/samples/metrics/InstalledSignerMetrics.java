@@ -0,0 +1,12 @@
+package aws.sigv4.samples.metrics;
+
+/**
+ * Holds the metrics installed with {@link SignerMetrics#install}.
+ */
+final class InstalledSignerMetrics {
+
+    static volatile SignerMetrics instance = NoOpSignerMetrics.INSTANCE;
+
+    private InstalledSignerMetrics() {
+    }
+}
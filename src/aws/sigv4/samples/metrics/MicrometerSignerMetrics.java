@@ -0,0 +1,85 @@
+package aws.sigv4.samples.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.NonNull;
+
+/**
+ * Metrics recorded to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ *     <li>{@value #PHASE_TIMER} timers, tagged with the {@code phase},</li>
+ *     <li>{@value #STS_CALL_TIMER} timers, tagged with the {@code outcome} ({@code success} or {@code error}), whose
+ *     error count is the number of failed STS calls,</li>
+ *     <li>a {@value #PAYLOAD_SIZE_SUMMARY} histogram of payload sizes in bytes,</li>
+ *     <li>Micrometer's cache metrics for the caches passed to {@link #monitorCache}.</li>
+ * </ul>
+ * Meters are registered once, so recording doesn't look them up.
+ */
+public class MicrometerSignerMetrics implements SignerMetrics {
+
+    public static final String PHASE_TIMER = "aws.sigv4.signer.phase";
+
+    public static final String STS_CALL_TIMER = "aws.sigv4.sts.call";
+
+    public static final String PAYLOAD_SIZE_SUMMARY = "aws.sigv4.signer.payload.size";
+
+    private final MeterRegistry registry;
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+
+    private final Timer successfulStsCalls;
+
+    private final Timer failedStsCalls;
+
+    private final DistributionSummary payloadSizes;
+
+    public MicrometerSignerMetrics(@NonNull final MeterRegistry registry) {
+        this.registry = registry;
+        for (var phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder(PHASE_TIMER)
+                    .tag("phase", phase.name().toLowerCase(Locale.ENGLISH))
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        successfulStsCalls = stsCallTimer("success");
+        failedStsCalls = stsCallTimer("error");
+        payloadSizes = DistributionSummary.builder(PAYLOAD_SIZE_SUMMARY)
+                .baseUnit("bytes")
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void recordPhase(@NonNull final Phase phase, final long durationNanos) {
+        phaseTimers.get(phase).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordStsCall(final long durationNanos, final boolean successful) {
+        (successful ? successfulStsCalls : failedStsCalls).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPayloadSize(final long bytes) {
+        payloadSizes.record(bytes);
+    }
+
+    @Override
+    public void monitorCache(@NonNull final String cacheName, @NonNull final Cache<?, ?> cache) {
+        CaffeineCacheMetrics.monitor(registry, cache, cacheName);
+    }
+
+    private Timer stsCallTimer(final String outcome) {
+        return Timer.builder(STS_CALL_TIMER)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
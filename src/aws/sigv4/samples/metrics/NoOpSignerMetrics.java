@@ -0,0 +1,38 @@
+package aws.sigv4.samples.metrics;
+
+/**
+ * Metrics recording nothing, the default.
+ */
+public final class NoOpSignerMetrics implements SignerMetrics {
+
+    public static final NoOpSignerMetrics INSTANCE = new NoOpSignerMetrics();
+
+    private NoOpSignerMetrics() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordPhase(final Phase phase, final long durationNanos) {
+    }
+
+    @Override
+    public void recordStsCall(final long durationNanos, final boolean successful) {
+    }
+
+    @Override
+    public void recordPayloadSize(final long bytes) {
+    }
+
+    @Override
+    public long startTimer() {
+        return 0L;
+    }
+
+    @Override
+    public void stopTimer(final Phase phase, final long startNanos) {
+    }
+}
@@ -0,0 +1,92 @@
+package aws.sigv4.samples.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.NonNull;
+
+/**
+ * Receives timings and counts from the signers, the payload hasher, the signing key cache and STS calls.
+ * <p>
+ * Metrics are disabled by default ({@link NoOpSignerMetrics}), in which case timed code doesn't even read the clock.
+ * An implementation is installed process wide with {@link #install}, e.g. {@link MicrometerSignerMetrics}.
+ * Implementations are called on the signing path and must be thread safe and cheap.
+ */
+public interface SignerMetrics {
+
+    /**
+     * Phases of signing a request.
+     */
+    enum Phase {
+        /**
+         * Validating the input and building the request to sign, including hashing its request body.
+         */
+        CREATE_REQUEST,
+
+        /**
+         * Hashing a request body.
+         */
+        HASH_PAYLOAD,
+
+        /**
+         * Deriving a signing key, on a signing key cache miss.
+         */
+        DERIVE_SIGNING_KEY,
+
+        /**
+         * Getting credentials from a provider, which includes STS calls when the provider has no usable session.
+         */
+        FETCH_CREDENTIALS,
+
+        /**
+         * Building the canonical request, string to sign and signature.
+         */
+        SIGN
+    }
+
+    /**
+     * Returns the installed metrics, {@link NoOpSignerMetrics#INSTANCE} unless others were installed.
+     */
+    static SignerMetrics get() {
+        return InstalledSignerMetrics.instance;
+    }
+
+    /**
+     * Installs {@code metrics} process wide. Code already timing a phase reports it to the metrics installed when it
+     * started.
+     */
+    static void install(@NonNull final SignerMetrics metrics) {
+        InstalledSignerMetrics.instance = metrics;
+    }
+
+    /**
+     * Returns whether these metrics record anything.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    void recordPhase(Phase phase, long durationNanos);
+
+    void recordStsCall(long durationNanos, boolean successful);
+
+    void recordPayloadSize(long bytes);
+
+    /**
+     * Reports the hit, miss and eviction statistics of {@code cache}, which must be built with
+     * {@link com.github.benmanes.caffeine.cache.Caffeine#recordStats()}. Does nothing by default.
+     */
+    default void monitorCache(@NonNull final String cacheName, @NonNull final Cache<?, ?> cache) {
+    }
+
+    /**
+     * Returns a start time for {@link #stopTimer}, without reading the clock when metrics are disabled.
+     */
+    default long startTimer() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    default void stopTimer(final Phase phase, final long startNanos) {
+        if (isEnabled()) {
+            recordPhase(phase, System.nanoTime() - startNanos);
+        }
+    }
+}
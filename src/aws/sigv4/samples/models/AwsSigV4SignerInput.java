@@ -1,8 +1,12 @@
 package aws.sigv4.samples.models;
 
 import aws.sigv4.samples.AwsSigV4Signer;
+import aws.sigv4.samples.signing.HeaderTemplate;
+import aws.sigv4.samples.signing.SigningTarget;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
 import com.amazonaws.http.HttpMethodName;
 import java.util.Map;
+import java.util.Objects;
 import lombok.*;
 
 /**
@@ -15,11 +19,28 @@ import lombok.*;
 public class AwsSigV4SignerInput {
 
     /**
-     * HTTP request payload.
+     * HTTP request payload, signed as UTF-8.
+     * Exactly one of requestPayload, requestBody, requestPayloadSha256 and unsignedPayload must be passed.
      */
-    @NonNull
     private final String requestPayload;
 
+    /**
+     * HTTP request body, for binary or streamed payloads.
+     */
+    private final RequestBody requestBody;
+
+    /**
+     * Hex encoded SHA-256 of the payload, when already known. The payload isn't hashed again, and the hash is sent in
+     * the x-amz-content-sha256 header. STREAMING-AWS4-HMAC-SHA256-EVENTS is also accepted, for the seed request of an
+     * event stream.
+     */
+    private final String requestPayloadSha256;
+
+    /**
+     * Signs the request with UNSIGNED-PAYLOAD instead of a payload hash, for services which accept it.
+     */
+    private final boolean unsignedPayload;
+
     /**
      * HTTP request endpoint.
      */
@@ -52,6 +73,80 @@ public class AwsSigV4SignerInput {
 
     /**
      * HTTP request headers. If passed they'll secured with the signature.
+     * With a headerTemplate, only the values of its variable headers.
      */
     private final Map<String, String> requestHeaderMap;
+
+    /**
+     * (optional) Compiled fixed headers and variable header names of the request, whose variable header values are
+     * passed in requestHeaderMap.
+     */
+    private final HeaderTemplate headerTemplate;
+
+    /**
+     * (optional) Resolved endpoint, resource path, region and service. Set along with them by the builder's
+     * {@code signingTarget} method, so signers which support targets don't have to resolve them again. Inputs whose
+     * endpoint, resource path, region or service differ from their target can't be built.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final SigningTarget signingTarget;
+
+    public static class AwsSigV4SignerInputBuilder {
+
+        /**
+         * Sets the request endpoint, resource path, service and region of {@code target}, along with the target.
+         */
+        public AwsSigV4SignerInputBuilder signingTarget(@NonNull final SigningTarget target) {
+            this.signingTarget = target;
+            return requestEndpoint(target.getEndpoint().toString())
+                    .requestResourcePath(target.getResourcePath())
+                    .serviceName(target.getServiceName())
+                    .regionName(target.getRegionName());
+        }
+
+        /**
+         * Builds the input.
+         *
+         * @throws IllegalArgumentException if the request endpoint, resource path, service or region were set to
+         *                                  other values than those of the signing target, after it.
+         */
+        public AwsSigV4SignerInput build() {
+            if (signingTarget != null && !matchesSigningTarget()) {
+                throw new IllegalArgumentException(String.format("Request endpoint, resource path, service and "
+                        + "region of the input differ from its signing target: %s", signingTarget));
+            }
+            return new AwsSigV4SignerInput(requestPayload, requestBody, requestPayloadSha256, unsignedPayload,
+                    requestEndpoint, requestResourcePath, requestMethod, serviceName, regionName, requestHeaderMap,
+                    headerTemplate, signingTarget);
+        }
+
+        private boolean matchesSigningTarget() {
+            return signingTarget.getEndpoint().toString().equals(requestEndpoint)
+                    && Objects.equals(signingTarget.getResourcePath(), requestResourcePath)
+                    && signingTarget.getServiceName().equals(serviceName)
+                    && signingTarget.getRegionName().equals(regionName);
+        }
+    }
+
+    /**
+     * Returns the request headers: {@link #requestHeaderMap}, or the fixed headers of the {@link #headerTemplate} along
+     * with the variable headers of {@link #requestHeaderMap}.
+     */
+    public Map<String, String> resolveHeaderMap() throws PartnerGatewayInvalidInputException {
+        return headerTemplate != null ? headerTemplate.resolveHeaders(requestHeaderMap) : requestHeaderMap;
+    }
+
+    /**
+     * Checks that exactly one of {@link #requestPayload}, {@link #requestBody}, {@link #requestPayloadSha256} and
+     * {@link #unsignedPayload} is passed.
+     */
+    public void validatePayload() throws PartnerGatewayInvalidInputException {
+        var passed = (requestPayload != null ? 1 : 0) + (requestBody != null ? 1 : 0)
+                + (requestPayloadSha256 != null ? 1 : 0) + (unsignedPayload ? 1 : 0);
+        if (passed != 1) {
+            throw new PartnerGatewayInvalidInputException("Exactly one of requestPayload, requestBody, "
+                    + "requestPayloadSha256 and unsignedPayload must be passed in Input.");
+        }
+    }
 }
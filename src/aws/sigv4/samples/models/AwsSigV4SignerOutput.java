@@ -21,4 +21,11 @@ public class AwsSigV4SignerOutput {
      */
     @NonNull
     private final Map<String, String> requestHeaderMap;
+
+    /**
+     * Presigned URL, carrying the signature in its query parameters, for outputs of
+     * {@link aws.sigv4.samples.AwsSigV4Presigner}. The request headers must then be sent with it, as they're signed.
+     * Null for header based signatures.
+     */
+    private final String presignedUrl;
 }
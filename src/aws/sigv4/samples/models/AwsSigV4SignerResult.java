@@ -0,0 +1,35 @@
+package aws.sigv4.samples.models;
+
+import aws.sigv4.samples.AwsSigV4Signer;
+import java.util.Collection;
+import lombok.*;
+
+/**
+ * Result of signing one input with {@link AwsSigV4Signer#signAll(Collection)}: either its output, or the error
+ * which signing it failed with.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AwsSigV4SignerResult {
+
+    /**
+     * Signed input. Null only for a null input.
+     */
+    private final AwsSigV4SignerInput input;
+
+    /**
+     * Signer output, when signing succeeded.
+     */
+    private final AwsSigV4SignerOutput output;
+
+    /**
+     * Error signing failed with, one of the exceptions thrown by {@link AwsSigV4Signer#sign(AwsSigV4SignerInput)}.
+     */
+    private final Exception error;
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
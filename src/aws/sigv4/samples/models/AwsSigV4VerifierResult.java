@@ -0,0 +1,41 @@
+package aws.sigv4.samples.models;
+
+import aws.sigv4.samples.AwsSigV4Verifier;
+import lombok.*;
+
+/**
+ * Result of {@link AwsSigV4Verifier#verify(AwsSigV4SignerInput)}.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class AwsSigV4VerifierResult {
+
+    /**
+     * Reasons a request is rejected for, or {@link #VALID}.
+     */
+    public enum Outcome {
+        VALID,
+        MISSING_AUTHORIZATION,
+        MALFORMED_AUTHORIZATION,
+        CREDENTIAL_SCOPE_MISMATCH,
+        REQUEST_TIME_SKEWED,
+        UNKNOWN_ACCESS_KEY,
+        SECURITY_TOKEN_MISMATCH,
+        SIGNATURE_MISMATCH,
+        REPLAYED
+    }
+
+    @NonNull
+    private final Outcome outcome;
+
+    /**
+     * Access key id of the credential scope, when the Authorization header could be parsed.
+     */
+    private final String accessKeyId;
+
+    public boolean isValid() {
+        return outcome == Outcome.VALID;
+    }
+}
@@ -0,0 +1,253 @@
+package aws.sigv4.samples.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+
+/**
+ * Binary or streaming HTTP request body, an alternative to {@link AwsSigV4SignerInput#getRequestPayload()}.
+ * <p>
+ * Bodies are hashed in a single pass, without copying them: byte arrays and buffers are hashed in place, streams are
+ * read through a reused buffer and files are memory mapped.
+ */
+public abstract class RequestBody {
+
+    /**
+     * Size of the file regions mapped at once while hashing a file.
+     */
+    static final long FILE_MAPPING_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    RequestBody() {
+    }
+
+    public static RequestBody fromBytes(@NonNull final byte[] bytes) {
+        return new BytesBody(bytes);
+    }
+
+    /**
+     * Body with the remaining bytes of {@code buffer}, heap or direct. The buffer's position isn't changed.
+     */
+    public static RequestBody fromByteBuffer(@NonNull final ByteBuffer buffer) {
+        return new ByteBufferBody(buffer);
+    }
+
+    /**
+     * Body read from {@code stream}, which signing reads to its end without buffering it, so it can't be sent
+     * afterwards. Use {@link #fromInputStreamSupplier} for bodies read both by signing and by the HTTP client.
+     */
+    public static RequestBody fromInputStream(@NonNull final InputStream stream) {
+        return new InputStreamBody(stream);
+    }
+
+    /**
+     * Body read from a new stream of {@code streams} each time it's read, such as a stream of a file or blob. Signing
+     * closes the streams it opens.
+     */
+    public static RequestBody fromInputStreamSupplier(@NonNull final Supplier<? extends InputStream> streams) {
+        return new InputStreamSupplierBody(streams);
+    }
+
+    public static RequestBody fromFile(@NonNull final Path file) {
+        return new FileBody(file);
+    }
+
+    /**
+     * Feeds the body into {@code digest}, using {@code buffer} for any reads, and returns its size in bytes.
+     */
+    public abstract long updateDigest(@NonNull MessageDigest digest, @NonNull byte[] buffer) throws IOException;
+
+    /**
+     * Opens a stream of the body, for signers hashing it themselves. Bodies can be read any number of times, except
+     * those of {@link #fromInputStream}, which return their stream without closing it.
+     */
+    public abstract InputStream newStream() throws IOException;
+
+    private static long digestStream(final InputStream stream, final MessageDigest digest, final byte[] buffer)
+            throws IOException {
+        var size = 0L;
+        int read;
+        while ((read = stream.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+            size += read;
+        }
+        return size;
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static final class BytesBody extends RequestBody {
+        private final byte[] bytes;
+
+        private BytesBody(final byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public long updateDigest(@NonNull final MessageDigest digest, @NonNull final byte[] buffer) {
+            digest.update(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public InputStream newStream() {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RequestBody.Bytes(length=%d)", bytes.length);
+        }
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static final class ByteBufferBody extends RequestBody {
+        private final ByteBuffer buffer;
+
+        private ByteBufferBody(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public long updateDigest(@NonNull final MessageDigest digest, @NonNull final byte[] readBuffer) {
+            var remaining = buffer.remaining();
+            digest.update(buffer.duplicate());
+            return remaining;
+        }
+
+        @Override
+        public InputStream newStream() {
+            var bytes = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return bytes.hasRemaining() ? bytes.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(final byte[] b, final int off, final int len) {
+                    if (len == 0) {
+                        return 0;
+                    }
+                    if (!bytes.hasRemaining()) {
+                        return -1;
+                    }
+                    var read = Math.min(len, bytes.remaining());
+                    bytes.get(b, off, read);
+                    return read;
+                }
+
+                @Override
+                public int available() {
+                    return bytes.remaining();
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RequestBody.ByteBuffer(remaining=%d, direct=%s)", buffer.remaining(),
+                    buffer.isDirect());
+        }
+    }
+
+    private static final class InputStreamBody extends RequestBody {
+        private final InputStream stream;
+
+        private InputStreamBody(final InputStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public long updateDigest(@NonNull final MessageDigest digest, @NonNull final byte[] buffer)
+                throws IOException {
+            return digestStream(stream, digest, buffer);
+        }
+
+        @Override
+        public InputStream newStream() {
+            // The stream is the caller's, so closing the returned one leaves it open.
+            return new FilterInputStream(stream) {
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RequestBody.InputStream(%s)", stream.getClass().getSimpleName());
+        }
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static final class InputStreamSupplierBody extends RequestBody {
+        private final Supplier<? extends InputStream> streams;
+
+        private InputStreamSupplierBody(final Supplier<? extends InputStream> streams) {
+            this.streams = streams;
+        }
+
+        @Override
+        public long updateDigest(@NonNull final MessageDigest digest, @NonNull final byte[] buffer)
+                throws IOException {
+            try (var stream = newStream()) {
+                return digestStream(stream, digest, buffer);
+            }
+        }
+
+        @Override
+        public InputStream newStream() throws IOException {
+            var stream = streams.get();
+            if (stream == null) {
+                throw new IOException("Request body stream supplier returned null.");
+            }
+            return stream;
+        }
+
+        @Override
+        public String toString() {
+            return "RequestBody.InputStreamSupplier()";
+        }
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static final class FileBody extends RequestBody {
+        private final Path file;
+
+        private FileBody(final Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public long updateDigest(@NonNull final MessageDigest digest, @NonNull final byte[] buffer)
+                throws IOException {
+            try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                var size = channel.size();
+                for (long position = 0; position < size; position += FILE_MAPPING_WINDOW_BYTES) {
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(FILE_MAPPING_WINDOW_BYTES, size - position)));
+                }
+                return size;
+            }
+        }
+
+        @Override
+        public InputStream newStream() throws IOException {
+            return Files.newInputStream(file);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("RequestBody.File(%s)", file);
+        }
+    }
+}
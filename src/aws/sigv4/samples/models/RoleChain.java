@@ -0,0 +1,19 @@
+package aws.sigv4.samples.models;
+
+import java.util.List;
+import lombok.*;
+
+/**
+ * Ordered list of roles to assume, each with the credentials of the previous one. The first role is assumed with the
+ * default credentials, and requests are signed with the credentials of the last one.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class RoleChain {
+
+    @NonNull
+    @Singular
+    private final List<RoleChainHop> hops;
+}
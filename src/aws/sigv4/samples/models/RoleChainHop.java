@@ -0,0 +1,19 @@
+package aws.sigv4.samples.models;
+
+import lombok.*;
+
+/**
+ * One role of a {@link RoleChain}, assumed with the credentials of the previous hop.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class RoleChainHop {
+
+    @NonNull
+    private final String roleArn;
+
+    @NonNull
+    private final String sessionName;
+}
@@ -0,0 +1,88 @@
+package aws.sigv4.samples.models;
+
+import aws.sigv4.samples.AwsSigV4Signer;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import java.net.HttpURLConnection;
+import java.net.http.HttpRequest;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import lombok.*;
+
+/**
+ * Headers added by signing, for {@link AwsSigV4Signer#signHeaders(AwsSigV4SignerInput)}: unlike
+ * {@link AwsSigV4SignerOutput#getRequestHeaderMap()}, it doesn't repeat the input headers, which callers already
+ * send.
+ * <p>
+ * The {@code Host} header is signed but not included, as HTTP clients send it from the request URL. The headers are
+ * written straight into an HTTP client with the {@code writeTo} methods, without an intermediate map.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class SignedHeaders {
+
+    @NonNull
+    @ToString.Exclude
+    private final String authorization;
+
+    @NonNull
+    private final String amzDate;
+
+    /**
+     * Session token, for session credentials. Null otherwise.
+     */
+    @ToString.Exclude
+    private final String securityToken;
+
+    /**
+     * Payload hash sent in the {@code x-amz-content-sha256} header, when the input's payload hash is precomputed or
+     * unsigned. Null otherwise.
+     */
+    private final String contentSha256;
+
+    /**
+     * Extracts the headers added by signing from the headers of a signed request.
+     */
+    public static SignedHeaders from(@NonNull final Map<String, String> requestHeaders) {
+        var builder = builder();
+        for (var header : requestHeaders.entrySet()) {
+            var name = header.getKey();
+            if (SigV4SigningEngine.AUTHORIZATION.equalsIgnoreCase(name)) {
+                builder.authorization(header.getValue());
+            } else if (SigV4SigningEngine.X_AMZ_DATE.equalsIgnoreCase(name)) {
+                builder.amzDate(header.getValue());
+            } else if (SigV4SigningEngine.X_AMZ_SECURITY_TOKEN.equalsIgnoreCase(name)) {
+                builder.securityToken(header.getValue());
+            } else if (SigV4SigningEngine.X_AMZ_CONTENT_SHA256.equalsIgnoreCase(name)) {
+                builder.contentSha256(header.getValue());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Passes each header to {@code headerSink}, as name and value.
+     */
+    public void writeTo(@NonNull final BiConsumer<String, String> headerSink) {
+        headerSink.accept(SigV4SigningEngine.AUTHORIZATION, authorization);
+        headerSink.accept(SigV4SigningEngine.X_AMZ_DATE, amzDate);
+        if (securityToken != null) {
+            headerSink.accept(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN, securityToken);
+        }
+        if (contentSha256 != null) {
+            headerSink.accept(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, contentSha256);
+        }
+    }
+
+    /**
+     * Sets the headers as request properties of {@code connection}, which must not be connected yet.
+     */
+    public void writeTo(@NonNull final HttpURLConnection connection) {
+        writeTo(connection::setRequestProperty);
+    }
+
+    public void writeTo(@NonNull final HttpRequest.Builder requestBuilder) {
+        writeTo(requestBuilder::header);
+    }
+}
@@ -0,0 +1,57 @@
+package aws.sigv4.samples.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.*;
+
+/**
+ * Outcome of warming the credentials of a set of {@link WarmUpTarget}s.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+public class WarmUpReport {
+
+    /**
+     * Targets whose credentials were fetched and cached.
+     */
+    private final List<WarmUpTarget> warmedTargets;
+
+    /**
+     * Targets which couldn't be warmed, with the error fetching their credentials failed with, or a
+     * {@link java.util.concurrent.TimeoutException} when they weren't warmed before the deadline.
+     */
+    private final Map<WarmUpTarget, Exception> failedTargets;
+
+    @Builder
+    private WarmUpReport(@Singular final List<WarmUpTarget> warmedTargets,
+                         final Map<WarmUpTarget, Exception> failedTargets) {
+        this.warmedTargets = warmedTargets;
+        this.failedTargets = failedTargets == null
+                ? Map.of()
+                : Collections.unmodifiableMap(new LinkedHashMap<>(failedTargets));
+    }
+
+    public static class WarmUpReportBuilder {
+
+        /**
+         * Adds a target which couldn't be warmed, keeping targets in the order they were added.
+         */
+        public WarmUpReportBuilder failedTarget(@NonNull final WarmUpTarget target,
+                                                @NonNull final Exception exception) {
+            // Copied, so a map passed to failedTargets is never modified.
+            var targets = failedTargets == null
+                    ? new LinkedHashMap<WarmUpTarget, Exception>()
+                    : new LinkedHashMap<>(failedTargets);
+            targets.put(target, exception);
+            failedTargets = targets;
+            return this;
+        }
+    }
+
+    public boolean isSuccessful() {
+        return failedTargets.isEmpty();
+    }
+}
@@ -0,0 +1,21 @@
+package aws.sigv4.samples.models;
+
+import lombok.*;
+
+/**
+ * Partner role to warm the credentials of, in the region its signer is requested for.
+ */
+@Builder
+@Getter
+@ToString
+@EqualsAndHashCode
+public class WarmUpTarget {
+
+    /**
+     * Partner role chained through the first level role, or null for the first level role itself.
+     */
+    private final String roleArn;
+
+    @NonNull
+    private final String region;
+}
@@ -0,0 +1,175 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.models.RequestBody;
+import com.amazonaws.Request;
+import com.amazonaws.SignableRequest;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.auth.Signer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Duration;
+import software.amazon.awssdk.http.ContentStreamProvider;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4FamilyHttpSigner;
+import software.amazon.awssdk.http.auth.aws.signer.AwsV4HttpSigner;
+import software.amazon.awssdk.http.auth.spi.signer.HttpSigner;
+import software.amazon.awssdk.identity.spi.AwsCredentialsIdentity;
+import software.amazon.awssdk.identity.spi.AwsSessionCredentialsIdentity;
+
+/**
+ * SDK v1 {@link Signer} signing with SDK v2's {@link AwsV4HttpSigner}, for {@link SigningBackends#SDK_V2}.
+ * <p>
+ * The SDK v1 request is converted to an SDK v2 request whose path is the canonical path
+ * {@link com.amazonaws.auth.AWS4Signer} signs, normalised and encoded once, so SDK v2 signs it as is. The signature
+ * headers are then copied back to the SDK v1 request. Request bodies passed in the {@link SigningBackend#REQUEST_BODY}
+ * handler context are signed as the payload, read from streams of the body which are closed once signed.
+ */
+final class AwsV4HttpSignerAdapter implements Signer {
+
+    private static final AwsV4HttpSigner SIGNER = AwsV4HttpSigner.create();
+
+    private final String regionName;
+
+    private final String serviceName;
+
+    AwsV4HttpSignerAdapter(final String regionName, final String serviceName) {
+        this.regionName = regionName;
+        this.serviceName = serviceName;
+    }
+
+    @Override
+    public void sign(final SignableRequest<?> request, final AWSCredentials credentials) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+
+        var payloadHash = request instanceof Request
+                ? ((Request<?>) request).getHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256)
+                : null;
+        var body = request instanceof Request
+                ? ((Request<?>) request).getHandlerContext(SigningBackend.REQUEST_BODY)
+                : null;
+        if (payloadHash != null && !SigV4SigningEngine.UNSIGNED_PAYLOAD.equals(payloadHash)) {
+            throw new IllegalArgumentException("AwsV4HttpSigner can't sign a precomputed payload hash.");
+        }
+
+        var endpoint = request.getEndpoint();
+        var canonicalPath = new StringBuilder();
+        SigV4SigningEngine.appendCanonicalPath(canonicalPath,
+                SigV4SigningEngine.appendUri(endpoint.getPath(), request.getResourcePath()));
+        var httpRequest = SdkHttpRequest.builder()
+                .method(SdkHttpMethod.fromValue(request.getHttpMethod().name()))
+                .protocol(endpoint.getScheme())
+                .host(endpoint.getHost())
+                .port(endpoint.getPort() > 0 ? endpoint.getPort() : null)
+                .encodedPath(canonicalPath.toString());
+        request.getHeaders().forEach(httpRequest::putHeader);
+        request.getParameters().forEach(httpRequest::putRawQueryParameter);
+
+        var content = request.getContent();
+        var bodyStreams = body == null ? null : new BodyStreamProvider(body);
+        try {
+            var signedRequest = SIGNER.sign(signRequest -> signRequest
+                    .identity(identity(credentials))
+                    .request(httpRequest.build())
+                    .payload(bodyStreams != null ? bodyStreams : content == null ? null : resettingProvider(content))
+                    .putProperty(AwsV4HttpSigner.REGION_NAME, regionName)
+                    .putProperty(AwsV4HttpSigner.SERVICE_SIGNING_NAME, serviceName)
+                    .putProperty(AwsV4FamilyHttpSigner.DOUBLE_URL_ENCODE, false)
+                    .putProperty(AwsV4FamilyHttpSigner.NORMALIZE_PATH, false)
+                    .putProperty(AwsV4FamilyHttpSigner.PAYLOAD_SIGNING_ENABLED, payloadHash == null)
+                    // The SDK v1 time offset is the number of seconds the system clock is ahead of the signing time.
+                    .putProperty(HttpSigner.SIGNING_CLOCK,
+                            Clock.offset(Clock.systemUTC(), Duration.ofSeconds(-request.getTimeOffset()))));
+
+            signedRequest.request().headers().forEach((name, values) -> request.addHeader(name, values.get(0)));
+        } catch (RuntimeException e) {
+            // AwsV4HttpSigner wraps read failures in a plain RuntimeException.
+            if (bodyStreams != null && bodyStreams.readFailure != null) {
+                throw bodyStreams.readFailure;
+            }
+            throw e;
+        } finally {
+            if (bodyStreams != null) {
+                bodyStreams.close();
+            }
+        }
+        if (content != null) {
+            reset(content);
+        }
+    }
+
+    private static AwsCredentialsIdentity identity(final AWSCredentials credentials) {
+        if (credentials instanceof AWSSessionCredentials) {
+            return AwsSessionCredentialsIdentity.create(credentials.getAWSAccessKeyId().trim(),
+                    credentials.getAWSSecretKey().trim(),
+                    ((AWSSessionCredentials) credentials).getSessionToken().trim());
+        }
+        return AwsCredentialsIdentity.create(credentials.getAWSAccessKeyId().trim(),
+                credentials.getAWSSecretKey().trim());
+    }
+
+    /**
+     * Returns a provider of {@code content} from its start, which the signer may read several times.
+     */
+    private static ContentStreamProvider resettingProvider(final InputStream content) {
+        return () -> {
+            reset(content);
+            return content;
+        };
+    }
+
+    private static void reset(final InputStream content) {
+        try {
+            content.reset();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to reset request content.", e);
+        }
+    }
+
+    /**
+     * Provider of new streams of a request body, closing the previous stream when opening one, and the last one when
+     * closed.
+     */
+    private static final class BodyStreamProvider implements ContentStreamProvider {
+        private final RequestBody body;
+
+        private InputStream stream;
+
+        private UncheckedIOException readFailure;
+
+        private BodyStreamProvider(final RequestBody body) {
+            this.body = body;
+        }
+
+        @Override
+        public InputStream newStream() {
+            close();
+            try {
+                stream = body.newStream();
+            } catch (IOException e) {
+                readFailure = new UncheckedIOException(String.format("Unable to read request body: %s", body), e);
+                throw readFailure;
+            }
+            return stream;
+        }
+
+        private void close() {
+            if (stream == null) {
+                return;
+            }
+            try {
+                stream.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Unable to close request body: %s", body), e);
+            } finally {
+                stream = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package aws.sigv4.samples.signing;
+
+import com.amazonaws.Request;
+import com.amazonaws.SignableRequest;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.handlers.HandlerContextKey;
+
+/**
+ * {@link AWS4Signer} which takes derived signing keys from the shared {@link SigningKeyCache}.
+ * <p>
+ * {@link AWS4Signer} has its own signing key cache, but it is a 300 entry FIFO keyed by secret key, region and service,
+ * which keeps evicting keys once there are more identity and region combinations than that. On a miss it calls
+ * {@link #newSigningKey}, which is served from the bounded shared cache here instead of re-deriving the key.
+ * <p>
+ * Requests carrying a {@link #PAYLOAD_SHA256} handler context are signed with that payload hash, without reading
+ * their content.
+ */
+public class ExtendedAws4Signer extends AWS4Signer {
+
+    /**
+     * Hex encoded SHA-256 of the request payload, when already computed by the caller.
+     */
+    public static final HandlerContextKey<String> PAYLOAD_SHA256 = new HandlerContextKey<>("PayloadSha256");
+
+    @Override
+    protected byte[] newSigningKey(final AWSCredentials credentials, final String dateStamp, final String regionName,
+                                   final String serviceName) {
+        return SigningKeyCache.getInstance().getSigningKey(credentials, dateStamp, regionName, serviceName);
+    }
+
+    @Override
+    protected String calculateContentHash(final SignableRequest<?> request) {
+        var payloadHash = request instanceof Request
+                ? ((Request<?>) request).getHandlerContext(PAYLOAD_SHA256)
+                : null;
+        return payloadHash != null ? payloadHash : super.calculateContentHash(request);
+    }
+}
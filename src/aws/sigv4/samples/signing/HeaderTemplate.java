@@ -0,0 +1,269 @@
+package aws.sigv4.samples.signing;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Compiled set of request headers: fixed headers, whose values are the same for every request, and variable headers,
+ * such as a correlation id, whose values are passed with each request.
+ * <p>
+ * Header names are lower cased and sorted, fixed header values compacted, and the signed headers list and the fixed
+ * lines of the canonical headers block joined once here, so the {@link SigV4SigningEngine} only canonicalises the
+ * variable header values and the headers added by signing. Templates are compiled once and shared by every request
+ * using them, with {@code AwsSigV4SignerInput.builder().headerTemplate(template)}.
+ */
+@ToString
+public final class HeaderTemplate {
+
+    private static final int HOST_SLOT = -1;
+
+    private static final int DATE_SLOT = -2;
+
+    private static final int SECURITY_TOKEN_SLOT = -3;
+
+    private static final int CONTENT_SHA256_SLOT = -4;
+
+    /**
+     * Headers added by signers, which templates can't hold.
+     */
+    private static final List<String> SIGNER_HEADERS = List.of(SigV4SigningEngine.HOST,
+            SigV4SigningEngine.X_AMZ_DATE, SigV4SigningEngine.X_AMZ_SECURITY_TOKEN, SigV4SigningEngine.AUTHORIZATION,
+            SigV4SigningEngine.X_AMZ_CONTENT_SHA256, SigV4SigningEngine.X_AMZ_REGION_SET);
+
+    /**
+     * Fixed headers, sorted with {@link String#CASE_INSENSITIVE_ORDER}.
+     */
+    @Getter
+    private final SortedMap<String, String> fixedHeaders;
+
+    /**
+     * Names of the variable headers, in the order they were declared.
+     */
+    @Getter
+    private final List<String> variableHeaderNames;
+
+    /**
+     * Canonical header lines up to each slot, and following the last slot.
+     */
+    @ToString.Exclude
+    private final String[] literals;
+
+    /**
+     * Header value filling each slot: the index of a variable header, or a header added by signing.
+     */
+    @ToString.Exclude
+    private final int[] slots;
+
+    /**
+     * "name:" prefix of each slot's canonical header line.
+     */
+    @ToString.Exclude
+    private final String[] slotPrefixes;
+
+    /**
+     * Signed headers list, indexed by the presence of the {@code X-Amz-Security-Token} (1) and
+     * {@code x-amz-content-sha256} (2) headers.
+     */
+    @ToString.Exclude
+    private final String[] signedHeaders = new String[4];
+
+    private HeaderTemplate(final SortedMap<String, String> fixedHeaders, final List<String> variableHeaderNames) {
+        this.fixedHeaders = Collections.unmodifiableSortedMap(fixedHeaders);
+        this.variableHeaderNames = List.copyOf(variableHeaderNames);
+
+        // Sorted map of every signed header name to its canonical value for fixed headers, or to its slot.
+        var sortedHeaders = new TreeMap<String, Object>();
+        for (var header : fixedHeaders.entrySet()) {
+            if (!SigV4SigningEngine.isExcludedFromSigning(header.getKey())) {
+                var value = new StringBuilder();
+                if (header.getValue() != null) {
+                    SigV4SigningEngine.appendCompacted(value, header.getValue().trim());
+                }
+                sortedHeaders.put(canonicalName(header.getKey()), value.toString());
+            }
+        }
+        for (int i = 0; i < variableHeaderNames.size(); i++) {
+            if (!SigV4SigningEngine.isExcludedFromSigning(variableHeaderNames.get(i))) {
+                sortedHeaders.put(canonicalName(variableHeaderNames.get(i)), i);
+            }
+        }
+        sortedHeaders.put(canonicalName(SigV4SigningEngine.HOST), HOST_SLOT);
+        sortedHeaders.put(canonicalName(SigV4SigningEngine.X_AMZ_DATE), DATE_SLOT);
+        sortedHeaders.put(canonicalName(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN), SECURITY_TOKEN_SLOT);
+        sortedHeaders.put(canonicalName(SigV4SigningEngine.X_AMZ_CONTENT_SHA256), CONTENT_SHA256_SLOT);
+
+        var literals = new ArrayList<String>();
+        var slots = new ArrayList<Integer>();
+        var slotPrefixes = new ArrayList<String>();
+        var literal = new StringBuilder();
+        for (var header : sortedHeaders.entrySet()) {
+            if (header.getValue() instanceof String) {
+                literal.append(header.getKey()).append(':').append(header.getValue()).append('\n');
+            } else {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add((Integer) header.getValue());
+                slotPrefixes.add(header.getKey() + ':');
+            }
+        }
+        literals.add(literal.toString());
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.stream().mapToInt(Integer::intValue).toArray();
+        this.slotPrefixes = slotPrefixes.toArray(new String[0]);
+
+        for (int present = 0; present < signedHeaders.length; present++) {
+            var names = new StringBuilder();
+            for (var header : sortedHeaders.entrySet()) {
+                if ((header.getValue().equals(SECURITY_TOKEN_SLOT) && (present & 1) == 0)
+                        || (header.getValue().equals(CONTENT_SHA256_SLOT) && (present & 2) == 0)) {
+                    continue;
+                }
+                if (names.length() > 0) {
+                    names.append(';');
+                }
+                names.append(header.getKey());
+            }
+            signedHeaders[present] = names.toString();
+        }
+    }
+
+    /**
+     * Compiles the template of requests carrying {@code fixedHeaders} and the headers of {@code variableHeaderNames}.
+     * Header names must be distinct, ignoring case, and mustn't be one of the headers added by signing.
+     */
+    public static HeaderTemplate compile(@NonNull final Map<String, String> fixedHeaders,
+                                         @NonNull final Collection<String> variableHeaderNames)
+            throws PartnerGatewayInvalidInputException {
+        var sortedFixedHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        for (var header : fixedHeaders.entrySet()) {
+            validateName(header.getKey(), sortedFixedHeaders.containsKey(header.getKey()));
+            sortedFixedHeaders.put(header.getKey(), header.getValue());
+        }
+
+        var names = new ArrayList<String>(variableHeaderNames.size());
+        for (var name : variableHeaderNames) {
+            validateName(name, sortedFixedHeaders.containsKey(name)
+                    || names.stream().anyMatch(other -> other.equalsIgnoreCase(name)));
+            names.add(name);
+        }
+        return new HeaderTemplate(sortedFixedHeaders, names);
+    }
+
+    /**
+     * Returns the values of the variable headers in {@code variableHeaders}, in the order of
+     * {@link #getVariableHeaderNames()}. {@code variableHeaders} must hold exactly the variable headers, keyed by the
+     * names they were declared with.
+     */
+    public String[] resolveValues(final Map<String, String> variableHeaders)
+            throws PartnerGatewayInvalidInputException {
+        var size = variableHeaders == null ? 0 : variableHeaders.size();
+        if (size != variableHeaderNames.size()) {
+            throw new PartnerGatewayInvalidInputException(String.format("requestHeaderMap passed in Input must "
+                    + "hold the variable headers %s of its header template, but held: %s", variableHeaderNames,
+                    variableHeaders == null ? List.of() : variableHeaders.keySet()));
+        }
+
+        var values = new String[size];
+        for (int i = 0; i < size; i++) {
+            var name = variableHeaderNames.get(i);
+            values[i] = variableHeaders.get(name);
+            if (values[i] == null && !variableHeaders.containsKey(name)) {
+                throw new PartnerGatewayInvalidInputException(String.format("requestHeaderMap passed in Input has "
+                        + "no value for the variable header %s of its header template: %s", name,
+                        variableHeaders.keySet()));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the fixed headers along with the variable headers in {@code variableHeaders}, for signers building the
+     * canonical request from a header map.
+     */
+    public SortedMap<String, String> resolveHeaders(final Map<String, String> variableHeaders)
+            throws PartnerGatewayInvalidInputException {
+        var values = resolveValues(variableHeaders);
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(fixedHeaders);
+        for (int i = 0; i < values.length; i++) {
+            headers.put(variableHeaderNames.get(i), values[i]);
+        }
+        return headers;
+    }
+
+    /**
+     * Appends the canonical headers block, with the lines of the fixed headers as compiled, and the variable headers
+     * and headers added by signing filled in. {@code securityToken} and {@code contentSha256} are null when their
+     * header isn't sent.
+     */
+    void appendCanonicalHeaders(final StringBuilder builder, final String[] values, final String host,
+                                final String dateTime, final String securityToken,
+                                final CharSequence contentSha256) {
+        for (int i = 0; i < slots.length; i++) {
+            builder.append(literals[i]);
+            switch (slots[i]) {
+                case HOST_SLOT:
+                    appendLine(builder, slotPrefixes[i], host);
+                    break;
+                case DATE_SLOT:
+                    builder.append(slotPrefixes[i]).append(dateTime).append('\n');
+                    break;
+                case SECURITY_TOKEN_SLOT:
+                    if (securityToken != null) {
+                        appendLine(builder, slotPrefixes[i], securityToken);
+                    }
+                    break;
+                case CONTENT_SHA256_SLOT:
+                    if (contentSha256 != null) {
+                        builder.append(slotPrefixes[i]).append(contentSha256).append('\n');
+                    }
+                    break;
+                default:
+                    appendLine(builder, slotPrefixes[i], values[slots[i]]);
+            }
+        }
+        builder.append(literals[slots.length]);
+    }
+
+    String getSignedHeaders(final boolean securityToken, final boolean contentSha256) {
+        return signedHeaders[(securityToken ? 1 : 0) | (contentSha256 ? 2 : 0)];
+    }
+
+    private static void appendLine(final StringBuilder builder, final String prefix, final String value) {
+        builder.append(prefix);
+        if (value != null) {
+            SigV4SigningEngine.appendCompacted(builder, value.trim());
+        }
+        builder.append('\n');
+    }
+
+    private static String canonicalName(final String name) {
+        var canonicalName = new StringBuilder(name.length());
+        SigV4SigningEngine.appendCompacted(canonicalName, SigV4SigningEngine.lowerCase(name));
+        return canonicalName.toString();
+    }
+
+    private static void validateName(final String name, final boolean duplicate)
+            throws PartnerGatewayInvalidInputException {
+        if (name == null) {
+            throw new PartnerGatewayInvalidInputException("Header template names must not be null.");
+        }
+        if (duplicate) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Header %s is declared more than once in the header template.", name));
+        }
+        if (SIGNER_HEADERS.stream().anyMatch(name::equalsIgnoreCase)) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Header %s is added by signing, and can't be declared in a header template.", name));
+        }
+    }
+}
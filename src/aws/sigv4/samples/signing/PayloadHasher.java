@@ -0,0 +1,121 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.metrics.SignerMetrics;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.RequestBody;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.util.BinaryUtils;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Locale;
+import lombok.NonNull;
+
+/**
+ * Computes the hex encoded SHA-256 of request bodies, with a per-thread digest and read buffer.
+ */
+public final class PayloadHasher {
+
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+
+    private static final int SHA256_HEX_LENGTH = 64;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    });
+
+    private static final ThreadLocal<byte[]> READ_BUFFER = ThreadLocal.withInitial(() -> new byte[READ_BUFFER_BYTES]);
+
+    private PayloadHasher() {
+    }
+
+    /**
+     * Returns the payload hash to sign {@code input} with: its precomputed hash, {@code UNSIGNED-PAYLOAD} or the hash of
+     * its request body. Returns null for a string payload, which signers hash themselves.
+     */
+    public static String resolveSha256Hex(@NonNull final AwsSigV4SignerInput input)
+            throws PartnerGatewayInvalidInputException {
+        if (input.isUnsignedPayload()) {
+            return SigV4SigningEngine.UNSIGNED_PAYLOAD;
+        }
+        if (input.getRequestPayloadSha256() != null) {
+            return validateSha256Hex(input.getRequestPayloadSha256());
+        }
+        if (input.getRequestBody() != null) {
+            return sha256Hex(input.getRequestBody());
+        }
+        return null;
+    }
+
+    public static String sha256Hex(@NonNull final RequestBody body) throws PartnerGatewayInvalidInputException {
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var digest = SHA256.get();
+        digest.reset();
+        long size;
+        try {
+            size = body.updateDigest(digest, READ_BUFFER.get());
+        } catch (IOException e) {
+            digest.reset();
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Unable to read request body passed in Input: %s", body), e);
+        }
+        var sha256Hex = BinaryUtils.toHex(digest.digest());
+        if (metrics.isEnabled()) {
+            metrics.stopTimer(SignerMetrics.Phase.HASH_PAYLOAD, start);
+            metrics.recordPayloadSize(size);
+        }
+        return sha256Hex;
+    }
+
+    /**
+     * Returns the size of {@code payload} once UTF-8 encoded by {@link String#getBytes}, without encoding it.
+     */
+    public static long utf8Length(@NonNull final CharSequence payload) {
+        var length = 0L;
+        for (int i = 0; i < payload.length(); i++) {
+            var c = payload.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < payload.length()
+                    && Character.isLowSurrogate(payload.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are encoded as '?', like String.getBytes does.
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static String validateSha256Hex(final String sha256Hex) throws PartnerGatewayInvalidInputException {
+        if (SigV4SigningEngine.STREAMING_EVENTS_PAYLOAD.equals(sha256Hex)) {
+            return sha256Hex;
+        }
+        if (sha256Hex.length() != SHA256_HEX_LENGTH) {
+            throw invalidSha256Hex(sha256Hex);
+        }
+        for (int i = 0; i < sha256Hex.length(); i++) {
+            var c = sha256Hex.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'))) {
+                throw invalidSha256Hex(sha256Hex);
+            }
+        }
+        // The canonical request carries lower case hex digits.
+        return sha256Hex.toLowerCase(Locale.ENGLISH);
+    }
+
+    private static PartnerGatewayInvalidInputException invalidSha256Hex(final String sha256Hex) {
+        return new PartnerGatewayInvalidInputException(
+                String.format("Invalid requestPayloadSha256 passed in Input: %s", sha256Hex));
+    }
+}
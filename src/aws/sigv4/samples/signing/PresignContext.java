@@ -0,0 +1,119 @@
+package aws.sigv4.samples.signing;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
+import java.time.Instant;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * State shared by every URL presigned with the same credentials, region, service, signing time and expiry.
+ * <p>
+ * The signing key, credential scope and the encoded {@code X-Amz-*} query parameters other than
+ * {@code X-Amz-SignedHeaders} are computed once here, so presigning a batch of URLs through
+ * {@link SigV4SigningEngine#presign} only builds the canonical request and signature of each URL.
+ */
+public final class PresignContext {
+
+    public static final String X_AMZ_ALGORITHM = "X-Amz-Algorithm";
+
+    public static final String X_AMZ_CREDENTIAL = "X-Amz-Credential";
+
+    public static final String X_AMZ_EXPIRES = "X-Amz-Expires";
+
+    public static final String X_AMZ_SIGNED_HEADERS = "X-Amz-SignedHeaders";
+
+    public static final String X_AMZ_SIGNATURE = "X-Amz-Signature";
+
+    /**
+     * Longest expiry SigV4 accepts for presigned URLs, 7 days.
+     */
+    public static final long MAX_EXPIRES_IN_SECONDS = 7L * 24 * 60 * 60;
+
+    final SecretKeySpec signingKey;
+
+    final String dateTime;
+
+    final String scope;
+
+    final String encodedCredential;
+
+    final String encodedSecurityToken;
+
+    final String expiresInSeconds;
+
+    /**
+     * Query parameters of URLs without parameters of their own, up to {@code X-Amz-SignedHeaders} excluded.
+     */
+    final String queryPrefix;
+
+    /**
+     * Time after which the presigned URLs are rejected.
+     */
+    @Getter
+    private final Instant expiration;
+
+    private PresignContext(final SecretKeySpec signingKey, final String dateTime, final String scope,
+                           final String encodedCredential, final String encodedSecurityToken,
+                           final long expiresInSeconds, final Instant expiration) {
+        this.signingKey = signingKey;
+        this.dateTime = dateTime;
+        this.scope = scope;
+        this.encodedCredential = encodedCredential;
+        this.encodedSecurityToken = encodedSecurityToken;
+        this.expiresInSeconds = Long.toString(expiresInSeconds);
+        this.expiration = expiration;
+
+        // X-Amz-* parameters in canonical order, X-Amz-Security-Token sorting before X-Amz-SignedHeaders.
+        var prefix = new StringBuilder(256)
+                .append(X_AMZ_ALGORITHM).append('=').append(SigV4SigningEngine.ALGORITHM)
+                .append('&').append(X_AMZ_CREDENTIAL).append('=').append(encodedCredential)
+                .append('&').append(SigV4SigningEngine.X_AMZ_DATE).append('=').append(dateTime)
+                .append('&').append(X_AMZ_EXPIRES).append('=').append(this.expiresInSeconds);
+        if (encodedSecurityToken != null) {
+            prefix.append('&').append(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN).append('=')
+                    .append(encodedSecurityToken);
+        }
+        this.queryPrefix = prefix.toString();
+    }
+
+    /**
+     * Creates the context of URLs signed at {@code signingTimeMillis} and valid for {@code expiresInSeconds}, at
+     * most {@link #MAX_EXPIRES_IN_SECONDS}.
+     */
+    public static PresignContext create(@NonNull final AWSCredentials credentials, @NonNull final String regionName,
+                                        @NonNull final String serviceName, final long signingTimeMillis,
+                                        final long expiresInSeconds) {
+        if (expiresInSeconds <= 0 || expiresInSeconds > MAX_EXPIRES_IN_SECONDS) {
+            throw new IllegalArgumentException(String.format(
+                    "Presigned URLs must expire within 1 to %d seconds, not %d.", MAX_EXPIRES_IN_SECONDS,
+                    expiresInSeconds));
+        }
+
+        // Credentials are trimmed like AWS4Signer does.
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        var secretKey = credentials.getAWSSecretKey().trim();
+        var signingTime = Instant.ofEpochSecond(Math.floorDiv(signingTimeMillis, 1000L));
+        var dateTime = SigV4SigningEngine.DATE_TIME_FORMATTER.format(signingTime);
+        var dateStamp = dateTime.substring(0, 8);
+
+        var scope = new StringBuilder(64);
+        SigV4SigningEngine.appendScope(scope, dateStamp, regionName, serviceName);
+        var encodedCredential = new StringBuilder(128);
+        SigV4SigningEngine.appendUriEncoded(encodedCredential, accessKeyId + "/" + scope, false);
+
+        String encodedSecurityToken = null;
+        if (credentials instanceof AWSSessionCredentials) {
+            var builder = new StringBuilder(1024);
+            SigV4SigningEngine.appendUriEncoded(builder,
+                    ((AWSSessionCredentials) credentials).getSessionToken().trim(), false);
+            encodedSecurityToken = builder.toString();
+        }
+
+        var signingKey = SigningKeyCache.getInstance().getSigningKeySpec(accessKeyId, secretKey, dateStamp,
+                regionName, serviceName);
+        return new PresignContext(signingKey, dateTime, scope.toString(), encodedCredential.toString(),
+                encodedSecurityToken, expiresInSeconds, signingTime.plusSeconds(expiresInSeconds));
+    }
+}
@@ -0,0 +1,63 @@
+package aws.sigv4.samples.signing;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+
+/**
+ * SHA-256 of secret keys, kept by the key caches with each derived key, so a cached key is never used for a different
+ * secret under the same access key id.
+ * <p>
+ * Signers usually pass the same secret key instance for every request of their credentials, so the digest of the last
+ * secret key is kept per thread and reused while the instance is the same. The instance is only weakly referenced, so
+ * pooled threads don't keep secret keys alive after their credentials are dropped.
+ */
+final class SecretKeyDigests {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    });
+
+    private static final ThreadLocal<LastDigest> LAST_DIGEST = new ThreadLocal<>();
+
+    private SecretKeyDigests() {
+    }
+
+    /**
+     * Returns the SHA-256 of {@code secretKey}, encoded as UTF-8. The returned array is shared and must not be
+     * modified.
+     */
+    static byte[] sha256(final String secretKey) {
+        var last = LAST_DIGEST.get();
+        if (last != null && last.secretKey.get() == secretKey) {
+            return last.digest;
+        }
+        var digest = SHA256.get();
+        digest.reset();
+        var sha256 = digest.digest(secretKey.getBytes(StandardCharsets.UTF_8));
+        LAST_DIGEST.set(new LastDigest(secretKey, sha256));
+        return sha256;
+    }
+
+    /**
+     * Returns whether {@code secretKey} is the secret key of {@code secretKeySha256}, comparing in constant time.
+     */
+    static boolean matches(final byte[] secretKeySha256, final String secretKey) {
+        return MessageDigest.isEqual(secretKeySha256, sha256(secretKey));
+    }
+
+    private static final class LastDigest {
+        private final WeakReference<String> secretKey;
+        private final byte[] digest;
+
+        private LastDigest(final String secretKey, final byte[] digest) {
+            this.secretKey = new WeakReference<>(secretKey);
+            this.digest = digest;
+        }
+    }
+}
@@ -0,0 +1,951 @@
+package aws.sigv4.samples.signing;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSSessionCredentials;
+import com.amazonaws.auth.AnonymousAWSCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.SortedMap;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * SigV4 signing engine producing the same headers as the SDK's {@code AWS4Signer}, without its per-request garbage.
+ * <p>
+ * Each thread gets its own engine through {@link #get()}, holding the {@link StringBuilder}s, byte buffers,
+ * {@link MessageDigest} and {@link Mac} reused for every request signed on that thread. Digests are hex encoded
+ * straight into those builders, formatted signing dates are reused within the same second, and derived signing keys
+ * come from the shared {@link SigningKeyCache}, or straight from the previous request when it had the same scope. An
+ * engine must not be shared between threads.
+ */
+public final class SigV4SigningEngine {
+
+    public static final String ALGORITHM = "AWS4-HMAC-SHA256";
+
+    public static final String ECDSA_ALGORITHM = "AWS4-ECDSA-P256-SHA256";
+
+    public static final String TERMINATOR = "aws4_request";
+
+    public static final String HOST = "Host";
+
+    public static final String X_AMZ_DATE = "X-Amz-Date";
+
+    public static final String X_AMZ_SECURITY_TOKEN = "X-Amz-Security-Token";
+
+    public static final String X_AMZ_REGION_SET = "X-Amz-Region-Set";
+
+    public static final String AUTHORIZATION = "Authorization";
+
+    public static final String X_AMZ_CONTENT_SHA256 = "x-amz-content-sha256";
+
+    public static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+
+    /**
+     * Payload hash of requests whose body is an event stream, whose frames are signed one by one.
+     */
+    public static final String STREAMING_EVENTS_PAYLOAD = "STREAMING-AWS4-HMAC-SHA256-EVENTS";
+
+    static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+            .ofPattern("yyyyMMdd'T'HHmmss'Z'", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final char[] UPPER_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private static final int UTF8_CHUNK_CHARS = 8192;
+
+    private static final ThreadLocal<SigV4SigningEngine> ENGINE = ThreadLocal.withInitial(SigV4SigningEngine::new);
+
+    private final StringBuilder canonicalRequest = new StringBuilder(1024);
+
+    private final StringBuilder signedHeaders = new StringBuilder(256);
+
+    private final StringBuilder stringToSign = new StringBuilder(256);
+
+    private final StringBuilder authorization = new StringBuilder(256);
+
+    private final StringBuilder payloadHash = new StringBuilder(64);
+
+    private final StringBuilder canonicalQuery = new StringBuilder(1024);
+
+    private final StringBuilder presignedUrl = new StringBuilder(1536);
+
+    private final byte[] digest = new byte[32];
+
+    private byte[] utf8Buffer = new byte[4096];
+
+    private final MessageDigest sha256;
+
+    private final Mac hmac;
+
+    private SecretKeySpec hmacKey;
+
+    /**
+     * Created on first use, as most threads only sign with SigV4.
+     */
+    private Signature ecdsa;
+
+    private ECPrivateKey ecdsaKey;
+
+    private long cachedEpochSecond = Long.MIN_VALUE;
+
+    private String cachedDateTime;
+
+    private String cachedDate;
+
+    private SecretKeySpec signingKey;
+
+    private String signingKeyAccessKeyId;
+
+    /**
+     * SHA-256 of the signing key's secret key, rather than the secret key itself, see {@link SecretKeyDigests}.
+     */
+    private byte[] signingKeySecretKeySha256;
+
+    private String signingKeyDate;
+
+    private String signingKeyRegionName;
+
+    private String signingKeyServiceName;
+
+    private SigV4SigningEngine() {
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+            hmac = Mac.getInstance("HmacSHA256");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 or HmacSHA256 is not available.", e);
+        }
+    }
+
+    /**
+     * Returns the engine of the calling thread.
+     */
+    public static SigV4SigningEngine get() {
+        return ENGINE.get();
+    }
+
+    /**
+     * Signs a request, adding the {@code Host}, {@code X-Amz-Date}, {@code X-Amz-Security-Token} (for session
+     * credentials) and {@code Authorization} headers to {@code headers}.
+     *
+     * @param headers request headers, sorted with {@link String#CASE_INSENSITIVE_ORDER}.
+     */
+    public void sign(final HttpMethodName method, final URI endpoint, final String resourcePath,
+                     final SortedMap<String, String> headers, final String payload, final AWSCredentials credentials,
+                     final String regionName, final String serviceName, final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        signWithPayloadHash(method, endpoint, resourcePath, headers, payloadHash, credentials, regionName,
+                serviceName, signingTimeMillis);
+    }
+
+    /**
+     * Same as {@link #sign}, for a payload whose hex encoded SHA-256 has already been computed, or
+     * {@link #UNSIGNED_PAYLOAD}.
+     */
+    public void signWithPayloadHash(final HttpMethodName method, final URI endpoint, final String resourcePath,
+                                    final SortedMap<String, String> headers, final CharSequence payloadSha256Hex,
+                                    final AWSCredentials credentials, final String regionName,
+                                    final String serviceName, final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        if (endpoint.getHost() == null) {
+            throw new IllegalArgumentException(
+                    "Request endpoint must have a valid hostname, but it did not: " + endpoint);
+        }
+        signWithPayloadHash(method, null, endpoint, resourcePath, headers, payloadSha256Hex, credentials, regionName,
+                serviceName, signingTimeMillis);
+    }
+
+    /**
+     * Same as {@link #sign}, for a request sent to {@code target}, whose host, canonical URI and scope are already
+     * resolved.
+     */
+    public void sign(final HttpMethodName method, final SigningTarget target, final SortedMap<String, String> headers,
+                     final String payload, final AWSCredentials credentials, final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        signWithPayloadHash(method, target, headers, payloadHash, credentials, signingTimeMillis);
+    }
+
+    /**
+     * Same as {@link #signWithPayloadHash}, for a request sent to {@code target}.
+     */
+    public void signWithPayloadHash(final HttpMethodName method, final SigningTarget target,
+                                    final SortedMap<String, String> headers, final CharSequence payloadSha256Hex,
+                                    final AWSCredentials credentials, final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        signWithPayloadHash(method, target, target.getEndpoint(), target.getResourcePath(), headers, payloadSha256Hex,
+                credentials, target.getRegionName(), target.getServiceName(), signingTimeMillis);
+    }
+
+    /**
+     * Signs a request sent to {@code target} when set, or else to {@code endpoint} and {@code resourcePath}.
+     */
+    private void signWithPayloadHash(final HttpMethodName method, final SigningTarget target, final URI endpoint,
+                                     final String resourcePath, final SortedMap<String, String> headers,
+                                     final CharSequence payloadSha256Hex, final AWSCredentials credentials,
+                                     final String regionName, final String serviceName,
+                                     final long signingTimeMillis) {
+        // Credentials are trimmed and headers added in the same order as AWS4Signer, as headers may differ in case.
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        var secretKey = credentials.getAWSSecretKey().trim();
+        if (credentials instanceof AWSSessionCredentials) {
+            headers.put(X_AMZ_SECURITY_TOKEN, ((AWSSessionCredentials) credentials).getSessionToken().trim());
+        }
+        headers.put(HOST, target != null ? target.getHost() : hostHeader(endpoint));
+        updateSigningDate(signingTimeMillis);
+        headers.put(X_AMZ_DATE, cachedDateTime);
+
+        canonicalRequest.setLength(0);
+        canonicalRequest.append(method.name()).append('\n');
+        if (target != null) {
+            canonicalRequest.append(target.getCanonicalUri());
+        } else {
+            appendCanonicalPath(canonicalRequest, appendUri(endpoint.getPath(), resourcePath));
+        }
+        // The signed request never carries query parameters, only its endpoint and resource path.
+        canonicalRequest.append('\n').append('\n');
+        appendCanonicalHeaders(canonicalRequest, headers);
+        canonicalRequest.append('\n');
+        signedHeaders.setLength(0);
+        appendSignedHeaders(signedHeaders, headers);
+        canonicalRequest.append(signedHeaders).append('\n').append(payloadSha256Hex);
+
+        headers.put(AUTHORIZATION, authorization(target, regionName, serviceName, accessKeyId, secretKey,
+                signedHeaders));
+    }
+
+    /**
+     * Same as {@link #sign}, for a request sent to {@code target} with the headers of {@code template}, whose
+     * variable header values are {@code values} as resolved by {@link HeaderTemplate#resolveValues}. Only the headers
+     * added by signing are put in {@code addedHeaders}.
+     */
+    public void sign(final HttpMethodName method, final SigningTarget target, final HeaderTemplate template,
+                     final String[] values, final String payload, final AWSCredentials credentials,
+                     final long signingTimeMillis, final Map<String, String> addedHeaders) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        signWithPayloadHash(method, target, template, values, payloadHash, false, credentials, signingTimeMillis,
+                addedHeaders);
+    }
+
+    /**
+     * Same as {@link #signWithPayloadHash}, for a request sent to {@code target} with the headers of
+     * {@code template}. The {@code x-amz-content-sha256} header is signed when {@code payloadSha256Header} is set,
+     * and the caller sends it.
+     */
+    public void signWithPayloadHash(final HttpMethodName method, final SigningTarget target,
+                                    final HeaderTemplate template, final String[] values,
+                                    final CharSequence payloadSha256Hex, final boolean payloadSha256Header,
+                                    final AWSCredentials credentials, final long signingTimeMillis,
+                                    final Map<String, String> addedHeaders) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        var secretKey = credentials.getAWSSecretKey().trim();
+        String securityToken = null;
+        if (credentials instanceof AWSSessionCredentials) {
+            securityToken = ((AWSSessionCredentials) credentials).getSessionToken().trim();
+            addedHeaders.put(X_AMZ_SECURITY_TOKEN, securityToken);
+        }
+        addedHeaders.put(HOST, target.getHost());
+        updateSigningDate(signingTimeMillis);
+        addedHeaders.put(X_AMZ_DATE, cachedDateTime);
+
+        canonicalRequest.setLength(0);
+        canonicalRequest.append(method.name()).append('\n').append(target.getCanonicalUri()).append('\n').append('\n');
+        template.appendCanonicalHeaders(canonicalRequest, values, target.getHost(), cachedDateTime, securityToken,
+                payloadSha256Header ? payloadSha256Hex : null);
+        canonicalRequest.append('\n');
+        var signedHeaderNames = template.getSignedHeaders(securityToken != null, payloadSha256Header);
+        canonicalRequest.append(signedHeaderNames).append('\n').append(payloadSha256Hex);
+
+        addedHeaders.put(AUTHORIZATION, authorization(target, target.getRegionName(), target.getServiceName(),
+                accessKeyId, secretKey, signedHeaderNames));
+    }
+
+    /**
+     * Returns the {@code Authorization} header of the canonical request, signed at the cached signing date.
+     */
+    private String authorization(final SigningTarget target, final String regionName, final String serviceName,
+                                 final String accessKeyId, final String secretKey,
+                                 final CharSequence signedHeaderNames) {
+        stringToSign.setLength(0);
+        stringToSign.append(ALGORITHM).append('\n').append(cachedDateTime).append('\n');
+        var scopeStart = stringToSign.length();
+        if (target != null) {
+            stringToSign.append(cachedDate).append(target.scopeSuffix);
+        } else {
+            appendScope(stringToSign, cachedDate, regionName, serviceName);
+        }
+        var scopeEnd = stringToSign.length();
+        stringToSign.append('\n');
+        appendHex(stringToSign, sha256(canonicalRequest));
+
+        var signature = hmacSha256(signingKey(accessKeyId, secretKey, cachedDate, regionName, serviceName),
+                stringToSign);
+
+        authorization.setLength(0);
+        authorization.append(ALGORITHM).append(" Credential=").append(accessKeyId).append('/')
+                .append(stringToSign, scopeStart, scopeEnd)
+                .append(", SignedHeaders=").append(signedHeaderNames)
+                .append(", Signature=");
+        appendHex(authorization, signature);
+        return authorization.toString();
+    }
+
+    /**
+     * Signs a request with SigV4a, for the regions of {@code regionSet} (comma separated region names, or "*"). Adds
+     * the {@code Host}, {@code X-Amz-Date}, {@code X-Amz-Region-Set}, {@code X-Amz-Security-Token} (for session
+     * credentials) and {@code Authorization} headers to {@code headers}.
+     * <p>
+     * Only the canonical request differs from SigV4 by its signed {@code X-Amz-Region-Set} header. The credential
+     * scope has no region, and the string to sign is signed with ECDSA P-256 using the private key derived from the
+     * secret key, which comes from the shared {@link SigV4aKeyCache}.
+     *
+     * @param headers request headers, sorted with {@link String#CASE_INSENSITIVE_ORDER}.
+     */
+    public void signV4a(final HttpMethodName method, final URI endpoint, final String resourcePath,
+                        final SortedMap<String, String> headers, final String payload,
+                        final AWSCredentials credentials, final String regionSet, final String serviceName,
+                        final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        signV4aWithPayloadHash(method, endpoint, resourcePath, headers, payloadHash, credentials, regionSet,
+                serviceName, signingTimeMillis);
+    }
+
+    /**
+     * Same as {@link #signV4a}, for a payload whose hex encoded SHA-256 has already been computed, or
+     * {@link #UNSIGNED_PAYLOAD}.
+     */
+    public void signV4aWithPayloadHash(final HttpMethodName method, final URI endpoint, final String resourcePath,
+                                       final SortedMap<String, String> headers, final CharSequence payloadSha256Hex,
+                                       final AWSCredentials credentials, final String regionSet,
+                                       final String serviceName, final long signingTimeMillis) {
+        if (credentials instanceof AnonymousAWSCredentials) {
+            return;
+        }
+        if (endpoint.getHost() == null) {
+            throw new IllegalArgumentException(
+                    "Request endpoint must have a valid hostname, but it did not: " + endpoint);
+        }
+
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        var secretKey = credentials.getAWSSecretKey().trim();
+        if (credentials instanceof AWSSessionCredentials) {
+            headers.put(X_AMZ_SECURITY_TOKEN, ((AWSSessionCredentials) credentials).getSessionToken().trim());
+        }
+        headers.put(HOST, hostHeader(endpoint));
+        updateSigningDate(signingTimeMillis);
+        headers.put(X_AMZ_DATE, cachedDateTime);
+        headers.put(X_AMZ_REGION_SET, regionSet);
+
+        canonicalRequest.setLength(0);
+        canonicalRequest.append(method.name()).append('\n');
+        appendCanonicalPath(canonicalRequest, appendUri(endpoint.getPath(), resourcePath));
+        canonicalRequest.append('\n').append('\n');
+        appendCanonicalHeaders(canonicalRequest, headers);
+        canonicalRequest.append('\n');
+        signedHeaders.setLength(0);
+        appendSignedHeaders(signedHeaders, headers);
+        canonicalRequest.append(signedHeaders).append('\n').append(payloadSha256Hex);
+
+        stringToSign.setLength(0);
+        stringToSign.append(ECDSA_ALGORITHM).append('\n').append(cachedDateTime).append('\n');
+        var scopeStart = stringToSign.length();
+        stringToSign.append(cachedDate).append('/').append(serviceName).append('/').append(TERMINATOR);
+        var scopeEnd = stringToSign.length();
+        stringToSign.append('\n');
+        appendHex(stringToSign, sha256(canonicalRequest));
+
+        var signature = ecdsaSha256(SigV4aKeyCache.getInstance().getPrivateKey(accessKeyId, secretKey),
+                stringToSign);
+
+        authorization.setLength(0);
+        authorization.append(ECDSA_ALGORITHM).append(" Credential=").append(accessKeyId).append('/')
+                .append(stringToSign, scopeStart, scopeEnd)
+                .append(", SignedHeaders=").append(signedHeaders)
+                .append(", Signature=");
+        appendHex(authorization, signature);
+        headers.put(AUTHORIZATION, authorization.toString());
+    }
+
+    /**
+     * Verifies the signature of a request sent to {@code target} and signed at {@code dateTime} with the secret key
+     * of {@code credentials}. The canonical request is rebuilt from {@code signedHeaders}, the request headers listed
+     * in its {@code Authorization} header, and the endpoint's query parameters, and the signature is compared with
+     * {@code signature} in constant time.
+     *
+     * @param signedHeaders signed request headers, sorted with {@link String#CASE_INSENSITIVE_ORDER}.
+     * @param dateTime      {@code X-Amz-Date} of the request, whose date is the date of its credential scope.
+     */
+    public boolean verify(final HttpMethodName method, final SigningTarget target,
+                          final SortedMap<String, String> signedHeaders, final String payload, final String dateTime,
+                          final AWSCredentials credentials, final CharSequence signature) {
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        return verifyWithPayloadHash(method, target, signedHeaders, payloadHash, dateTime, credentials, signature);
+    }
+
+    /**
+     * Same as {@link #verify}, for a payload whose hex encoded SHA-256 has already been computed, or
+     * {@link #UNSIGNED_PAYLOAD}.
+     */
+    public boolean verifyWithPayloadHash(final HttpMethodName method, final SigningTarget target,
+                                         final SortedMap<String, String> signedHeaders,
+                                         final CharSequence payloadSha256Hex, final String dateTime,
+                                         final AWSCredentials credentials, final CharSequence signature) {
+        var accessKeyId = credentials.getAWSAccessKeyId().trim();
+        var secretKey = credentials.getAWSSecretKey().trim();
+
+        canonicalRequest.setLength(0);
+        canonicalRequest.append(method.name()).append('\n').append(target.getCanonicalUri()).append('\n');
+        var rawQuery = target.getEndpoint().getRawQuery();
+        if (rawQuery != null && !rawQuery.isEmpty()) {
+            appendSortedQueryParameters(canonicalRequest, parseQueryParameters(rawQuery));
+        }
+        canonicalRequest.append('\n');
+        appendCanonicalHeaders(canonicalRequest, signedHeaders);
+        canonicalRequest.append('\n');
+        this.signedHeaders.setLength(0);
+        appendSignedHeaders(this.signedHeaders, signedHeaders);
+        canonicalRequest.append(this.signedHeaders).append('\n').append(payloadSha256Hex);
+
+        var dateStamp = dateTime.substring(0, 8);
+        stringToSign.setLength(0);
+        stringToSign.append(ALGORITHM).append('\n').append(dateTime).append('\n').append(dateStamp)
+                .append(target.scopeSuffix).append('\n');
+        appendHex(stringToSign, sha256(canonicalRequest));
+
+        var expected = hmacSha256(signingKey(accessKeyId, secretKey, dateStamp, target.getRegionName(),
+                target.getServiceName()), stringToSign);
+        authorization.setLength(0);
+        appendHex(authorization, expected);
+        return constantTimeEquals(authorization, signature);
+    }
+
+    /**
+     * Presigns a request, returning its URL with the signature in the {@code X-Amz-*} query parameters. The
+     * {@code Host} header is added to {@code headers}, and all of {@code headers} must be sent with the URL. Query
+     * parameters of {@code endpoint} are kept in the URL and signed.
+     *
+     * @param headers request headers, sorted with {@link String#CASE_INSENSITIVE_ORDER}.
+     */
+    public String presign(final PresignContext context, final HttpMethodName method, final URI endpoint,
+                          final String resourcePath, final SortedMap<String, String> headers, final String payload) {
+        payloadHash.setLength(0);
+        appendHex(payloadHash, sha256(payload));
+        return presignWithPayloadHash(context, method, endpoint, resourcePath, headers, payloadHash);
+    }
+
+    /**
+     * Same as {@link #presign}, for a payload whose hex encoded SHA-256 has already been computed, or
+     * {@link #UNSIGNED_PAYLOAD}.
+     */
+    public String presignWithPayloadHash(final PresignContext context, final HttpMethodName method,
+                                         final URI endpoint, final String resourcePath,
+                                         final SortedMap<String, String> headers,
+                                         final CharSequence payloadSha256Hex) {
+        if (endpoint.getHost() == null) {
+            throw new IllegalArgumentException(
+                    "Request endpoint must have a valid hostname, but it did not: " + endpoint);
+        }
+
+        var host = hostHeader(endpoint);
+        headers.put(HOST, host);
+        signedHeaders.setLength(0);
+        appendSignedHeaders(signedHeaders, headers);
+        appendCanonicalQuery(context, endpoint.getRawQuery());
+
+        var path = appendUri(endpoint.getPath(), resourcePath);
+        canonicalRequest.setLength(0);
+        canonicalRequest.append(method.name()).append('\n');
+        appendCanonicalPath(canonicalRequest, path);
+        canonicalRequest.append('\n').append(canonicalQuery).append('\n');
+        appendCanonicalHeaders(canonicalRequest, headers);
+        canonicalRequest.append('\n').append(signedHeaders).append('\n').append(payloadSha256Hex);
+
+        stringToSign.setLength(0);
+        stringToSign.append(ALGORITHM).append('\n').append(context.dateTime).append('\n').append(context.scope)
+                .append('\n');
+        appendHex(stringToSign, sha256(canonicalRequest));
+
+        var signature = hmacSha256(context.signingKey, stringToSign);
+
+        presignedUrl.setLength(0);
+        presignedUrl.append(endpoint.getScheme()).append("://").append(host);
+        appendUriEncoded(presignedUrl, path, true);
+        presignedUrl.append('?').append(canonicalQuery).append('&').append(PresignContext.X_AMZ_SIGNATURE)
+                .append('=');
+        appendHex(presignedUrl, signature);
+        return presignedUrl.toString();
+    }
+
+    /**
+     * Builds the canonical query string of a presigned request: the endpoint's query parameters and the
+     * {@code X-Amz-*} parameters, encoded and sorted by name then value like AWS4Signer does.
+     */
+    private void appendCanonicalQuery(final PresignContext context, final String rawQuery) {
+        canonicalQuery.setLength(0);
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            // Presigned URLs rarely carry parameters of their own, so the X-Amz-* parameters are already in order.
+            canonicalQuery.append(context.queryPrefix).append('&').append(PresignContext.X_AMZ_SIGNED_HEADERS)
+                    .append('=');
+            appendUriEncoded(canonicalQuery, signedHeaders.toString(), false);
+            return;
+        }
+
+        var parameters = parseQueryParameters(rawQuery);
+        parameters.add(new String[] {PresignContext.X_AMZ_ALGORITHM, ALGORITHM});
+        parameters.add(new String[] {PresignContext.X_AMZ_CREDENTIAL, context.encodedCredential});
+        parameters.add(new String[] {X_AMZ_DATE, context.dateTime});
+        parameters.add(new String[] {PresignContext.X_AMZ_EXPIRES, context.expiresInSeconds});
+        if (context.encodedSecurityToken != null) {
+            parameters.add(new String[] {X_AMZ_SECURITY_TOKEN, context.encodedSecurityToken});
+        }
+        parameters.add(new String[] {PresignContext.X_AMZ_SIGNED_HEADERS, encode(signedHeaders.toString())});
+        appendSortedQueryParameters(canonicalQuery, parameters);
+    }
+
+    /**
+     * Splits a raw query into its encoded parameter names and values.
+     */
+    private static List<String[]> parseQueryParameters(final String rawQuery) {
+        var parameters = new ArrayList<String[]>();
+        for (var parameter : rawQuery.split("&")) {
+            if (parameter.isEmpty()) {
+                continue;
+            }
+            var separator = parameter.indexOf('=');
+            var name = separator < 0 ? parameter : parameter.substring(0, separator);
+            var value = separator < 0 ? "" : parameter.substring(separator + 1);
+            parameters.add(new String[] {encode(decode(name)), encode(decode(value))});
+        }
+        return parameters;
+    }
+
+    /**
+     * Appends the parameters sorted by name then value like AWS4Signer does, sorting {@code parameters} in place.
+     */
+    private static void appendSortedQueryParameters(final StringBuilder builder, final List<String[]> parameters) {
+        parameters.sort(Comparator.<String[], String>comparing(parameter -> parameter[0])
+                .thenComparing(parameter -> parameter[1]));
+
+        var start = builder.length();
+        for (var parameter : parameters) {
+            if (builder.length() > start) {
+                builder.append('&');
+            }
+            builder.append(parameter[0]).append('=').append(parameter[1]);
+        }
+    }
+
+    /**
+     * Percent-decodes a raw query component, keeping '+' as is rather than decoding it to a space.
+     */
+    private static String decode(final String value) {
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static String encode(final String value) {
+        var builder = new StringBuilder(value.length() + 16);
+        appendUriEncoded(builder, value, false);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the signing key of {@code dateStamp}, reusing the previous request's key when it has the same
+     * credentials and scope, as consecutive requests usually do, without looking it up in the shared cache.
+     */
+    private SecretKeySpec signingKey(final String accessKeyId, final String secretKey, final String dateStamp,
+                                     final String regionName, final String serviceName) {
+        if (signingKey == null || !dateStamp.equals(signingKeyDate) || !accessKeyId.equals(signingKeyAccessKeyId)
+                || !regionName.equals(signingKeyRegionName) || !serviceName.equals(signingKeyServiceName)
+                || !SecretKeyDigests.matches(signingKeySecretKeySha256, secretKey)) {
+            signingKey = SigningKeyCache.getInstance().getSigningKeySpec(accessKeyId, secretKey, dateStamp,
+                    regionName, serviceName);
+            signingKeyAccessKeyId = accessKeyId;
+            signingKeySecretKeySha256 = SecretKeyDigests.sha256(secretKey);
+            signingKeyDate = dateStamp;
+            signingKeyRegionName = regionName;
+            signingKeyServiceName = serviceName;
+        }
+        return signingKey;
+    }
+
+    /**
+     * Returns the SHA-256 digest of the UTF-8 encoding of {@code text}, in a buffer reused by the next call.
+     */
+    byte[] sha256(final CharSequence text) {
+        var length = text.length();
+        for (int from = 0; from < length; ) {
+            var to = chunkEnd(text, from);
+            var encodedLength = encodeUtf8(text, from, to);
+            sha256.update(utf8Buffer, 0, encodedLength);
+            from = to;
+        }
+        return finishDigest();
+    }
+
+    private byte[] finishDigest() {
+        try {
+            sha256.digest(digest, 0, digest.length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute SHA-256 digest.", e);
+        }
+        return digest;
+    }
+
+    /**
+     * Returns the HMAC-SHA256 of the UTF-8 encoding of {@code text}, in a buffer reused by the next call.
+     */
+    byte[] hmacSha256(final SecretKeySpec key, final CharSequence text) {
+        try {
+            // The Mac keeps its key after doFinal, so it only has to be re-initialised when the key changes.
+            if (key != hmacKey) {
+                hmac.init(key);
+                hmacKey = key;
+            }
+            var length = text.length();
+            for (int from = 0; from < length; ) {
+                var to = chunkEnd(text, from);
+                var encodedLength = encodeUtf8(text, from, to);
+                hmac.update(utf8Buffer, 0, encodedLength);
+                from = to;
+            }
+            hmac.doFinal(digest, 0);
+        } catch (GeneralSecurityException e) {
+            hmacKey = null;
+            throw new IllegalStateException("Unable to compute HmacSHA256.", e);
+        }
+        return digest;
+    }
+
+    /**
+     * Returns the DER encoded ECDSA P-256 signature of the SHA-256 of the UTF-8 encoding of {@code text}.
+     */
+    byte[] ecdsaSha256(final ECPrivateKey key, final CharSequence text) {
+        try {
+            if (ecdsa == null) {
+                ecdsa = Signature.getInstance("SHA256withECDSA");
+            }
+            // Like the Mac, the Signature keeps its key after signing.
+            if (key != ecdsaKey) {
+                ecdsa.initSign(key);
+                ecdsaKey = key;
+            }
+            var length = text.length();
+            for (int from = 0; from < length; ) {
+                var to = chunkEnd(text, from);
+                var encodedLength = encodeUtf8(text, from, to);
+                ecdsa.update(utf8Buffer, 0, encodedLength);
+                from = to;
+            }
+            return ecdsa.sign();
+        } catch (GeneralSecurityException e) {
+            ecdsaKey = null;
+            throw new IllegalStateException("Unable to compute SHA256withECDSA.", e);
+        }
+    }
+
+    private void updateSigningDate(final long signingTimeMillis) {
+        var epochSecond = Math.floorDiv(signingTimeMillis, 1000L);
+        if (epochSecond != cachedEpochSecond) {
+            cachedDateTime = DATE_TIME_FORMATTER.format(Instant.ofEpochSecond(epochSecond));
+            cachedDate = cachedDateTime.substring(0, 8);
+            cachedEpochSecond = epochSecond;
+        }
+    }
+
+    static String hostHeader(final URI endpoint) {
+        if (isUsingNonDefaultPort(endpoint)) {
+            return endpoint.getHost() + ":" + endpoint.getPort();
+        }
+        return endpoint.getHost();
+    }
+
+    private static boolean isUsingNonDefaultPort(final URI endpoint) {
+        var port = endpoint.getPort();
+        if (port <= 0) {
+            return false;
+        }
+        var scheme = endpoint.getScheme().toLowerCase(Locale.ENGLISH);
+        return !("http".equals(scheme) && port == 80) && !("https".equals(scheme) && port == 443);
+    }
+
+    static void appendScope(final StringBuilder builder, final String dateStamp, final String regionName,
+                            final String serviceName) {
+        builder.append(dateStamp).append('/').append(regionName).append('/').append(serviceName).append('/')
+                .append(TERMINATOR);
+    }
+
+    /**
+     * Joins the endpoint path and resource path the same way as the SDK's {@code SdkHttpUtils.appendUri}.
+     */
+    static String appendUri(final String basePath, final String resourcePath) {
+        var result = basePath;
+        if (resourcePath != null && !resourcePath.isEmpty()) {
+            if (resourcePath.startsWith("/")) {
+                if (result.endsWith("/")) {
+                    result = result.substring(0, result.length() - 1);
+                }
+            } else if (!result.endsWith("/")) {
+                result = result + "/";
+            }
+            return result + resourcePath;
+        }
+        return result.endsWith("/") ? result : result + "/";
+    }
+
+    /**
+     * Appends the URI encoded and normalised path, with '/' left unencoded.
+     */
+    static void appendCanonicalPath(final StringBuilder builder, final String path) {
+        var start = builder.length();
+        appendUriEncoded(builder, path, true);
+
+        if (needsNormalization(builder, start)) {
+            // Dot segments and repeated slashes are rare, so URI is only used to normalise paths which contain them.
+            var encoded = builder.substring(start);
+            var normalized = URI.create(encoded).normalize().getRawPath();
+            if (!path.endsWith("/") && normalized.endsWith("/")) {
+                normalized = normalized.substring(0, normalized.length() - 1);
+            }
+            builder.setLength(start);
+            builder.append(normalized);
+        }
+        if (builder.length() == start || builder.charAt(start) != '/') {
+            builder.insert(start, '/');
+        }
+    }
+
+    private static boolean needsNormalization(final CharSequence path, final int start) {
+        var end = path.length();
+        var segmentStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i == end || path.charAt(i) == '/') {
+                var segmentLength = i - segmentStart;
+                if (segmentLength == 0 && i < end && i > start) {
+                    return true;
+                }
+                if (segmentLength == 1 && path.charAt(segmentStart) == '.') {
+                    return true;
+                }
+                if (segmentLength == 2 && path.charAt(segmentStart) == '.' && path.charAt(segmentStart + 1) == '.') {
+                    return true;
+                }
+                segmentStart = i + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends {@code value} percent-encoded per RFC 3986, leaving only unreserved characters (and '/' when
+     * {@code path} is set) unencoded. Matches the SDK's {@code SdkHttpUtils.urlEncode}.
+     */
+    static void appendUriEncoded(final StringBuilder builder, final String value, final boolean path) {
+        var length = value.length();
+        for (int i = 0; i < length; i++) {
+            var c = value.charAt(i);
+            if (isUnreserved(c) || (path && c == '/')) {
+                builder.append(c);
+            } else if (c < 0x80) {
+                appendPercentEncoded(builder, c);
+            } else if (c < 0x800) {
+                appendPercentEncoded(builder, 0xC0 | (c >> 6));
+                appendPercentEncoded(builder, 0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    var codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    appendPercentEncoded(builder, 0xF0 | (codePoint >> 18));
+                    appendPercentEncoded(builder, 0x80 | ((codePoint >> 12) & 0x3F));
+                    appendPercentEncoded(builder, 0x80 | ((codePoint >> 6) & 0x3F));
+                    appendPercentEncoded(builder, 0x80 | (codePoint & 0x3F));
+                } else {
+                    appendPercentEncoded(builder, '?');
+                }
+            } else {
+                appendPercentEncoded(builder, 0xE0 | (c >> 12));
+                appendPercentEncoded(builder, 0x80 | ((c >> 6) & 0x3F));
+                appendPercentEncoded(builder, 0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private static boolean isUnreserved(final char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '~';
+    }
+
+    private static void appendPercentEncoded(final StringBuilder builder, final int octet) {
+        builder.append('%').append(UPPER_HEX_DIGITS[(octet >> 4) & 0xF]).append(UPPER_HEX_DIGITS[octet & 0xF]);
+    }
+
+    /**
+     * Appends one "name:value\n" line per signed header, with lower case names and whitespace compacted.
+     */
+    static void appendCanonicalHeaders(final StringBuilder builder, final SortedMap<String, String> headers) {
+        for (var header : headers.entrySet()) {
+            var name = header.getKey();
+            if (isExcludedFromSigning(name)) {
+                continue;
+            }
+            appendCompacted(builder, lowerCase(name));
+            builder.append(':');
+            if (header.getValue() != null) {
+                appendCompacted(builder, header.getValue().trim());
+            }
+            builder.append('\n');
+        }
+    }
+
+    /**
+     * Appends the ';' separated, lower case names of the signed headers.
+     */
+    static void appendSignedHeaders(final StringBuilder builder, final SortedMap<String, String> headers) {
+        var start = builder.length();
+        for (var name : headers.keySet()) {
+            if (isExcludedFromSigning(name)) {
+                continue;
+            }
+            if (builder.length() > start) {
+                builder.append(';');
+            }
+            builder.append(lowerCase(name));
+        }
+    }
+
+    static boolean isExcludedFromSigning(final String name) {
+        return "connection".equalsIgnoreCase(name) || "x-amzn-trace-id".equalsIgnoreCase(name);
+    }
+
+    /**
+     * Lower cases with {@link Locale#ENGLISH}, returning the same instance when there's nothing to lower case.
+     */
+    static String lowerCase(final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || c >= 0x80) {
+                return value.toLowerCase(Locale.ENGLISH);
+            }
+        }
+        return value;
+    }
+
+    static void appendCompacted(final StringBuilder builder, final String value) {
+        var previousIsWhitespace = false;
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000b' || c == '\r' || c == '\f') {
+                if (!previousIsWhitespace) {
+                    builder.append(' ');
+                    previousIsWhitespace = true;
+                }
+            } else {
+                builder.append(c);
+                previousIsWhitespace = false;
+            }
+        }
+    }
+
+    /**
+     * Compares in a time which only depends on the length of the values, so a mismatch doesn't reveal its position.
+     */
+    public static boolean constantTimeEquals(final CharSequence expected, final CharSequence actual) {
+        if (expected.length() != actual.length()) {
+            return false;
+        }
+        var difference = 0;
+        for (int i = 0; i < expected.length(); i++) {
+            difference |= expected.charAt(i) ^ actual.charAt(i);
+        }
+        return difference == 0;
+    }
+
+    static void appendHex(final StringBuilder builder, final byte[] bytes) {
+        for (var b : bytes) {
+            builder.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+    }
+
+    /**
+     * Returns the end of the chunk starting at {@code from}, never splitting a surrogate pair.
+     */
+    private static int chunkEnd(final CharSequence text, final int from) {
+        var to = Math.min(text.length(), from + UTF8_CHUNK_CHARS);
+        if (to < text.length() && Character.isHighSurrogate(text.charAt(to - 1))) {
+            to++;
+        }
+        return to;
+    }
+
+    /**
+     * Encodes {@code text[from, to)} as UTF-8 into the reused buffer, replacing unpaired surrogates with '?' like
+     * {@link String#getBytes(java.nio.charset.Charset)}, and returns the encoded length.
+     */
+    private int encodeUtf8(final CharSequence text, final int from, final int to) {
+        var length = to;
+        if (utf8Buffer.length < (to - from) * 3) {
+            utf8Buffer = new byte[(to - from) * 3];
+        }
+        var buffer = utf8Buffer;
+        var position = 0;
+        for (int i = from; i < length; i++) {
+            var c = text.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    var codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return position;
+    }
+}
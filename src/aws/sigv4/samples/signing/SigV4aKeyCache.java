@@ -0,0 +1,144 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.metrics.SignerMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPrivateKeySpec;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Bounded, concurrent cache of the ECDSA P-256 private keys SigV4a signs with, keyed by access key id.
+ * <p>
+ * The key is derived from the secret key with an HMAC-SHA256 based KDF in counter mode (NIST SP 800-108), retried
+ * with the next counter until the output is a valid P-256 scalar, then turned into a {@link ECPrivateKey}. Unlike
+ * SigV4 signing keys, it doesn't depend on the date, region or service, so it is derived once per credentials. A
+ * single instance, returned by {@link #getInstance()}, is shared by all signers. The least recently used keys are
+ * evicted once {@code maximumSize} is reached.
+ */
+public final class SigV4aKeyCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final byte[] LABEL = "AWS4-ECDSA-P256-SHA256".getBytes(StandardCharsets.UTF_8);
+
+    private static final int MAX_COUNTER = 254;
+
+    /**
+     * Order of the P-256 curve, minus 2: KDF outputs up to this value are valid scalars once incremented.
+     */
+    private static final BigInteger N_MINUS_2 = new BigInteger(
+            "FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC63254F", 16);
+
+    private static final ECParameterSpec P256 = p256Parameters();
+
+    private static final SigV4aKeyCache INSTANCE = new SigV4aKeyCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final Cache<String, CachedPrivateKey> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    public SigV4aKeyCache(final int maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the cache shared by all signers.
+     */
+    public static SigV4aKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the private key of the given credentials, deriving it on a cache miss.
+     */
+    public ECPrivateKey getPrivateKey(@NonNull final String accessKeyId, @NonNull final String secretKey) {
+        var cached = cache.getIfPresent(accessKeyId);
+        if (cached != null && SecretKeyDigests.matches(cached.getSecretKeySha256(), secretKey)) {
+            hitCount.increment();
+            return cached.getPrivateKey();
+        }
+
+        missCount.increment();
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var privateKey = derivePrivateKey(accessKeyId, secretKey);
+        metrics.stopTimer(SignerMetrics.Phase.DERIVE_SIGNING_KEY, start);
+        cache.put(accessKeyId, new CachedPrivateKey(privateKey, SecretKeyDigests.sha256(secretKey)));
+        return privateKey;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Derives the private key: the first HMAC("AWS4A" + secret, 1 || label || 0x00 || access key id || counter || 256)
+     * not greater than n - 2, plus 1.
+     */
+    static ECPrivateKey derivePrivateKey(final String accessKeyId, final String secretKey) {
+        try {
+            var mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(("AWS4A" + secretKey).getBytes(StandardCharsets.UTF_8), HMAC_SHA256));
+            var accessKeyIdBytes = accessKeyId.getBytes(StandardCharsets.UTF_8);
+            var fixedInput = ByteBuffer.allocate(Integer.BYTES + LABEL.length + 1 + accessKeyIdBytes.length + 1
+                    + Integer.BYTES);
+
+            for (int counter = 1; counter <= MAX_COUNTER; counter++) {
+                fixedInput.clear();
+                fixedInput.putInt(1).put(LABEL).put((byte) 0).put(accessKeyIdBytes).put((byte) counter).putInt(256);
+                var candidate = new BigInteger(1, mac.doFinal(fixedInput.array()));
+                if (candidate.compareTo(N_MINUS_2) <= 0) {
+                    var keySpec = new ECPrivateKeySpec(candidate.add(BigInteger.ONE), P256);
+                    return (ECPrivateKey) KeyFactory.getInstance("EC").generatePrivate(keySpec);
+                }
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive SigV4a private key.", e);
+        }
+        throw new IllegalStateException("Unable to derive SigV4a private key, all counters were exhausted.");
+    }
+
+    private static ECParameterSpec p256Parameters() {
+        try {
+            var parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 is not available.", e);
+        }
+    }
+
+    /**
+     * The SHA-256 of the secret key is kept with the private key, see {@link SecretKeyDigests}.
+     */
+    @Value
+    private static class CachedPrivateKey {
+        ECPrivateKey privateKey;
+        byte[] secretKeySha256;
+    }
+}
@@ -0,0 +1,39 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.models.RequestBody;
+import com.amazonaws.auth.Signer;
+import com.amazonaws.handlers.HandlerContextKey;
+import lombok.NonNull;
+
+/**
+ * SigV4 implementation the AWS SDK based signers sign their requests with, see {@link SigningBackends} for the
+ * available ones.
+ * <p>
+ * Signers build an SDK v1 request, then sign it with the {@link Signer} of its region and service, which adds the
+ * signature headers to it. Payload hashes computed by the signers are passed in the request's
+ * {@link ExtendedAws4Signer#PAYLOAD_SHA256} handler context, without the payload. Backends which don't support them get
+ * request bodies in the {@link #REQUEST_BODY} handler context instead, and hash them themselves.
+ */
+public interface SigningBackend {
+
+    /**
+     * Request body of inputs signed by backends which don't support payload hashes.
+     */
+    HandlerContextKey<RequestBody> REQUEST_BODY = new HandlerContextKey<>("RequestBody");
+
+    /**
+     * Returns the signer of requests to {@code serviceName} in {@code regionName}. Batch signing calls it once per
+     * region and service, and signs the batch's requests concurrently with the returned signer.
+     */
+    Signer getSigner(@NonNull String regionName, @NonNull String serviceName);
+
+    /**
+     * Returns whether the signer takes payload hashes from the request's {@link ExtendedAws4Signer#PAYLOAD_SHA256}
+     * handler context, other than {@link SigV4SigningEngine#UNSIGNED_PAYLOAD}. {@code requestPayloadSha256} inputs can
+     * only be signed when it does.
+     * <p>
+     * Not a default method, so backends state it, and lambdas passed to the signers' constructors aren't ambiguous
+     * between a backend and a credentials executor.
+     */
+    boolean isPayloadHashSupported();
+}
@@ -0,0 +1,47 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.factoryHelpers.Aws4SignerFactoryHelper;
+import com.amazonaws.auth.Signer;
+import lombok.NonNull;
+
+/**
+ * Signing backends, which can be selected by name from configuration with {@link #valueOf}.
+ */
+public enum SigningBackends implements SigningBackend {
+
+    /**
+     * SDK v1's {@link com.amazonaws.auth.AWS4Signer}, through {@link ExtendedAws4Signer}. A signer is created for each
+     * region and service, as it holds them.
+     */
+    SDK_V1 {
+        @Override
+        public Signer getSigner(@NonNull final String regionName, @NonNull final String serviceName) {
+            return Aws4SignerFactoryHelper.getSigner(regionName, serviceName);
+        }
+
+        @Override
+        public boolean isPayloadHashSupported() {
+            return true;
+        }
+    },
+
+    /**
+     * SDK v2's thread safe {@code AwsV4HttpSigner}, shared by all requests.
+     * {@code software.amazon.awssdk:http-auth-aws} is only needed on the classpath when it is used.
+     * <p>
+     * It always signs and sends the {@code x-amz-content-sha256} header, and can't sign precomputed payload hashes
+     * other than {@code UNSIGNED-PAYLOAD}. It hashes request bodies itself, reading them when signing, so failures to
+     * open them are thrown as {@link java.io.UncheckedIOException}.
+     */
+    SDK_V2 {
+        @Override
+        public Signer getSigner(@NonNull final String regionName, @NonNull final String serviceName) {
+            return new AwsV4HttpSignerAdapter(regionName, serviceName);
+        }
+
+        @Override
+        public boolean isPayloadHashSupported() {
+            return false;
+        }
+    }
+}
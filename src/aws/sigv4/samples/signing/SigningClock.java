@@ -0,0 +1,134 @@
+package aws.sigv4.samples.signing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Set;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Clock signers take the signing time from, corrected by a per endpoint offset learned from the {@code Date} header of
+ * responses rejected for clock skew.
+ * <p>
+ * Callers report rejected responses with {@link #adjust}, and every later signature for that endpoint is computed at
+ * the server's time, so a host with a drifted clock goes back to having its requests accepted on the first attempt.
+ * Offsets are keyed by the request endpoint, as passed in the signer input. The least recently used offsets are
+ * evicted once {@code maximumSize} endpoints have one.
+ */
+@Log4j2
+public final class SigningClock {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    /**
+     * Minimum skew between the local and server clocks for which a response with a signature or authentication error
+     * code, or a 401 or 403 response, is taken as caused by clock skew, as the AWS SDKs do.
+     */
+    public static final Duration SKEW_THRESHOLD = Duration.ofMinutes(4);
+
+    /**
+     * Error codes only returned for clock skew.
+     */
+    private static final Set<String> CLOCK_SKEW_ERROR_CODES = Set.of("RequestTimeTooSkewed", "RequestExpired",
+            "RequestInTheFuture");
+
+    /**
+     * Error codes returned for clock skew, but mostly for other signing errors, e.g. a wrong secret key.
+     */
+    private static final Set<String> SIGNATURE_ERROR_CODES = Set.of("InvalidSignatureException",
+            "SignatureDoesNotMatch", "AuthFailure");
+
+    private final Clock clock;
+
+    /**
+     * Milliseconds to add to {@link #clock} to get the server's time, per endpoint.
+     */
+    private final Cache<String, Long> offsets;
+
+    public SigningClock() {
+        this(Clock.systemUTC());
+    }
+
+    public SigningClock(@NonNull final Clock clock) {
+        this(clock, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public SigningClock(@NonNull final Clock clock, final int maximumSize) {
+        this.clock = clock;
+        this.offsets = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the time to sign requests to {@code endpoint} at, in milliseconds since the epoch.
+     */
+    public long millis(@NonNull final String endpoint) {
+        var offset = offsets.getIfPresent(endpoint);
+        return offset == null ? clock.millis() : clock.millis() + offset;
+    }
+
+    /**
+     * Returns the offset of requests to {@code endpoint} in the SDK's convention, for
+     * {@link com.amazonaws.SignableRequest#setTimeOffset}: the number of seconds the system clock, which
+     * {@link com.amazonaws.auth.AWS4Signer} reads, is ahead of the signing time.
+     */
+    public int getSdkTimeOffset(@NonNull final String endpoint) {
+        return (int) ((System.currentTimeMillis() - millis(endpoint)) / 1000L);
+    }
+
+    /**
+     * Returns the offset added to the clock for {@code endpoint}, zero until one is learned or set.
+     */
+    public Duration getOffset(@NonNull final String endpoint) {
+        var offset = offsets.getIfPresent(endpoint);
+        return offset == null ? Duration.ZERO : Duration.ofMillis(offset);
+    }
+
+    /**
+     * Sets the offset added to the clock for {@code endpoint}, e.g. to simulate a skewed host in tests.
+     */
+    public void setOffset(@NonNull final String endpoint, @NonNull final Duration offset) {
+        offsets.put(endpoint, offset.toMillis());
+    }
+
+    /**
+     * Learns the offset of {@code endpoint} from a rejected response, when it was rejected for clock skew: when its
+     * error code is a clock skew error code, or it has a signature error code or a 401 or 403 status and its
+     * {@code Date} header is at least {@link #SKEW_THRESHOLD} away from the signing time. Returns whether the offset
+     * was adjusted.
+     *
+     * @param errorCode  error code of the response, e.g. {@code RequestTimeTooSkewed}, or null.
+     * @param dateHeader {@code Date} header of the response, in the RFC 1123 format.
+     */
+    public boolean adjust(@NonNull final String endpoint, final int statusCode, final String errorCode,
+                          final String dateHeader) {
+        if (dateHeader == null) {
+            return false;
+        }
+        long serverMillis;
+        try {
+            serverMillis = ZonedDateTime.parse(dateHeader, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+                    .toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring response of {} with an invalid Date header: {}.", endpoint, dateHeader);
+            return false;
+        }
+
+        var skewMillis = serverMillis - millis(endpoint);
+        var skewed = Math.abs(skewMillis) >= SKEW_THRESHOLD.toMillis();
+        var skewError = errorCode != null && CLOCK_SKEW_ERROR_CODES.contains(errorCode);
+        var signatureError = errorCode != null && SIGNATURE_ERROR_CODES.contains(errorCode);
+        if (!skewError && !((signatureError || statusCode == 401 || statusCode == 403) && skewed)) {
+            return false;
+        }
+
+        var offset = serverMillis - clock.millis();
+        log.info("Adjusting the signing clock of {} by {} ms, to the server's time.", endpoint, offset);
+        offsets.put(endpoint, offset);
+        return true;
+    }
+}
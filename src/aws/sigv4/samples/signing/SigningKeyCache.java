@@ -0,0 +1,181 @@
+package aws.sigv4.samples.signing;
+
+import aws.sigv4.samples.metrics.SignerMetrics;
+import com.amazonaws.auth.AWSCredentials;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.LongAdder;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.log4j.Log4j2;
+
+/**
+ * Bounded, concurrent cache of derived SigV4 signing keys, keyed by access key id, date stamp, region and service.
+ * <p>
+ * Deriving a signing key takes four chained HMAC-SHA256 operations (date, region, service, "aws4_request"), while a
+ * derived key stays the same for a whole day. A single instance, returned by {@link #getInstance()}, is shared by all
+ * signers. Keys for dates older than the day before the newest date seen are evicted, and the least recently used keys
+ * are evicted once {@code maximumSize} is reached.
+ */
+@Log4j2
+public final class SigningKeyCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 4096;
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+
+    private static final byte[] TERMINATOR = "aws4_request".getBytes(StandardCharsets.UTF_8);
+
+    private static final SigningKeyCache INSTANCE = new SigningKeyCache(DEFAULT_MAXIMUM_SIZE);
+
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(HMAC_SHA256);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available.", e);
+        }
+    });
+
+    private final Cache<CacheKey, CachedSigningKey> cache;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private volatile String newestDateStamp = "";
+
+    public SigningKeyCache(final int maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the cache shared by all signers.
+     */
+    public static SigningKeyCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the signing key for the given credentials and credential scope, deriving it on a cache miss.
+     * Note: The returned array is shared and must not be modified.
+     */
+    public byte[] getSigningKey(@NonNull final AWSCredentials credentials, @NonNull final String dateStamp,
+                                @NonNull final String regionName, @NonNull final String serviceName) {
+        return lookup(credentials.getAWSAccessKeyId(), credentials.getAWSSecretKey(), dateStamp, regionName,
+                serviceName).getSigningKey();
+    }
+
+    /**
+     * Returns the signing key as a {@link SecretKeySpec}, so callers can initialise a {@link Mac} with it without
+     * allocating a new key spec for every signature.
+     */
+    public SecretKeySpec getSigningKeySpec(@NonNull final String accessKeyId, @NonNull final String secretKey,
+                                           @NonNull final String dateStamp, @NonNull final String regionName,
+                                           @NonNull final String serviceName) {
+        return lookup(accessKeyId, secretKey, dateStamp, regionName, serviceName).getSigningKeySpec();
+    }
+
+    private CachedSigningKey lookup(final String accessKeyId, final String secretKey, final String dateStamp,
+                                    final String regionName, final String serviceName) {
+        var cacheKey = new CacheKey(accessKeyId, dateStamp, regionName, serviceName);
+
+        var cached = cache.getIfPresent(cacheKey);
+        if (cached != null && SecretKeyDigests.matches(cached.getSecretKeySha256(), secretKey)) {
+            hitCount.increment();
+            return cached;
+        }
+
+        missCount.increment();
+        evictExpiredDates(dateStamp);
+        var metrics = SignerMetrics.get();
+        var start = metrics.startTimer();
+        var signingKey = deriveSigningKey(secretKey, dateStamp, regionName, serviceName);
+        metrics.stopTimer(SignerMetrics.Phase.DERIVE_SIGNING_KEY, start);
+        var derived = new CachedSigningKey(signingKey, new SecretKeySpec(signingKey, HMAC_SHA256),
+                SecretKeyDigests.sha256(secretKey));
+        cache.put(cacheKey, derived);
+        return derived;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Derives the signing key: HMAC("AWS4" + secret, date) -> region -> service -> "aws4_request".
+     */
+    static byte[] deriveSigningKey(final String secretKey, final String dateStamp, final String regionName,
+                                   final String serviceName) {
+        var mac = HMAC.get();
+        var key = hmac(mac, ("AWS4" + secretKey).getBytes(StandardCharsets.UTF_8),
+                dateStamp.getBytes(StandardCharsets.UTF_8));
+        key = hmac(mac, key, regionName.getBytes(StandardCharsets.UTF_8));
+        key = hmac(mac, key, serviceName.getBytes(StandardCharsets.UTF_8));
+        return hmac(mac, key, TERMINATOR);
+    }
+
+    private static byte[] hmac(final Mac mac, final byte[] key, final byte[] data) {
+        try {
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialise HmacSHA256.", e);
+        }
+        return mac.doFinal(data);
+    }
+
+    private void evictExpiredDates(final String dateStamp) {
+        if (dateStamp.compareTo(newestDateStamp) <= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (dateStamp.compareTo(newestDateStamp) <= 0) {
+                return;
+            }
+            newestDateStamp = dateStamp;
+        }
+
+        // Requests signed around midnight may still carry the previous date, so only evict dates older than that.
+        String oldestKeptDateStamp;
+        try {
+            oldestKeptDateStamp = LocalDate.parse(dateStamp, DateTimeFormatter.BASIC_ISO_DATE)
+                    .minusDays(1)
+                    .format(DateTimeFormatter.BASIC_ISO_DATE);
+        } catch (RuntimeException e) {
+            log.debug("Not evicting signing keys, date stamp isn't in yyyyMMdd format: {}.", dateStamp);
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> key.getDateStamp().compareTo(oldestKeptDateStamp) < 0);
+    }
+
+    @Value
+    private static class CacheKey {
+        String accessKeyId;
+        String dateStamp;
+        String regionName;
+        String serviceName;
+    }
+
+    /**
+     * The SHA-256 of the secret key is kept with the signing key, see {@link SecretKeyDigests}.
+     */
+    @Value
+    private static class CachedSigningKey {
+        byte[] signingKey;
+        SecretKeySpec signingKeySpec;
+        byte[] secretKeySha256;
+    }
+}
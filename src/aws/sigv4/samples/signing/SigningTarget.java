@@ -0,0 +1,85 @@
+package aws.sigv4.samples.signing;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Endpoint, resource path, region and service of requests, resolved once for every request sent to them.
+ * <p>
+ * The endpoint is parsed and the {@code Host} header, canonical URI and credential scope (but for its date) are
+ * computed here, so the {@link SigV4SigningEngine} only builds the parts of the signature which change per request.
+ * Targets are usually looked up in the {@link SigningTargetRegistry}.
+ */
+@ToString
+public final class SigningTarget {
+
+    @Getter
+    private final URI endpoint;
+
+    @Getter
+    private final String resourcePath;
+
+    @Getter
+    private final String regionName;
+
+    @Getter
+    private final String serviceName;
+
+    @Getter
+    private final String host;
+
+    /**
+     * URI encoded and normalised path, as it appears in the canonical request.
+     */
+    @Getter
+    private final String canonicalUri;
+
+    /**
+     * Credential scope following its date: "/region/service/aws4_request".
+     */
+    @ToString.Exclude
+    final String scopeSuffix;
+
+    private SigningTarget(final URI endpoint, final String resourcePath, final String regionName,
+                          final String serviceName) {
+        this.endpoint = endpoint;
+        this.resourcePath = resourcePath;
+        this.regionName = regionName;
+        this.serviceName = serviceName;
+        this.host = SigV4SigningEngine.hostHeader(endpoint);
+
+        var canonicalUri = new StringBuilder(128);
+        SigV4SigningEngine.appendCanonicalPath(canonicalUri,
+                SigV4SigningEngine.appendUri(endpoint.getPath(), resourcePath));
+        this.canonicalUri = canonicalUri.toString();
+
+        var scopeSuffix = new StringBuilder(64);
+        SigV4SigningEngine.appendScope(scopeSuffix, "", regionName, serviceName);
+        this.scopeSuffix = scopeSuffix.toString();
+    }
+
+    /**
+     * Resolves the target of requests sent to {@code requestEndpoint} and the optional {@code resourcePath}.
+     */
+    public static SigningTarget create(@NonNull final String requestEndpoint, final String resourcePath,
+                                       @NonNull final String regionName, @NonNull final String serviceName)
+            throws PartnerGatewayInvalidInputException {
+        URI endpoint;
+        try {
+            endpoint = new URI(requestEndpoint);
+        } catch (URISyntaxException e) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Invalid request endpoint passed in Input: %s", requestEndpoint), e);
+        }
+
+        if (endpoint.getHost() == null) {
+            throw new PartnerGatewayInvalidInputException(
+                    String.format("Request endpoint passed in Input has no host: %s", requestEndpoint));
+        }
+        return new SigningTarget(endpoint, resourcePath, regionName, serviceName);
+    }
+}
@@ -0,0 +1,67 @@
+package aws.sigv4.samples.signing;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Bounded, concurrent registry of {@link SigningTarget}s, keyed by endpoint, resource path, region and service.
+ * <p>
+ * Requests usually go to a small, fixed set of endpoints, so each target is resolved once and then shared by every
+ * request sent to it. A single instance, returned by {@link #getInstance()}, is shared by all signers. The least
+ * recently used targets are evicted once {@code maximumSize} is reached, e.g. when resource paths carry request ids.
+ */
+public final class SigningTargetRegistry {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private static final SigningTargetRegistry INSTANCE = new SigningTargetRegistry(DEFAULT_MAXIMUM_SIZE);
+
+    private final Cache<TargetKey, SigningTarget> cache;
+
+    public SigningTargetRegistry(final int maximumSize) {
+        this.cache = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the registry shared by all signers.
+     */
+    public static SigningTargetRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the target of requests sent to {@code requestEndpoint} and the optional {@code resourcePath}, resolving
+     * it when it isn't registered yet. Invalid endpoints are never registered.
+     */
+    public SigningTarget getTarget(@NonNull final String requestEndpoint, final String resourcePath,
+                                   @NonNull final String regionName, @NonNull final String serviceName)
+            throws PartnerGatewayInvalidInputException {
+        var key = new TargetKey(requestEndpoint, resourcePath, regionName, serviceName);
+        var target = cache.getIfPresent(key);
+        if (target == null) {
+            // Resolved outside the cache, as resolving throws a checked exception. Racing threads resolve the same
+            // target, and the first one registered is kept.
+            var resolved = SigningTarget.create(requestEndpoint, resourcePath, regionName, serviceName);
+            target = cache.asMap().putIfAbsent(key, resolved);
+            if (target == null) {
+                target = resolved;
+            }
+        }
+        return target;
+    }
+
+    public long getSize() {
+        return cache.estimatedSize();
+    }
+
+    @Value
+    private static class TargetKey {
+        String requestEndpoint;
+        String resourcePath;
+        String regionName;
+        String serviceName;
+    }
+}
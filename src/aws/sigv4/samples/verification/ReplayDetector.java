@@ -0,0 +1,188 @@
+package aws.sigv4.samples.verification;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.NonNull;
+
+/**
+ * Detects replays of verified requests within the clock skew window, by recording a 64 bit fingerprint of each
+ * request's signature.
+ * <p>
+ * Fingerprints are kept in a ring of time buckets, by the {@code X-Amz-Date} of their request, covering the whole
+ * window in which a request can be accepted: twice {@code maxClockSkew}. Each bucket is split into lock-striped open
+ * addressing tables of primitive {@code long}s, all allocated up front, so memory stays fixed at
+ * {@link #getMemoryBytes()} whatever the traffic. A stripe drops its fingerprints as a whole when the first
+ * fingerprint of the next bucket of its slot reaches it, so expiring fingerprints costs nothing per entry. Signing
+ * times outside the window must be rejected beforehand, as {@link aws.sigv4.samples.AwsSigV4Verifier} does.
+ * <p>
+ * With the defaults, 5 minutes of skew hold about a million fingerprints in 16 MB.
+ * <p>
+ * Once a stripe is full, its new fingerprints are rejected as replays rather than forgotten, and counted by
+ * {@link #getOverflowCount()}. {@code maxEntries} should then be raised, as it should hold the peak request rate times
+ * the window.
+ */
+public final class ReplayDetector {
+
+    public static final Duration DEFAULT_BUCKET_WIDTH = Duration.ofSeconds(10);
+
+    public static final int DEFAULT_MAX_ENTRIES = 1 << 20;
+
+    private static final int STRIPES_PER_BUCKET = 64;
+
+    private static final int STRIPE_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(STRIPES_PER_BUCKET);
+
+    private static final long EMPTY = 0L;
+
+    private final long bucketWidthSeconds;
+
+    private final int bucketCount;
+
+    private final Stripe[] stripes;
+
+    private final LongAdder overflowCount = new LongAdder();
+
+    public ReplayDetector(@NonNull final Duration maxClockSkew) {
+        this(maxClockSkew, DEFAULT_BUCKET_WIDTH, DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxClockSkew skew allowed by the verifier, on either side of the current time.
+     * @param bucketWidth  signing time span of each bucket, at least a second.
+     * @param maxEntries   fingerprints held over the whole window, before stripes start overflowing.
+     */
+    public ReplayDetector(@NonNull final Duration maxClockSkew, @NonNull final Duration bucketWidth,
+                          final int maxEntries) {
+        if (maxClockSkew.isNegative() || bucketWidth.getSeconds() < 1 || maxEntries < 1) {
+            throw new IllegalArgumentException("maxClockSkew must not be negative, bucketWidth must be at least a "
+                    + "second and maxEntries positive.");
+        }
+        this.bucketWidthSeconds = bucketWidth.getSeconds();
+        // A bucket must outlive every request which can be accepted with its signing times, so the ring covers the
+        // window on both sides of the current time and the bucket being filled.
+        this.bucketCount = Math.toIntExact(ceilDiv(2 * maxClockSkew.getSeconds(), bucketWidthSeconds) + 1);
+
+        var stripeCount = bucketCount * STRIPES_PER_BUCKET;
+        // Tables are kept at most 3/4 full, so probe sequences stay short.
+        var stripeEntries = ceilDiv(maxEntries, stripeCount);
+        var tableSize = Integer.highestOneBit((int) Math.max(2, ceilDiv(stripeEntries * 4, 3) - 1)) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(tableSize);
+        }
+    }
+
+    /**
+     * Records the signature of a request signed at {@code signingEpochSecond}, returning true when it is seen for the
+     * first time. Returns false for a replay, a signing time whose stripe already moved on to a later bucket, or an
+     * overflowing stripe.
+     */
+    public boolean markSeen(final long signingEpochSecond, @NonNull final CharSequence signature) {
+        var bucket = Math.floorDiv(signingEpochSecond, bucketWidthSeconds);
+        var fingerprint = fingerprint(signature);
+        var stripe = stripes[(int) Math.floorMod(bucket, (long) bucketCount) * STRIPES_PER_BUCKET
+                + (int) (fingerprint >>> STRIPE_SHIFT)];
+
+        synchronized (stripe) {
+            if (stripe.bucket != bucket) {
+                if (stripe.bucket > bucket) {
+                    // The slot already moved on to a later bucket, this one has been dropped.
+                    return false;
+                }
+                stripe.reset(bucket);
+            }
+            var added = stripe.add(fingerprint);
+            if (added == Stripe.FULL) {
+                overflowCount.increment();
+            }
+            return added == Stripe.ADDED;
+        }
+    }
+
+    /**
+     * Number of fingerprints rejected because their stripe was full.
+     */
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    /**
+     * Memory held by the fingerprint tables.
+     */
+    public long getMemoryBytes() {
+        return (long) stripes.length * stripes[0].table.length * Long.BYTES;
+    }
+
+    int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Hashes the whole signature (FNV-1a, then MurmurHash3's finaliser), never returning the empty marker.
+     */
+    static long fingerprint(final CharSequence signature) {
+        var hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < signature.length(); i++) {
+            hash ^= signature.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY ? 1L : hash;
+    }
+
+    private static long ceilDiv(final long dividend, final long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * Open addressing set of the fingerprints of one bucket, with linear probing. Guarded by its own monitor.
+     */
+    private static final class Stripe {
+        private static final int ADDED = 1;
+        private static final int PRESENT = 0;
+        private static final int FULL = -1;
+
+        private final long[] table;
+        private final int maxSize;
+        private long bucket = Long.MIN_VALUE;
+        private int size;
+
+        private Stripe(final int tableSize) {
+            this.table = new long[tableSize];
+            this.maxSize = tableSize / 4 * 3;
+        }
+
+        private void reset(final long newBucket) {
+            if (size > 0) {
+                Arrays.fill(table, EMPTY);
+                size = 0;
+            }
+            bucket = newBucket;
+        }
+
+        /**
+         * Returns {@link #ADDED}, {@link #PRESENT} or {@link #FULL}.
+         */
+        private int add(final long fingerprint) {
+            var mask = table.length - 1;
+            for (int i = (int) fingerprint & mask; ; i = (i + 1) & mask) {
+                var current = table[i];
+                if (current == fingerprint) {
+                    return PRESENT;
+                }
+                if (current == EMPTY) {
+                    if (size >= maxSize) {
+                        return FULL;
+                    }
+                    table[i] = fingerprint;
+                    size++;
+                    return ADDED;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package aws.sigv4.samples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import aws.sigv4.samples.credentials.CredentialsResolver;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4VerifierResult;
+import aws.sigv4.samples.models.AwsSigV4VerifierResult.Outcome;
+import aws.sigv4.samples.models.RequestBody;
+import aws.sigv4.samples.verification.ReplayDetector;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For AwsSigV4Verifier class,")
+class AwsSigV4VerifierTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private static final String PAYLOAD = "{\"partnerId\": 42}";
+
+    private static final AWSCredentials BASIC_CREDENTIALS =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private static final AWSCredentials SESSION_CREDENTIALS = new BasicSessionCredentials("ASIAEXAMPLE",
+            "c2VjcmV0LWtleS1leGFtcGxl", "session-token");
+
+    private static final CredentialsResolver RESOLVER = CredentialsResolver.of(BASIC_CREDENTIALS, SESSION_CREDENTIALS);
+
+    private AwsSigV4Verifier verifier;
+
+    @BeforeEach
+    void beforeEach() {
+        verifier = new AwsSigV4Verifier(RESOLVER, Clock.fixed(SIGNING_TIME, ZoneOffset.UTC),
+                AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW);
+    }
+
+    @Test
+    @DisplayName("should throw IllegalArgumentException for a negative maxClockSkew.")
+    void shouldRejectNegativeClockSkew() {
+        assertThatThrownBy(() -> new AwsSigV4Verifier(RESOLVER, Clock.systemUTC(), Duration.ofSeconds(-1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Nested
+    @DisplayName("the verify method, for requests signed by the signers of this package,")
+    class VerifySignedRequests {
+
+        @Test
+        @DisplayName("should accept a request signed by NativeAwsSigV4Signer with session credentials.")
+        @SneakyThrows
+        void shouldAcceptNativeSignedRequest() {
+            var input = input().requestPayload(PAYLOAD).build();
+
+            var result = verifier.verify(signed(nativeSigner(SESSION_CREDENTIALS), input).requestPayload(PAYLOAD)
+                    .build());
+
+            assertThat(result.isValid()).isTrue();
+            assertThat(result.getAccessKeyId()).isEqualTo("ASIAEXAMPLE");
+        }
+
+        @Test
+        @DisplayName("should accept a request signed by CredentialProviderBasedAwsSigV4Signer.")
+        @SneakyThrows
+        void shouldAcceptSdkSignedRequest() {
+            var signer = new CredentialProviderBasedAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = input().requestPayload(PAYLOAD).build();
+            var systemClockVerifier = new AwsSigV4Verifier(RESOLVER);
+
+            var result = systemClockVerifier.verify(signed(signer, input).requestPayload(PAYLOAD).build());
+
+            assertThat(result.getOutcome()).isEqualTo(Outcome.VALID);
+        }
+
+        @Test
+        @DisplayName("should accept a signed request body, precomputed payload hash and unsigned payload.")
+        @SneakyThrows
+        void shouldAcceptPayloadModes() {
+            var signer = nativeSigner(BASIC_CREDENTIALS);
+            var bytes = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+            var body = input().requestBody(RequestBody.fromBytes(bytes)).build();
+            assertThat(verifier.verify(signed(signer, body).requestPayload(PAYLOAD).build()).isValid()).isTrue();
+
+            var unsigned = input().unsignedPayload(true).build();
+            assertThat(verifier.verify(signed(signer, unsigned).requestPayload(PAYLOAD).build()).isValid())
+                    .isTrue();
+            assertThat(verifier.verify(signed(signer, unsigned).unsignedPayload(true).build()).isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should accept a request with extra signed headers and a resource path.")
+        @SneakyThrows
+        void shouldAcceptExtraHeaders() {
+            var headers = Map.of("Content-Type", "application/json", "X-Partner-Id", "  42   43 ");
+            var input = input().requestResourcePath("/prod/partners/a b").requestHeaderMap(headers)
+                    .requestPayload(PAYLOAD).build();
+
+            var result = verifier.verify(signed(nativeSigner(BASIC_CREDENTIALS), input)
+                    .requestResourcePath("/prod/partners/a b").requestPayload(PAYLOAD).build());
+
+            assertThat(result.isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should accept a request whose query parameters are signed.")
+        @SneakyThrows
+        void shouldAcceptSignedQueryParameters() {
+            var request = new DefaultRequest<String>("execute-api");
+            request.setEndpoint(new URI(ENDPOINT));
+            request.setResourcePath("/items");
+            request.setHttpMethod(HttpMethodName.GET);
+            request.addParameter("b", "2");
+            request.addParameter("a", "x y");
+            request.setContent(new ByteArrayInputStream(new byte[0]));
+            var signer = new AWS4Signer();
+            signer.setServiceName("execute-api");
+            signer.setRegionName("us-east-1");
+            signer.setOverrideDate(Date.from(SIGNING_TIME));
+            signer.sign(request, BASIC_CREDENTIALS);
+
+            var result = verifier.verify(input()
+                    .requestEndpoint(ENDPOINT + "?b=2&a=x%20y")
+                    .requestResourcePath("/items")
+                    .requestMethod(HttpMethodName.GET)
+                    .requestHeaderMap(request.getHeaders())
+                    .requestPayload("")
+                    .build());
+
+            assertThat(result.isValid()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("the verify method, for rejected requests,")
+    class VerifyRejectedRequests {
+
+        private Map<String, String> signedHeaders;
+
+        @BeforeEach
+        @SneakyThrows
+        void beforeEach() {
+            signedHeaders = new HashMap<>(nativeSigner(SESSION_CREDENTIALS)
+                    .sign(input().requestPayload(PAYLOAD).build()).getRequestHeaderMap());
+        }
+
+        @Test
+        @DisplayName("should reject a request whose payload was modified.")
+        @SneakyThrows
+        void shouldRejectModifiedPayload() {
+            assertThat(verify(signedHeaders, "{\"partnerId\": 43}").getOutcome()).isEqualTo(Outcome.SIGNATURE_MISMATCH);
+        }
+
+        @Test
+        @DisplayName("should reject a request whose signed header was modified.")
+        @SneakyThrows
+        void shouldRejectModifiedHeader() {
+            signedHeaders.put("Host", "other.execute-api.us-east-1.amazonaws.com");
+
+            assertThat(verify(signedHeaders, PAYLOAD).getOutcome()).isEqualTo(Outcome.SIGNATURE_MISMATCH);
+        }
+
+        @Test
+        @DisplayName("should reject a request without Authorization header.")
+        @SneakyThrows
+        void shouldRejectMissingAuthorization() {
+            signedHeaders.remove("Authorization");
+
+            var result = verify(signedHeaders, PAYLOAD);
+
+            assertThat(result.getOutcome()).isEqualTo(Outcome.MISSING_AUTHORIZATION);
+            assertThat(result.getAccessKeyId()).isNull();
+        }
+
+        @Test
+        @DisplayName("should reject a malformed Authorization header.")
+        @SneakyThrows
+        void shouldRejectMalformedAuthorization() {
+            signedHeaders.put("Authorization", "AWS4-HMAC-SHA256 Credential=ASIAEXAMPLE/20240229/us-east-1");
+
+            assertThat(verify(signedHeaders, PAYLOAD).getOutcome()).isEqualTo(Outcome.MALFORMED_AUTHORIZATION);
+        }
+
+        @Test
+        @DisplayName("should reject a request whose signed header is missing.")
+        @SneakyThrows
+        void shouldRejectMissingSignedHeader() {
+            signedHeaders.remove("X-Amz-Date");
+
+            assertThat(verify(signedHeaders, PAYLOAD).getOutcome()).isEqualTo(Outcome.MALFORMED_AUTHORIZATION);
+        }
+
+        @Test
+        @DisplayName("should reject a request signed for another region.")
+        @SneakyThrows
+        void shouldRejectOtherRegion() {
+            var result = verifier.verify(input().regionName("us-west-2").requestHeaderMap(signedHeaders)
+                    .requestPayload(PAYLOAD).build());
+
+            assertThat(result.getOutcome()).isEqualTo(Outcome.CREDENTIAL_SCOPE_MISMATCH);
+        }
+
+        @Test
+        @DisplayName("should reject a request signed further than the maximum clock skew away.")
+        @SneakyThrows
+        void shouldRejectSkewedRequest() {
+            var laterVerifier = new AwsSigV4Verifier(RESOLVER,
+                    Clock.fixed(SIGNING_TIME.plus(Duration.ofMinutes(6)), ZoneOffset.UTC),
+                    AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW);
+
+            var result = laterVerifier.verify(input().requestHeaderMap(signedHeaders).requestPayload(PAYLOAD).build());
+
+            assertThat(result.getOutcome()).isEqualTo(Outcome.REQUEST_TIME_SKEWED);
+        }
+
+        @Test
+        @DisplayName("should accept a request signed within the maximum clock skew.")
+        @SneakyThrows
+        void shouldAcceptSlightlySkewedRequest() {
+            var laterVerifier = new AwsSigV4Verifier(RESOLVER,
+                    Clock.fixed(SIGNING_TIME.plus(Duration.ofMinutes(4)), ZoneOffset.UTC),
+                    AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW);
+
+            var result = laterVerifier.verify(input().requestHeaderMap(signedHeaders).requestPayload(PAYLOAD).build());
+
+            assertThat(result.isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should reject a request signed with an unknown access key id.")
+        @SneakyThrows
+        void shouldRejectUnknownAccessKey() {
+            var otherVerifier = new AwsSigV4Verifier(CredentialsResolver.of(BASIC_CREDENTIALS),
+                    Clock.fixed(SIGNING_TIME, ZoneOffset.UTC), AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW);
+
+            var result = otherVerifier.verify(input().requestHeaderMap(signedHeaders).requestPayload(PAYLOAD).build());
+
+            assertThat(result.getOutcome()).isEqualTo(Outcome.UNKNOWN_ACCESS_KEY);
+            assertThat(result.getAccessKeyId()).isEqualTo("ASIAEXAMPLE");
+        }
+
+        @Test
+        @DisplayName("should reject a request carrying another session token.")
+        @SneakyThrows
+        void shouldRejectOtherSessionToken() {
+            signedHeaders.put("X-Amz-Security-Token", "other-session-token");
+
+            assertThat(verify(signedHeaders, PAYLOAD).getOutcome()).isEqualTo(Outcome.SECURITY_TOKEN_MISMATCH);
+        }
+
+        @Test
+        @DisplayName("should reject a replayed request, when it has a replay detector.")
+        @SneakyThrows
+        void shouldRejectReplay() {
+            var replayVerifier = new AwsSigV4Verifier(RESOLVER, Clock.fixed(SIGNING_TIME, ZoneOffset.UTC),
+                    AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW,
+                    new ReplayDetector(AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW));
+            var input = input().requestHeaderMap(signedHeaders).requestPayload(PAYLOAD).build();
+
+            assertThat(replayVerifier.verify(input).isValid()).isTrue();
+            assertThat(replayVerifier.verify(input).getOutcome()).isEqualTo(Outcome.REPLAYED);
+            assertThat(verifier.verify(input).isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should not record forged requests in its replay detector.")
+        @SneakyThrows
+        void shouldNotRecordForgedRequests() {
+            var replayVerifier = new AwsSigV4Verifier(RESOLVER, Clock.fixed(SIGNING_TIME, ZoneOffset.UTC),
+                    AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW,
+                    new ReplayDetector(AwsSigV4Verifier.DEFAULT_MAX_CLOCK_SKEW));
+
+            assertThat(replayVerifier.verify(input().requestHeaderMap(signedHeaders).requestPayload("forged").build())
+                    .getOutcome()).isEqualTo(Outcome.SIGNATURE_MISMATCH);
+            assertThat(replayVerifier.verify(input().requestHeaderMap(signedHeaders).requestPayload(PAYLOAD).build())
+                    .isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid endpoint.")
+        void shouldThrowForInvalidEndpoint() {
+            var input = input().requestEndpoint("Invalid`URI").requestHeaderMap(signedHeaders)
+                    .requestPayload(PAYLOAD).build();
+
+            assertThatThrownBy(() -> verifier.verify(input)).isInstanceOf(PartnerGatewayInvalidInputException.class);
+        }
+
+        private AwsSigV4VerifierResult verify(final Map<String, String> headers, final String payload)
+                throws PartnerGatewayInvalidInputException {
+            return verifier.verify(input().requestHeaderMap(headers).requestPayload(payload).build());
+        }
+    }
+
+    @Nested
+    @DisplayName("the parseEpochSecond method,")
+    class ParseEpochSecondMethod {
+
+        @Test
+        @DisplayName("should parse an X-Amz-Date.")
+        void shouldParseAmzDate() {
+            assertThat(AwsSigV4Verifier.parseEpochSecond("20240229T235959Z"))
+                    .isEqualTo(Instant.parse("2024-02-29T23:59:59Z").getEpochSecond());
+        }
+
+        @Test
+        @DisplayName("should return null for a malformed X-Amz-Date.")
+        void shouldReturnNullForMalformedAmzDate() {
+            assertThat(AwsSigV4Verifier.parseEpochSecond("2024-02-29T23:59:59Z")).isNull();
+            assertThat(AwsSigV4Verifier.parseEpochSecond("20240230T235959Z")).isNull();
+            assertThat(AwsSigV4Verifier.parseEpochSecond("2024022aT235959Z")).isNull();
+            assertThat(AwsSigV4Verifier.parseEpochSecond(null)).isNull();
+        }
+    }
+
+    private static NativeAwsSigV4Signer nativeSigner(final AWSCredentials credentials) {
+        return new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(credentials),
+                Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+    }
+
+    /**
+     * Returns the input of the request received once {@code input} is signed, without its payload.
+     */
+    private static AwsSigV4SignerInput.AwsSigV4SignerInputBuilder signed(final AwsSigV4Signer signer,
+                                                                         final AwsSigV4SignerInput input)
+            throws Exception {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(input.getRequestEndpoint())
+                .requestMethod(input.getRequestMethod())
+                .serviceName(input.getServiceName())
+                .regionName(input.getRegionName())
+                .requestHeaderMap(signer.sign(input).getRequestHeaderMap());
+    }
+
+    private static AwsSigV4SignerInput.AwsSigV4SignerInputBuilder input() {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(ENDPOINT)
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName("us-east-1");
+    }
+}
@@ -0,0 +1,205 @@
+package aws.sigv4.samples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For AwsSigV4aSigner class,")
+class AwsSigV4aSignerTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private static final String RESOURCE_PATH = "/prod/partners";
+
+    private static final String PAYLOAD = "{\"partnerId\": 42}";
+
+    private static final String ACCESS_KEY_ID = "AKIDEXAMPLE";
+
+    private static final String SECRET_KEY = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+
+    /**
+     * Public key of the private key derived from the AWS documentation example credentials.
+     */
+    private static final PublicKey PUBLIC_KEY = publicKey(
+            "b6618f6a65740a99e650b33b6b4b5bd0d43b176d721a3edfea7e7d2d56d936b1",
+            "865ed22a7eadc9c5cb9d2cbaca1b3699139fedc5043dc6661864218330c8e518");
+
+    private final AwsSigV4aSigner signer = new AwsSigV4aSigner(
+            new AWSStaticCredentialsProvider(new BasicAWSCredentials(ACCESS_KEY_ID, SECRET_KEY)),
+            Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+
+    @Nested
+    @DisplayName("the sign method,")
+    class SignMethod {
+
+        @Test
+        @DisplayName("should sign the request for the region set with the derived ECDSA key.")
+        @SneakyThrows
+        void shouldSignForRegionSet() {
+            var output = signer.sign(input(AwsSigV4aSigner.ALL_REGIONS)
+                    .requestHeaderMap(Map.of("Content-Type", "application/json"))
+                    .build());
+
+            var headers = output.getRequestHeaderMap();
+            assertThat(headers).containsEntry("Host", "example.execute-api.us-east-1.amazonaws.com")
+                    .containsEntry("X-Amz-Date", "20240229T235959Z")
+                    .containsEntry("X-Amz-Region-Set", "*")
+                    .containsEntry("Content-Type", "application/json");
+            var authorization = headers.get("Authorization");
+            var prefix = "AWS4-ECDSA-P256-SHA256 Credential=AKIDEXAMPLE/20240229/execute-api/aws4_request, "
+                    + "SignedHeaders=content-type;host;x-amz-date;x-amz-region-set, Signature=";
+            assertThat(authorization).startsWith(prefix);
+
+            var canonicalRequest = "POST\n/prod/partners\n\n"
+                    + "content-type:application/json\n"
+                    + "host:example.execute-api.us-east-1.amazonaws.com\n"
+                    + "x-amz-date:20240229T235959Z\n"
+                    + "x-amz-region-set:*\n\n"
+                    + "content-type;host;x-amz-date;x-amz-region-set\n"
+                    + sha256Hex(PAYLOAD);
+            var stringToSign = "AWS4-ECDSA-P256-SHA256\n20240229T235959Z\n20240229/execute-api/aws4_request\n"
+                    + sha256Hex(canonicalRequest);
+            assertThat(verifySignature(stringToSign, authorization.substring(prefix.length()))).isTrue();
+        }
+
+        @Test
+        @DisplayName("should sign the comma separated region set of a multi-region request.")
+        @SneakyThrows
+        void shouldSignMultiRegionSet() {
+            var output = signer.sign(input("us-east-1,us-west-2").build());
+
+            assertThat(output.getRequestHeaderMap()).containsEntry("X-Amz-Region-Set", "us-east-1,us-west-2");
+        }
+
+        @Test
+        @DisplayName("should add the session token, for session credentials.")
+        @SneakyThrows
+        void shouldAddSessionToken() {
+            var sessionSigner = new AwsSigV4aSigner(new AWSStaticCredentialsProvider(
+                    new BasicSessionCredentials(ACCESS_KEY_ID, SECRET_KEY, "FwoGZXIvYXdzEXAMPLETOKEN")),
+                    Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+
+            var headers = sessionSigner.sign(input("*").build()).getRequestHeaderMap();
+
+            assertThat(headers).containsEntry("X-Amz-Security-Token", "FwoGZXIvYXdzEXAMPLETOKEN");
+            assertThat(headers.get("Authorization"))
+                    .contains("SignedHeaders=host;x-amz-date;x-amz-region-set;x-amz-security-token,");
+        }
+
+        @Test
+        @DisplayName("should send and sign the payload hash, for an unsigned payload.")
+        @SneakyThrows
+        void shouldSignUnsignedPayload() {
+            var headers = signer.sign(input("*").requestPayload(null).unsignedPayload(true).build())
+                    .getRequestHeaderMap();
+
+            assertThat(headers).containsEntry("x-amz-content-sha256", "UNSIGNED-PAYLOAD");
+            assertThat(headers.get("Authorization"))
+                    .contains("SignedHeaders=host;x-amz-content-sha256;x-amz-date;x-amz-region-set,");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid endpoint.")
+        void shouldThrowForInvalidEndpoint() {
+            var input = input("*").requestEndpoint("Invalid`URI").build();
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage(String.format("Invalid request endpoint passed in Input: %s", "Invalid`URI"));
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAll method,")
+    class SignAllMethod {
+
+        @Test
+        @DisplayName("should return one result per input in input order, with errors reported per input.")
+        @SneakyThrows
+        void shouldSignEachInput() {
+            var results = signer.signAll(Arrays.asList(input("*").build(),
+                    input("*").requestEndpoint("Invalid`URI").build(), input("us-west-2").build()));
+
+            assertThat(results).extracting(AwsSigV4SignerResult::isSuccessful).containsExactly(true, false, true);
+            assertThat(results.get(2).getOutput().getRequestHeaderMap())
+                    .containsEntry("X-Amz-Region-Set", "us-west-2");
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAsync method,")
+    class SignAsyncMethod {
+
+        @Test
+        @DisplayName("should complete inline with the output of sign, for static credentials.")
+        @SneakyThrows
+        void shouldCompleteInline() {
+            var future = signer.signAsync(input("*").build());
+
+            assertThat(future).isDone();
+            assertThat(future.get().getRequestHeaderMap()).containsKey("Authorization");
+        }
+    }
+
+    private static AwsSigV4SignerInput.AwsSigV4SignerInputBuilder input(final String regionSet) {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(ENDPOINT)
+                .requestResourcePath(RESOURCE_PATH)
+                .requestPayload(PAYLOAD)
+                .requestMethod(HttpMethodName.POST)
+                .serviceName("execute-api")
+                .regionName(regionSet);
+    }
+
+    @SneakyThrows
+    private static boolean verifySignature(final String stringToSign, final String signatureHex) {
+        var ecdsa = Signature.getInstance("SHA256withECDSA");
+        ecdsa.initVerify(PUBLIC_KEY);
+        ecdsa.update(stringToSign.getBytes(StandardCharsets.UTF_8));
+        return ecdsa.verify(BinaryUtils.fromHex(signatureHex));
+    }
+
+    @SneakyThrows
+    private static String sha256Hex(final String text) {
+        return BinaryUtils.toHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @SneakyThrows
+    private static PublicKey publicKey(final String xHex, final String yHex) {
+        var parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec("secp256r1"));
+        var point = new ECPoint(new BigInteger(xHex, 16), new BigInteger(yHex, 16));
+        return KeyFactory.getInstance("EC")
+                .generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+    }
+}
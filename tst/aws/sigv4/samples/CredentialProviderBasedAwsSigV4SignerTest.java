@@ -4,18 +4,30 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
 import aws.sigv4.samples.factoryHelpers.Aws4SignerFactoryHelper;
 import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.models.RequestBody;
+import aws.sigv4.samples.signing.ExtendedAws4Signer;
+import aws.sigv4.samples.signing.HeaderTemplate;
+import aws.sigv4.samples.signing.SigningClock;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
 import com.amazonaws.DefaultRequest;
 import com.amazonaws.auth.AWS4Signer;
 import com.amazonaws.auth.AWSCredentials;
 import com.amazonaws.auth.AWSCredentialsProvider;
 import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 import lombok.SneakyThrows;
 import org.apache.commons.io.IOUtils;
 import org.jeasy.random.EasyRandom;
@@ -101,6 +113,273 @@ class CredentialProviderBasedAwsSigV4SignerTest {
             }
         }
 
+        @Nested
+        @DisplayName("with no payload in input,")
+        class WithNoPayload {
+
+            @BeforeEach
+            void beforeEach() {
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+            }
+
+            @Test
+            @DisplayName("should throw PartnerGatewayInvalidInputException.")
+            void shouldThrowException() {
+                assertThatThrownBy(() -> signer.sign(signerInput))
+                        .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                        .hasMessage("Exactly one of requestPayload, requestBody, "
+                                + "requestPayloadSha256 and unsignedPayload must be passed in Input.");
+            }
+        }
+
+        @Nested
+        @DisplayName("with more than one payload in input,")
+        class WithBothPayloads {
+
+            @BeforeEach
+            void beforeEach() {
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestPayload(easyRandom.nextObject(String.class))
+                        .requestBody(RequestBody.fromBytes(new byte[] {1, 2, 3}))
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+            }
+
+            @Test
+            @DisplayName("should throw PartnerGatewayInvalidInputException.")
+            void shouldThrowException() {
+                assertThatThrownBy(() -> signer.sign(signerInput))
+                        .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                        .hasMessage("Exactly one of requestPayload, requestBody, "
+                                + "requestPayloadSha256 and unsignedPayload must be passed in Input.");
+            }
+        }
+
+        @Nested
+        @DisplayName("with requestBody in input,")
+        class WithRequestBody {
+            @Mock
+            private AWSCredentials testCredentials;
+
+            @Captor
+            private ArgumentCaptor<DefaultRequest<String>> requestCaptor;
+
+            private byte[] testBody;
+
+            @BeforeEach
+            void beforeEach() {
+                testBody = easyRandom.nextObject(String.class).getBytes(StandardCharsets.UTF_8);
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestBody(RequestBody.fromBytes(testBody))
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+
+                when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            }
+
+            @Test
+            @DisplayName("should pass the body hash to the signer instead of the body.")
+            @SneakyThrows
+            void shouldPassPayloadHash() {
+                signer.sign(signerInput);
+
+                verify(mockAws4Signer).sign(requestCaptor.capture(), eq(testCredentials));
+                var request = requestCaptor.getValue();
+                assertThat(request.getHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256))
+                        .isEqualTo(BinaryUtils.toHex(MessageDigest.getInstance("SHA-256").digest(testBody)));
+                assertThat(request.getContent()).isNull();
+            }
+        }
+
+        @Nested
+        @DisplayName("with a clock skew learned for the endpoint,")
+        class WithLearnedClockSkew {
+            @Mock
+            private AWSCredentials testCredentials;
+
+            @Captor
+            private ArgumentCaptor<DefaultRequest<String>> requestCaptor;
+
+            @BeforeEach
+            void beforeEach() {
+                var signingClock = new SigningClock();
+                signingClock.setOffset("ValidURI", Duration.ofHours(1));
+                signer = new CredentialProviderBasedAwsSigV4Signer(mockAwsCredentialsProvider, signingClock);
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestPayload(easyRandom.nextObject(String.class))
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+
+                when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            }
+
+            @Test
+            @DisplayName("should pass the offset of the endpoint to the signer.")
+            @SneakyThrows
+            void shouldPassTimeOffset() {
+                signer.sign(signerInput);
+
+                verify(mockAws4Signer).sign(requestCaptor.capture(), eq(testCredentials));
+                assertThat(requestCaptor.getValue().getTimeOffset()).isBetween(-3601, -3599);
+            }
+        }
+
+        @Nested
+        @DisplayName("with a header template in input,")
+        class WithHeaderTemplate {
+            @Mock
+            private AWSCredentials testCredentials;
+
+            @Captor
+            private ArgumentCaptor<DefaultRequest<String>> requestCaptor;
+
+            @BeforeEach
+            @SneakyThrows
+            void beforeEach() {
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestPayload(easyRandom.nextObject(String.class))
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .headerTemplate(HeaderTemplate.compile(Map.of("Content-Type", "application/json"),
+                                List.of("X-Correlation-Id")))
+                        .requestHeaderMap(Map.of("X-Correlation-Id", "c0ffee"))
+                        .build();
+
+                when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            }
+
+            @Test
+            @DisplayName("should sign the template's fixed headers along with the variable headers.")
+            @SneakyThrows
+            void shouldSignTemplateHeaders() {
+                signer.sign(signerInput);
+
+                verify(mockAws4Signer).sign(requestCaptor.capture(), eq(testCredentials));
+                assertThat(requestCaptor.getValue().getHeaders())
+                        .containsOnly(Map.entry("Content-Type", "application/json"),
+                                Map.entry("X-Correlation-Id", "c0ffee"));
+            }
+        }
+
+        @Nested
+        @DisplayName("with requestPayloadSha256 in input,")
+        class WithRequestPayloadSha256 {
+            @Mock
+            private AWSCredentials testCredentials;
+
+            @Captor
+            private ArgumentCaptor<DefaultRequest<String>> requestCaptor;
+
+            private String testPayloadSha256;
+
+            @BeforeEach
+            @SneakyThrows
+            void beforeEach() {
+                testPayloadSha256 = BinaryUtils.toHex(MessageDigest.getInstance("SHA-256")
+                        .digest(easyRandom.nextObject(String.class).getBytes(StandardCharsets.UTF_8)));
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestPayloadSha256(testPayloadSha256.toUpperCase())
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .requestHeaderMap(Map.of("Content-Type", "application/octet-stream"))
+                        .build();
+
+                when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            }
+
+            @Test
+            @DisplayName("should sign with the lower cased hash, and send it in the x-amz-content-sha256 header.")
+            @SneakyThrows
+            void shouldUsePrecomputedHash() {
+                signer.sign(signerInput);
+
+                verify(mockAws4Signer).sign(requestCaptor.capture(), eq(testCredentials));
+                var request = requestCaptor.getValue();
+                assertThat(request.getHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256)).isEqualTo(testPayloadSha256);
+                assertThat(request.getHeaders()).containsOnly(
+                        Map.entry("Content-Type", "application/octet-stream"),
+                        Map.entry("x-amz-content-sha256", testPayloadSha256));
+                assertThat(request.getContent()).isNull();
+            }
+        }
+
+        @Nested
+        @DisplayName("with invalid requestPayloadSha256 in input,")
+        class WithInvalidRequestPayloadSha256 {
+
+            @BeforeEach
+            void beforeEach() {
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .requestPayloadSha256("not-a-sha256")
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+            }
+
+            @Test
+            @DisplayName("should throw PartnerGatewayInvalidInputException.")
+            void shouldThrowException() {
+                assertThatThrownBy(() -> signer.sign(signerInput))
+                        .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                        .hasMessage("Invalid requestPayloadSha256 passed in Input: not-a-sha256");
+            }
+        }
+
+        @Nested
+        @DisplayName("with unsignedPayload in input,")
+        class WithUnsignedPayload {
+            @Mock
+            private AWSCredentials testCredentials;
+
+            @Captor
+            private ArgumentCaptor<DefaultRequest<String>> requestCaptor;
+
+            @BeforeEach
+            void beforeEach() {
+                signerInput = inputBuilder
+                        .requestEndpoint("ValidURI")
+                        .unsignedPayload(true)
+                        .serviceName(testService)
+                        .regionName(testRegion)
+                        .requestMethod(easyRandom.nextObject(HttpMethodName.class))
+                        .build();
+
+                when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            }
+
+            @Test
+            @DisplayName("should sign with UNSIGNED-PAYLOAD, and send it in the x-amz-content-sha256 header.")
+            @SneakyThrows
+            void shouldUseUnsignedPayload() {
+                signer.sign(signerInput);
+
+                verify(mockAws4Signer).sign(requestCaptor.capture(), eq(testCredentials));
+                var request = requestCaptor.getValue();
+                assertThat(request.getHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256)).isEqualTo("UNSIGNED-PAYLOAD");
+                assertThat(request.getHeaders()).containsEntry("x-amz-content-sha256", "UNSIGNED-PAYLOAD");
+            }
+        }
+
         @Nested
         @DisplayName("with valid URI in requestEndpoint input param,")
         class WithValidRequestEndpoint {
@@ -217,6 +496,200 @@ class CredentialProviderBasedAwsSigV4SignerTest {
         }
     }
 
+    @Nested
+    @DisplayName("the signAll method,")
+    class SignAllMethod {
+        @Mock
+        private AWS4Signer mockOtherRegionAws4Signer;
+
+        @Mock
+        private AWSCredentials testCredentials;
+
+        private String testOtherRegion;
+
+        private List<AwsSigV4SignerInput> signerInputs;
+
+        @BeforeEach
+        void beforeEach() {
+            testOtherRegion = easyRandom.nextObject(String.class);
+            aws4SignerFactoryHelperMockedStatic
+                    .when(() -> Aws4SignerFactoryHelper.getSigner(testOtherRegion, testService))
+                    .thenReturn(mockOtherRegionAws4Signer);
+
+            signerInputs = List.of(
+                    input("ValidURI", "/first", testRegion),
+                    input("ValidURI", "/second", testOtherRegion),
+                    input("Invalid`URI", "/third", testRegion),
+                    input("ValidURI", "/fourth", testRegion),
+                    input("ValidURI", "/fifth", testOtherRegion));
+        }
+
+        @Test
+        @DisplayName("should return results in input order, with errors per input.")
+        @SneakyThrows
+        void shouldReturnResultsInInputOrder() {
+            when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            stubSigner(mockAws4Signer);
+            stubSigner(mockOtherRegionAws4Signer);
+
+            var results = signer.signAll(signerInputs);
+
+            assertResults(results);
+        }
+
+        @Test
+        @DisplayName("should return results in input order, when signing on a pool.")
+        @SneakyThrows
+        void shouldReturnResultsInInputOrderOnPool() {
+            when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            stubSigner(mockAws4Signer);
+            stubSigner(mockOtherRegionAws4Signer);
+            var pool = new ForkJoinPool(4);
+
+            try {
+                assertResults(signer.signAll(signerInputs, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("should fail every input, when credentials can't be fetched.")
+        void shouldFailEveryInput() {
+            var exception = new IllegalStateException("No credentials");
+            when(mockAwsCredentialsProvider.getCredentials()).thenThrow(exception);
+
+            var results = signer.signAll(signerInputs);
+
+            assertThat(results).hasSize(signerInputs.size())
+                    .allSatisfy(result -> assertThat(result.getError()).isSameAs(exception));
+            verifyNoInteractions(mockAws4Signer, mockOtherRegionAws4Signer);
+        }
+
+        private void assertResults(final List<AwsSigV4SignerResult> results) {
+            assertThat(results).extracting(AwsSigV4SignerResult::getInput).isEqualTo(signerInputs);
+            assertThat(results.get(2).getError()).isInstanceOf(PartnerGatewayInvalidInputException.class);
+            for (var index : List.of(0, 1, 3, 4)) {
+                assertThat(results.get(index).isSuccessful()).isTrue();
+                assertThat(results.get(index).getOutput().getRequestHeaderMap())
+                        .containsEntry("Authorization", signerInputs.get(index).getRequestResourcePath());
+            }
+
+            verify(mockAwsCredentialsProvider, times(1)).getCredentials();
+            aws4SignerFactoryHelperMockedStatic.verify(() -> Aws4SignerFactoryHelper.getSigner(testRegion,
+                    testService), times(1));
+            aws4SignerFactoryHelperMockedStatic.verify(() -> Aws4SignerFactoryHelper.getSigner(testOtherRegion,
+                    testService), times(1));
+            verify(mockAws4Signer, times(2)).sign(any(), eq(testCredentials));
+            verify(mockOtherRegionAws4Signer, times(2)).sign(any(), eq(testCredentials));
+        }
+
+        private void stubSigner(final AWS4Signer aws4Signer) {
+            doAnswer(invocation -> {
+                DefaultRequest<String> request = invocation.getArgument(0);
+                request.addHeader("Authorization", request.getResourcePath());
+                return null;
+            }).when(aws4Signer).sign(any(), any());
+        }
+
+        private AwsSigV4SignerInput input(final String endpoint, final String resourcePath,
+                                          final String regionName) {
+            return AwsSigV4SignerInput.builder()
+                    .requestEndpoint(endpoint)
+                    .requestResourcePath(resourcePath)
+                    .requestPayload(easyRandom.nextObject(String.class))
+                    .serviceName(testService)
+                    .regionName(regionName)
+                    .requestMethod(HttpMethodName.POST)
+                    .build();
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAsync method,")
+    class SignAsyncMethod {
+        @Mock
+        private NonBlockingCredentialsProvider mockNonBlockingCredentialsProvider;
+
+        @Mock
+        private AWSCredentials testCredentials;
+
+        private List<Runnable> executorTasks;
+
+        @BeforeEach
+        void beforeEach() {
+            executorTasks = new ArrayList<>();
+        }
+
+        @Test
+        @DisplayName("should complete inline, for a non blocking provider with cached credentials.")
+        void shouldCompleteInlineForCachedCredentials() {
+            when(mockNonBlockingCredentialsProvider.getCredentialsIfAvailable()).thenReturn(testCredentials);
+            stubSigner();
+            var asyncSigner = new CredentialProviderBasedAwsSigV4Signer(mockNonBlockingCredentialsProvider,
+                    executorTasks::add);
+
+            var future = asyncSigner.signAsync(input("ValidURI"));
+
+            assertThat(future).isCompleted();
+            assertThat(future.join().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+            assertThat(executorTasks).isEmpty();
+            verify(mockNonBlockingCredentialsProvider, never()).getCredentials();
+            verify(mockAws4Signer).sign(any(), eq(testCredentials));
+        }
+
+        @Test
+        @DisplayName("should fetch credentials on the credentials executor, for a blocking provider.")
+        void shouldFetchCredentialsOnExecutor() {
+            when(mockAwsCredentialsProvider.getCredentials()).thenReturn(testCredentials);
+            stubSigner();
+            var asyncSigner = new CredentialProviderBasedAwsSigV4Signer(mockAwsCredentialsProvider,
+                    executorTasks::add);
+
+            var future = asyncSigner.signAsync(input("ValidURI"));
+
+            assertThat(future).isNotDone();
+            verifyNoInteractions(mockAwsCredentialsProvider);
+            assertThat(executorTasks).hasSize(1);
+            executorTasks.get(0).run();
+            assertThat(future).isCompleted();
+            assertThat(future.join().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+            verify(mockAws4Signer).sign(any(), eq(testCredentials));
+        }
+
+        @Test
+        @DisplayName("should fail without fetching credentials, for an invalid input.")
+        void shouldFailForInvalidInput() {
+            var asyncSigner = new CredentialProviderBasedAwsSigV4Signer(mockAwsCredentialsProvider,
+                    executorTasks::add);
+
+            var future = asyncSigner.signAsync(input("Invalid`URI"));
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCauseInstanceOf(PartnerGatewayInvalidInputException.class);
+            assertThat(executorTasks).isEmpty();
+            verifyNoInteractions(mockAwsCredentialsProvider, mockAws4Signer);
+        }
+
+        private void stubSigner() {
+            doAnswer(invocation -> {
+                DefaultRequest<String> request = invocation.getArgument(0);
+                request.addHeader("Authorization", "signed");
+                return null;
+            }).when(mockAws4Signer).sign(any(), any());
+        }
+
+        private AwsSigV4SignerInput input(final String endpoint) {
+            return AwsSigV4SignerInput.builder()
+                    .requestEndpoint(endpoint)
+                    .requestPayload(easyRandom.nextObject(String.class))
+                    .serviceName(testService)
+                    .regionName(testRegion)
+                    .requestMethod(HttpMethodName.POST)
+                    .build();
+        }
+    }
+
     @AfterEach
     void afterEach() {
         aws4SignerFactoryHelperMockedStatic.close();
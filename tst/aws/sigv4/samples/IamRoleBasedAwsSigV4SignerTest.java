@@ -6,7 +6,10 @@ import static org.mockito.Mockito.*;
 
 import com.amazon.financialservices.insurance.partnergateway.commons.constants.AwsConstants;
 import aws.sigv4.samples.factoryHelpers.Aws4SignerFactoryHelper;
+import aws.sigv4.samples.metrics.NoOpSignerMetrics;
+import aws.sigv4.samples.metrics.SignerMetrics;
 import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
 import aws.sigv4.samples.models.IamRoleBasedAwsSigV4SignerConfig;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
 import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
@@ -18,6 +21,9 @@ import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.amazonaws.services.securitytoken.model.*;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import lombok.SneakyThrows;
@@ -153,6 +159,20 @@ class IamRoleBasedAwsSigV4SignerTest {
                                     testConfig.getIamRoleAnr()))
                             .hasCauseInstanceOf(exceptionClass);
                 }
+
+                @Test
+                @DisplayName("should record a failed STS call, with metrics installed.")
+                void shouldRecordFailedStsCall() {
+                    when(mockAwsStsClient.assumeRole(any())).thenThrow(ExpiredTokenException.class);
+                    var metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+                    SignerMetrics.install(metrics);
+
+                    assertThatThrownBy(() -> signer.sign(signerInput))
+                            .isInstanceOf(PartnerGatewayConfigurationException.class);
+
+                    verify(metrics).recordStsCall(anyLong(), eq(false));
+                    verify(metrics, never()).recordPhase(eq(SignerMetrics.Phase.SIGN), anyLong());
+                }
             }
 
             @Nested
@@ -203,6 +223,23 @@ class IamRoleBasedAwsSigV4SignerTest {
                     assertThat(output.getRequestHeaderMap()).isEqualTo(testRequestHeaderMap);
                 }
 
+                @Test
+                @DisplayName("should record the STS call, signing phases and payload size, with metrics installed.")
+                @SneakyThrows
+                void shouldRecordMetrics() {
+                    var metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+                    SignerMetrics.install(metrics);
+
+                    signer.sign(signerInput);
+
+                    verify(metrics).recordStsCall(anyLong(), eq(true));
+                    verify(metrics).recordPhase(eq(SignerMetrics.Phase.CREATE_REQUEST), anyLong());
+                    verify(metrics).recordPhase(eq(SignerMetrics.Phase.FETCH_CREDENTIALS), anyLong());
+                    verify(metrics).recordPhase(eq(SignerMetrics.Phase.SIGN), anyLong());
+                    verify(metrics).recordPayloadSize(
+                            signerInput.getRequestPayload().getBytes(StandardCharsets.UTF_8).length);
+                }
+
                 @Nested
                 @DisplayName("with no request headers in input,")
                 class WithNoRequestHeaders {
@@ -272,8 +309,148 @@ class IamRoleBasedAwsSigV4SignerTest {
         }
     }
 
+    @Nested
+    @DisplayName("the signAll method,")
+    class SignAllMethod {
+
+        private List<AwsSigV4SignerInput> signerInputs;
+
+        @BeforeEach
+        void beforeEach() {
+            signerInputs = List.of(input("ValidURI"), input("Invalid`URI"), input("ValidURI"));
+        }
+
+        @Test
+        @DisplayName("should assume the role once, and return results in input order with errors per input.")
+        @SneakyThrows
+        void shouldAssumeRoleOnce() {
+            var testSessionCredentials = easyRandom.nextObject(Credentials.class)
+                    .withExpiration(new Date(System.currentTimeMillis() + 3_600_000L));
+            when(mockAwsStsClient.assumeRole(any())).thenReturn(
+                    new AssumeRoleResult().withCredentials(testSessionCredentials));
+            doAnswer(invocation -> {
+                DefaultRequest<String> request = invocation.getArgument(0);
+                request.addHeader("Authorization", "signed");
+                return null;
+            }).when(mockAws4Signer).sign(any(), any());
+
+            var results = signer.signAll(signerInputs);
+
+            assertThat(results).extracting(AwsSigV4SignerResult::getInput).isEqualTo(signerInputs);
+            assertThat(results.get(0).getOutput().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+            assertThat(results.get(1).getError()).isInstanceOf(PartnerGatewayInvalidInputException.class);
+            assertThat(results.get(2).getOutput().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+            verify(mockAwsStsClient, times(1)).assumeRole(any());
+            aws4SignerFactoryHelperMockedStatic.verify(() -> Aws4SignerFactoryHelper.getSigner(testRegion,
+                    testService), times(1));
+        }
+
+        @Test
+        @DisplayName("should fail every input, when the role can't be assumed.")
+        void shouldFailEveryInput() {
+            when(mockAwsStsClient.assumeRole(any())).thenThrow(RegionDisabledException.class);
+
+            var results = signer.signAll(signerInputs);
+
+            assertThat(results).hasSize(signerInputs.size())
+                    .allSatisfy(result -> assertThat(result.getError())
+                            .isInstanceOf(PartnerGatewayConfigurationException.class)
+                            .hasCauseInstanceOf(RegionDisabledException.class));
+            verifyNoInteractions(mockAws4Signer);
+        }
+
+        private AwsSigV4SignerInput input(final String endpoint) {
+            return AwsSigV4SignerInput.builder()
+                    .requestEndpoint(endpoint)
+                    .requestPayload(easyRandom.nextObject(String.class))
+                    .serviceName(testService)
+                    .regionName(testRegion)
+                    .requestMethod(HttpMethodName.POST)
+                    .build();
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAsync method,")
+    class SignAsyncMethod {
+
+        private List<Runnable> executorTasks;
+
+        private IamRoleBasedAwsSigV4Signer asyncSigner;
+
+        @BeforeEach
+        void beforeEach() {
+            executorTasks = new ArrayList<>();
+            asyncSigner = new IamRoleBasedAwsSigV4Signer(mockAwsStsClient, testConfig, executorTasks::add);
+        }
+
+        @Test
+        @DisplayName("should assume the role on the credentials executor, then complete inline while cached.")
+        void shouldAssumeRoleOnExecutorOnce() {
+            var testSessionCredentials = easyRandom.nextObject(Credentials.class)
+                    .withExpiration(new Date(System.currentTimeMillis() + 3_600_000L));
+            when(mockAwsStsClient.assumeRole(any())).thenReturn(
+                    new AssumeRoleResult().withCredentials(testSessionCredentials));
+            doAnswer(invocation -> {
+                DefaultRequest<String> request = invocation.getArgument(0);
+                request.addHeader("Authorization", "signed");
+                return null;
+            }).when(mockAws4Signer).sign(any(), any());
+
+            var first = asyncSigner.signAsync(input("ValidURI"));
+
+            assertThat(first).isNotDone();
+            verifyNoInteractions(mockAwsStsClient);
+            executorTasks.forEach(Runnable::run);
+            assertThat(first).isCompleted();
+            assertThat(first.join().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+
+            var second = asyncSigner.signAsync(input("ValidURI"));
+
+            assertThat(second).isCompleted();
+            assertThat(second.join().getRequestHeaderMap()).containsEntry("Authorization", "signed");
+            assertThat(executorTasks).hasSize(1);
+            verify(mockAwsStsClient, times(1)).assumeRole(any());
+        }
+
+        @Test
+        @DisplayName("should fail with PartnerGatewayConfigurationException, when the role can't be assumed.")
+        void shouldFailWhenRoleCantBeAssumed() {
+            when(mockAwsStsClient.assumeRole(any())).thenThrow(RegionDisabledException.class);
+
+            var future = asyncSigner.signAsync(input("ValidURI"));
+            executorTasks.forEach(Runnable::run);
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCauseInstanceOf(PartnerGatewayConfigurationException.class);
+            verifyNoInteractions(mockAws4Signer);
+        }
+
+        @Test
+        @DisplayName("should fail without assuming the role, for an invalid input.")
+        void shouldFailForInvalidInput() {
+            var future = asyncSigner.signAsync(input("Invalid`URI"));
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCauseInstanceOf(PartnerGatewayInvalidInputException.class);
+            assertThat(executorTasks).isEmpty();
+            verifyNoInteractions(mockAwsStsClient);
+        }
+
+        private AwsSigV4SignerInput input(final String endpoint) {
+            return AwsSigV4SignerInput.builder()
+                    .requestEndpoint(endpoint)
+                    .requestPayload(easyRandom.nextObject(String.class))
+                    .serviceName(testService)
+                    .regionName(testRegion)
+                    .requestMethod(HttpMethodName.POST)
+                    .build();
+        }
+    }
+
     @AfterEach
     void afterEach() {
         aws4SignerFactoryHelperMockedStatic.close();
+        SignerMetrics.install(NoOpSignerMetrics.INSTANCE);
     }
 }
@@ -0,0 +1,271 @@
+package aws.sigv4.samples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.RequestBody;
+import aws.sigv4.samples.signing.SigningClock;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For MemoizingAwsSigV4Signer class,")
+class MemoizingAwsSigV4SignerTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.100Z");
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private MutableClock clock;
+
+    private AtomicReference<AWSCredentials> credentials;
+
+    private AWSCredentialsProvider credentialsProvider;
+
+    private AwsSigV4Signer delegate;
+
+    private MemoizingAwsSigV4Signer signer;
+
+    @BeforeEach
+    void beforeEach() {
+        clock = new MutableClock(SIGNING_TIME);
+        credentials = new AtomicReference<>(new BasicSessionCredentials("ASIAEXAMPLE",
+                "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY", "FwoGZXIvYXdzEXAMPLETOKEN"));
+        credentialsProvider = new AWSStaticCredentialsProvider(new BasicAWSCredentials("unused", "unused")) {
+            @Override
+            public AWSCredentials getCredentials() {
+                return credentials.get();
+            }
+        };
+        var signingClock = new SigningClock(clock);
+        delegate = spy(new NativeAwsSigV4Signer(credentialsProvider, signingClock));
+        signer = new MemoizingAwsSigV4Signer(delegate, credentialsProvider, signingClock,
+                MemoizingAwsSigV4Signer.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    @Nested
+    @DisplayName("the sign method,")
+    class SignMethod {
+
+        @Test
+        @DisplayName("should return the memoized output for an identical input within the same second.")
+        @SneakyThrows
+        void shouldMemoizeWithinSecond() {
+            var first = signer.sign(input("/health", Map.of("Accept", "application/json")));
+            clock.instant = SIGNING_TIME.plusMillis(800);
+            var second = signer.sign(input("/health", Map.of("Accept", "application/json")));
+
+            assertThat(second.getRequestHeaderMap()).isEqualTo(first.getRequestHeaderMap())
+                    .isNotSameAs(first.getRequestHeaderMap());
+            verify(delegate, times(1)).sign(any());
+            assertThat(signer.getHitCount()).isEqualTo(1);
+            assertThat(signer.getMissCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should sign again in the next second.")
+        @SneakyThrows
+        void shouldSignAgainNextSecond() {
+            var first = signer.sign(input("/health", null));
+            clock.instant = SIGNING_TIME.plusSeconds(1);
+            var second = signer.sign(input("/health", null));
+
+            assertThat(second.getRequestHeaderMap().get("X-Amz-Date"))
+                    .isNotEqualTo(first.getRequestHeaderMap().get("X-Amz-Date"));
+            verify(delegate, times(2)).sign(any());
+        }
+
+        @Test
+        @DisplayName("should sign again for a different input.")
+        @SneakyThrows
+        void shouldSignDifferentInput() {
+            signer.sign(input("/health", null));
+            signer.sign(input("/health", Map.of("Accept", "application/json")));
+            signer.sign(input("/status", null));
+
+            verify(delegate, times(3)).sign(any());
+        }
+
+        @Test
+        @DisplayName("should sign again once the credentials change.")
+        @SneakyThrows
+        void shouldSignAgainForNewCredentials() {
+            signer.sign(input("/health", null));
+            credentials.set(new BasicSessionCredentials("ASIAEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY",
+                    "FwoGZXIvYXdzNEWTOKEN"));
+            var second = signer.sign(input("/health", null));
+
+            assertThat(second.getRequestHeaderMap()).containsEntry("X-Amz-Security-Token", "FwoGZXIvYXdzNEWTOKEN");
+            verify(delegate, times(2)).sign(any());
+        }
+
+        @Test
+        @DisplayName("should key outputs by a copy of the headers, unaffected by later changes to the caller's map.")
+        @SneakyThrows
+        void shouldCopyHeaders() {
+            var headers = new HashMap<String, String>();
+            headers.put("Accept", "application/json");
+            var first = signer.sign(input("/health", headers));
+            headers.put("X-Correlation-Id", "c0ffee");
+
+            var second = signer.sign(input("/health", Map.of("Accept", "application/json")));
+
+            assertThat(second.getRequestHeaderMap()).isEqualTo(first.getRequestHeaderMap());
+            verify(delegate, times(1)).sign(any());
+        }
+
+        @Test
+        @DisplayName("should not memoize inputs with a payload longer than MAXIMUM_PAYLOAD_LENGTH.")
+        @SneakyThrows
+        void shouldNotMemoizeLargePayload() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.POST)
+                    .requestPayload("x".repeat(MemoizingAwsSigV4Signer.MAXIMUM_PAYLOAD_LENGTH + 1))
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            signer.sign(input);
+            signer.sign(input);
+
+            verify(delegate, times(2)).sign(any());
+            assertThat(signer.getHitCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not memoize inputs with a request body.")
+        @SneakyThrows
+        void shouldNotMemoizeRequestBody() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestBody(RequestBody.fromBytes(new byte[] {1, 2, 3}))
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            signer.sign(input);
+            signer.sign(input);
+
+            verify(delegate, times(2)).sign(any());
+            assertThat(signer.getHitCount()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAsync method,")
+    class SignAsyncMethod {
+
+        @Test
+        @DisplayName("should complete inline with the output memoized by sign.")
+        @SneakyThrows
+        void shouldCompleteWithMemoizedOutput() {
+            var first = signer.sign(input("/health", null));
+
+            var future = signer.signAsync(input("/health", null));
+
+            assertThat(future).isDone();
+            assertThat(future.get().getRequestHeaderMap()).isEqualTo(first.getRequestHeaderMap());
+            verify(delegate, times(1)).sign(any());
+        }
+
+        @Test
+        @DisplayName("should pass the input on to the wrapped signer, when credentials aren't available without "
+                + "blocking.")
+        @SneakyThrows
+        void shouldNotFetchCredentialsOnCallerThread() {
+            var fetchingThreads = new CopyOnWriteArrayList<Thread>();
+            AWSCredentialsProvider blockingProvider = mock(AWSCredentialsProvider.class);
+            when(blockingProvider.getCredentials()).then(invocation -> {
+                fetchingThreads.add(Thread.currentThread());
+                return credentials.get();
+            });
+            var blockingDelegate = spy(new NativeAwsSigV4Signer(blockingProvider, new SigningClock(clock)));
+            var blockingSigner = new MemoizingAwsSigV4Signer(blockingDelegate, blockingProvider,
+                    new SigningClock(clock), MemoizingAwsSigV4Signer.DEFAULT_MAXIMUM_SIZE);
+
+            var output = blockingSigner.signAsync(input("/health", null)).get(10, TimeUnit.SECONDS);
+
+            assertThat(output.getRequestHeaderMap()).containsKey("Authorization");
+            verify(blockingDelegate).signAsync(any());
+            assertThat(fetchingThreads).isNotEmpty().doesNotContain(Thread.currentThread());
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAll method,")
+    class SignAllMethod {
+
+        @Test
+        @DisplayName("should pass the batch on to the wrapped signer.")
+        void shouldDelegate() {
+            var inputs = List.of(input("/health", null), input("/status", null));
+
+            var results = signer.signAll(inputs);
+
+            assertThat(results).hasSize(2);
+            verify(delegate).signAll(inputs, null);
+        }
+    }
+
+    private static AwsSigV4SignerInput input(final String resourcePath, final Map<String, String> headers) {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(ENDPOINT)
+                .requestResourcePath(resourcePath)
+                .requestMethod(HttpMethodName.GET)
+                .requestPayload("")
+                .serviceName("execute-api")
+                .regionName("us-east-1")
+                .requestHeaderMap(headers)
+                .build();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        private MutableClock(final Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
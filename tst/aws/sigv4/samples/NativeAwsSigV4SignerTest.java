@@ -0,0 +1,882 @@
+package aws.sigv4.samples;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import aws.sigv4.samples.credentials.NonBlockingCredentialsProvider;
+import aws.sigv4.samples.metrics.NoOpSignerMetrics;
+import aws.sigv4.samples.metrics.SignerMetrics;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerResult;
+import aws.sigv4.samples.models.RequestBody;
+import aws.sigv4.samples.signing.HeaderTemplate;
+import aws.sigv4.samples.signing.SigningClock;
+import aws.sigv4.samples.signing.SigningTarget;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.SignableRequest;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("For NativeAwsSigV4Signer class,")
+class NativeAwsSigV4SignerTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private static final String RESOURCE_PATH = "/prod/partners";
+
+    private static final String PAYLOAD = "{\"partnerId\": 42}";
+
+    private static final AWSCredentials BASIC_CREDENTIALS =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private static final AWSCredentials SESSION_CREDENTIALS = new BasicSessionCredentials("ASIAEXAMPLE",
+            "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY", "FwoGZXIvYXdzEXAMPLETOKEN");
+
+    private static final List<String> ENDPOINTS = List.of(
+            ENDPOINT,
+            ENDPOINT + "/",
+            "https://example.com:8443/base",
+            "http://example.com:80/base/",
+            "https://example.com:443",
+            "https://EXAMPLE.com/a%20b/c",
+            "https://example.com/with?query=ignored");
+
+    private static final List<String> RESOURCE_PATHS = Arrays.asList(
+            null,
+            "",
+            "/",
+            "resource",
+            "/a/b/c/",
+            "/with space/and+plus",
+            "/unicode/ü€😀",
+            "/unpaired/\uD800x",
+            "/dot/./segment/../x",
+            "/dot/.",
+            "//double//slash",
+            "/reserved!*'();:@&=$,?#[]",
+            "/tilde~-_.",
+            "/%2F/encoded");
+
+    private static final List<Map<String, String>> HEADER_MAPS = Arrays.asList(
+            null,
+            Map.of(),
+            Map.of("Content-Type", "application/json"),
+            Map.of("X-Spaces", "  a   b\t\tc  ", "x-amz-meta-Tabs", "\tvalue\n"),
+            Map.of("x-custom", "lower", "X-Custom", "upper"),
+            Map.of("Connection", "keep-alive", "X-Amzn-Trace-Id", "Root=1-5759e988"),
+            Map.of("host", "override.example.com", "x-amz-date", "20000101T000000Z"),
+            Map.of("X-Unicode-Ü", "ü€"),
+            nullValueHeaders());
+
+    private static final List<String> PAYLOADS = List.of(
+            "",
+            PAYLOAD,
+            "ü€😀",
+            "\uD800 unpaired",
+            "x".repeat(100_000));
+
+    @Nested
+    @DisplayName("the sign method,")
+    class SignMethod {
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each HTTP method.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#methods")
+        void shouldMatchForMethods(final HttpMethodName method) {
+            assertSameHeaders(method, ENDPOINT, RESOURCE_PATH, null, PAYLOAD, BASIC_CREDENTIALS);
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each endpoint.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#endpoints")
+        void shouldMatchForEndpoints(final String endpoint) {
+            assertSameHeaders(HttpMethodName.GET, endpoint, RESOURCE_PATH, null, "", BASIC_CREDENTIALS);
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each resource path.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#resourcePaths")
+        void shouldMatchForResourcePaths(final String resourcePath) {
+            assertSameHeaders(HttpMethodName.GET, ENDPOINT, resourcePath, null, "", BASIC_CREDENTIALS);
+            assertSameHeaders(HttpMethodName.GET, ENDPOINT + "/base", resourcePath, null, "", BASIC_CREDENTIALS);
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each header map.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#headerMaps")
+        void shouldMatchForHeaders(final Map<String, String> headers) {
+            assertSameHeaders(HttpMethodName.POST, ENDPOINT, RESOURCE_PATH, headers, PAYLOAD, SESSION_CREDENTIALS);
+        }
+
+        @ParameterizedTest(name = "{index}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each payload.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#payloads")
+        void shouldMatchForPayloads(final String payload) {
+            assertSameHeaders(HttpMethodName.PUT, ENDPOINT, RESOURCE_PATH, null, payload, BASIC_CREDENTIALS);
+        }
+
+        @Test
+        @DisplayName("should produce the same headers as AWS4Signer, for credentials with surrounding whitespace.")
+        void shouldMatchForUntrimmedCredentials() {
+            assertSameHeaders(HttpMethodName.GET, ENDPOINT, RESOURCE_PATH, null, PAYLOAD,
+                    new BasicSessionCredentials(" ASIAEXAMPLE ", "\tsecret ", " token\n"));
+        }
+
+        @Test
+        @DisplayName("should produce the same headers as AWS4Signer, for random requests.")
+        void shouldMatchForRandomRequests() {
+            var random = new Random(20240229L);
+            for (int i = 0; i < 500; i++) {
+                var headers = new HashMap<String, String>();
+                for (int h = random.nextInt(6); h > 0; h--) {
+                    headers.put("x-" + randomString(random, 1, 10, "abcXYZ-_"), randomString(random, 0, 20, null));
+                }
+                assertSameHeaders(
+                        HttpMethodName.values()[random.nextInt(HttpMethodName.values().length)],
+                        ENDPOINTS.get(random.nextInt(ENDPOINTS.size())),
+                        randomString(random, 0, 30, null),
+                        headers,
+                        randomString(random, 0, 200, null),
+                        random.nextBoolean() ? BASIC_CREDENTIALS : SESSION_CREDENTIALS);
+            }
+        }
+
+        @Test
+        @DisplayName("should not reuse the signing date of the previous request.")
+        void shouldUseCurrentSigningDate() {
+            var later = SIGNING_TIME.plusSeconds(1);
+            assertSameHeaders(HttpMethodName.GET, ENDPOINT, RESOURCE_PATH, null, "", BASIC_CREDENTIALS);
+            assertSameHeaders(HttpMethodName.GET, ENDPOINT, RESOURCE_PATH, null, "", BASIC_CREDENTIALS, later);
+        }
+
+        @Test
+        @DisplayName("should produce the signature of the get-vanilla SigV4 test vector.")
+        @SneakyThrows
+        void shouldMatchGetVanillaTestVector() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS),
+                    Clock.fixed(Instant.parse("2015-08-30T12:36:00Z"), ZoneOffset.UTC));
+
+            var output = signer.sign(
+                    input(HttpMethodName.GET, "https://example.amazonaws.com", "/", null, "", "service"));
+
+            assertThat(output.getRequestHeaderMap()).containsEntry("Authorization",
+                    "AWS4-HMAC-SHA256 Credential=AKIDEXAMPLE/20150830/us-east-1/service/aws4_request, "
+                            + "SignedHeaders=host;x-amz-date, "
+                            + "Signature=5fa00fa31553b73ebf1942676e86291e8372ff2a2260956d9b8aae1d763fbf31");
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should produce the same headers as AWS4Signer, for each kind of request body.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#requestBodies")
+        @SneakyThrows
+        void shouldMatchForRequestBodies(final String kind, final RequestBody body, final byte[] bytes) {
+            var expected = new DefaultRequest<String>("execute-api");
+            expected.setEndpoint(new URI(ENDPOINT));
+            expected.setResourcePath(RESOURCE_PATH);
+            expected.setHttpMethod(HttpMethodName.PUT);
+            expected.setContent(new ByteArrayInputStream(bytes));
+            var aws4Signer = new AWS4Signer();
+            aws4Signer.setServiceName("execute-api");
+            aws4Signer.setRegionName("us-east-1");
+            aws4Signer.setOverrideDate(Date.from(SIGNING_TIME));
+            aws4Signer.sign(expected, BASIC_CREDENTIALS);
+
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS),
+                    Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+            var actual = signer.sign(AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestResourcePath(RESOURCE_PATH)
+                    .requestBody(body)
+                    .requestMethod(HttpMethodName.PUT)
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build()).getRequestHeaderMap();
+
+            assertThat(new ArrayList<>(actual.entrySet()))
+                    .containsExactlyElementsOf(new ArrayList<>(expected.getHeaders().entrySet()));
+        }
+
+        @Test
+        @DisplayName("should produce the same headers as AWS4Signer, for a precomputed payload hash.")
+        @SneakyThrows
+        void shouldMatchForPrecomputedPayloadHash() {
+            var payloadHash = BinaryUtils.toHex(
+                    MessageDigest.getInstance("SHA-256").digest(PAYLOAD.getBytes(StandardCharsets.UTF_8)));
+
+            var expected = payloadModeRequest(payloadHash);
+            expected.setContent(new ByteArrayInputStream(PAYLOAD.getBytes(StandardCharsets.UTF_8)));
+            payloadModeSigner(new AWS4Signer()).sign(expected, SESSION_CREDENTIALS);
+
+            var actual = payloadModeSigner(SESSION_CREDENTIALS).sign(payloadModeInput()
+                    .requestPayloadSha256(payloadHash)
+                    .build()).getRequestHeaderMap();
+
+            assertThat(new ArrayList<>(actual.entrySet()))
+                    .containsExactlyElementsOf(new ArrayList<>(expected.getHeaders().entrySet()));
+        }
+
+        @Test
+        @DisplayName("should produce the same headers as AWS4Signer, for an unsigned payload.")
+        @SneakyThrows
+        void shouldMatchForUnsignedPayload() {
+            var expected = payloadModeRequest("UNSIGNED-PAYLOAD");
+            payloadModeSigner(new AWS4Signer() {
+                @Override
+                protected String calculateContentHash(final SignableRequest<?> request) {
+                    return "UNSIGNED-PAYLOAD";
+                }
+            }).sign(expected, SESSION_CREDENTIALS);
+
+            var actual = payloadModeSigner(SESSION_CREDENTIALS).sign(payloadModeInput()
+                    .unsignedPayload(true)
+                    .build()).getRequestHeaderMap();
+
+            assertThat(new ArrayList<>(actual.entrySet()))
+                    .containsExactlyElementsOf(new ArrayList<>(expected.getHeaders().entrySet()));
+        }
+
+        @Test
+        @DisplayName("should produce the same headers for an input with a signing target, as for its endpoint.")
+        @SneakyThrows
+        void shouldMatchForSigningTarget() {
+            var signer = payloadModeSigner(SESSION_CREDENTIALS);
+            var expected = signer.sign(payloadModeInput().requestPayload(PAYLOAD).build()).getRequestHeaderMap();
+
+            var target = SigningTarget.create("https://bucket.s3.us-east-1.amazonaws.com", "/key", "us-east-1", "s3");
+            var actual = signer.sign(AwsSigV4SignerInput.builder()
+                    .signingTarget(target)
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestPayload(PAYLOAD)
+                    .build()).getRequestHeaderMap();
+
+            assertThat(new ArrayList<>(actual.entrySet())).containsExactlyElementsOf(expected.entrySet());
+        }
+
+        @Test
+        @DisplayName("should sign at the time corrected by the clock skew learned for the endpoint only.")
+        @SneakyThrows
+        void shouldApplyLearnedClockSkew() {
+            var signingClock = new SigningClock(Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS), signingClock);
+            signingClock.adjust(ENDPOINT, 403, "RequestTimeTooSkewed", "Fri, 1 Mar 2024 00:15:00 GMT");
+
+            var skewed = signer.sign(input(HttpMethodName.GET, ENDPOINT, RESOURCE_PATH, null, ""));
+            var other = signer.sign(input(HttpMethodName.GET, "https://example.com", RESOURCE_PATH, null, ""));
+
+            assertThat(skewed.getRequestHeaderMap()).containsEntry("X-Amz-Date", "20240301T001500Z");
+            assertThat(skewed.getRequestHeaderMap().get("Authorization")).contains("/20240301/us-east-1/");
+            assertThat(other.getRequestHeaderMap()).containsEntry("X-Amz-Date", "20240229T235959Z");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an input without payload.")
+        void shouldThrowForNoPayload() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = input(HttpMethodName.GET, ENDPOINT, null, null, null);
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Exactly one of requestPayload, requestBody, requestPayloadSha256 and unsignedPayload "
+                            + "must be passed in Input.");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid endpoint.")
+        void shouldThrowForInvalidEndpoint() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = input(HttpMethodName.GET, "Invalid`URI", null, null, "");
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage(String.format("Invalid request endpoint passed in Input: %s", "Invalid`URI"))
+                    .hasCauseInstanceOf(URISyntaxException.class);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an endpoint without host.")
+        void shouldThrowForEndpointWithoutHost() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = input(HttpMethodName.GET, "ValidURI", null, null, "");
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage(String.format("Request endpoint passed in Input has no host: %s", "ValidURI"));
+        }
+    }
+
+    @Nested
+    @DisplayName("the sign method, with a header template,")
+    class SignMethodWithHeaderTemplate {
+
+        @ParameterizedTest(name = "[{index}] {0} fixed headers")
+        @DisplayName("should produce the same headers as for the template's headers passed in a header map.")
+        @MethodSource("aws.sigv4.samples.NativeAwsSigV4SignerTest#templateHeaderCounts")
+        @SneakyThrows
+        void shouldMatchHeaderMap(final int fixedHeaderCount) {
+            var headers = new LinkedHashMap<String, String>();
+            headers.put("Connection", "keep-alive");
+            headers.put("X-Spaces", "  a   b\t\tc  ");
+            headers.put("X-Unicode-Ü", "ü€");
+            for (int i = 0; i < 30; i++) {
+                headers.put("X-Partner-Header-" + i, "value-" + i);
+            }
+            headers.put("X-Amzn-Trace-Id", "Root=1-5759e988");
+            headers.put("x-correlation-id", "c0ffee");
+            var names = new ArrayList<>(headers.keySet());
+            var fixedHeaders = new HashMap<String, String>();
+            names.subList(0, fixedHeaderCount).forEach(name -> fixedHeaders.put(name, headers.get(name)));
+            var variableHeaders = new HashMap<String, String>();
+            names.subList(fixedHeaderCount, names.size()).forEach(name -> variableHeaders.put(name, headers.get(name)));
+            var template = HeaderTemplate.compile(fixedHeaders, variableHeaders.keySet());
+
+            for (var credentials : List.of(BASIC_CREDENTIALS, SESSION_CREDENTIALS)) {
+                var signer = payloadModeSigner(credentials);
+                var expected = signer.sign(input(HttpMethodName.POST, ENDPOINT, RESOURCE_PATH, headers, PAYLOAD))
+                        .getRequestHeaderMap();
+                var actual = signer.sign(AwsSigV4SignerInput.builder()
+                        .requestEndpoint(ENDPOINT)
+                        .requestResourcePath(RESOURCE_PATH)
+                        .requestMethod(HttpMethodName.POST)
+                        .requestPayload(PAYLOAD)
+                        .serviceName("execute-api")
+                        .regionName("us-east-1")
+                        .headerTemplate(template)
+                        .requestHeaderMap(variableHeaders)
+                        .build()).getRequestHeaderMap();
+
+                assertThat(new ArrayList<>(actual.entrySet())).containsExactlyElementsOf(expected.entrySet());
+            }
+        }
+
+        @Test
+        @DisplayName("should produce the same headers as for a header map, for each payload mode.")
+        @SneakyThrows
+        void shouldMatchHeaderMapForPayloadModes() {
+            var template = HeaderTemplate.compile(Map.of("Content-Type", "application/octet-stream"),
+                    List.of("X-Correlation-Id"));
+            var headers = Map.of("Content-Type", "application/octet-stream", "X-Correlation-Id", "c0ffee");
+            var signer = payloadModeSigner(SESSION_CREDENTIALS);
+
+            for (var payloadMode : List.<UnaryOperator<AwsSigV4SignerInput.AwsSigV4SignerInputBuilder>>of(
+                    builder -> builder.unsignedPayload(true),
+                    builder -> builder.requestPayloadSha256(
+                            "E3B0C44298FC1C149AFBF4C8996FB92427AE41E4649B934CA495991B7852B855"),
+                    builder -> builder.requestBody(RequestBody.fromBytes(new byte[] {1, 2, 3})))) {
+                var expected = signer.sign(payloadMode.apply(payloadModeInput().requestHeaderMap(headers)).build())
+                        .getRequestHeaderMap();
+                var actual = signer.sign(payloadMode.apply(payloadModeInput()
+                        .headerTemplate(template)
+                        .requestHeaderMap(Map.of("X-Correlation-Id", "c0ffee"))).build()).getRequestHeaderMap();
+
+                assertThat(new ArrayList<>(actual.entrySet())).containsExactlyElementsOf(expected.entrySet());
+            }
+        }
+
+        @Test
+        @DisplayName("should return the headers added by signing from signHeaders, as for a header map.")
+        @SneakyThrows
+        void shouldMatchSignHeaders() {
+            var template = HeaderTemplate.compile(Map.of("Content-Type", "application/json"),
+                    List.of("X-Correlation-Id"));
+            var signer = payloadModeSigner(SESSION_CREDENTIALS);
+
+            var expected = signer.signHeaders(payloadModeInput()
+                    .unsignedPayload(true)
+                    .requestHeaderMap(Map.of("Content-Type", "application/json", "X-Correlation-Id", "c0ffee"))
+                    .build());
+            var actual = signer.signHeaders(payloadModeInput()
+                    .unsignedPayload(true)
+                    .headerTemplate(template)
+                    .requestHeaderMap(Map.of("X-Correlation-Id", "c0ffee"))
+                    .build());
+
+            assertThat(actual).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a missing variable header.")
+        @SneakyThrows
+        void shouldThrowForMissingVariableHeader() {
+            var template = HeaderTemplate.compile(Map.of(), List.of("X-Correlation-Id"));
+            var signer = payloadModeSigner(BASIC_CREDENTIALS);
+            var input = payloadModeInput()
+                    .requestPayload(PAYLOAD)
+                    .headerTemplate(template)
+                    .build();
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("requestHeaderMap passed in Input must hold the variable headers [X-Correlation-Id] "
+                            + "of its header template, but held: []");
+        }
+    }
+
+    @Nested
+    @DisplayName("the signHeaders method,")
+    class SignHeadersMethod {
+
+        @Test
+        @DisplayName("should return the headers added by the sign method, for session credentials.")
+        @SneakyThrows
+        void shouldReturnAddedHeaders() {
+            var input = payloadModeInput().unsignedPayload(true).build();
+            var signed = payloadModeSigner(SESSION_CREDENTIALS).sign(input).getRequestHeaderMap();
+
+            var signedHeaders = payloadModeSigner(SESSION_CREDENTIALS).signHeaders(input);
+
+            assertThat(signedHeaders.getAuthorization()).isEqualTo(signed.get("Authorization"));
+            assertThat(signedHeaders.getAmzDate()).isEqualTo("20240229T235959Z");
+            assertThat(signedHeaders.getSecurityToken()).isNotNull().isEqualTo(signed.get("X-Amz-Security-Token"));
+            assertThat(signedHeaders.getContentSha256()).isEqualTo("UNSIGNED-PAYLOAD");
+        }
+
+        @Test
+        @DisplayName("should leave out the session token and payload hash, for basic credentials and a string payload.")
+        @SneakyThrows
+        void shouldLeaveOutAbsentHeaders() {
+            var signedHeaders = payloadModeSigner(BASIC_CREDENTIALS).signHeaders(payloadModeInput()
+                    .requestPayload(PAYLOAD)
+                    .build());
+
+            assertThat(signedHeaders.getAuthorization()).startsWith("AWS4-HMAC-SHA256 Credential=");
+            assertThat(signedHeaders.getSecurityToken()).isNull();
+            assertThat(signedHeaders.getContentSha256()).isNull();
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid endpoint.")
+        void shouldThrowForInvalidEndpoint() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = input(HttpMethodName.GET, "Invalid`URI", null, null, "");
+
+            assertThatThrownBy(() -> signer.signHeaders(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("the sign method, with metrics installed,")
+    class SignMethodWithMetrics {
+
+        private SignerMetrics metrics;
+
+        @BeforeEach
+        void beforeEach() {
+            metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+            SignerMetrics.install(metrics);
+        }
+
+        @AfterEach
+        void afterEach() {
+            SignerMetrics.install(NoOpSignerMetrics.INSTANCE);
+        }
+
+        @Test
+        @DisplayName("should record the signing phases and the UTF-8 size of a string payload.")
+        @SneakyThrows
+        void shouldRecordStringPayloadMetrics() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+
+            signer.sign(input(HttpMethodName.POST, ENDPOINT, RESOURCE_PATH, null, "ü€😀"));
+
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.FETCH_CREDENTIALS), anyLong());
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.CREATE_REQUEST), anyLong());
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.SIGN), anyLong());
+            verify(metrics, never()).recordPhase(eq(SignerMetrics.Phase.HASH_PAYLOAD), anyLong());
+            verify(metrics).recordPayloadSize("ü€😀".getBytes(StandardCharsets.UTF_8).length);
+        }
+
+        @Test
+        @DisplayName("should record hashing a request body and its size.")
+        @SneakyThrows
+        void shouldRecordRequestBodyMetrics() {
+            var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestBody(RequestBody.fromBytes(new byte[1234]))
+                    .requestMethod(HttpMethodName.PUT)
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            signer.sign(input);
+
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.HASH_PAYLOAD), anyLong());
+            verify(metrics).recordPayloadSize(1234L);
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAll method,")
+    class SignAllMethod {
+
+        private List<AwsSigV4SignerInput> signerInputs;
+
+        private AtomicInteger credentialsFetches;
+
+        private NativeAwsSigV4Signer signer;
+
+        @BeforeEach
+        void beforeEach() {
+            var random = new Random(7L);
+            signerInputs = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                signerInputs.add(input(HttpMethodName.POST, ENDPOINTS.get(random.nextInt(ENDPOINTS.size())),
+                        "/item/" + i, null, randomString(random, 0, 50, null),
+                        random.nextBoolean() ? "execute-api" : "s3"));
+            }
+            signerInputs.set(17, input(HttpMethodName.GET, "Invalid`URI", null, null, ""));
+            signerInputs.set(42, null);
+
+            credentialsFetches = new AtomicInteger();
+            signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(SESSION_CREDENTIALS) {
+                @Override
+                public AWSCredentials getCredentials() {
+                    credentialsFetches.incrementAndGet();
+                    return super.getCredentials();
+                }
+            }, Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+        }
+
+        @Test
+        @DisplayName("should return the outputs of sign in input order, fetching credentials once.")
+        @SneakyThrows
+        void shouldMatchSign() {
+            var results = signer.signAll(signerInputs);
+
+            assertResults(results);
+        }
+
+        @Test
+        @DisplayName("should return the outputs of sign in input order, when signing on a pool.")
+        @SneakyThrows
+        void shouldMatchSignOnPool() {
+            var pool = new ForkJoinPool(4);
+            try {
+                assertResults(signer.signAll(signerInputs, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        @SneakyThrows
+        private void assertResults(final List<AwsSigV4SignerResult> results) {
+            assertThat(credentialsFetches).hasValue(1);
+            assertThat(results).hasSize(signerInputs.size());
+            for (int i = 0; i < results.size(); i++) {
+                var result = results.get(i);
+                assertThat(result.getInput()).isSameAs(signerInputs.get(i));
+                if (i == 17 || i == 42) {
+                    assertThat(result.getError()).isInstanceOf(PartnerGatewayInvalidInputException.class);
+                } else {
+                    assertThat(result.getOutput()).isEqualTo(signer.sign(signerInputs.get(i)));
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("the signAsync method,")
+    class SignAsyncMethod {
+
+        private AwsSigV4SignerInput signerInput;
+
+        private List<Runnable> executorTasks;
+
+        @BeforeEach
+        void beforeEach() {
+            signerInput = input(HttpMethodName.POST, ENDPOINT, RESOURCE_PATH, null, PAYLOAD);
+            executorTasks = new ArrayList<>();
+        }
+
+        @Test
+        @DisplayName("should complete inline with the output of sign, for static credentials.")
+        @SneakyThrows
+        void shouldCompleteInlineForStaticCredentials() {
+            var signer = signer(new AWSStaticCredentialsProvider(BASIC_CREDENTIALS));
+
+            var future = signer.signAsync(signerInput);
+
+            assertThat(future).isCompletedWithValue(signer.sign(signerInput));
+            assertThat(executorTasks).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should complete inline, for a non blocking provider with cached credentials.")
+        @SneakyThrows
+        void shouldCompleteInlineForCachedCredentials() {
+            var signer = signer(nonBlockingProvider(BASIC_CREDENTIALS));
+
+            var future = signer.signAsync(signerInput);
+
+            assertThat(future).isCompletedWithValue(signer.sign(signerInput));
+            assertThat(executorTasks).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should fetch credentials on the credentials executor, when they aren't cached.")
+        @SneakyThrows
+        void shouldFetchCredentialsOnExecutor() {
+            var signer = signer(nonBlockingProvider(null));
+
+            var future = signer.signAsync(signerInput);
+
+            assertThat(future).isNotDone();
+            assertThat(executorTasks).hasSize(1);
+            executorTasks.get(0).run();
+            assertThat(future).isCompletedWithValue(signer.sign(signerInput));
+        }
+
+        @Test
+        @DisplayName("should fail with the exception of the provider, when credentials can't be fetched.")
+        void shouldFailWithProviderException() {
+            var exception = new IllegalStateException("No credentials");
+            var signer = signer(new AWSCredentialsProvider() {
+                @Override
+                public AWSCredentials getCredentials() {
+                    throw exception;
+                }
+
+                @Override
+                public void refresh() {
+                }
+            });
+
+            var future = signer.signAsync(signerInput);
+            executorTasks.forEach(Runnable::run);
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCause(exception);
+        }
+
+        @Test
+        @DisplayName("should fail without fetching credentials, for an invalid input.")
+        void shouldFailForInvalidInput() {
+            var signer = signer(nonBlockingProvider(null));
+
+            var future = signer.signAsync(input(HttpMethodName.GET, "Invalid`URI", null, null, ""));
+
+            assertThat(future).isCompletedExceptionally();
+            assertThatThrownBy(future::join).hasCauseInstanceOf(PartnerGatewayInvalidInputException.class);
+            assertThat(executorTasks).isEmpty();
+        }
+
+        private NativeAwsSigV4Signer signer(final AWSCredentialsProvider credentialsProvider) {
+            return new NativeAwsSigV4Signer(credentialsProvider, Clock.fixed(SIGNING_TIME, ZoneOffset.UTC),
+                    executorTasks::add);
+        }
+
+        private NonBlockingCredentialsProvider nonBlockingProvider(final AWSCredentials cachedCredentials) {
+            return new NonBlockingCredentialsProvider() {
+                @Override
+                public AWSCredentials getCredentialsIfAvailable() {
+                    return cachedCredentials;
+                }
+
+                @Override
+                public AWSCredentials getCredentials() {
+                    return BASIC_CREDENTIALS;
+                }
+
+                @Override
+                public void refresh() {
+                }
+            };
+        }
+    }
+
+    static Stream<HttpMethodName> methods() {
+        return Arrays.stream(HttpMethodName.values());
+    }
+
+    static Stream<String> endpoints() {
+        return ENDPOINTS.stream();
+    }
+
+    static Stream<Arguments> resourcePaths() {
+        return RESOURCE_PATHS.stream().map(path -> Arguments.of(path));
+    }
+
+    static Stream<Arguments> headerMaps() {
+        return HEADER_MAPS.stream().map(headers -> Arguments.of(headers));
+    }
+
+    static Stream<String> payloads() {
+        return PAYLOADS.stream();
+    }
+
+    static Stream<Integer> templateHeaderCounts() {
+        return Stream.of(0, 1, 17, 35);
+    }
+
+    @SneakyThrows
+    private static DefaultRequest<String> payloadModeRequest(final String contentSha256) {
+        var request = new DefaultRequest<String>("s3");
+        request.setEndpoint(new URI("https://bucket.s3.us-east-1.amazonaws.com"));
+        request.setResourcePath("/key");
+        request.setHttpMethod(HttpMethodName.PUT);
+        request.addHeader("x-amz-content-sha256", contentSha256);
+        return request;
+    }
+
+    private static AWS4Signer payloadModeSigner(final AWS4Signer signer) {
+        signer.setServiceName("s3");
+        signer.setRegionName("us-east-1");
+        signer.setOverrideDate(Date.from(SIGNING_TIME));
+        return signer;
+    }
+
+    private static NativeAwsSigV4Signer payloadModeSigner(final AWSCredentials credentials) {
+        return new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(credentials),
+                Clock.fixed(SIGNING_TIME, ZoneOffset.UTC));
+    }
+
+    private static AwsSigV4SignerInput.AwsSigV4SignerInputBuilder payloadModeInput() {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint("https://bucket.s3.us-east-1.amazonaws.com")
+                .requestResourcePath("/key")
+                .requestMethod(HttpMethodName.PUT)
+                .serviceName("s3")
+                .regionName("us-east-1");
+    }
+
+    @SneakyThrows
+    static Stream<Arguments> requestBodies() {
+        var bytes = new byte[300_000];
+        new Random(42L).nextBytes(bytes);
+        var directBuffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        var file = Files.createTempFile("request-body", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, bytes);
+        return Stream.of(
+                Arguments.of("empty bytes", RequestBody.fromBytes(new byte[0]), new byte[0]),
+                Arguments.of("bytes", RequestBody.fromBytes(bytes), bytes),
+                Arguments.of("heap buffer", RequestBody.fromByteBuffer(ByteBuffer.wrap(bytes, 10, 1000)),
+                        Arrays.copyOfRange(bytes, 10, 1010)),
+                Arguments.of("direct buffer", RequestBody.fromByteBuffer(directBuffer), bytes),
+                Arguments.of("input stream", RequestBody.fromInputStream(new ByteArrayInputStream(bytes)), bytes),
+                Arguments.of("input stream supplier",
+                        RequestBody.fromInputStreamSupplier(() -> new ByteArrayInputStream(bytes)), bytes),
+                Arguments.of("file", RequestBody.fromFile(file), bytes));
+    }
+
+    private static void assertSameHeaders(final HttpMethodName method, final String endpoint,
+                                          final String resourcePath, final Map<String, String> headers,
+                                          final String payload, final AWSCredentials credentials) {
+        assertSameHeaders(method, endpoint, resourcePath, headers, payload, credentials, SIGNING_TIME);
+    }
+
+    @SneakyThrows
+    private static void assertSameHeaders(final HttpMethodName method, final String endpoint,
+                                          final String resourcePath, final Map<String, String> headers,
+                                          final String payload, final AWSCredentials credentials,
+                                          final Instant signingTime) {
+        var input = input(method, endpoint, resourcePath, headers, payload);
+
+        var expected = new DefaultRequest<String>(input.getServiceName());
+        expected.setEndpoint(new URI(endpoint));
+        Optional.ofNullable(resourcePath).ifPresent(expected::setResourcePath);
+        expected.setHttpMethod(method);
+        expected.setContent(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+        Optional.ofNullable(headers).ifPresent(expected::setHeaders);
+        var aws4Signer = new AWS4Signer();
+        aws4Signer.setServiceName(input.getServiceName());
+        aws4Signer.setRegionName(input.getRegionName());
+        aws4Signer.setOverrideDate(Date.from(signingTime));
+        aws4Signer.sign(expected, credentials);
+
+        var signer = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(credentials),
+                Clock.fixed(signingTime, ZoneOffset.UTC));
+        var actual = signer.sign(input).getRequestHeaderMap();
+
+        assertThat(new ArrayList<>(actual.entrySet()))
+                .as("%s %s %s %s", method, endpoint, resourcePath, headers)
+                .containsExactlyElementsOf(new ArrayList<>(expected.getHeaders().entrySet()));
+    }
+
+    private static AwsSigV4SignerInput input(final HttpMethodName method, final String endpoint,
+                                             final String resourcePath, final Map<String, String> headers,
+                                             final String payload) {
+        return input(method, endpoint, resourcePath, headers, payload, "execute-api");
+    }
+
+    private static AwsSigV4SignerInput input(final HttpMethodName method, final String endpoint,
+                                             final String resourcePath, final Map<String, String> headers,
+                                             final String payload, final String serviceName) {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(endpoint)
+                .requestResourcePath(resourcePath)
+                .requestPayload(payload)
+                .requestMethod(method)
+                .serviceName(serviceName)
+                .regionName("us-east-1")
+                .requestHeaderMap(headers)
+                .build();
+    }
+
+    private static Map<String, String> nullValueHeaders() {
+        var headers = new HashMap<String, String>();
+        headers.put("X-Null", null);
+        return headers;
+    }
+
+    private static String randomString(final Random random, final int minLength, final int maxLength,
+                                       final String alphabet) {
+        var pool = alphabet != null ? alphabet : "aZ09-_.~ /+%*?&=\tü€😀";
+        var length = minLength + random.nextInt(maxLength - minLength + 1);
+        var builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            var index = random.nextInt(pool.length());
+            var c = pool.charAt(index);
+            if (Character.isHighSurrogate(c)) {
+                builder.append(c).append(pool.charAt(index + 1));
+            } else if (!Character.isLowSurrogate(c)) {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
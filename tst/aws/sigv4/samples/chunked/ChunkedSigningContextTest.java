@@ -0,0 +1,115 @@
+package aws.sigv4.samples.chunked;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("For ChunkedSigningContext class,")
+class ChunkedSigningContextTest {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private static final String SEED_SIGNATURE = "4f232c4386841ef735655705268965c44a0e4690baa4adea153f7db9fa80a0a9";
+
+    @Nested
+    @DisplayName("the newChunkedOutputStream and newChunkedInputStream methods,")
+    class NewChunkedStreamMethods {
+
+        @ParameterizedTest(name = "[{index}] {0} bytes")
+        @DisplayName("should produce the same encoding, of the length declared in the headers.")
+        @ValueSource(ints = {0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE + 1, 5 * CHUNK_SIZE, 100_000})
+        @SneakyThrows
+        void shouldProduceSameEncoding(final int length) {
+            var body = new byte[length];
+            new Random(length).nextBytes(body);
+            var context = context(length);
+
+            var written = new ByteArrayOutputStream();
+            try (var out = context.newChunkedOutputStream(written)) {
+                // Mixes single byte and array writes, neither aligned with chunks.
+                var position = 0;
+                while (position < length) {
+                    if (position % 3 == 0) {
+                        out.write(body[position++]);
+                    } else {
+                        var count = Math.min(length - position, 1000);
+                        out.write(body, position, count);
+                        position += count;
+                    }
+                }
+            }
+            var read = context.newChunkedInputStream(new ByteArrayInputStream(body)).readAllBytes();
+
+            assertThat(read).isEqualTo(written.toByteArray());
+            assertThat((long) read.length).isEqualTo(AwsChunkedEncoding.encodedContentLength(length, CHUNK_SIZE));
+            assertThat(new String(read, StandardCharsets.US_ASCII))
+                    .endsWith("\r\n\r\n")
+                    .contains("0;chunk-signature=");
+        }
+
+        @Test
+        @DisplayName("should restart the signature chain for each stream.")
+        @SneakyThrows
+        void shouldRestartChain() {
+            var body = new byte[3 * CHUNK_SIZE];
+            var context = context(body.length);
+
+            var first = context.newChunkedInputStream(new ByteArrayInputStream(body)).readAllBytes();
+            var second = context.newChunkedInputStream(new ByteArrayInputStream(body)).readAllBytes();
+
+            assertThat(second).isEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("should throw IOException when writing more than the decoded content length.")
+        void shouldThrowForTooManyBytesWritten() {
+            var out = context(10).newChunkedOutputStream(new ByteArrayOutputStream());
+
+            assertThatThrownBy(() -> out.write(new byte[11]))
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Can't write more than the decoded content length of 10 bytes.");
+        }
+
+        @Test
+        @DisplayName("should throw IOException when closed before the decoded content length is written.")
+        @SneakyThrows
+        void shouldThrowForTooFewBytesWritten() {
+            var out = context(10).newChunkedOutputStream(new ByteArrayOutputStream());
+            out.write(new byte[9]);
+
+            assertThatThrownBy(out::close)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Wrote 9 bytes, but the decoded content length is 10.");
+        }
+
+        @ParameterizedTest(name = "[{index}] {0} bytes")
+        @DisplayName("should throw IOException when the source doesn't match the decoded content length.")
+        @ValueSource(ints = {9, 11, CHUNK_SIZE, 2 * CHUNK_SIZE + 1})
+        void shouldThrowForSourceLengthMismatch(final int sourceLength) {
+            var in = context(10).newChunkedInputStream(new ByteArrayInputStream(new byte[sourceLength]));
+
+            assertThatThrownBy(in::readAllBytes)
+                    .isInstanceOf(IOException.class)
+                    .hasMessage("Source doesn't match the decoded content length of 10 bytes.");
+        }
+    }
+
+    private static ChunkedSigningContext context(final long decodedContentLength) {
+        return new ChunkedSigningContext(Map.of(), new SecretKeySpec(new byte[32], "HmacSHA256"),
+                "20130524T000000Z", "20130524/us-east-1/s3/aws4_request", SEED_SIGNATURE, CHUNK_SIZE,
+                decodedContentLength);
+    }
+}
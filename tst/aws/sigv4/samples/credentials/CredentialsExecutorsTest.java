@@ -0,0 +1,52 @@
+package aws.sigv4.samples.credentials;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For CredentialsExecutors class,")
+class CredentialsExecutorsTest {
+
+    @Nested
+    @DisplayName("the getDefault method,")
+    class GetDefaultMethod {
+
+        @Test
+        @DisplayName("should return the same executor, running tasks off the calling thread.")
+        @SneakyThrows
+        void shouldReturnSharedExecutor() {
+            var executor = CredentialsExecutors.getDefault();
+
+            var thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(10, TimeUnit.SECONDS);
+
+            assertThat(CredentialsExecutors.getDefault()).isSameAs(executor);
+            assertThat(thread).isNotSameAs(Thread.currentThread());
+            assertThat(thread.isDaemon()).isTrue();
+        }
+    }
+
+    @Nested
+    @DisplayName("the newDaemonThreadPool method,")
+    class NewDaemonThreadPoolMethod {
+
+        @Test
+        @DisplayName("should run tasks on named daemon threads.")
+        @SneakyThrows
+        void shouldRunTasksOnDaemonThreads() {
+            var executor = CredentialsExecutors.newDaemonThreadPool(2);
+            try {
+                var thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(10, TimeUnit.SECONDS);
+
+                assertThat(thread.isDaemon()).isTrue();
+                assertThat(thread.getName()).startsWith("aws-credentials-fetch-");
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}
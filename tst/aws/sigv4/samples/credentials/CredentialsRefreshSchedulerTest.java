@@ -0,0 +1,163 @@
+package aws.sigv4.samples.credentials;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.amazonaws.auth.AWSCredentialsProvider;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@DisplayName("For CredentialsRefreshScheduler class,")
+@ExtendWith(MockitoExtension.class)
+class CredentialsRefreshSchedulerTest {
+
+    private static final Duration SESSION_DURATION = Duration.ofMinutes(15);
+
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(6);
+
+    private static final Duration JITTER = Duration.ofMinutes(3);
+
+    @Mock
+    private ScheduledExecutorService mockWorkers;
+
+    @Mock
+    private AWSCredentialsProvider mockCredentialsProvider;
+
+    @Captor
+    private ArgumentCaptor<Runnable> refreshTaskCaptor;
+
+    @Captor
+    private ArgumentCaptor<Long> delayCaptor;
+
+    private CredentialsRefreshScheduler scheduler;
+
+    @BeforeEach
+    void beforeEach() {
+        scheduler = new CredentialsRefreshScheduler(mockWorkers, SESSION_DURATION, REFRESH_AHEAD, JITTER);
+    }
+
+    @Test
+    @DisplayName("should throw IllegalArgumentException when refreshAhead and jitter don't fit within the session.")
+    void shouldRejectRefreshWindowLongerThanSession() {
+        assertThatThrownBy(() -> new CredentialsRefreshScheduler(mockWorkers, SESSION_DURATION, REFRESH_AHEAD,
+                Duration.ofMinutes(9)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("should return a shared default scheduler.")
+    void shouldReturnSharedDefault() {
+        assertThat(CredentialsRefreshScheduler.getDefault()).isSameAs(CredentialsRefreshScheduler.getDefault());
+    }
+
+    @Test
+    @DisplayName("should spread refresh delays over the jitter, ahead of the session expiry.")
+    void shouldSpreadRefreshDelays() {
+        var latest = SESSION_DURATION.minus(REFRESH_AHEAD).toMillis();
+        var earliest = latest - JITTER.toMillis();
+
+        var delays = new HashSet<Long>();
+        for (int i = 0; i < 100; i++) {
+            var delay = scheduler.nextRefreshDelayMillis();
+            assertThat(delay).isBetween(earliest, latest);
+            delays.add(delay);
+        }
+
+        assertThat(delays).hasSizeGreaterThan(1);
+    }
+
+    @Nested
+    @DisplayName("the register method,")
+    class RegisterMethod {
+
+        @Test
+        @DisplayName("should schedule a single refresh, however many times the provider is registered.")
+        void shouldScheduleRefreshOnce() {
+            scheduler.register(mockCredentialsProvider);
+            scheduler.register(mockCredentialsProvider);
+
+            verify(mockWorkers).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+            assertThat(scheduler.isRegistered(mockCredentialsProvider)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should refresh the provider and schedule its next refresh, when the refresh runs.")
+        void shouldRefreshAndReschedule() {
+            scheduler.register(mockCredentialsProvider);
+            verify(mockWorkers).schedule(refreshTaskCaptor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+            refreshTaskCaptor.getValue().run();
+
+            verify(mockCredentialsProvider).refresh();
+            verify(mockWorkers, times(2)).schedule(same(refreshTaskCaptor.getValue()), delayCaptor.capture(),
+                    eq(TimeUnit.MILLISECONDS));
+            assertThat(delayCaptor.getValue()).isGreaterThanOrEqualTo(
+                    SESSION_DURATION.minus(REFRESH_AHEAD).minus(JITTER).toMillis());
+        }
+
+        @Test
+        @DisplayName("should retry shortly, when the refresh fails.")
+        void shouldRetryFailedRefresh() {
+            doThrow(new IllegalStateException("throttled")).when(mockCredentialsProvider).refresh();
+            scheduler.register(mockCredentialsProvider);
+            verify(mockWorkers).schedule(refreshTaskCaptor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+            refreshTaskCaptor.getValue().run();
+
+            verify(mockWorkers, times(2)).schedule(same(refreshTaskCaptor.getValue()), delayCaptor.capture(),
+                    eq(TimeUnit.MILLISECONDS));
+            assertThat(delayCaptor.getValue()).isBetween(CredentialsRefreshScheduler.REFRESH_RETRY_DELAY.toMillis(),
+                    CredentialsRefreshScheduler.REFRESH_RETRY_DELAY.multipliedBy(2).toMillis());
+        }
+    }
+
+    @Nested
+    @DisplayName("the unregister method,")
+    class UnregisterMethod {
+
+        @Test
+        @DisplayName("should stop refreshing the provider.")
+        void shouldStopRefreshing() {
+            scheduler.register(mockCredentialsProvider);
+            verify(mockWorkers).schedule(refreshTaskCaptor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+
+            scheduler.unregister(mockCredentialsProvider);
+            refreshTaskCaptor.getValue().run();
+
+            assertThat(scheduler.isRegistered(mockCredentialsProvider)).isFalse();
+            verify(mockCredentialsProvider, never()).refresh();
+            verifyNoMoreInteractions(mockWorkers);
+        }
+
+        @Test
+        @DisplayName("should only keep the refresh of the latest registration, when the provider is registered again.")
+        void shouldIgnoreStaleRefreshAfterRegisteringAgain() {
+            scheduler.register(mockCredentialsProvider);
+            scheduler.unregister(mockCredentialsProvider);
+            scheduler.register(mockCredentialsProvider);
+            verify(mockWorkers, times(2)).schedule(refreshTaskCaptor.capture(), anyLong(),
+                    eq(TimeUnit.MILLISECONDS));
+
+            refreshTaskCaptor.getAllValues().get(0).run();
+            verify(mockCredentialsProvider, never()).refresh();
+
+            refreshTaskCaptor.getAllValues().get(1).run();
+            verify(mockCredentialsProvider).refresh();
+        }
+    }
+}
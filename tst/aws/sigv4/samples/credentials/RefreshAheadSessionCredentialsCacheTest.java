@@ -0,0 +1,367 @@
+package aws.sigv4.samples.credentials;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayConfigurationException;
+import com.amazonaws.services.securitytoken.model.Credentials;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.SneakyThrows;
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+@DisplayName("For RefreshAheadSessionCredentialsCache class,")
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RefreshAheadSessionCredentialsCacheTest {
+
+    private static final Duration REFRESH_AHEAD = Duration.ofMinutes(5);
+
+    private static final Duration MIN_REMAINING_VALIDITY = Duration.ofMinutes(1);
+
+    private static final Duration SESSION_DURATION = Duration.ofMinutes(15);
+
+    private EasyRandom easyRandom;
+
+    @Mock
+    private RefreshAheadSessionCredentialsCache.SessionCredentialsLoader mockLoader;
+
+    @Mock
+    private ScheduledExecutorService mockScheduler;
+
+    @Mock
+    private Executor mockLoaderExecutor;
+
+    @Mock
+    private Clock mockClock;
+
+    @Captor
+    private ArgumentCaptor<Runnable> refreshTaskCaptor;
+
+    @Captor
+    private ArgumentCaptor<Runnable> loadTaskCaptor;
+
+    private AtomicLong now;
+
+    private RefreshAheadSessionCredentialsCache cache;
+
+    @BeforeEach
+    void beforeEach() {
+        easyRandom = new EasyRandom();
+        now = new AtomicLong(System.currentTimeMillis());
+        when(mockClock.millis()).thenAnswer(invocation -> now.get());
+
+        cache = new RefreshAheadSessionCredentialsCache(mockLoader, mockScheduler, mockLoaderExecutor, mockClock,
+                REFRESH_AHEAD, MIN_REMAINING_VALIDITY);
+    }
+
+    /**
+     * Runs the last scheduled refresh, and the load it hands to the loader executor.
+     */
+    private void runScheduledRefresh() {
+        refreshTaskCaptor.getValue().run();
+        verify(mockLoaderExecutor, atLeastOnce()).execute(loadTaskCaptor.capture());
+        loadTaskCaptor.getValue().run();
+    }
+
+    private Credentials newSessionCredentials() {
+        return easyRandom.nextObject(Credentials.class)
+                .withExpiration(new Date(now.get() + SESSION_DURATION.toMillis()));
+    }
+
+    @Nested
+    @DisplayName("the getCredentials method,")
+    class GetCredentialsMethod {
+
+        @Nested
+        @DisplayName("with a cold cache,")
+        class WithColdCache {
+
+            @Test
+            @DisplayName("should load credentials and schedule a refresh ahead of expiry.")
+            @SneakyThrows
+            void shouldLoadAndScheduleRefresh() {
+                var sessionCredentials = newSessionCredentials();
+                when(mockLoader.load()).thenReturn(sessionCredentials);
+
+                var credentials = cache.getCredentials();
+
+                assertThat(credentials.getAWSAccessKeyId()).isEqualTo(sessionCredentials.getAccessKeyId());
+                assertThat(credentials.getAWSSecretKey()).isEqualTo(sessionCredentials.getSecretAccessKey());
+                assertThat(credentials.getSessionToken()).isEqualTo(sessionCredentials.getSessionToken());
+                verify(mockScheduler).schedule(any(Runnable.class),
+                        eq(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis()), eq(TimeUnit.MILLISECONDS));
+            }
+
+            @Test
+            @DisplayName("should propagate the loader exception.")
+            @SneakyThrows
+            void shouldPropagateLoaderException() {
+                var exception = new PartnerGatewayConfigurationException(easyRandom.nextObject(String.class));
+                when(mockLoader.load()).thenThrow(exception);
+
+                assertThatThrownBy(() -> cache.getCredentials()).isSameAs(exception);
+                verifyNoInteractions(mockScheduler);
+            }
+
+            @Test
+            @DisplayName("should not cache credentials which are about to expire.")
+            @SneakyThrows
+            void shouldNotCacheShortLivedCredentials() {
+                when(mockLoader.load()).thenReturn(easyRandom.nextObject(Credentials.class)
+                        .withExpiration(new Date(now.get() + MIN_REMAINING_VALIDITY.toMillis())));
+
+                cache.getCredentials();
+                cache.getCredentials();
+
+                verify(mockLoader, times(2)).load();
+            }
+
+            @Test
+            @DisplayName("should share a single load between concurrent callers.")
+            @SneakyThrows
+            void shouldShareSingleLoad() {
+                var loadStarted = new CountDownLatch(1);
+                var releaseLoad = new CountDownLatch(1);
+                var loadCount = new AtomicInteger();
+                var sessionCredentials = newSessionCredentials();
+                when(mockLoader.load()).thenAnswer(invocation -> {
+                    loadCount.incrementAndGet();
+                    loadStarted.countDown();
+                    releaseLoad.await();
+                    return sessionCredentials;
+                });
+
+                var callers = 16;
+                var executor = Executors.newFixedThreadPool(callers);
+                try {
+                    var results = new ArrayList<Future<String>>();
+                    for (int i = 0; i < callers; i++) {
+                        results.add(executor.submit(() -> cache.getCredentials().getAWSAccessKeyId()));
+                    }
+                    assertThat(loadStarted.await(10, TimeUnit.SECONDS)).isTrue();
+                    releaseLoad.countDown();
+
+                    for (var result : results) {
+                        assertThat(result.get(10, TimeUnit.SECONDS)).isEqualTo(sessionCredentials.getAccessKeyId());
+                    }
+                } finally {
+                    executor.shutdownNow();
+                }
+                assertThat(loadCount).hasValue(1);
+            }
+        }
+
+        @Nested
+        @DisplayName("with cached credentials,")
+        class WithCachedCredentials {
+
+            private Credentials cachedSessionCredentials;
+
+            @BeforeEach
+            @SneakyThrows
+            void beforeEach() {
+                cachedSessionCredentials = newSessionCredentials();
+                when(mockLoader.load()).thenReturn(cachedSessionCredentials);
+                cache.getCredentials();
+                verify(mockScheduler).schedule(refreshTaskCaptor.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+            }
+
+            @Test
+            @DisplayName("should reuse them until they're close to expiry.")
+            @SneakyThrows
+            void shouldReuseCredentials() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis() - 1);
+
+                var credentials = cache.getCredentials();
+
+                assertThat(credentials.getAWSAccessKeyId()).isEqualTo(cachedSessionCredentials.getAccessKeyId());
+                verify(mockLoader, times(1)).load();
+                verify(mockLoaderExecutor, never()).execute(any());
+            }
+
+            @Test
+            @DisplayName("should serve them and trigger a background refresh once inside the refresh window.")
+            @SneakyThrows
+            void shouldTriggerBackgroundRefresh() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+
+                var credentials = cache.getCredentials();
+                cache.getCredentials();
+
+                assertThat(credentials.getAWSAccessKeyId()).isEqualTo(cachedSessionCredentials.getAccessKeyId());
+                verify(mockLoader, times(1)).load();
+                verify(mockLoaderExecutor, times(1)).execute(any());
+            }
+
+            @Test
+            @DisplayName("should replace them when the scheduled refresh runs.")
+            @SneakyThrows
+            void shouldReplaceCredentialsOnRefresh() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+                cache.getCredentials();
+                var refreshedSessionCredentials = newSessionCredentials();
+                when(mockLoader.load()).thenReturn(refreshedSessionCredentials);
+
+                runScheduledRefresh();
+
+                assertThat(cache.getCredentials().getAWSAccessKeyId())
+                        .isEqualTo(refreshedSessionCredentials.getAccessKeyId());
+                verify(mockLoader, times(2)).load();
+            }
+
+            @Test
+            @DisplayName("should load on the loader executor rather than the scheduler, when the refresh is due.")
+            @SneakyThrows
+            void shouldLoadOnLoaderExecutor() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+                cache.getCachedCredentials();
+                clearInvocations(mockLoaderExecutor);
+
+                refreshTaskCaptor.getValue().run();
+
+                verify(mockLoader, times(1)).load();
+                verify(mockLoaderExecutor).execute(loadTaskCaptor.capture());
+
+                loadTaskCaptor.getValue().run();
+
+                verify(mockLoader, times(2)).load();
+            }
+
+            @Test
+            @DisplayName("should skip the scheduled refresh when they weren't used since the last load.")
+            @SneakyThrows
+            void shouldSkipRefreshWhenIdle() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+
+                runScheduledRefresh();
+
+                verify(mockLoader, times(1)).load();
+            }
+
+            @Test
+            @DisplayName("should keep serving them and retry when the refresh fails.")
+            @SneakyThrows
+            void shouldFallBackWhenRefreshFails() {
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+                cache.getCredentials();
+                when(mockLoader.load()).thenThrow(new PartnerGatewayConfigurationException(
+                        easyRandom.nextObject(String.class)));
+
+                runScheduledRefresh();
+
+                assertThat(cache.getCredentials().getAWSAccessKeyId())
+                        .isEqualTo(cachedSessionCredentials.getAccessKeyId());
+                verify(mockScheduler).schedule(any(Runnable.class),
+                        eq(RefreshAheadSessionCredentialsCache.REFRESH_RETRY_DELAY.toMillis()),
+                        eq(TimeUnit.MILLISECONDS));
+            }
+
+            @Test
+            @DisplayName("should attempt one refresh per retry delay while refreshes fail, however often called.")
+            @SneakyThrows
+            void shouldWaitRetryDelayBetweenFailedRefreshes() {
+                doAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(0).run();
+                    return null;
+                }).when(mockLoaderExecutor).execute(any());
+                now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+                when(mockLoader.load()).thenThrow(new PartnerGatewayConfigurationException(
+                        easyRandom.nextObject(String.class)));
+
+                for (int i = 0; i < 10; i++) {
+                    assertThat(cache.getCachedCredentials()).isNotNull();
+                    now.addAndGet(100L);
+                }
+
+                verify(mockLoader, times(2)).load();
+
+                now.addAndGet(RefreshAheadSessionCredentialsCache.REFRESH_RETRY_DELAY.toMillis());
+                for (int i = 0; i < 10; i++) {
+                    assertThat(cache.getCachedCredentials()).isNotNull();
+                }
+                refreshTaskCaptor.getValue().run();
+
+                verify(mockLoader, times(3)).load();
+            }
+
+            @Test
+            @DisplayName("should load new credentials once they're no longer usable.")
+            @SneakyThrows
+            void shouldLoadWhenExpired() {
+                now.addAndGet(SESSION_DURATION.minus(MIN_REMAINING_VALIDITY).toMillis());
+                var refreshedSessionCredentials = newSessionCredentials();
+                when(mockLoader.load()).thenReturn(refreshedSessionCredentials);
+
+                assertThat(cache.getCredentials().getAWSAccessKeyId())
+                        .isEqualTo(refreshedSessionCredentials.getAccessKeyId());
+                verify(mockLoader, times(2)).load();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("the getCachedCredentials method,")
+    class GetCachedCredentialsMethod {
+
+        @Test
+        @DisplayName("should return null without loading, with a cold cache.")
+        @SneakyThrows
+        void shouldReturnNullWhenCold() {
+            assertThat(cache.getCachedCredentials()).isNull();
+
+            verify(mockLoader, never()).load();
+        }
+
+        @Test
+        @DisplayName("should return them, and trigger a background refresh inside the refresh window.")
+        @SneakyThrows
+        void shouldReturnCachedCredentials() {
+            var cachedSessionCredentials = newSessionCredentials();
+            when(mockLoader.load()).thenReturn(cachedSessionCredentials);
+            cache.getCredentials();
+            now.addAndGet(SESSION_DURATION.minus(REFRESH_AHEAD).toMillis());
+
+            var credentials = cache.getCachedCredentials();
+
+            assertThat(credentials.getAWSAccessKeyId()).isEqualTo(cachedSessionCredentials.getAccessKeyId());
+            verify(mockLoader, times(1)).load();
+            verify(mockLoaderExecutor, times(1)).execute(any());
+        }
+
+        @Test
+        @DisplayName("should return null without loading, once the cached credentials are no longer usable.")
+        @SneakyThrows
+        void shouldReturnNullWhenExpired() {
+            when(mockLoader.load()).thenReturn(newSessionCredentials());
+            cache.getCredentials();
+            now.addAndGet(SESSION_DURATION.minus(MIN_REMAINING_VALIDITY).toMillis());
+
+            assertThat(cache.getCachedCredentials()).isNull();
+
+            verify(mockLoader, times(1)).load();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package aws.sigv4.samples.eventstream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import aws.sigv4.samples.NativeAwsSigV4Signer;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.SignedHeaders;
+import aws.sigv4.samples.signing.SigV4SigningEngine;
+import aws.sigv4.samples.signing.SigningKeyCache;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For EventStreamFrameSigner class,")
+class EventStreamFrameSignerTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final AWSCredentials CREDENTIALS =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private static final String SCOPE = "20240229/us-east-1/transcribe/aws4_request";
+
+    private final Clock clock = Clock.fixed(SIGNING_TIME, ZoneOffset.UTC);
+
+    private AwsSigV4SignerOutput seedRequest;
+
+    @BeforeEach
+    @SneakyThrows
+    void beforeEach() {
+        seedRequest = new NativeAwsSigV4Signer(new AWSStaticCredentialsProvider(CREDENTIALS), clock)
+                .sign(AwsSigV4SignerInput.builder()
+                        .requestEndpoint("https://transcribestreaming.us-east-1.amazonaws.com")
+                        .requestResourcePath("/stream-transcription")
+                        .requestMethod(HttpMethodName.POST)
+                        .requestPayloadSha256(SigV4SigningEngine.STREAMING_EVENTS_PAYLOAD)
+                        .serviceName("transcribe")
+                        .regionName("us-east-1")
+                        .build());
+    }
+
+    @Nested
+    @DisplayName("the create method,")
+    class CreateMethod {
+
+        @Test
+        @DisplayName("should start the signature chain from the signature of the seed request.")
+        @SneakyThrows
+        void shouldStartFromSeedSignature() {
+            var signer = EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock);
+
+            assertThat(seedRequest.getRequestHeaderMap())
+                    .containsEntry("x-amz-content-sha256", "STREAMING-AWS4-HMAC-SHA256-EVENTS");
+            assertThat(seedRequest.getRequestHeaderMap().get("Authorization"))
+                    .endsWith("Signature=" + signer.getPriorSignature());
+        }
+
+        @Test
+        @DisplayName("should accept the headers returned by signHeaders.")
+        @SneakyThrows
+        void shouldAcceptSignedHeaders() {
+            var signer = EventStreamFrameSigner.create(SignedHeaders.from(seedRequest.getRequestHeaderMap()),
+                    CREDENTIALS, clock);
+
+            assertThat(seedRequest.getRequestHeaderMap().get("Authorization"))
+                    .endsWith("Signature=" + signer.getPriorSignature());
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a seed request without Authorization.")
+        void shouldThrowForUnsignedSeedRequest() {
+            var unsigned = AwsSigV4SignerOutput.builder().requestHeaderMap(Map.of("Host", "example.com")).build();
+
+            assertThatThrownBy(() -> EventStreamFrameSigner.create(unsigned, CREDENTIALS, clock))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Seed request has no valid AWS4-HMAC-SHA256 Authorization header.");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for other credentials than the seed request's.")
+        void shouldThrowForOtherCredentials() {
+            var otherCredentials = new BasicAWSCredentials("AKIDOTHER", "secret");
+
+            assertThatThrownBy(() -> EventStreamFrameSigner.create(seedRequest, otherCredentials, clock))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Seed request wasn't signed with the credentials of access key id AKIDOTHER.");
+        }
+    }
+
+    @Nested
+    @DisplayName("the sign method,")
+    class SignMethod {
+
+        @Test
+        @DisplayName("should encode an event-stream message with valid lengths and checksums.")
+        @SneakyThrows
+        void shouldEncodeMessage() {
+            var payload = "audio event".getBytes(StandardCharsets.UTF_8);
+
+            var frame = ByteBuffer.wrap(EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock).sign(payload));
+
+            assertThat(frame.capacity()).isEqualTo(EventStreamFrameSigner.frameLength(payload.length));
+            assertThat(frame.getInt(0)).isEqualTo(frame.capacity());
+            var headersLength = frame.getInt(4);
+            assertThat(frame.getInt(8)).isEqualTo((int) crc32(frame.array(), 0, 8));
+            assertThat(frame.getInt(frame.capacity() - 4)).isEqualTo((int) crc32(frame.array(), 0,
+                    frame.capacity() - 4));
+            assertThat(Arrays.copyOfRange(frame.array(), 12 + headersLength, frame.capacity() - 4))
+                    .isEqualTo(payload);
+
+            var headers = frame.position(12);
+            assertThat(readName(headers)).isEqualTo(":date");
+            assertThat(headers.get()).isEqualTo(EventStreamFrameSigner.TIMESTAMP_TYPE);
+            assertThat(headers.getLong()).isEqualTo(SIGNING_TIME.toEpochMilli());
+            assertThat(readName(headers)).isEqualTo(":chunk-signature");
+            assertThat(headers.get()).isEqualTo(EventStreamFrameSigner.BYTE_ARRAY_TYPE);
+            assertThat(headers.getShort()).isEqualTo((short) 32);
+            assertThat(headers.position() + 32).isEqualTo(12 + headersLength);
+        }
+
+        @Test
+        @DisplayName("should chain each frame's signature to the previous one, from the seed signature.")
+        @SneakyThrows
+        void shouldChainSignatures() {
+            var signer = EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock);
+            var priorSignature = signer.getPriorSignature();
+
+            for (var event : new String[] {"first", "second", ""}) {
+                var payload = event.getBytes(StandardCharsets.UTF_8);
+                var frame = event.isEmpty() ? signer.signEnd() : signer.sign(payload);
+
+                var expected = expectedSignature(priorSignature, payload);
+                assertThat(BinaryUtils.toHex(Arrays.copyOfRange(frame, 12 + 15 + 20, 12 + 15 + 20 + 32)))
+                        .isEqualTo(expected);
+                assertThat(signer.getPriorSignature()).isEqualTo(expected);
+                priorSignature = expected;
+            }
+        }
+
+        @Test
+        @DisplayName("should write the same frame into a buffer, as it returns.")
+        @SneakyThrows
+        void shouldWriteIntoBuffer() {
+            var payload = new byte[1000];
+            Arrays.fill(payload, (byte) 7);
+            var expected = EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock).sign(payload, 100, 500);
+
+            var buffer = new byte[expected.length + 10];
+            var length = EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock)
+                    .sign(payload, 100, 500, buffer, 10);
+
+            assertThat(length).isEqualTo(expected.length);
+            assertThat(Arrays.copyOfRange(buffer, 10, buffer.length)).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("should throw IndexOutOfBoundsException for a frame not fitting in the buffer.")
+        @SneakyThrows
+        void shouldThrowForSmallBuffer() {
+            var signer = EventStreamFrameSigner.create(seedRequest, CREDENTIALS, clock);
+            var buffer = new byte[EventStreamFrameSigner.frameLength(10) - 1];
+
+            assertThatThrownBy(() -> signer.sign(new byte[10], 0, 10, buffer, 0))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @SneakyThrows
+    private static String expectedSignature(final String priorSignature, final byte[] payload) {
+        var dateHeader = ByteBuffer.allocate(15).put((byte) 5).put(":date".getBytes(StandardCharsets.US_ASCII))
+                .put((byte) 8).putLong(SIGNING_TIME.toEpochMilli()).array();
+        var stringToSign = "AWS4-HMAC-SHA256-PAYLOAD\n20240229T235959Z\n" + SCOPE + "\n" + priorSignature + "\n"
+                + sha256Hex(dateHeader) + "\n" + sha256Hex(payload);
+        var signingKey = new SigningKeyCache(1).getSigningKey(CREDENTIALS, "20240229", "us-east-1", "transcribe");
+        var hmac = Mac.getInstance("HmacSHA256");
+        hmac.init(new SecretKeySpec(signingKey, "HmacSHA256"));
+        return BinaryUtils.toHex(hmac.doFinal(stringToSign.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @SneakyThrows
+    private static String sha256Hex(final byte[] bytes) {
+        return BinaryUtils.toHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private static long crc32(final byte[] bytes, final int offset, final int length) {
+        var crc32 = new CRC32();
+        crc32.update(bytes, offset, length);
+        return crc32.getValue();
+    }
+
+    private static String readName(final ByteBuffer headers) {
+        var name = new byte[headers.get()];
+        headers.get(name);
+        return new String(name, StandardCharsets.US_ASCII);
+    }
+}
@@ -1,12 +1,50 @@
 package aws.sigv4.samples.factory;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import aws.sigv4.samples.AwsSigV4Signer;
+import aws.sigv4.samples.credentials.CredentialsRefreshScheduler;
+import aws.sigv4.samples.models.RoleChain;
+import aws.sigv4.samples.models.RoleChainHop;
+import aws.sigv4.samples.models.WarmUpTarget;
 import com.amazon.lombok.verifiers.Verifier;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.auth.AWSSessionCredentials;
 import com.amazonaws.auth.AWSSessionCredentialsProvider;
+import com.amazonaws.auth.BasicSessionCredentials;
 import com.amazonaws.auth.STSAssumeRoleSessionCredentialsProvider;
+import com.amazonaws.services.securitytoken.AWSSecurityTokenService;
 import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import lombok.SneakyThrows;
 import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -56,28 +94,450 @@ public class RoleChainBasedAwsSigV4SignerFactoryTest {
         @Test
         @DisplayName("should call getAwsSigV4Signer with default role return result.")
         void shouldCallGetAwsSigV4SignerAndReturnResultUsingDefaultRole() {
-            awsSigV4SignerFactory.getAwsSigV4Signer(null, region);
+            loadOnMiss();
+
+            assertThat(awsSigV4SignerFactory.getAwsSigV4Signer(null, region)).isNotNull();
         }
 
         @Test
         @DisplayName("should call getAwsSigV4Signer with provided role return result.")
         void shouldCalGetAwsSigV4SignerAndReturnResultUsingProvidedRole() {
-            awsSigV4SignerFactory.getAwsSigV4Signer(easyRandom.nextObject(String.class), region);
+            String partnerIamRole = easyRandom.nextObject(String.class);
+            loadOnMiss();
+
+            assertThat(awsSigV4SignerFactory.getAwsSigV4Signer(partnerIamRole, region)).isNotNull();
         }
 
         @Test
         @DisplayName("should call getAwsSigV4Signer with provided role and cache hit return result.")
         void shouldCalGetAwsSigV4SignerAndReturnResultUsingProvidedRoleWithCacheHit() {
             String partnerIamRole = easyRandom.nextObject(String.class);
-            when(credentialProviderCache.getIfPresent(partnerIamRole)).thenReturn(credentialsProvider);
-            awsSigV4SignerFactory.getAwsSigV4Signer(partnerIamRole, region);
+            when(credentialProviderCache.getIfPresent(endsWith(partnerIamRole + "#" + partnerAssumeRoleSessionName)))
+                    .thenReturn(credentialsProvider);
+
+            assertThat(awsSigV4SignerFactory.getAwsSigV4Signer(partnerIamRole, region)).isNotNull();
         }
 
         @Test
         @DisplayName("should call getAwsSigV4Signer with default role and cache hit return result.")
         void shouldCalGetAwsSigV4SignerAndReturnResultUsingDefaultRoleWithCacheHit() {
-            when(credentialProviderCache.getIfPresent(defaultAssumeClientRole)).thenReturn(credentialsProvider);
-            awsSigV4SignerFactory.getAwsSigV4Signer(null, region);
+            when(credentialProviderCache.getIfPresent(defaultAssumeClientRole + "#" + defaultAssumeRoleSessionName))
+                    .thenReturn(credentialsProvider);
+
+            assertThat(awsSigV4SignerFactory.getAwsSigV4Signer(null, region)).isNotNull();
+        }
+
+        private void loadOnMiss() {
+            when(credentialProviderCache.get(anyString(), any())).thenAnswer(invocation -> invocation
+                    .<Function<String, AWSSessionCredentialsProvider>>getArgument(1).apply(invocation.getArgument(0)));
+        }
+    }
+
+    @Nested
+    @DisplayName("the getAwsSigV4Signer method, with concurrent cache misses")
+    class GetAwsSigV4SignerConcurrently {
+
+        private static final int THREADS = 32;
+
+        private AtomicInteger providerCreations;
+
+        private CountDownLatch allThreadsStarted;
+
+        private RoleChainBasedAwsSigV4SignerFactory concurrentFactory;
+
+        @BeforeEach
+        void beforeEach() {
+            providerCreations = new AtomicInteger();
+            allThreadsStarted = new CountDownLatch(THREADS);
+            concurrentFactory = new RoleChainBasedAwsSigV4SignerFactory(defaultAssumeClientRole,
+                    Caffeine.newBuilder().build(), defaultAssumeRoleSessionName, partnerAssumeRoleSessionName) {
+                @Override
+                @SneakyThrows
+                STSAssumeRoleSessionCredentialsProvider newCredentialsProvider(final RoleChainHop hop,
+                        final STSAssumeRoleSessionCredentialsProvider.Builder builder) {
+                    providerCreations.incrementAndGet();
+                    // Hold the load until every thread has started, so they all miss while it's in flight.
+                    allThreadsStarted.await(10, TimeUnit.SECONDS);
+                    Thread.sleep(50L);
+                    return super.newCredentialsProvider(hop, builder);
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("should create the default role provider exactly once.")
+        void shouldCreateDefaultRoleProviderOnce() {
+            getConcurrently(null);
+
+            assertThat(providerCreations).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("should create the partner role provider and its first level provider exactly once.")
+        void shouldCreatePartnerRoleProviderOnce() {
+            getConcurrently(easyRandom.nextObject(String.class));
+
+            assertThat(providerCreations).hasValue(2);
+        }
+
+        @SneakyThrows
+        private void getConcurrently(final String partnerIamRole) {
+            var executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                var futures = new ArrayList<Future<AwsSigV4Signer>>();
+                for (int i = 0; i < THREADS; i++) {
+                    futures.add(executor.submit(() -> {
+                        allThreadsStarted.countDown();
+                        return concurrentFactory.getAwsSigV4Signer(partnerIamRole, "us-east-1");
+                    }));
+                }
+                for (var future : futures) {
+                    assertThat(future.get(30, TimeUnit.SECONDS)).isNotNull();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("the getAwsSigV4Signer method, with a role chain")
+    class GetAwsSigV4SignerWithRoleChain {
+
+        private AtomicInteger providerCreations;
+
+        private AtomicInteger stsClientCreations;
+
+        private RoleChainBasedAwsSigV4SignerFactory chainFactory;
+
+        private RoleChainHop hubHop;
+
+        private Cache<String, AWSSessionCredentialsProvider> chainCache;
+
+        private List<WeakReference<AWSSessionCredentialsProvider>> stsClientProviders;
+
+        private List<AWSSecurityTokenService> createdStsClients;
+
+        @BeforeEach
+        void beforeEach() {
+            hubHop = hop("hub");
+            chainFactory = newChainFactory(Caffeine.newBuilder().build());
+        }
+
+        private RoleChainBasedAwsSigV4SignerFactory newChainFactory(
+                final Cache<String, AWSSessionCredentialsProvider> cache) {
+            providerCreations = new AtomicInteger();
+            stsClientCreations = new AtomicInteger();
+            chainCache = cache;
+            stsClientProviders = new ArrayList<>();
+            createdStsClients = new ArrayList<>();
+            return new RoleChainBasedAwsSigV4SignerFactory(defaultAssumeClientRole,
+                    chainCache, defaultAssumeRoleSessionName, partnerAssumeRoleSessionName) {
+                @Override
+                STSAssumeRoleSessionCredentialsProvider newCredentialsProvider(final RoleChainHop hop,
+                        final STSAssumeRoleSessionCredentialsProvider.Builder builder) {
+                    providerCreations.incrementAndGet();
+                    return super.newCredentialsProvider(hop, builder);
+                }
+
+                @Override
+                AWSSecurityTokenService newStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                                                     final String region) {
+                    stsClientCreations.incrementAndGet();
+                    // Held weakly, so the test can check whether the factory still references the provider.
+                    stsClientProviders.add(new WeakReference<>(credentialsProvider));
+                    var stsClient = mock(AWSSecurityTokenService.class);
+                    createdStsClients.add(stsClient);
+                    return stsClient;
+                }
+            };
+        }
+
+        @Test
+        @DisplayName("should share the hub provider and STS client between partner roles chained through it.")
+        void shouldShareIntermediateHops() {
+            for (int i = 0; i < 3; i++) {
+                chainFactory.getAwsSigV4Signer(chain(hubHop, hop("partner-" + i)), "us-east-1");
+            }
+
+            assertThat(providerCreations).hasValue(4);
+            assertThat(stsClientCreations).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("should assume every hop of a deeper chain once, and only the new hop of a chain sharing them.")
+        void shouldSupportDeeperChains() {
+            var middleHop = hop("middle");
+            chainFactory.getAwsSigV4Signer(chain(hubHop, middleHop, hop("partner")), "us-east-1");
+            chainFactory.getAwsSigV4Signer(chain(hubHop, middleHop, hop("partner")), "us-east-1");
+
+            assertThat(providerCreations).hasValue(3);
+            assertThat(stsClientCreations).hasValue(2);
+
+            chainFactory.getAwsSigV4Signer(chain(hubHop, middleHop, hop("other-partner")), "us-east-1");
+
+            assertThat(providerCreations).hasValue(4);
+            assertThat(stsClientCreations).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("should use one STS client per region, with a shared hub provider.")
+        void shouldUseStsClientPerRegion() {
+            chainFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+            chainFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "eu-west-1");
+
+            assertThat(providerCreations).hasValue(3);
+            assertThat(stsClientCreations).hasValue(2);
+        }
+
+        @Test
+        @DisplayName("should assume chains through a new STS client, and release the hub provider, once the hub is "
+                + "evicted.")
+        @SneakyThrows
+        void shouldReleaseEvictedHub() {
+            var hubKey = hubHop.getRoleArn() + "#" + hubHop.getSessionName();
+            var partnerKey = hubKey + "@us-east-1 > arn:aws:iam::123456789012:role/partner#partner-session";
+            chainFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+            var evictedHub = new WeakReference<>(chainCache.getIfPresent(hubKey));
+
+            chainCache.invalidate(hubKey);
+            chainFactory.getAwsSigV4Signer(chain(hubHop, hop("other-partner")), "us-east-1");
+
+            assertThat(stsClientCreations).hasValue(2);
+            assertThat(stsClientProviders.get(1).get()).isSameAs(chainCache.getIfPresent(hubKey))
+                    .isNotSameAs(evictedHub.get());
+            assertThat(chainCache.getIfPresent(partnerKey)).isNull();
+            verify(createdStsClients.get(0)).shutdown();
+            verify(createdStsClients.get(1), never()).shutdown();
+
+            for (int i = 0; i < 50 && evictedHub.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20L);
+            }
+            assertThat(evictedHub.get()).isNull();
+
+            chainFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+
+            assertThat(stsClientCreations).hasValue(2);
+            assertThat(providerCreations).hasValue(5);
+        }
+
+        @Test
+        @DisplayName("should assume a chain through the hub's new provider, when the hub is loaded again after it was "
+                + "read.")
+        @SuppressWarnings("unchecked")
+        void shouldNotInstallStsClientOfReplacedHub() {
+            var hubKey = hubHop.getRoleArn() + "#" + hubHop.getSessionName();
+            var realCache = Caffeine.newBuilder().<String, AWSSessionCredentialsProvider>build();
+            Cache<String, AWSSessionCredentialsProvider> racingCache = mock(Cache.class, delegatesTo(realCache));
+            var racingFactory = newChainFactory(racingCache);
+            var reloadedHub = new AtomicBoolean();
+            doAnswer(invocation -> {
+                var staleHub = realCache.get(hubKey, invocation.getArgument(1));
+                // Another thread evicts and loads the hub again after this one read it.
+                if (reloadedHub.compareAndSet(false, true)) {
+                    realCache.invalidate(hubKey);
+                    racingFactory.getAwsSigV4Signer(chain(hubHop, hop("other-partner")), "us-east-1");
+                }
+                return staleHub;
+            }).when(racingCache).get(eq(hubKey), any());
+
+            racingFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+
+            assertThat(stsClientCreations).hasValue(1);
+            assertThat(stsClientProviders.get(0).get()).isSameAs(realCache.getIfPresent(hubKey));
+            verify(createdStsClients.get(0), never()).shutdown();
+        }
+
+        @Test
+        @DisplayName("should register every created provider for background refreshes.")
+        void shouldRegisterProvidersForRefresh() {
+            var refreshScheduler = mock(CredentialsRefreshScheduler.class);
+            var refreshingFactory = new RoleChainBasedAwsSigV4SignerFactory(defaultAssumeClientRole,
+                    Caffeine.newBuilder().build(), defaultAssumeRoleSessionName, partnerAssumeRoleSessionName,
+                    refreshScheduler) {
+                @Override
+                AWSSecurityTokenService newStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                                                     final String region) {
+                    return mock(AWSSecurityTokenService.class);
+                }
+            };
+
+            refreshingFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+            refreshingFactory.getAwsSigV4Signer(chain(hubHop, hop("partner")), "us-east-1");
+
+            verify(refreshScheduler, times(2)).register(any(STSAssumeRoleSessionCredentialsProvider.class));
+        }
+
+        @Test
+        @DisplayName("should throw IllegalArgumentException for a chain without hops.")
+        void shouldRejectEmptyChain() {
+            assertThatThrownBy(() -> chainFactory.getAwsSigV4Signer(RoleChain.builder().build(), "us-east-1"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        private RoleChain chain(final RoleChainHop... hops) {
+            return RoleChain.builder().hops(List.of(hops)).build();
+        }
+
+        private RoleChainHop hop(final String name) {
+            return RoleChainHop.builder()
+                    .roleArn("arn:aws:iam::123456789012:role/" + name)
+                    .sessionName(name + "-session")
+                    .build();
+        }
+    }
+
+    @Nested
+    @DisplayName("the warmUp method")
+    class WarmUp {
+
+        private static final String FAILING_ROLE = "arn:aws:iam::123456789012:role/failing";
+
+        private static final String SLOW_ROLE = "arn:aws:iam::123456789012:role/slow";
+
+        private Map<String, AtomicInteger> fetchesByRole;
+
+        private AtomicInteger fetchesInFlight;
+
+        private AtomicInteger maxFetchesInFlight;
+
+        private CountDownLatch slowFetchReleased;
+
+        private CountDownLatch slowFetchCompleted;
+
+        private RoleChainBasedAwsSigV4SignerFactory warmingFactory;
+
+        @BeforeEach
+        void beforeEach() {
+            fetchesByRole = new ConcurrentHashMap<>();
+            fetchesInFlight = new AtomicInteger();
+            maxFetchesInFlight = new AtomicInteger();
+            slowFetchReleased = new CountDownLatch(1);
+            slowFetchCompleted = new CountDownLatch(1);
+            warmingFactory = new RoleChainBasedAwsSigV4SignerFactory(defaultAssumeClientRole,
+                    Caffeine.newBuilder().build(), defaultAssumeRoleSessionName, partnerAssumeRoleSessionName) {
+                @Override
+                STSAssumeRoleSessionCredentialsProvider newCredentialsProvider(final RoleChainHop hop,
+                        final STSAssumeRoleSessionCredentialsProvider.Builder builder) {
+                    return mock(STSAssumeRoleSessionCredentialsProvider.class, invocation -> fetch(hop));
+                }
+
+                @Override
+                AWSSecurityTokenService newStsClient(final AWSSessionCredentialsProvider credentialsProvider,
+                                                     final String region) {
+                    return mock(AWSSecurityTokenService.class);
+                }
+            };
+        }
+
+        @AfterEach
+        void afterEach() {
+            slowFetchReleased.countDown();
+        }
+
+        @Test
+        @DisplayName("should fetch the credentials of every distinct target once, and cache them.")
+        void shouldWarmDistinctTargets() throws InterruptedException {
+            var defaultTarget = target(null);
+            var partnerTarget = target("arn:aws:iam::123456789012:role/partner");
+            var otherPartnerTarget = target("arn:aws:iam::123456789012:role/other-partner");
+
+            var report = warmingFactory.warmUp(List.of(defaultTarget, partnerTarget, otherPartnerTarget,
+                    partnerTarget), 4, Duration.ofSeconds(10));
+
+            assertThat(report.isSuccessful()).isTrue();
+            assertThat(report.getWarmedTargets()).containsExactly(defaultTarget, partnerTarget, otherPartnerTarget);
+            assertThat(fetchesByRole).containsOnlyKeys(defaultAssumeClientRole, partnerTarget.getRoleArn(),
+                    otherPartnerTarget.getRoleArn());
+            assertThat(fetchesByRole.values()).allSatisfy(fetches -> assertThat(fetches).hasValue(1));
+
+            assertThat(warmingFactory.getAwsSigV4Signer(partnerTarget.getRoleArn(), "us-east-1")).isNotNull();
+            assertThat(fetchesByRole.get(partnerTarget.getRoleArn())).hasValue(1);
+        }
+
+        @Test
+        @DisplayName("should report the targets which failed, and warm the others.")
+        void shouldReportFailedTargets() throws InterruptedException {
+            var partnerTarget = target("arn:aws:iam::123456789012:role/partner");
+            var failingTarget = target(FAILING_ROLE);
+
+            var report = warmingFactory.warmUp(List.of(partnerTarget, failingTarget), 2, Duration.ofSeconds(10));
+
+            assertThat(report.isSuccessful()).isFalse();
+            assertThat(report.getWarmedTargets()).containsExactly(partnerTarget);
+            assertThat(report.getFailedTargets()).containsOnlyKeys(failingTarget);
+            assertThat(report.getFailedTargets().get(failingTarget)).isInstanceOf(SdkClientException.class);
+        }
+
+        @Test
+        @DisplayName("should report the targets not warmed before the deadline as timed out, and keep fetching them.")
+        void shouldReportTimedOutTargets() throws InterruptedException {
+            var partnerTarget = target("arn:aws:iam::123456789012:role/partner");
+            var slowTarget = target(SLOW_ROLE);
+
+            var report = warmingFactory.warmUp(List.of(partnerTarget, slowTarget), 2, Duration.ofMillis(200));
+
+            assertThat(report.getWarmedTargets()).containsExactly(partnerTarget);
+            assertThat(report.getFailedTargets()).containsOnlyKeys(slowTarget);
+            assertThat(report.getFailedTargets().get(slowTarget)).isInstanceOf(TimeoutException.class);
+
+            slowFetchReleased.countDown();
+            assertThat(slowFetchCompleted.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        @Test
+        @DisplayName("should fetch at most maxConcurrency credentials at a time.")
+        void shouldBoundConcurrency() throws InterruptedException {
+            var targets = new ArrayList<WarmUpTarget>();
+            for (int i = 0; i < 8; i++) {
+                targets.add(target("arn:aws:iam::123456789012:role/partner-" + i));
+            }
+
+            var report = warmingFactory.warmUp(targets, 2, Duration.ofSeconds(10));
+
+            assertThat(report.isSuccessful()).isTrue();
+            assertThat(maxFetchesInFlight.get()).isBetween(1, 2);
+        }
+
+        @Test
+        @DisplayName("should return an empty successful report, without targets.")
+        void shouldWarmNothingWithoutTargets() throws InterruptedException {
+            var report = warmingFactory.warmUp(List.of(), 2, Duration.ofSeconds(10));
+
+            assertThat(report.isSuccessful()).isTrue();
+            assertThat(report.getWarmedTargets()).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should throw IllegalArgumentException for a maxConcurrency lower than 1.")
+        void shouldRejectInvalidMaxConcurrency() {
+            assertThatThrownBy(() -> warmingFactory.warmUp(List.of(target(null)), 0, Duration.ofSeconds(10)))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        private WarmUpTarget target(final String roleArn) {
+            return WarmUpTarget.builder().roleArn(roleArn).region("us-east-1").build();
+        }
+
+        @SneakyThrows
+        private AWSSessionCredentials fetch(final RoleChainHop hop) {
+            var inFlight = fetchesInFlight.incrementAndGet();
+            maxFetchesInFlight.accumulateAndGet(inFlight, Math::max);
+            try {
+                fetchesByRole.computeIfAbsent(hop.getRoleArn(), role -> new AtomicInteger()).incrementAndGet();
+                if (FAILING_ROLE.equals(hop.getRoleArn())) {
+                    throw new SdkClientException("AssumeRole failed.");
+                }
+                if (SLOW_ROLE.equals(hop.getRoleArn())) {
+                    slowFetchReleased.await(10, TimeUnit.SECONDS);
+                    slowFetchCompleted.countDown();
+                }
+                Thread.sleep(20L);
+                return new BasicSessionCredentials("AKIDEXAMPLE", "secret", "token");
+            } finally {
+                fetchesInFlight.decrementAndGet();
+            }
         }
     }
 }
@@ -0,0 +1,77 @@
+package aws.sigv4.samples.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For MicrometerSignerMetrics class,")
+class MicrometerSignerMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private MicrometerSignerMetrics metrics;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerSignerMetrics(registry);
+    }
+
+    @Test
+    @DisplayName("should record phase durations in a timer per phase.")
+    void shouldRecordPhases() {
+        metrics.recordPhase(SignerMetrics.Phase.HASH_PAYLOAD, TimeUnit.MILLISECONDS.toNanos(3));
+        metrics.recordPhase(SignerMetrics.Phase.HASH_PAYLOAD, TimeUnit.MILLISECONDS.toNanos(5));
+
+        var timer = registry.get(MicrometerSignerMetrics.PHASE_TIMER).tag("phase", "hash_payload").timer();
+        assertThat(timer.count()).isEqualTo(2L);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(8.0);
+        assertThat(registry.get(MicrometerSignerMetrics.PHASE_TIMER).tag("phase", "sign").timer().count()).isZero();
+    }
+
+    @Test
+    @DisplayName("should record STS calls by outcome.")
+    void shouldRecordStsCalls() {
+        metrics.recordStsCall(TimeUnit.MILLISECONDS.toNanos(40), true);
+        metrics.recordStsCall(TimeUnit.MILLISECONDS.toNanos(50), false);
+        metrics.recordStsCall(TimeUnit.MILLISECONDS.toNanos(60), false);
+
+        assertThat(registry.get(MicrometerSignerMetrics.STS_CALL_TIMER).tag("outcome", "success").timer().count())
+                .isEqualTo(1L);
+        assertThat(registry.get(MicrometerSignerMetrics.STS_CALL_TIMER).tag("outcome", "error").timer().count())
+                .isEqualTo(2L);
+    }
+
+    @Test
+    @DisplayName("should record payload sizes in a distribution summary.")
+    void shouldRecordPayloadSizes() {
+        metrics.recordPayloadSize(0L);
+        metrics.recordPayloadSize(1024L);
+
+        var summary = registry.get(MicrometerSignerMetrics.PAYLOAD_SIZE_SUMMARY).summary();
+        assertThat(summary.count()).isEqualTo(2L);
+        assertThat(summary.max()).isEqualTo(1024.0);
+    }
+
+    @Test
+    @DisplayName("should report the hit, miss and eviction statistics of a monitored cache.")
+    void shouldMonitorCache() {
+        var cache = Caffeine.newBuilder().recordStats().<String, String>build();
+        metrics.monitorCache("partner-credentials", cache);
+
+        cache.get("role", key -> "provider");
+        cache.getIfPresent("role");
+
+        assertThat(registry.get("cache.gets").tag("cache", "partner-credentials").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "partner-credentials").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.evictions").tag("cache", "partner-credentials").functionCounter().count())
+                .isZero();
+    }
+}
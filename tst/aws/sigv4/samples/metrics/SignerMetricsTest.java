@@ -0,0 +1,71 @@
+package aws.sigv4.samples.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SignerMetrics interface,")
+class SignerMetricsTest {
+
+    @AfterEach
+    void afterEach() {
+        SignerMetrics.install(NoOpSignerMetrics.INSTANCE);
+    }
+
+    @Nested
+    @DisplayName("the get method,")
+    class GetMethod {
+
+        @Test
+        @DisplayName("should return the no-op metrics, by default.")
+        void shouldReturnNoOpByDefault() {
+            assertThat(SignerMetrics.get()).isSameAs(NoOpSignerMetrics.INSTANCE);
+            assertThat(SignerMetrics.get().isEnabled()).isFalse();
+        }
+
+        @Test
+        @DisplayName("should return the installed metrics.")
+        void shouldReturnInstalledMetrics() {
+            var metrics = mock(SignerMetrics.class);
+            SignerMetrics.install(metrics);
+
+            assertThat(SignerMetrics.get()).isSameAs(metrics);
+        }
+    }
+
+    @Nested
+    @DisplayName("the startTimer and stopTimer methods,")
+    class TimerMethods {
+
+        @Test
+        @DisplayName("should record the elapsed time of the phase, for enabled metrics.")
+        void shouldRecordPhase() {
+            var metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+
+            var start = metrics.startTimer();
+            metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
+
+            assertThat(start).isNotZero();
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.SIGN), anyLong());
+        }
+
+        @Test
+        @DisplayName("should record nothing, for disabled metrics.")
+        void shouldRecordNothingWhenDisabled() {
+            var metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+            doReturn(false).when(metrics).isEnabled();
+
+            var start = metrics.startTimer();
+            metrics.stopTimer(SignerMetrics.Phase.SIGN, start);
+
+            assertThat(start).isZero();
+            verify(metrics, never()).recordPhase(any(), anyLong());
+        }
+    }
+}
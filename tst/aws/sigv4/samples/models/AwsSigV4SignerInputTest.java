@@ -0,0 +1,88 @@
+package aws.sigv4.samples.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import aws.sigv4.samples.signing.SigningTarget;
+import com.amazonaws.http.HttpMethodName;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For AwsSigV4SignerInput class,")
+class AwsSigV4SignerInputTest {
+
+    private static final String ENDPOINT = "https://bucket.s3.us-east-1.amazonaws.com";
+
+    private static final String RESOURCE_PATH = "/key";
+
+    @Nested
+    @DisplayName("the builder,")
+    class Builder {
+
+        @Test
+        @DisplayName("should set the endpoint, resource path, service and region of the signing target.")
+        @SneakyThrows
+        void shouldSetFieldsOfSigningTarget() {
+            var target = SigningTarget.create(ENDPOINT, RESOURCE_PATH, "us-east-1", "s3");
+
+            var input = AwsSigV4SignerInput.builder()
+                    .signingTarget(target)
+                    .requestMethod(HttpMethodName.GET)
+                    .unsignedPayload(true)
+                    .build();
+
+            assertThat(input.getSigningTarget()).isSameAs(target);
+            assertThat(input.getRequestEndpoint()).isEqualTo(ENDPOINT);
+            assertThat(input.getRequestResourcePath()).isEqualTo(RESOURCE_PATH);
+            assertThat(input.getServiceName()).isEqualTo("s3");
+            assertThat(input.getRegionName()).isEqualTo("us-east-1");
+        }
+
+        @Test
+        @DisplayName("should throw IllegalArgumentException for fields set to other values after the signing target.")
+        @SneakyThrows
+        void shouldThrowForFieldsDifferingFromSigningTarget() {
+            var target = SigningTarget.create(ENDPOINT, RESOURCE_PATH, "us-east-1", "s3");
+
+            assertThatThrownBy(() -> AwsSigV4SignerInput.builder()
+                    .signingTarget(target)
+                    .requestEndpoint("https://other.s3.us-east-1.amazonaws.com")
+                    .requestMethod(HttpMethodName.GET)
+                    .unsignedPayload(true)
+                    .build())
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> AwsSigV4SignerInput.builder()
+                    .signingTarget(target)
+                    .requestResourcePath(null)
+                    .requestMethod(HttpMethodName.GET)
+                    .unsignedPayload(true)
+                    .build())
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> AwsSigV4SignerInput.builder()
+                    .signingTarget(target)
+                    .regionName("eu-west-1")
+                    .requestMethod(HttpMethodName.GET)
+                    .unsignedPayload(true)
+                    .build())
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("should build an input whose fields were set before the signing target, to those of the target.")
+        @SneakyThrows
+        void shouldBuildForFieldsSetBeforeSigningTarget() {
+            var target = SigningTarget.create(ENDPOINT, RESOURCE_PATH, "us-east-1", "s3");
+
+            var input = AwsSigV4SignerInput.builder()
+                    .serviceName("execute-api")
+                    .signingTarget(target)
+                    .requestMethod(HttpMethodName.GET)
+                    .unsignedPayload(true)
+                    .build();
+
+            assertThat(input.getServiceName()).isEqualTo("s3");
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package aws.sigv4.samples.models;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SignedHeaders class,")
+class SignedHeadersTest {
+
+    private static final String AUTHORIZATION = "AWS4-HMAC-SHA256 Credential=AKIDEXAMPLE/20240229/us-east-1/s3/"
+            + "aws4_request, SignedHeaders=host;x-amz-date, Signature=0123456789abcdef";
+
+    private static final String AMZ_DATE = "20240229T235959Z";
+
+    private static final String SECURITY_TOKEN = "session-token";
+
+    private static final SignedHeaders SESSION_HEADERS = SignedHeaders.builder()
+            .authorization(AUTHORIZATION)
+            .amzDate(AMZ_DATE)
+            .securityToken(SECURITY_TOKEN)
+            .contentSha256("UNSIGNED-PAYLOAD")
+            .build();
+
+    private static final SignedHeaders BASIC_HEADERS = SignedHeaders.builder()
+            .authorization(AUTHORIZATION)
+            .amzDate(AMZ_DATE)
+            .build();
+
+    @Nested
+    @DisplayName("the from method,")
+    class FromMethod {
+
+        @Test
+        @DisplayName("should extract the headers added by signing, whatever their case, leaving out the others.")
+        void shouldExtractAddedHeaders() {
+            var requestHeaders = new LinkedHashMap<String, String>();
+            requestHeaders.put("Content-Type", "application/json");
+            requestHeaders.put("Host", "bucket.s3.us-east-1.amazonaws.com");
+            requestHeaders.put("authorization", AUTHORIZATION);
+            requestHeaders.put("x-amz-date", AMZ_DATE);
+            requestHeaders.put("x-amz-security-token", SECURITY_TOKEN);
+            requestHeaders.put("X-Amz-Content-Sha256", "UNSIGNED-PAYLOAD");
+
+            assertThat(SignedHeaders.from(requestHeaders)).isEqualTo(SESSION_HEADERS);
+        }
+
+        @Test
+        @DisplayName("should leave the session token and payload hash null, when they weren't added.")
+        void shouldLeaveAbsentHeadersNull() {
+            var requestHeaders = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+            requestHeaders.put("Authorization", AUTHORIZATION);
+            requestHeaders.put("X-Amz-Date", AMZ_DATE);
+
+            assertThat(SignedHeaders.from(requestHeaders)).isEqualTo(BASIC_HEADERS);
+        }
+    }
+
+    @Nested
+    @DisplayName("the writeTo method,")
+    class WriteToMethod {
+
+        @Test
+        @DisplayName("should pass each header to the header sink, in order.")
+        void shouldWriteToHeaderSink() {
+            var written = new LinkedHashMap<String, String>();
+
+            SESSION_HEADERS.writeTo(written::put);
+
+            assertThat(written).containsExactly(
+                    Map.entry("Authorization", AUTHORIZATION),
+                    Map.entry("X-Amz-Date", AMZ_DATE),
+                    Map.entry("X-Amz-Security-Token", SECURITY_TOKEN),
+                    Map.entry("x-amz-content-sha256", "UNSIGNED-PAYLOAD"));
+        }
+
+        @Test
+        @DisplayName("should only pass the headers present to the header sink.")
+        void shouldSkipAbsentHeaders() {
+            var written = new LinkedHashMap<String, String>();
+
+            BASIC_HEADERS.writeTo(written::put);
+
+            assertThat(written).containsOnlyKeys("Authorization", "X-Amz-Date");
+        }
+
+        @Test
+        @DisplayName("should set the headers as request properties of an HttpURLConnection.")
+        void shouldWriteToHttpUrlConnection() {
+            // HttpURLConnection doesn't hand out the Authorization request property, so check the calls instead.
+            var connection = mock(HttpURLConnection.class);
+
+            SESSION_HEADERS.writeTo(connection);
+
+            verify(connection).setRequestProperty("Authorization", AUTHORIZATION);
+            verify(connection).setRequestProperty("X-Amz-Date", AMZ_DATE);
+            verify(connection).setRequestProperty("X-Amz-Security-Token", SECURITY_TOKEN);
+            verify(connection).setRequestProperty("x-amz-content-sha256", "UNSIGNED-PAYLOAD");
+        }
+
+        @Test
+        @DisplayName("should add the headers to an HttpRequest builder.")
+        void shouldWriteToHttpRequestBuilder() {
+            var requestBuilder = HttpRequest.newBuilder(URI.create("https://bucket.s3.us-east-1.amazonaws.com/key"));
+
+            BASIC_HEADERS.writeTo(requestBuilder);
+
+            var headers = requestBuilder.build().headers();
+            assertThat(headers.allValues("Authorization")).isEqualTo(List.of(AUTHORIZATION));
+            assertThat(headers.allValues("X-Amz-Date")).isEqualTo(List.of(AMZ_DATE));
+            assertThat(headers.firstValue("X-Amz-Security-Token")).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("should not expose the authorization and session token in toString.")
+    void shouldNotExposeSecrets() {
+        assertThat(SESSION_HEADERS.toString()).doesNotContain(AUTHORIZATION, SECURITY_TOKEN).contains(AMZ_DATE);
+    }
+}
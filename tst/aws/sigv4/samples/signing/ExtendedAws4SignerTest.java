@@ -0,0 +1,82 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Date;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For ExtendedAws4Signer class,")
+class ExtendedAws4SignerTest {
+
+    private static final AWSCredentials CREDENTIALS =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private static final Date SIGNING_DATE = Date.from(Instant.parse("2024-02-29T12:00:00Z"));
+
+    private static final byte[] BODY = {0, 1, 2, (byte) 0xFF, 'b', 'o', 'd', 'y'};
+
+    @Nested
+    @DisplayName("the sign method,")
+    class SignMethod {
+
+        @Test
+        @DisplayName("should sign the same as AWS4Signer, with the payload hash from the handler context.")
+        @SneakyThrows
+        void shouldUsePayloadHashFromHandlerContext() {
+            var expected = request();
+            expected.setContent(new ByteArrayInputStream(BODY));
+            signer(new AWS4Signer()).sign(expected, CREDENTIALS);
+
+            var actual = request();
+            actual.addHandlerContext(ExtendedAws4Signer.PAYLOAD_SHA256,
+                    BinaryUtils.toHex(MessageDigest.getInstance("SHA-256").digest(BODY)));
+            signer(new ExtendedAws4Signer()).sign(actual, CREDENTIALS);
+
+            assertThat(actual.getHeaders()).isEqualTo(expected.getHeaders());
+        }
+
+        @Test
+        @DisplayName("should sign the same as AWS4Signer, without a payload hash in the handler context.")
+        @SneakyThrows
+        void shouldHashContentWithoutHandlerContext() {
+            var expected = request();
+            expected.setContent(new ByteArrayInputStream(BODY));
+            signer(new AWS4Signer()).sign(expected, CREDENTIALS);
+
+            var actual = request();
+            actual.setContent(new ByteArrayInputStream(BODY));
+            signer(new ExtendedAws4Signer()).sign(actual, CREDENTIALS);
+
+            assertThat(actual.getHeaders()).isEqualTo(expected.getHeaders());
+        }
+    }
+
+    @SneakyThrows
+    private static DefaultRequest<String> request() {
+        var request = new DefaultRequest<String>("execute-api");
+        request.setEndpoint(new URI("https://example.execute-api.us-east-1.amazonaws.com"));
+        request.setResourcePath("/prod/partners");
+        request.setHttpMethod(HttpMethodName.PUT);
+        return request;
+    }
+
+    private static AWS4Signer signer(final AWS4Signer signer) {
+        signer.setServiceName("execute-api");
+        signer.setRegionName("us-east-1");
+        signer.setOverrideDate(SIGNING_DATE);
+        return signer;
+    }
+}
@@ -0,0 +1,168 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("For HeaderTemplate class,")
+class HeaderTemplateTest {
+
+    private static final Map<String, String> FIXED_HEADERS = Map.of(
+            "Content-Type", "application/json",
+            "X-Spaces", "  a   b\t\tc  ",
+            "Connection", "keep-alive");
+
+    private static final List<String> VARIABLE_HEADER_NAMES = List.of("X-Correlation-Id", "x-amzn-trace-id", "Zeta");
+
+    @Nested
+    @DisplayName("the compile method,")
+    class CompileMethod {
+
+        @Test
+        @DisplayName("should sort the fixed headers, and keep the variable header names in declaration order.")
+        @SneakyThrows
+        void shouldCompileTemplate() {
+            var template = HeaderTemplate.compile(FIXED_HEADERS, VARIABLE_HEADER_NAMES);
+
+            assertThat(template.getFixedHeaders()).containsExactly(
+                    Map.entry("Connection", "keep-alive"),
+                    Map.entry("Content-Type", "application/json"),
+                    Map.entry("X-Spaces", "  a   b\t\tc  "));
+            assertThat(template.getVariableHeaderNames()).isEqualTo(VARIABLE_HEADER_NAMES);
+        }
+
+        @Test
+        @DisplayName("should list the sorted signed headers, with the session token and payload hash when sent.")
+        @SneakyThrows
+        void shouldListSignedHeaders() {
+            var template = HeaderTemplate.compile(FIXED_HEADERS, VARIABLE_HEADER_NAMES);
+
+            assertThat(template.getSignedHeaders(false, false))
+                    .isEqualTo("content-type;host;x-amz-date;x-correlation-id;x-spaces;zeta");
+            assertThat(template.getSignedHeaders(true, false))
+                    .isEqualTo("content-type;host;x-amz-date;x-amz-security-token;x-correlation-id;x-spaces;zeta");
+            assertThat(template.getSignedHeaders(true, true)).isEqualTo("content-type;host;x-amz-content-sha256;"
+                    + "x-amz-date;x-amz-security-token;x-correlation-id;x-spaces;zeta");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a header declared twice, ignoring case.")
+        void shouldThrowForDuplicateHeader() {
+            assertThatThrownBy(() -> HeaderTemplate.compile(FIXED_HEADERS, List.of("content-type")))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Header content-type is declared more than once in the header template.");
+            assertThatThrownBy(() -> HeaderTemplate.compile(Map.of(), List.of("X-Id", "x-id")))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Header x-id is declared more than once in the header template.");
+        }
+
+        @ParameterizedTest
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a header added by signing.")
+        @ValueSource(strings = {"host", "X-Amz-Date", "x-amz-security-token", "authorization",
+                "X-Amz-Content-Sha256", "x-amz-region-set"})
+        void shouldThrowForSignerHeader(final String name) {
+            assertThatThrownBy(() -> HeaderTemplate.compile(Map.of(name, "value"), List.of()))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Header %s is added by signing, and can't be declared in a header template.", name);
+            assertThatThrownBy(() -> HeaderTemplate.compile(Map.of(), List.of(name)))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a null header name.")
+        void shouldThrowForNullName() {
+            assertThatThrownBy(() -> HeaderTemplate.compile(Map.of(), Arrays.asList("X-Id", null)))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Header template names must not be null.");
+        }
+    }
+
+    @Nested
+    @DisplayName("the appendCanonicalHeaders method,")
+    class AppendCanonicalHeadersMethod {
+
+        @Test
+        @DisplayName("should append the canonical headers of the same headers in a header map.")
+        @SneakyThrows
+        void shouldMatchHeaderMap() {
+            var template = HeaderTemplate.compile(FIXED_HEADERS, VARIABLE_HEADER_NAMES);
+            var variableHeaders = new HashMap<String, String>();
+            variableHeaders.put("X-Correlation-Id", " c0ffee ");
+            variableHeaders.put("x-amzn-trace-id", "Root=1-5759e988");
+            variableHeaders.put("Zeta", null);
+
+            for (var sessionCredentials : List.of(false, true)) {
+                for (var payloadHashHeader : List.of(false, true)) {
+                    var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+                    headers.putAll(template.resolveHeaders(variableHeaders));
+                    headers.put(SigV4SigningEngine.HOST, "example.com:8443");
+                    headers.put(SigV4SigningEngine.X_AMZ_DATE, "20240229T235959Z");
+                    if (sessionCredentials) {
+                        headers.put(SigV4SigningEngine.X_AMZ_SECURITY_TOKEN, "token");
+                    }
+                    if (payloadHashHeader) {
+                        headers.put(SigV4SigningEngine.X_AMZ_CONTENT_SHA256, SigV4SigningEngine.UNSIGNED_PAYLOAD);
+                    }
+                    var expected = new StringBuilder();
+                    SigV4SigningEngine.appendCanonicalHeaders(expected, headers);
+                    var expectedSignedHeaders = new StringBuilder();
+                    SigV4SigningEngine.appendSignedHeaders(expectedSignedHeaders, headers);
+
+                    var actual = new StringBuilder();
+                    template.appendCanonicalHeaders(actual, template.resolveValues(variableHeaders),
+                            "example.com:8443", "20240229T235959Z", sessionCredentials ? "token" : null,
+                            payloadHashHeader ? SigV4SigningEngine.UNSIGNED_PAYLOAD : null);
+
+                    assertThat(actual.toString()).isEqualTo(expected.toString());
+                    assertThat(template.getSignedHeaders(sessionCredentials, payloadHashHeader))
+                            .isEqualTo(expectedSignedHeaders.toString());
+                }
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("the resolveValues method,")
+    class ResolveValuesMethod {
+
+        @Test
+        @DisplayName("should return the values of the variable headers, in declaration order.")
+        @SneakyThrows
+        void shouldResolveValues() {
+            var template = HeaderTemplate.compile(FIXED_HEADERS, VARIABLE_HEADER_NAMES);
+
+            var values = template.resolveValues(
+                    Map.of("Zeta", "z", "X-Correlation-Id", "c0ffee", "x-amzn-trace-id", "Root=1"));
+
+            assertThat(values).containsExactly("c0ffee", "Root=1", "z");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for headers which aren't variable headers.")
+        @SneakyThrows
+        void shouldThrowForOtherHeaders() {
+            var template = HeaderTemplate.compile(FIXED_HEADERS, List.of("X-Correlation-Id"));
+
+            assertThatThrownBy(() -> template.resolveValues(Map.of("X-Other", "value")))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("requestHeaderMap passed in Input has no value for the variable header "
+                            + "X-Correlation-Id of its header template: [X-Other]");
+            assertThatThrownBy(() -> template.resolveValues(Map.of("X-Correlation-Id", "c0ffee", "X-Other", "value")))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessageStartingWith("requestHeaderMap passed in Input must hold the variable headers "
+                            + "[X-Correlation-Id] of its header template, but held: ");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import aws.sigv4.samples.metrics.NoOpSignerMetrics;
+import aws.sigv4.samples.metrics.SignerMetrics;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.RequestBody;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Random;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("For PayloadHasher class,")
+class PayloadHasherTest {
+
+    private static final String EMPTY_SHA256 = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
+    @TempDir
+    Path tempDir;
+
+    private byte[] testBytes;
+
+    private String testBytesSha256;
+
+    @BeforeEach
+    @SneakyThrows
+    void beforeEach() {
+        testBytes = new byte[200_000];
+        new Random(7L).nextBytes(testBytes);
+        testBytesSha256 = BinaryUtils.toHex(MessageDigest.getInstance("SHA-256").digest(testBytes));
+    }
+
+    @Nested
+    @DisplayName("the sha256Hex method,")
+    class Sha256HexMethod {
+
+        @Test
+        @DisplayName("should hash an empty body.")
+        @SneakyThrows
+        void shouldHashEmptyBody() {
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromBytes(new byte[0]))).isEqualTo(EMPTY_SHA256);
+        }
+
+        @Test
+        @DisplayName("should hash a byte array body.")
+        @SneakyThrows
+        void shouldHashBytes() {
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromBytes(testBytes))).isEqualTo(testBytesSha256);
+        }
+
+        @Test
+        @DisplayName("should hash the remaining bytes of a direct buffer, without moving its position.")
+        @SneakyThrows
+        void shouldHashDirectBuffer() {
+            var buffer = ByteBuffer.allocateDirect(testBytes.length + 10);
+            buffer.position(10);
+            buffer.put(testBytes).position(10);
+
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromByteBuffer(buffer))).isEqualTo(testBytesSha256);
+            assertThat(buffer.position()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("should hash a stream, consuming it without marking it.")
+        @SneakyThrows
+        void shouldHashStream() {
+            var stream = spy(new ByteArrayInputStream(testBytes));
+
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromInputStream(stream))).isEqualTo(testBytesSha256);
+            assertThat(stream.available()).isZero();
+            verify(stream, never()).mark(anyInt());
+        }
+
+        @Test
+        @DisplayName("should hash a new stream of a stream supplier each time, and close it.")
+        @SneakyThrows
+        void shouldHashSuppliedStreams() {
+            var streams = new ArrayList<InputStream>();
+            var body = RequestBody.fromInputStreamSupplier(() -> {
+                var stream = spy(new ByteArrayInputStream(testBytes));
+                streams.add(stream);
+                return stream;
+            });
+
+            assertThat(PayloadHasher.sha256Hex(body)).isEqualTo(testBytesSha256);
+            assertThat(PayloadHasher.sha256Hex(body)).isEqualTo(testBytesSha256);
+            assertThat(streams).hasSize(2);
+            for (var stream : streams) {
+                verify(stream).close();
+            }
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a stream supplier returning null.")
+        void shouldThrowForNullSuppliedStream() {
+            var body = RequestBody.fromInputStreamSupplier(() -> null);
+
+            assertThatThrownBy(() -> PayloadHasher.sha256Hex(body))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasCauseInstanceOf(IOException.class);
+        }
+
+        @Test
+        @DisplayName("should hash a file.")
+        @SneakyThrows
+        void shouldHashFile() {
+            var file = Files.write(tempDir.resolve("body.bin"), testBytes);
+
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromFile(file))).isEqualTo(testBytesSha256);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a missing file.")
+        void shouldThrowForMissingFile() {
+            var body = RequestBody.fromFile(tempDir.resolve("missing.bin"));
+
+            assertThatThrownBy(() -> PayloadHasher.sha256Hex(body))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage(String.format("Unable to read request body passed in Input: %s", body))
+                    .hasCauseInstanceOf(IOException.class);
+        }
+
+        @Test
+        @DisplayName("should not carry a failed read over to the next body.")
+        @SneakyThrows
+        void shouldResetAfterFailure() {
+            var failing = new FilterInputStream(new ByteArrayInputStream(testBytes)) {
+                @Override
+                public int read(final byte[] b) throws IOException {
+                    throw new IOException("Broken stream");
+                }
+            };
+            assertThatThrownBy(() -> PayloadHasher.sha256Hex(RequestBody.fromInputStream(failing)))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class);
+
+            assertThat(PayloadHasher.sha256Hex(RequestBody.fromBytes(new byte[0]))).isEqualTo(EMPTY_SHA256);
+        }
+    }
+
+    @Nested
+    @DisplayName("the sha256Hex method, with metrics installed,")
+    class Sha256HexMethodWithMetrics {
+
+        @AfterEach
+        void afterEach() {
+            SignerMetrics.install(NoOpSignerMetrics.INSTANCE);
+        }
+
+        @Test
+        @DisplayName("should record the hashing time and the size of a stream body.")
+        @SneakyThrows
+        void shouldRecordHashingMetrics() {
+            var metrics = mock(SignerMetrics.class, CALLS_REAL_METHODS);
+            SignerMetrics.install(metrics);
+
+            PayloadHasher.sha256Hex(RequestBody.fromInputStream(new ByteArrayInputStream(testBytes)));
+
+            verify(metrics).recordPhase(eq(SignerMetrics.Phase.HASH_PAYLOAD), anyLong());
+            verify(metrics).recordPayloadSize(testBytes.length);
+        }
+    }
+
+    @Nested
+    @DisplayName("the utf8Length method,")
+    class Utf8LengthMethod {
+
+        @ParameterizedTest
+        @DisplayName("should return the length of the UTF-8 encoding.")
+        @ValueSource(strings = {"", "ascii", "ü", "€", "😀", "ü€😀 mixed", "\uD800 unpaired",
+                "unpaired \uDC00"})
+        void shouldReturnUtf8Length(final String payload) {
+            assertThat(PayloadHasher.utf8Length(payload))
+                    .isEqualTo(payload.getBytes(StandardCharsets.UTF_8).length);
+        }
+    }
+
+    @Nested
+    @DisplayName("the resolveSha256Hex method,")
+    class ResolveSha256HexMethod {
+
+        private AwsSigV4SignerInput.AwsSigV4SignerInputBuilder inputBuilder;
+
+        @BeforeEach
+        void beforeEach() {
+            inputBuilder = AwsSigV4SignerInput.builder()
+                    .requestEndpoint("https://example.com")
+                    .requestMethod(HttpMethodName.PUT)
+                    .serviceName("s3")
+                    .regionName("us-east-1");
+        }
+
+        @Test
+        @DisplayName("should return null for a string payload.")
+        @SneakyThrows
+        void shouldReturnNullForStringPayload() {
+            assertThat(PayloadHasher.resolveSha256Hex(inputBuilder.requestPayload("payload").build())).isNull();
+        }
+
+        @Test
+        @DisplayName("should hash a request body.")
+        @SneakyThrows
+        void shouldHashRequestBody() {
+            var input = inputBuilder.requestBody(RequestBody.fromBytes(testBytes)).build();
+
+            assertThat(PayloadHasher.resolveSha256Hex(input)).isEqualTo(testBytesSha256);
+        }
+
+        @Test
+        @DisplayName("should return a precomputed hash lower cased.")
+        @SneakyThrows
+        void shouldReturnPrecomputedHash() {
+            var input = inputBuilder.requestPayloadSha256(testBytesSha256.toUpperCase(Locale.ENGLISH)).build();
+
+            assertThat(PayloadHasher.resolveSha256Hex(input)).isEqualTo(testBytesSha256);
+        }
+
+        @Test
+        @DisplayName("should return UNSIGNED-PAYLOAD for an unsigned payload.")
+        @SneakyThrows
+        void shouldReturnUnsignedPayload() {
+            assertThat(PayloadHasher.resolveSha256Hex(inputBuilder.unsignedPayload(true).build()))
+                    .isEqualTo("UNSIGNED-PAYLOAD");
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid precomputed hash.")
+        @ValueSource(strings = {"", "abc", EMPTY_SHA256 + "0",
+                "g3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                "\uff10" + "3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855"})
+        void shouldThrowForInvalidPrecomputedHash(final String sha256Hex) {
+            var input = inputBuilder.requestPayloadSha256(sha256Hex).build();
+
+            assertThatThrownBy(() -> PayloadHasher.resolveSha256Hex(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage(String.format("Invalid requestPayloadSha256 passed in Input: %s", sha256Hex));
+        }
+    }
+}
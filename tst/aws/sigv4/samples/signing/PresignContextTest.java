@@ -0,0 +1,60 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("For PresignContext class,")
+class PresignContextTest {
+
+    private static final Instant SIGNING_TIME = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final AWSCredentials BASIC_CREDENTIALS =
+            new BasicAWSCredentials(" AKIDEXAMPLE ", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    @Nested
+    @DisplayName("the create method,")
+    class CreateMethod {
+
+        @Test
+        @DisplayName("should precompute the scope and X-Amz-* query parameters, with trimmed credentials.")
+        void shouldPrecomputeQueryParameters() {
+            var context = PresignContext.create(BASIC_CREDENTIALS, "us-east-1", "s3", SIGNING_TIME.toEpochMilli(),
+                    900L);
+
+            assertThat(context.scope).isEqualTo("20240229/us-east-1/s3/aws4_request");
+            assertThat(context.queryPrefix).isEqualTo("X-Amz-Algorithm=AWS4-HMAC-SHA256"
+                    + "&X-Amz-Credential=AKIDEXAMPLE%2F20240229%2Fus-east-1%2Fs3%2Faws4_request"
+                    + "&X-Amz-Date=20240229T235959Z&X-Amz-Expires=900");
+            assertThat(context.getExpiration()).isEqualTo(Instant.parse("2024-03-01T00:14:59Z"));
+        }
+
+        @Test
+        @DisplayName("should add the encoded session token, for session credentials.")
+        void shouldAddSessionToken() {
+            var context = PresignContext.create(new BasicSessionCredentials("ASIAEXAMPLE",
+                    "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY", "token/with+chars="), "us-east-1", "s3",
+                    SIGNING_TIME.toEpochMilli(), 900L);
+
+            assertThat(context.queryPrefix).endsWith("&X-Amz-Expires=900&X-Amz-Security-Token=token%2Fwith%2Bchars%3D");
+        }
+
+        @ParameterizedTest
+        @DisplayName("should throw IllegalArgumentException for an expiry out of range.")
+        @ValueSource(longs = {-1L, 0L, PresignContext.MAX_EXPIRES_IN_SECONDS + 1})
+        void shouldRejectInvalidExpiry(final long expiresInSeconds) {
+            assertThatThrownBy(() -> PresignContext.create(BASIC_CREDENTIALS, "us-east-1", "s3",
+                    SIGNING_TIME.toEpochMilli(), expiresInSeconds))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SecretKeyDigests class,")
+class SecretKeyDigestsTest {
+
+    private static final String SECRET_KEY = "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY";
+
+    @Nested
+    @DisplayName("the sha256 method,")
+    class Sha256Method {
+
+        @Test
+        @DisplayName("should return the SHA-256 of the secret key.")
+        @SneakyThrows
+        void shouldReturnSha256() {
+            var expected = MessageDigest.getInstance("SHA-256").digest(SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(SecretKeyDigests.sha256(SECRET_KEY)).isEqualTo(expected);
+        }
+
+        @Test
+        @DisplayName("should reuse the digest of the last secret key, for the same instance only.")
+        void shouldReuseDigestOfSameInstance() {
+            var copy = new String(SECRET_KEY.toCharArray());
+
+            var first = SecretKeyDigests.sha256(SECRET_KEY);
+
+            assertThat(SecretKeyDigests.sha256(SECRET_KEY)).isSameAs(first);
+            assertThat(SecretKeyDigests.sha256(copy)).isNotSameAs(first).isEqualTo(first);
+        }
+
+        @Test
+        @DisplayName("should not keep the last secret key alive.")
+        @SneakyThrows
+        void shouldNotKeepSecretKeyAlive() {
+            var secretKey = digestNewSecretKey();
+
+            for (var i = 0; i < 50 && secretKey.get() != null; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            assertThat(secretKey.get()).isNull();
+        }
+
+        private WeakReference<String> digestNewSecretKey() {
+            var secretKey = new String(SECRET_KEY.toCharArray());
+            SecretKeyDigests.sha256(secretKey);
+            return new WeakReference<>(secretKey);
+        }
+    }
+
+    @Nested
+    @DisplayName("the matches method,")
+    class MatchesMethod {
+
+        @Test
+        @DisplayName("should match an equal secret key held by another String instance.")
+        void shouldMatchEqualSecretKey() {
+            var digest = SecretKeyDigests.sha256(SECRET_KEY);
+
+            assertThat(SecretKeyDigests.matches(digest, new String(SECRET_KEY.toCharArray()))).isTrue();
+        }
+
+        @Test
+        @DisplayName("should not match a different secret key.")
+        void shouldNotMatchDifferentSecretKey() {
+            var digest = SecretKeyDigests.sha256(SECRET_KEY);
+
+            assertThat(SecretKeyDigests.matches(digest, SECRET_KEY.toLowerCase())).isFalse();
+        }
+    }
+}
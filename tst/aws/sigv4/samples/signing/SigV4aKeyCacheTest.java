@@ -0,0 +1,81 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigInteger;
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SigV4aKeyCache class,")
+class SigV4aKeyCacheTest {
+
+    private EasyRandom easyRandom;
+
+    private SigV4aKeyCache cache;
+
+    private String testAccessKeyId;
+
+    private String testSecretKey;
+
+    @BeforeEach
+    void beforeEach() {
+        easyRandom = new EasyRandom();
+        cache = new SigV4aKeyCache(SigV4aKeyCache.DEFAULT_MAXIMUM_SIZE);
+
+        testAccessKeyId = easyRandom.nextObject(String.class);
+        testSecretKey = easyRandom.nextObject(String.class);
+    }
+
+    @Nested
+    @DisplayName("the getPrivateKey method,")
+    class GetPrivateKeyMethod {
+
+        @Test
+        @DisplayName("should derive the private key of the AWS documentation example credentials.")
+        void shouldDeriveDocumentedPrivateKey() {
+            var privateKey = cache.getPrivateKey("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+            assertThat(privateKey.getS()).isEqualTo(
+                    new BigInteger("7efc8c0e65a324242818c5a50c891c6060b6a00717b7ba3cbe3c5d765be9259c", 16));
+            assertThat(privateKey.getParams().getCurve().getField().getFieldSize()).isEqualTo(256);
+        }
+
+        @Test
+        @DisplayName("should serve repeated lookups from the cache.")
+        void shouldCountHitsAndMisses() {
+            var first = cache.getPrivateKey(testAccessKeyId, testSecretKey);
+            var second = cache.getPrivateKey(testAccessKeyId, testSecretKey);
+
+            assertThat(second).isSameAs(first);
+            assertThat(cache.getMissCount()).isEqualTo(1);
+            assertThat(cache.getHitCount()).isEqualTo(1);
+            assertThat(cache.getSize()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should not reuse a private key for a different secret under the same access key id.")
+        void shouldNotReuseKeyForDifferentSecret() {
+            var first = cache.getPrivateKey(testAccessKeyId, testSecretKey);
+            var second = cache.getPrivateKey(testAccessKeyId, testSecretKey + "x");
+
+            assertThat(second.getS()).isNotEqualTo(first.getS());
+            assertThat(cache.getMissCount()).isEqualTo(2);
+            assertThat(cache.getHitCount()).isZero();
+        }
+
+        @Test
+        @DisplayName("should not reuse a private key for a different secret with the same String hash code.")
+        void shouldNotReuseKeyForCollidingSecret() {
+            assertThat((testSecretKey + "BB").hashCode()).isEqualTo((testSecretKey + "Aa").hashCode());
+
+            var first = cache.getPrivateKey(testAccessKeyId, testSecretKey + "Aa");
+            var second = cache.getPrivateKey(testAccessKeyId, testSecretKey + "BB");
+
+            assertThat(second.getS()).isNotEqualTo(first.getS());
+            assertThat(cache.getMissCount()).isEqualTo(2);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import aws.sigv4.samples.AwsSigV4Verifier;
+import aws.sigv4.samples.CredentialProviderBasedAwsSigV4Signer;
+import aws.sigv4.samples.credentials.CredentialsResolver;
+import aws.sigv4.samples.models.AwsSigV4SignerInput;
+import aws.sigv4.samples.models.AwsSigV4SignerOutput;
+import aws.sigv4.samples.models.RequestBody;
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.auth.BasicSessionCredentials;
+import com.amazonaws.auth.Signer;
+import com.amazonaws.http.HttpMethodName;
+import com.amazonaws.util.BinaryUtils;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("For SigningBackends enum,")
+class SigningBackendsTest {
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private static final DateTimeFormatter AMZ_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private static final AWSCredentials BASIC_CREDENTIALS =
+            new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+    private static final AWSCredentials SESSION_CREDENTIALS = new BasicSessionCredentials("ASIAEXAMPLE",
+            "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY", "FwoGZXIvYXdzEXAMPLETOKEN");
+
+    private static final byte[] BODY_BYTES =
+            "{\"partnerId\": 42, \"name\": \"ü€\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final AwsSigV4Verifier VERIFIER =
+            new AwsSigV4Verifier(CredentialsResolver.of(BASIC_CREDENTIALS, SESSION_CREDENTIALS));
+
+    private static final List<String> ENDPOINTS = List.of(
+            ENDPOINT,
+            ENDPOINT + "/",
+            "https://example.com:8443/base",
+            "http://example.com:80/base/");
+
+    private static final List<String> RESOURCE_PATHS = Arrays.asList(
+            null,
+            "/",
+            "/prod/partners",
+            "/with space/and+plus",
+            "/unicode/ü€",
+            "/dot/./segment/../x",
+            "//double//slash",
+            "/tilde~-_.");
+
+    private static final List<Map<String, String>> HEADER_MAPS = Arrays.asList(
+            null,
+            Map.of("Content-Type", "application/json"),
+            Map.of("X-Spaces", "  a   b\t\tc  "),
+            Map.of("Connection", "keep-alive", "X-Amzn-Trace-Id", "Root=1-5759e988"));
+
+    @Nested
+    @DisplayName("the SDK_V1 and SDK_V2 backends,")
+    class SdkBackends {
+
+        @ParameterizedTest(name = "[{index}] {0} {1}{2}")
+        @DisplayName("should both sign valid requests, with the same headers but for the signed payload hash.")
+        @MethodSource("aws.sigv4.samples.signing.SigningBackendsTest#requests")
+        @SneakyThrows
+        void shouldSignAlike(final HttpMethodName method, final String endpoint, final String resourcePath,
+                             final Map<String, String> headers, final String payload,
+                             final AWSCredentials credentials) {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(endpoint)
+                    .requestResourcePath(resourcePath)
+                    .requestMethod(method)
+                    .requestHeaderMap(headers)
+                    .requestPayload(payload)
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            var v1Headers = sign(SigningBackends.SDK_V1, credentials, input);
+            var v2Headers = sign(SigningBackends.SDK_V2, credentials, input);
+
+            assertThat(VERIFIER.verify(verifierInput(input, v1Headers)).isValid()).isTrue();
+            assertThat(VERIFIER.verify(verifierInput(input, v2Headers)).isValid()).isTrue();
+            assertThat(v2Headers.remove("x-amz-content-sha256")).isNotNull();
+            assertThat(withoutSignature(v2Headers)).isEqualTo(withoutSignature(v1Headers));
+        }
+
+        @Test
+        @DisplayName("should sign an unsigned payload with the same signature.")
+        @SneakyThrows
+        void shouldSignUnsignedPayloadAlike() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestResourcePath("/prod/partners")
+                    .requestMethod(HttpMethodName.PUT)
+                    .unsignedPayload(true)
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            TreeMap<String, String> v1Headers;
+            TreeMap<String, String> v2Headers;
+            do {
+                v1Headers = sign(SigningBackends.SDK_V1, SESSION_CREDENTIALS, input);
+                v2Headers = sign(SigningBackends.SDK_V2, SESSION_CREDENTIALS, input);
+                // Retries when the two requests were signed on either side of a second boundary.
+            } while (!v1Headers.get("X-Amz-Date").equals(v2Headers.get("X-Amz-Date")));
+
+            assertThat(v2Headers).isEqualTo(v1Headers);
+        }
+
+        @Test
+        @DisplayName("should both sign at the time corrected by the signing clock.")
+        @SneakyThrows
+        void shouldApplySigningClockOffset() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.GET)
+                    .requestPayload("")
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+            var signingClock = new SigningClock();
+            signingClock.setOffset(ENDPOINT, Duration.ofDays(-2));
+            var expectedDate = signingClock.millis(ENDPOINT);
+
+            for (var backend : SigningBackends.values()) {
+                var headers = new CredentialProviderBasedAwsSigV4Signer(
+                        new AWSStaticCredentialsProvider(BASIC_CREDENTIALS), Runnable::run, signingClock, backend)
+                        .sign(input).getRequestHeaderMap();
+
+                var signedAt = LocalDateTime.parse(headers.get("X-Amz-Date"), AMZ_DATE_FORMAT)
+                        .toInstant(ZoneOffset.UTC).toEpochMilli();
+                assertThat(signedAt).isBetween(expectedDate - 2000L, expectedDate + 2000L);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("the SDK_V2 backend,")
+    class SdkV2Backend {
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should sign a request body, reading it when signing.")
+        @MethodSource("aws.sigv4.samples.signing.SigningBackendsTest#bodies")
+        @SneakyThrows
+        void shouldSignRequestBody(final String description, final RequestBody body) {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestResourcePath("/prod/partners")
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestBody(body)
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            var headers = sign(SigningBackends.SDK_V2, SESSION_CREDENTIALS, input);
+
+            assertThat(headers.get("x-amz-content-sha256")).isEqualTo(BinaryUtils.toHex(
+                    MessageDigest.getInstance("SHA-256").digest(BODY_BYTES)));
+            var verifierInput = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestResourcePath("/prod/partners")
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestHeaderMap(headers)
+                    .requestBody(RequestBody.fromBytes(BODY_BYTES))
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+            assertThat(VERIFIER.verify(verifierInput).isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for a precomputed payload hash.")
+        void shouldThrowForRequestPayloadSha256() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestPayloadSha256("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855")
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+            var signer = new CredentialProviderBasedAwsSigV4Signer(
+                    new AWSStaticCredentialsProvider(BASIC_CREDENTIALS), SigningBackends.SDK_V2);
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Signing backend SDK_V2 can't sign requestPayloadSha256 passed in Input, pass "
+                            + "requestPayload or requestBody instead.");
+        }
+
+        @Test
+        @DisplayName("should throw UncheckedIOException for a request body which can't be read.")
+        void shouldThrowForUnreadableBody() {
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.PUT)
+                    .requestBody(RequestBody.fromFile(Path.of("missing-request-body.bin")))
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+            var signer = new CredentialProviderBasedAwsSigV4Signer(
+                    new AWSStaticCredentialsProvider(BASIC_CREDENTIALS), SigningBackends.SDK_V2);
+
+            assertThatThrownBy(() -> signer.sign(input))
+                    .isInstanceOf(UncheckedIOException.class)
+                    .hasCauseInstanceOf(IOException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("a custom backend,")
+    class CustomBackend {
+
+        @Test
+        @DisplayName("should be passed to the signers' public constructors, and sign their requests.")
+        @SneakyThrows
+        void shouldSignWithCustomBackend() {
+            var signerRequests = new ArrayList<String>();
+            var backend = new SigningBackend() {
+                @Override
+                public Signer getSigner(@NonNull final String regionName, @NonNull final String serviceName) {
+                    signerRequests.add(regionName + "/" + serviceName);
+                    return SigningBackends.SDK_V1.getSigner(regionName, serviceName);
+                }
+
+                @Override
+                public boolean isPayloadHashSupported() {
+                    return true;
+                }
+            };
+            var input = AwsSigV4SignerInput.builder()
+                    .requestEndpoint(ENDPOINT)
+                    .requestMethod(HttpMethodName.GET)
+                    .requestPayload("")
+                    .serviceName("execute-api")
+                    .regionName("us-east-1")
+                    .build();
+
+            var headers = new CredentialProviderBasedAwsSigV4Signer(
+                    new AWSStaticCredentialsProvider(BASIC_CREDENTIALS), backend).sign(input).getRequestHeaderMap();
+
+            assertThat(signerRequests).containsExactly("us-east-1/execute-api");
+            assertThat(VERIFIER.verify(verifierInput(input, headers)).isValid()).isTrue();
+        }
+    }
+
+    @SneakyThrows
+    static Stream<Arguments> bodies() {
+        var file = Files.createTempFile("request-body", ".bin");
+        file.toFile().deleteOnExit();
+        Files.write(file, BODY_BYTES);
+        return Stream.of(
+                Arguments.of("bytes", RequestBody.fromBytes(BODY_BYTES)),
+                Arguments.of("direct buffer", RequestBody.fromByteBuffer(
+                        ByteBuffer.allocateDirect(BODY_BYTES.length).put(BODY_BYTES).flip())),
+                Arguments.of("input stream", RequestBody.fromInputStream(new ByteArrayInputStream(BODY_BYTES))),
+                Arguments.of("input stream supplier",
+                        RequestBody.fromInputStreamSupplier(() -> new ByteArrayInputStream(BODY_BYTES))),
+                Arguments.of("file", RequestBody.fromFile(file)));
+    }
+
+    static Stream<Arguments> requests() {
+        var requests = Stream.<Arguments>builder();
+        for (var method : List.of(HttpMethodName.GET, HttpMethodName.POST, HttpMethodName.DELETE)) {
+            requests.add(Arguments.of(method, ENDPOINT, "/prod/partners", null, "{\"partnerId\": 42}",
+                    BASIC_CREDENTIALS));
+        }
+        for (var endpoint : ENDPOINTS) {
+            for (var resourcePath : RESOURCE_PATHS) {
+                requests.add(Arguments.of(HttpMethodName.GET, endpoint, resourcePath, null, "", BASIC_CREDENTIALS));
+            }
+        }
+        for (var headers : HEADER_MAPS) {
+            requests.add(Arguments.of(HttpMethodName.POST, ENDPOINT, "/prod/partners", headers, "ü€",
+                    SESSION_CREDENTIALS));
+        }
+        return requests.build();
+    }
+
+    @SneakyThrows
+    private static TreeMap<String, String> sign(final SigningBackends backend, final AWSCredentials credentials,
+                                                final AwsSigV4SignerInput input) {
+        AwsSigV4SignerOutput output = new CredentialProviderBasedAwsSigV4Signer(
+                new AWSStaticCredentialsProvider(credentials), backend).sign(input);
+        var headers = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(output.getRequestHeaderMap());
+        return headers;
+    }
+
+    private static AwsSigV4SignerInput verifierInput(final AwsSigV4SignerInput input,
+                                                     final Map<String, String> headers) {
+        return AwsSigV4SignerInput.builder()
+                .requestEndpoint(input.getRequestEndpoint())
+                .requestResourcePath(input.getRequestResourcePath())
+                .requestMethod(input.getRequestMethod())
+                .requestHeaderMap(headers)
+                .requestPayload(input.getRequestPayload())
+                .serviceName(input.getServiceName())
+                .regionName(input.getRegionName())
+                .build();
+    }
+
+    private static Map<String, String> withoutSignature(final Map<String, String> headers) {
+        var remaining = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        remaining.putAll(headers);
+        remaining.remove("Authorization");
+        remaining.remove("X-Amz-Date");
+        return remaining;
+    }
+}
@@ -0,0 +1,140 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("For SigningClock class,")
+class SigningClockTest {
+
+    private static final Instant NOW = Instant.parse("2024-02-29T23:59:59.500Z");
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private static final String OTHER_ENDPOINT = "https://example.com";
+
+    private SigningClock signingClock;
+
+    @BeforeEach
+    void beforeEach() {
+        signingClock = new SigningClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Nested
+    @DisplayName("the millis method,")
+    class MillisMethod {
+
+        @Test
+        @DisplayName("should return the time of the clock, for an endpoint without offset.")
+        void shouldReturnClockTime() {
+            assertThat(signingClock.millis(ENDPOINT)).isEqualTo(NOW.toEpochMilli());
+            assertThat(signingClock.getOffset(ENDPOINT)).isZero();
+        }
+
+        @Test
+        @DisplayName("should add the offset set for the endpoint.")
+        void shouldAddOffset() {
+            signingClock.setOffset(ENDPOINT, Duration.ofMinutes(-10));
+
+            assertThat(signingClock.millis(ENDPOINT)).isEqualTo(NOW.minus(Duration.ofMinutes(10)).toEpochMilli());
+            assertThat(signingClock.millis(OTHER_ENDPOINT)).isEqualTo(NOW.toEpochMilli());
+        }
+    }
+
+    @Nested
+    @DisplayName("the getSdkTimeOffset method,")
+    class GetSdkTimeOffsetMethod {
+
+        @Test
+        @DisplayName("should return the seconds the system clock is ahead of the signing time.")
+        void shouldReturnSdkOffset() {
+            var systemSigningClock = new SigningClock();
+            systemSigningClock.setOffset(ENDPOINT, Duration.ofMinutes(-10));
+
+            assertThat(systemSigningClock.getSdkTimeOffset(ENDPOINT)).isBetween(599, 601);
+            assertThat(systemSigningClock.getSdkTimeOffset(OTHER_ENDPOINT)).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("the adjust method,")
+    class AdjustMethod {
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should learn the offset from the Date header, for a clock skew error code.")
+        @ValueSource(strings = {"RequestTimeTooSkewed", "RequestExpired", "RequestInTheFuture",
+                "InvalidSignatureException", "SignatureDoesNotMatch", "AuthFailure"})
+        void shouldAdjustForSkewErrorCode(final String errorCode) {
+            var adjusted = signingClock.adjust(ENDPOINT, 400, errorCode, "Fri, 1 Mar 2024 00:15:00 GMT");
+
+            assertThat(adjusted).isTrue();
+            assertThat(signingClock.getOffset(ENDPOINT)).isEqualTo(Duration.ofMillis(15 * 60_000 + 500));
+            assertThat(signingClock.millis(ENDPOINT)).isEqualTo(Instant.parse("2024-03-01T00:15:00Z").toEpochMilli());
+            assertThat(signingClock.getOffset(OTHER_ENDPOINT)).isZero();
+        }
+
+        @Test
+        @DisplayName("should learn the offset of a 403 response without error code, when the skew is large enough.")
+        void shouldAdjustForSkewedForbiddenResponse() {
+            assertThat(signingClock.adjust(ENDPOINT, 403, null, "Thu, 29 Feb 2024 23:50:00 GMT")).isTrue();
+            assertThat(signingClock.getOffset(ENDPOINT)).isEqualTo(Duration.ofMillis(-(9 * 60_000 + 59_500)));
+        }
+
+        @Test
+        @DisplayName("should replace the previous offset, rather than add to it.")
+        void shouldReplaceOffset() {
+            signingClock.adjust(ENDPOINT, 403, "RequestTimeTooSkewed", "Fri, 1 Mar 2024 00:15:00 GMT");
+            signingClock.adjust(ENDPOINT, 403, "RequestTimeTooSkewed", "Fri, 1 Mar 2024 00:05:00 GMT");
+
+            assertThat(signingClock.millis(ENDPOINT)).isEqualTo(Instant.parse("2024-03-01T00:05:00Z").toEpochMilli());
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should learn even a small offset, for an error code only returned for clock skew.")
+        @ValueSource(strings = {"RequestTimeTooSkewed", "RequestExpired", "RequestInTheFuture"})
+        void shouldAdjustSmallSkewForSkewOnlyErrorCode(final String errorCode) {
+            assertThat(signingClock.adjust(ENDPOINT, 403, errorCode, "Fri, 1 Mar 2024 00:01:00 GMT")).isTrue();
+            assertThat(signingClock.getOffset(ENDPOINT)).isEqualTo(Duration.ofMillis(60_000 + 500));
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @DisplayName("should not adjust the offset for a signature error code with a small skew.")
+        @ValueSource(strings = {"InvalidSignatureException", "SignatureDoesNotMatch", "AuthFailure"})
+        void shouldNotAdjustSmallSkewForSignatureErrorCode(final String errorCode) {
+            assertThat(signingClock.adjust(ENDPOINT, 400, errorCode, "Fri, 1 Mar 2024 00:01:00 GMT")).isFalse();
+            assertThat(signingClock.adjust(ENDPOINT, 403, errorCode, "Fri, 1 Mar 2024 00:03:59 GMT")).isFalse();
+            assertThat(signingClock.getOffset(ENDPOINT)).isZero();
+        }
+
+        @Test
+        @DisplayName("should not adjust the offset for a 403 response with a small skew.")
+        void shouldNotAdjustForSmallSkew() {
+            assertThat(signingClock.adjust(ENDPOINT, 403, "AccessDenied", "Fri, 1 Mar 2024 00:01:00 GMT")).isFalse();
+            assertThat(signingClock.getOffset(ENDPOINT)).isZero();
+        }
+
+        @Test
+        @DisplayName("should not adjust the offset for other errors.")
+        void shouldNotAdjustForOtherErrors() {
+            assertThat(signingClock.adjust(ENDPOINT, 500, "InternalError", "Fri, 1 Mar 2024 00:15:00 GMT")).isFalse();
+            assertThat(signingClock.getOffset(ENDPOINT)).isZero();
+        }
+
+        @Test
+        @DisplayName("should not adjust the offset for a missing or invalid Date header.")
+        void shouldNotAdjustForInvalidDate() {
+            assertThat(signingClock.adjust(ENDPOINT, 403, "RequestTimeTooSkewed", null)).isFalse();
+            assertThat(signingClock.adjust(ENDPOINT, 403, "RequestTimeTooSkewed", "20240301T001500Z")).isFalse();
+            assertThat(signingClock.getOffset(ENDPOINT)).isZero();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.auth.AWS4Signer;
+import com.amazonaws.auth.AWSCredentials;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.util.BinaryUtils;
+import org.jeasy.random.EasyRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SigningKeyCache class,")
+class SigningKeyCacheTest {
+
+    private EasyRandom easyRandom;
+
+    private SigningKeyCache cache;
+
+    private AWSCredentials testCredentials;
+
+    private String testRegion;
+
+    private String testService;
+
+    @BeforeEach
+    void beforeEach() {
+        easyRandom = new EasyRandom();
+        cache = new SigningKeyCache(SigningKeyCache.DEFAULT_MAXIMUM_SIZE);
+
+        testCredentials = new BasicAWSCredentials(easyRandom.nextObject(String.class),
+                easyRandom.nextObject(String.class));
+        testRegion = easyRandom.nextObject(String.class);
+        testService = easyRandom.nextObject(String.class);
+    }
+
+    @Nested
+    @DisplayName("the getSigningKey method,")
+    class GetSigningKeyMethod {
+
+        @Test
+        @DisplayName("should derive the signing key from the AWS documentation example.")
+        void shouldDeriveDocumentedSigningKey() {
+            var credentials = new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG+bPxRfiCYEXAMPLEKEY");
+
+            var signingKey = cache.getSigningKey(credentials, "20120215", "us-east-1", "iam");
+
+            assertThat(BinaryUtils.toHex(signingKey))
+                    .isEqualTo("f4780e2d9f65fa895f9c67b32ce1baf0b0d8a43505a000a1a9e090d414db404d");
+        }
+
+        @Test
+        @DisplayName("should derive the same signing key as AWS4Signer.")
+        void shouldMatchAws4Signer() {
+            var signingKey = cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+
+            assertThat(signingKey).isEqualTo(new ExposedAws4Signer()
+                    .newSigningKey(testCredentials, "20240229", testRegion, testService));
+        }
+
+        @Test
+        @DisplayName("should serve repeated lookups from the cache.")
+        void shouldCountHitsAndMisses() {
+            var first = cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+            var second = cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+
+            assertThat(second).isSameAs(first);
+            assertThat(cache.getMissCount()).isEqualTo(1);
+            assertThat(cache.getHitCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should not reuse a signing key for a different secret under the same access key id.")
+        void shouldNotReuseKeyForDifferentSecret() {
+            var otherCredentials = new BasicAWSCredentials(testCredentials.getAWSAccessKeyId(),
+                    easyRandom.nextObject(String.class));
+
+            var first = cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+            var second = cache.getSigningKey(otherCredentials, "20240229", testRegion, testService);
+
+            assertThat(second).isNotEqualTo(first);
+            assertThat(cache.getMissCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should not reuse a signing key for a different secret with the same String hash code.")
+        void shouldNotReuseKeyForCollidingSecret() {
+            var secret = new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG/Aa");
+            var collidingSecret = new BasicAWSCredentials("AKIDEXAMPLE", "wJalrXUtnFEMI/K7MDENG/BB");
+            assertThat(collidingSecret.getAWSSecretKey().hashCode()).isEqualTo(secret.getAWSSecretKey().hashCode());
+
+            var first = cache.getSigningKey(secret, "20240229", testRegion, testService);
+            var second = cache.getSigningKey(collidingSecret, "20240229", testRegion, testService);
+
+            assertThat(second).isNotEqualTo(first);
+            assertThat(cache.getMissCount()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should reuse a signing key for an equal secret held by another String instance.")
+        void shouldReuseKeyForEqualSecret() {
+            var copiedCredentials = new BasicAWSCredentials(testCredentials.getAWSAccessKeyId(),
+                    new String(testCredentials.getAWSSecretKey().toCharArray()));
+
+            var first = cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+            var second = cache.getSigningKey(copiedCredentials, "20240229", testRegion, testService);
+
+            assertThat(second).isSameAs(first);
+            assertThat(cache.getHitCount()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should evict signing keys older than the day before the newest date.")
+        void shouldEvictExpiredDates() {
+            cache.getSigningKey(testCredentials, "20240227", testRegion, testService);
+            cache.getSigningKey(testCredentials, "20240228", testRegion, testService);
+            cache.getSigningKey(testCredentials, "20240229", testRegion, testService);
+
+            assertThat(cache.getSize()).isEqualTo(2);
+            cache.getSigningKey(testCredentials, "20240228", testRegion, testService);
+            assertThat(cache.getHitCount()).isEqualTo(1);
+        }
+    }
+
+    private static class ExposedAws4Signer extends AWS4Signer {
+        @Override
+        public byte[] newSigningKey(final AWSCredentials credentials, final String dateStamp,
+                                    final String regionName, final String serviceName) {
+            return super.newSigningKey(credentials, dateStamp, regionName, serviceName);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SigningTargetRegistry class,")
+class SigningTargetRegistryTest {
+
+    private static final String ENDPOINT = "https://example.execute-api.us-east-1.amazonaws.com";
+
+    private SigningTargetRegistry registry;
+
+    @BeforeEach
+    void beforeEach() {
+        registry = new SigningTargetRegistry(SigningTargetRegistry.DEFAULT_MAXIMUM_SIZE);
+    }
+
+    @Test
+    @DisplayName("should return a shared instance.")
+    void shouldReturnSharedInstance() {
+        assertThat(SigningTargetRegistry.getInstance()).isSameAs(SigningTargetRegistry.getInstance());
+    }
+
+    @Nested
+    @DisplayName("the getTarget method,")
+    class GetTargetMethod {
+
+        @Test
+        @DisplayName("should resolve each target once.")
+        @SneakyThrows
+        void shouldResolveTargetOnce() {
+            var target = registry.getTarget(ENDPOINT, "/prod", "us-east-1", "execute-api");
+
+            assertThat(registry.getTarget(new String(ENDPOINT), "/prod", "us-east-1", "execute-api"))
+                    .isSameAs(target);
+            assertThat(registry.getSize()).isEqualTo(1L);
+        }
+
+        @Test
+        @DisplayName("should resolve separate targets, per resource path, region and service.")
+        @SneakyThrows
+        void shouldResolveSeparateTargets() {
+            var target = registry.getTarget(ENDPOINT, "/prod", "us-east-1", "execute-api");
+
+            assertThat(registry.getTarget(ENDPOINT, null, "us-east-1", "execute-api")).isNotSameAs(target);
+            assertThat(registry.getTarget(ENDPOINT, "/prod", "us-west-2", "execute-api")).isNotSameAs(target);
+            assertThat(registry.getTarget(ENDPOINT, "/prod", "us-east-1", "lambda")).isNotSameAs(target);
+            assertThat(registry.getSize()).isEqualTo(4L);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException without registering an invalid endpoint.")
+        void shouldNotRegisterInvalidEndpoint() {
+            assertThatThrownBy(() -> registry.getTarget("Invalid`URI", null, "us-east-1", "sts"))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class);
+            assertThat(registry.getSize()).isZero();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package aws.sigv4.samples.signing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.amazon.financialservices.insurance.partnergateway.commons.exceptions.PartnerGatewayInvalidInputException;
+import java.net.URISyntaxException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For SigningTarget class,")
+class SigningTargetTest {
+
+    @Nested
+    @DisplayName("the create method,")
+    class CreateMethod {
+
+        @Test
+        @DisplayName("should resolve the host header, canonical URI and scope of the target.")
+        @SneakyThrows
+        void shouldResolveTarget() {
+            var target = SigningTarget.create("https://example.execute-api.us-east-1.amazonaws.com/prod",
+                    "partners/a b", "us-east-1", "execute-api");
+
+            assertThat(target.getHost()).isEqualTo("example.execute-api.us-east-1.amazonaws.com");
+            assertThat(target.getCanonicalUri()).isEqualTo("/prod/partners/a%20b");
+            assertThat(target.scopeSuffix).isEqualTo("/us-east-1/execute-api/aws4_request");
+            assertThat(target.getEndpoint().getPath()).isEqualTo("/prod");
+            assertThat(target.getResourcePath()).isEqualTo("partners/a b");
+        }
+
+        @Test
+        @DisplayName("should keep a non-default port in the host header, and normalise the canonical URI.")
+        @SneakyThrows
+        void shouldKeepNonDefaultPort() {
+            var target = SigningTarget.create("http://localhost:8080", "/a/./b/../c", "us-east-1", "execute-api");
+
+            assertThat(target.getHost()).isEqualTo("localhost:8080");
+            assertThat(target.getCanonicalUri()).isEqualTo("/a/c");
+        }
+
+        @Test
+        @DisplayName("should resolve a root canonical URI, for an endpoint without path nor resource path.")
+        @SneakyThrows
+        void shouldResolveRootCanonicalUri() {
+            var target = SigningTarget.create("https://sts.amazonaws.com", null, "us-east-1", "sts");
+
+            assertThat(target.getCanonicalUri()).isEqualTo("/");
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an invalid endpoint.")
+        void shouldThrowForInvalidEndpoint() {
+            assertThatThrownBy(() -> SigningTarget.create("Invalid`URI", null, "us-east-1", "sts"))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Invalid request endpoint passed in Input: Invalid`URI")
+                    .hasCauseInstanceOf(URISyntaxException.class);
+        }
+
+        @Test
+        @DisplayName("should throw PartnerGatewayInvalidInputException for an endpoint without host.")
+        void shouldThrowForEndpointWithoutHost() {
+            assertThatThrownBy(() -> SigningTarget.create("ValidURI", null, "us-east-1", "sts"))
+                    .isInstanceOf(PartnerGatewayInvalidInputException.class)
+                    .hasMessage("Request endpoint passed in Input has no host: ValidURI");
+        }
+    }
+}
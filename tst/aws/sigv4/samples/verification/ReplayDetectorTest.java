@@ -0,0 +1,139 @@
+package aws.sigv4.samples.verification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("For ReplayDetector class,")
+class ReplayDetectorTest {
+
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(5);
+
+    private static final long SIGNING_TIME = 1_709_251_199L;
+
+    private ReplayDetector detector;
+
+    @BeforeEach
+    void beforeEach() {
+        detector = new ReplayDetector(MAX_CLOCK_SKEW);
+    }
+
+    @Test
+    @DisplayName("should cover twice the clock skew, plus the bucket being filled.")
+    void shouldCoverSkewWindow() {
+        assertThat(detector.getBucketCount()).isEqualTo(61);
+        assertThat(detector.getMemoryBytes()).isEqualTo(61L * 64 * 512 * Long.BYTES);
+    }
+
+    @Test
+    @DisplayName("should throw IllegalArgumentException for a bucket width under a second.")
+    void shouldRejectShortBucketWidth() {
+        assertThatThrownBy(() -> new ReplayDetector(MAX_CLOCK_SKEW, Duration.ofMillis(500), 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Nested
+    @DisplayName("the markSeen method,")
+    class MarkSeenMethod {
+
+        @Test
+        @DisplayName("should accept a signature once.")
+        void shouldAcceptSignatureOnce() {
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isTrue();
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isFalse();
+            assertThat(detector.markSeen(SIGNING_TIME, signature(2))).isTrue();
+        }
+
+        @Test
+        @DisplayName("should reject a replay signed at another time of the same bucket.")
+        void shouldRejectReplayWithinBucket() {
+            var bucketStart = SIGNING_TIME - Math.floorMod(SIGNING_TIME, 10L);
+
+            assertThat(detector.markSeen(bucketStart, signature(1))).isTrue();
+            assertThat(detector.markSeen(bucketStart + 9, signature(1))).isFalse();
+        }
+
+        @Test
+        @DisplayName("should keep a signature for the whole skew window.")
+        void shouldKeepSignatureForWindow() {
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isTrue();
+            // Requests signed up to the end of the window are accepted, which moves later slots of the ring on.
+            for (long time = SIGNING_TIME; time <= SIGNING_TIME + 2 * MAX_CLOCK_SKEW.getSeconds(); time += 10) {
+                detector.markSeen(time, "other-" + time);
+            }
+
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isFalse();
+        }
+
+        @Test
+        @DisplayName("should drop a bucket once the ring wraps around to its slot, rejecting its signing times.")
+        void shouldDropWrappedBucket() {
+            var wrapped = SIGNING_TIME + 10L * detector.getBucketCount();
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isTrue();
+
+            assertThat(detector.markSeen(wrapped, signature(1))).isTrue();
+            assertThat(detector.markSeen(SIGNING_TIME, signature(1))).isFalse();
+            assertThat(detector.markSeen(wrapped, signature(1))).isFalse();
+        }
+
+        @Test
+        @DisplayName("should reject and count fingerprints of a full stripe.")
+        void shouldRejectOverflow() {
+            var smallDetector = new ReplayDetector(Duration.ZERO, Duration.ofSeconds(1), 1);
+
+            var accepted = 0;
+            for (int i = 0; i < 10_000; i++) {
+                if (smallDetector.markSeen(SIGNING_TIME, signature(i))) {
+                    accepted++;
+                }
+            }
+
+            assertThat(accepted).isLessThan(10_000);
+            assertThat(smallDetector.getOverflowCount()).isEqualTo(10_000L - accepted);
+        }
+
+        @Test
+        @DisplayName("should accept each signature once, when marked from concurrent threads.")
+        @SneakyThrows
+        void shouldAcceptOnceConcurrently() {
+            var accepted = new AtomicInteger();
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int thread = 0; thread < 8; thread++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        if (detector.markSeen(SIGNING_TIME + i % 100, signature(i))) {
+                            accepted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            var executor = Executors.newFixedThreadPool(8);
+            try {
+                for (var future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(accepted.get()).isEqualTo(20_000);
+            assertThat(detector.getOverflowCount()).isZero();
+        }
+    }
+
+    private static String signature(final int i) {
+        return String.format("%064x", i);
+    }
+}